@@ -0,0 +1,68 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Arithmetic of {@link xlogo.kernel.MyCalculator}, with doubles (digits = -1) and with BigDecimal after setdigits.
+ */
+public class CalculatorBenchmark extends LogoBenchmark {
+	
+	@Param({ "-1", "100" })
+	public int	digits;
+	
+	@Override
+	protected void setUp() throws Exception {
+		run("setdigits " + digits);
+	}
+	
+	/**
+	 * The precision is shared by all kernels in the JVM
+	 */
+	@TearDown(Level.Trial)
+	public void resetDigits() throws InterruptedException {
+		run("setdigits -1");
+	}
+	
+	@Benchmark
+	public void basicOperations() throws InterruptedException {
+		run("make \"x 1 repeat 1000 [make \"x :x * 1.0001 + 1 / 3 - 0.25]");
+	}
+	
+	@Benchmark
+	public void comparisons() throws InterruptedException {
+		run("make \"n 0 repeat 1000 [if repcount < 500 [make \"n :n + 1]]");
+	}
+	
+	@Benchmark
+	public void functions() throws InterruptedException {
+		run("repeat 20 [make \"x (sqrt 2) + (sin 30) + (log 10) + (power 2 0.5) + (exp 1)]");
+	}
+}
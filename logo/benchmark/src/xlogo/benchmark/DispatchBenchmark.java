@@ -0,0 +1,223 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of dispatching a primitive by its number, without the rest of the interpreter :
+ * a tight loop of cheap integer primitives on a small stack. The results are in nanoseconds per primitive.
+ * <p>
+ * In XLogo, {@link xlogo.kernel.LaunchPrimitive} executed every primitive in one switch with 28473 bytes of bytecode.
+ * HotSpot does not compile a method with more than 8000 bytes of bytecode (-XX:HugeMethodLimit), so the switch and the code
+ * of all primitives always ran in the bytecode interpreter. Now every primitive has a small handler in an array that is indexed by
+ * the primitive number.
+ * <ul>
+ * <li>{@link #hugeSwitch()} dispatches through a switch that is excluded from compilation, as the old switch was because of its size.</li>
+ * <li>{@link #compiledSwitch()} dispatches through the same switch, compiled. This is what the switch would cost if it were small enough.</li>
+ * <li>{@link #handlerArray()} dispatches through an array of handlers, like {@link xlogo.kernel.LaunchPrimitive} does now.</li>
+ * </ul>
+ * The primitives have their numbers from the file genericPrimitive. true and false push 1 and 0.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	
+	private static final int		TIMES		= 30;
+	private static final int		DIFFERENCE	= 33;
+	private static final int		PLUS		= 32;
+	private static final int		MINUS		= 25;
+	private static final int		LESS		= 35;
+	private static final int		TRUE		= 119;
+	private static final int		FALSE		= 120;
+	private static final int		ABS			= 184;
+	
+	/**
+	 * The number of primitives, see {@link xlogo.kernel.Primitive}
+	 */
+	private static final int		PRIMITIVES	= 325;
+	
+	/**
+	 * (abs minus (1 + 1 + 1) * (1 + 1)) - 1 < 0, in postfix order
+	 */
+	private static final int[]		PROGRAM		= { TRUE, TRUE, PLUS, TRUE, PLUS, TRUE, TRUE, PLUS, TIMES, MINUS, ABS, TRUE,
+			DIFFERENCE, FALSE, LESS						};
+	private static final int		ITERATIONS	= 1000;
+	/**
+	 * The number of primitives per benchmark call, {@link #ITERATIONS} times the length of {@link #PROGRAM}
+	 */
+	private static final int		OPERATIONS	= 15000;
+	
+	private final long[]			stack		= new long[16];
+	private int						size;
+	
+	private final Handler[]			handlers	= new Handler[PRIMITIVES];
+	
+	/**
+	 * The code of one primitive
+	 */
+	private abstract class Handler {
+		abstract void execute();
+	}
+	
+	public DispatchBenchmark() {
+		handlers[TIMES] = new Handler(){
+			void execute() {
+				size--;
+				stack[size - 1] *= stack[size];
+			}
+		};
+		handlers[DIFFERENCE] = new Handler(){
+			void execute() {
+				size--;
+				stack[size - 1] -= stack[size];
+			}
+		};
+		handlers[PLUS] = new Handler(){
+			void execute() {
+				size--;
+				stack[size - 1] += stack[size];
+			}
+		};
+		handlers[MINUS] = new Handler(){
+			void execute() {
+				stack[size - 1] = -stack[size - 1];
+			}
+		};
+		handlers[LESS] = new Handler(){
+			void execute() {
+				size--;
+				stack[size - 1] = stack[size - 1] < stack[size] ? 1 : 0;
+			}
+		};
+		handlers[TRUE] = new Handler(){
+			void execute() {
+				stack[size++] = 1;
+			}
+		};
+		handlers[FALSE] = new Handler(){
+			void execute() {
+				stack[size++] = 0;
+			}
+		};
+		handlers[ABS] = new Handler(){
+			void execute() {
+				stack[size - 1] = Math.abs(stack[size - 1]);
+			}
+		};
+	}
+	
+	/**
+	 * Like the switch of XLogo, the code of the primitives is written in the cases
+	 */
+	private void executeSwitch(int id) {
+		switch (id) {
+			case TIMES:
+				size--;
+				stack[size - 1] *= stack[size];
+				break;
+			case DIFFERENCE:
+				size--;
+				stack[size - 1] -= stack[size];
+				break;
+			case PLUS:
+				size--;
+				stack[size - 1] += stack[size];
+				break;
+			case MINUS:
+				stack[size - 1] = -stack[size - 1];
+				break;
+			case LESS:
+				size--;
+				stack[size - 1] = stack[size - 1] < stack[size] ? 1 : 0;
+				break;
+			case TRUE:
+				stack[size++] = 1;
+				break;
+			case FALSE:
+				stack[size++] = 0;
+				break;
+			case ABS:
+				stack[size - 1] = Math.abs(stack[size - 1]);
+				break;
+			default:
+				throw new IllegalArgumentException(String.valueOf(id));
+		}
+	}
+	
+	private long runSwitch() {
+		long sum = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			size = 0;
+			for (int id : PROGRAM)
+				executeSwitch(id);
+			sum += stack[0];
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	@Fork(value = 1, jvmArgsAppend = { "-XX:CompileCommand=quiet",
+			"-XX:CompileCommand=exclude,xlogo.benchmark.DispatchBenchmark::executeSwitch" })
+	public long hugeSwitch() {
+		return runSwitch();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public long compiledSwitch() {
+		return runSwitch();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public long handlerArray() {
+		long sum = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			size = 0;
+			for (int id : PROGRAM)
+				handlers[id].execute();
+			sum += stack[0];
+		}
+		return sum;
+	}
+}
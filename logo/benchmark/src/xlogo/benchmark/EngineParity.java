@@ -0,0 +1,116 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+
+package xlogo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import xlogo.HeadlessApplication;
+import xlogo.storage.user.ExecutionEngine;
+
+/**
+ * Runs Logo scripts with the classic interpreter and with the tree interpreter, and compares the histories.
+ * Both engines must print the same output and report the same errors in the same procedure and line.
+ * <p>
+ * A script has procedures, from a line <i>to ...</i> up to the line <i>end</i>, and instructions.
+ * Every other line is executed on its own, like on the command line, hence the instructions after an error are executed too.
+ * Lines that start with # are comments. The instructions are written in English.
+ * <p>
+ * The Ant target <i>parity</i> runs the scripts in <i>benchmark/parity</i>. The exit value is 1 if the histories differ.
+ */
+public class EngineParity {
+	
+	/**
+	 * Milliseconds after which an instruction is stopped
+	 */
+	private static final long	TIMEOUT	= 10000;
+	
+	private final String		procedures;
+	private final List<String>	instructions;
+	
+	public EngineParity(List<String> lines) {
+		StringBuilder sb = new StringBuilder();
+		instructions = new ArrayList<String>();
+		boolean inProcedure = false;
+		for (String line : lines) {
+			String trimmed = line.trim();
+			if (trimmed.startsWith("to "))
+				inProcedure = true;
+			if (inProcedure) {
+				sb.append(line);
+				sb.append('\n');
+				if (trimmed.equals("end"))
+					inProcedure = false;
+			}
+			else if (trimmed.length() > 0 && !trimmed.startsWith("#"))
+				instructions.add(trimmed);
+		}
+		procedures = sb.toString();
+	}
+	
+	/**
+	 * @return the history of the instructions that were executed one after the other by the engine
+	 * @throws InterruptedException
+	 */
+	public String run(ExecutionEngine engine) throws InterruptedException {
+		HeadlessApplication app = LogoBenchmark.createApplication(engine);
+		if (procedures.length() > 0)
+			app.getKernel().getWorkspace().pushNetworkMode(procedures);
+		for (String instruction : instructions)
+			app.execute(instruction, TIMEOUT);
+		return app.getHistoryText();
+	}
+	
+	/**
+	 * @param args the scripts
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int failed = 0;
+		for (String name : args) {
+			File file = new File(name);
+			EngineParity parity = new EngineParity(Files.readAllLines(file.toPath(), Charset.forName("UTF-8")));
+			String interpreter = parity.run(ExecutionEngine.INTERPRETER);
+			String tree = parity.run(ExecutionEngine.TREE);
+			if (interpreter.equals(tree)) {
+				System.out.println("OK " + file.getName());
+			}
+			else {
+				failed++;
+				System.out.println("DIFFERENT " + file.getName());
+				System.out.println("--- " + ExecutionEngine.INTERPRETER);
+				System.out.println(interpreter);
+				System.out.println("--- " + ExecutionEngine.TREE);
+				System.out.println(tree);
+			}
+		}
+		System.exit(failed == 0 ? 0 : 1);
+	}
+}
@@ -0,0 +1,146 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import xlogo.AppSettings;
+import xlogo.HeadlessApplication;
+import xlogo.Logo;
+import xlogo.storage.WSManager;
+import xlogo.storage.user.ExecutionEngine;
+import xlogo.storage.user.UserConfig;
+import xlogo.storage.workspace.LogoLanguage;
+import xlogo.storage.workspace.WorkspaceConfig;
+
+/**
+ * The base of all benchmarks. Every benchmark runs Logo instructions in a {@link HeadlessApplication},
+ * once with the classic interpreter and once with the tree interpreter.
+ * <p>
+ * The application is built in the user space that {@link WSManager} enters at startup, or in the user space of the user <i>benchmark</i>.
+ * The Ant target <i>benchmark</i> sets the home directory of the benchmark JVMs to a directory in <i>build</i>,
+ * such that a fresh default workspace and user is used, and the workspaces of the developer are not touched.
+ * <p>
+ * The procedures of a benchmark are loaded into a network context, hence nothing is written to the user's files.
+ * The instructions are written in English.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class LogoBenchmark {
+	
+	/**
+	 * The user that is created if no user space is entered at startup
+	 */
+	private static final String		BENCHMARK_USER	= "benchmark";
+	
+	@Param({ "INTERPRETER", "TREE" })
+	public ExecutionEngine			engine;
+	
+	protected HeadlessApplication	app;
+	
+	@Setup(Level.Trial)
+	public void setUpApplication() throws Exception {
+		app = createApplication(engine);
+		String procedures = getProcedures();
+		if (procedures.length() > 0)
+			app.getKernel().getWorkspace().pushNetworkMode(procedures);
+		run("hideturtle");
+		setUp();
+	}
+	
+	/**
+	 * Forget the history and the drawing of the last iteration
+	 */
+	@TearDown(Level.Iteration)
+	public void clear() {
+		app.clear();
+	}
+	
+	/**
+	 * @return the procedures that are used by the benchmark, in the format of a network context
+	 * (see {@link xlogo.kernel.userspace.context.NetworkContext})
+	 */
+	protected String getProcedures() {
+		return "";
+	}
+	
+	/**
+	 * Prepare the benchmark after the procedures have been loaded, e.g. fill global variables
+	 * @throws Exception
+	 */
+	protected void setUp() throws Exception {}
+	
+	/**
+	 * Execute Logo instructions and wait until they are finished
+	 * @param instructions
+	 * @throws IllegalStateException if a Logo error occurred. The benchmark would only measure the error otherwise.
+	 * @throws InterruptedException
+	 */
+	protected void run(String instructions) throws InterruptedException {
+		if (!app.execute(instructions))
+			throw new IllegalStateException(app.getHistoryText());
+	}
+	
+	/**
+	 * @return a headless application in English, whose user runs the instructions with the engine, see also {@link EngineParity}
+	 */
+	static synchronized HeadlessApplication createApplication(ExecutionEngine engine) {
+		System.setProperty("java.awt.headless", "true");
+		WSManager wsManager = WSManager.getInstance();
+		WorkspaceConfig wc = WSManager.getWorkspaceConfig();
+		if (wc == null)
+			throw new IllegalStateException("No workspace to run the benchmarks in.");
+		if (WSManager.getUserConfig() == null) {
+			if (wc.existsUserLogically(BENCHMARK_USER))
+				wsManager.enterUserSpace(BENCHMARK_USER);
+			else
+				wsManager.createUser(BENCHMARK_USER);
+		}
+		UserConfig uc = WSManager.getUserConfig();
+		wc.setLogoLanguage(LogoLanguage.ENGLISH);
+		uc.setEngine(engine);
+		Logo.generateLanguage(AppSettings.getInstance().getLanguage());
+		Logo.generateLogoLanguage(LogoLanguage.ENGLISH);
+		return new HeadlessApplication();
+	}
+}
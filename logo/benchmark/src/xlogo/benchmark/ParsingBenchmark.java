@@ -0,0 +1,72 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import xlogo.kernel.userspace.UserSpace;
+
+/**
+ * Reading the procedures of large files, and redefining procedures while a program runs
+ */
+public class ParsingBenchmark extends LogoBenchmark {
+	
+	@Param({ "100", "1000" })
+	public int		procedures;
+	
+	private String	source;
+	
+	@Override
+	protected void setUp() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < procedures; i++) {
+			sb.append("to p").append(i).append(" :n [:m 2]\n");
+			sb.append("# procedure number ").append(i).append('\n');
+			sb.append("if :n < 1 [output :m]\n");
+			sb.append("repeat 4 [fd :n rt 90]\n");
+			sb.append("make \"l [a b [c d] e \"f :g]\n");
+			sb.append("output p").append(i).append(" :n - 1\n");
+			sb.append("end\n\n");
+		}
+		source = sb.toString();
+	}
+	
+	/**
+	 * The procedures are parsed when the file text is set in a new context
+	 */
+	@Benchmark
+	public void parseFile() {
+		UserSpace userSpace = app.getKernel().getWorkspace();
+		userSpace.pushNetworkMode(source);
+		userSpace.popNetworkMode();
+	}
+	
+	@Benchmark
+	public void redefine() throws InterruptedException {
+		run("repeat 100 [define \"sq [[n] [repeat 4 [fd :n rt 90]]] run [sq 1]]");
+	}
+}
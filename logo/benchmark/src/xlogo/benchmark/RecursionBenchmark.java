@@ -0,0 +1,93 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Deep recursion: every call enters a procedure, binds its parameters and evaluates a stop condition
+ */
+public class RecursionBenchmark extends LogoBenchmark {
+	
+	@Override
+	protected String getProcedures() {
+		return "to tree :size :depth\n"
+				+ "if :depth = 0 [stop]\n"
+				+ "fd :size lt 30\n"
+				+ "tree :size * 0.7 :depth - 1\n"
+				+ "rt 60\n"
+				+ "tree :size * 0.7 :depth - 1\n"
+				+ "lt 30 bk :size\n"
+				+ "end\n"
+				+ "to koch :size :level\n"
+				+ "if :level = 0 [fd :size stop]\n"
+				+ "koch :size / 3 :level - 1 lt 60\n"
+				+ "koch :size / 3 :level - 1 rt 120\n"
+				+ "koch :size / 3 :level - 1 lt 60\n"
+				+ "koch :size / 3 :level - 1\n"
+				+ "end\n"
+				+ "to fib :n\n"
+				+ "if :n < 2 [output :n]\n"
+				+ "output (fib :n - 1) + (fib :n - 2)\n"
+				+ "end\n"
+				+ "to countdown :n\n"
+				+ "if :n = 0 [stop]\n"
+				+ "countdown :n - 1\n"
+				+ "end\n";
+	}
+	
+	/**
+	 * A binary fractal tree of depth 10 : 2047 calls
+	 */
+	@Benchmark
+	public void fractalTree() throws InterruptedException {
+		run("cs ht tree 80 10");
+	}
+	
+	/**
+	 * A Koch curve of level 5 : 1365 calls and 1024 lines
+	 */
+	@Benchmark
+	public void kochCurve() throws InterruptedException {
+		run("cs ht koch 300 5");
+	}
+	
+	/**
+	 * Recursion in expressions : 1973 calls with outputs
+	 */
+	@Benchmark
+	public void fibonacci() throws InterruptedException {
+		run("make \"f fib 15");
+	}
+	
+	/**
+	 * A tail recursion of depth 10000
+	 */
+	@Benchmark
+	public void tailRecursion() throws InterruptedException {
+		run("countdown 10000");
+	}
+}
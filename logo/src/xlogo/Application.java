@@ -71,6 +71,7 @@ import xlogo.gui.components.fileslist.FilesListEventListener;
 import xlogo.gui.*;
 import xlogo.kernel.Affichage;
 import xlogo.kernel.Kernel;
+import xlogo.kernel.Profiler;
 import xlogo.kernel.network.NetworkServer;
 import xlogo.kernel.perspective.Viewer3D;
 import xlogo.kernel.userspace.UserSpace;
@@ -228,7 +229,6 @@ public class Application extends X4SFrame {
 			showCommandCard();
 			
 			scrollArea = new JScrollPane();
-			DrawPanel.dessin = new BufferedImage(uc.getImageWidth(), uc.getImageHeight(), BufferedImage.TYPE_INT_RGB);
 			drawPanel = new DrawPanel(this);
 			
 			initMenu();
@@ -242,6 +242,31 @@ public class Application extends X4SFrame {
 		}
 	}
 	
+	/**
+	 * Builds only the parts that are needed to run Logo programs: the kernel, the history and the drawing area.
+	 * None of them needs a display.
+	 * @see HeadlessApplication
+	 * @author Marko Zivkovic
+	 */
+	protected void initHeadlessComponent() {
+		pile_historique = new Stack<String>();
+
+		son = new Sound_Player(this);
+		touche = new Touche();
+
+		drawingAndHistory = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
+		history = new HistoryPanel(this);
+
+		uc = WSManager.getUserConfig();
+		userSpace = new UserSpace();
+		kernel = new Kernel(this, userSpace);
+		kernel.initInterprete();
+
+		scrollArea = new JScrollPane();
+		drawPanel = new DrawPanel(this);
+		genere_primitive();
+	}
+
 	private void initFrame() {
 		Dimension d = Toolkit.getDefaultToolkit().getScreenSize();
 		mainFrame.setSize(new Dimension(d.width, d.height * 9 / 10));
@@ -292,12 +317,12 @@ public class Application extends X4SFrame {
 		scrollArea.getViewport().setViewPosition(p);
 		
 		MediaTracker tracker = new MediaTracker(getFrame());
-		tracker.addImage(DrawPanel.dessin, 0);
+		tracker.addImage(drawPanel.dessin, 0);
 		try {
 			tracker.waitForID(0);
 		}
 		catch (InterruptedException e) {}
-		//drawPanel.getGraphics().drawImage(DrawPanel.dessin,0,0,mainFrame);
+		//drawPanel.getGraphics().drawImage(drawPanel.dessin,0,0,mainFrame);
 		scrollArea.validate();
 		
 		setCommandLine(false);
@@ -354,7 +379,7 @@ public class Application extends X4SFrame {
 		layoutDrawingAndExtras();
 		layoutDrawingArea();
 		layoutExtras();
-		drawPanel.getGraphics().drawImage(DrawPanel.dessin, 0, 0, mainFrame);
+		drawPanel.getGraphics().drawImage(drawPanel.dessin, 0, 0, mainFrame);
 	}
 	
 	private void layoutFilesAndProcedures() {
@@ -461,8 +486,8 @@ public class Application extends X4SFrame {
 	}
 	
 	private void layoutDrawingArea() {
-		drawPanel.setSize(new Dimension((int) (uc.getImageWidth() * DrawPanel.zoom),
-				(int) (uc.getImageHeight() * DrawPanel.zoom)));
+		drawPanel.setSize(new Dimension((int) (uc.getImageWidth() * drawPanel.zoom),
+				(int) (uc.getImageHeight() * drawPanel.zoom)));
 		scrollArea.getViewport().add(drawPanel);
 		scrollArea.getHorizontalScrollBar().setBlockIncrement(5);
 		scrollArea.getVerticalScrollBar().setBlockIncrement(5);
@@ -690,6 +715,7 @@ public class Application extends X4SFrame {
 		stopButton.addActionListener(new ActionListener(){
 			public void actionPerformed(ActionEvent arg0) {
 				error = true;
+				getKernel().getExecutionContext().getGovernor().cancel();
 				if (NetworkServer.isActive) {
 					NetworkServer.stopServer();
 				}
@@ -1272,11 +1298,11 @@ public class Application extends X4SFrame {
 		// resize the drawing image
 		SwingUtilities.invokeLater(new Runnable(){
 			public void run() {
-				DrawPanel.dessin = new BufferedImage(uc.getImageWidth(), uc.getImageHeight(),
+				drawPanel.dessin = new BufferedImage(uc.getImageWidth(), uc.getImageHeight(),
 						BufferedImage.TYPE_INT_RGB);
 				// System.out.println("Total :"+Runtime.getRuntime().totalMemory()/1024+" max "+Runtime.getRuntime().maxMemory()/1024+" Free "+Runtime.getRuntime().freeMemory()/1024);
 				MediaTracker tracker = new MediaTracker(drawPanel);
-				tracker.addImage(DrawPanel.dessin, 0);
+				tracker.addImage(drawPanel.dessin, 0);
 				try {
 					tracker.waitForID(0);
 				}
@@ -1363,6 +1389,17 @@ public class Application extends X4SFrame {
 		}
 	}
 	
+	/**
+	 * Show the measures of the profiler in a sortable table, see the primitive profile.report
+	 */
+	public void showProfile(final Profiler profiler) {
+		SwingUtilities.invokeLater(new Runnable(){
+			public void run() {
+				new ProfileDialog(mainFrame, profiler.getEntries(), profiler.getLines()).setVisible(true);
+			}
+		});
+	}
+	
 	/**
 	 * This method copy the selected Text in the command line
 	 */
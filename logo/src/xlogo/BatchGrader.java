@@ -0,0 +1,478 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import xlogo.kernel.CordicTables;
+import xlogo.kernel.ExecutionGovernor;
+import xlogo.kernel.userspace.UserSpace;
+import xlogo.storage.WSManager;
+import xlogo.storage.global.GlobalConfig;
+import xlogo.storage.user.UserConfig;
+import xlogo.storage.workspace.WorkspaceConfig;
+import xlogo.utils.Utils;
+
+/**
+ * Grades the contest submissions of all users of a workspace.
+ * <p>
+ * In record mode, every change of a record file is stored with a time stamp in the user's contest directory
+ * (see {@link xlogo.kernel.userspace.files.RecordFile}). The latest version of every record file is a user's submission.
+ * <p>
+ * For every submission, the procedures are loaded into a network context of a {@link HeadlessApplication},
+ * the test command is executed and its history is collected. The network context hides the procedures of all other users
+ * and is gone after the test, leaving no trace, just like in network mode.
+ * A submission may execute at most a given number of primitives and procedures, and it is stopped after a timeout.
+ * <p>
+ * The submissions are graded in parallel on a {@link ForkJoinPool}. Every worker has its own headless application,
+ * hence its own interpreter, drawing area and history.
+ * <p>
+ * Command line usage:
+ * <pre>
+ * java -Djava.awt.headless=true xlogo.BatchGrader -workspace dir [-user name] -command instructions
+ *     [-steps n] [-timeout ms] [-threads n] [-format csv|json] [-output file] [-tables dir] [-engine interpreter|tree]
+ * </pre>
+ * The Cordic tables of setdigits are kept in the tables directory across runs, see {@link CordicTables}.
+ * The user only determines the settings of the headless applications, such as the size of the drawing area and the engine.
+ * The engine option overrides the engine of the user.
+ */
+public class BatchGrader {
+	
+	private static final String	USAGE			= "Usage: xlogo.BatchGrader -workspace dir [-user name] -command instructions "
+														+ "[-steps n] [-timeout ms] [-threads n] [-format csv|json] [-output file] [-tables dir] [-engine interpreter|tree]";
+	
+	public static final long	DEFAULT_STEPS	= 10000000;
+	public static final long	DEFAULT_TIMEOUT	= 10000;
+	
+	public enum Status {
+		/**
+		 * The test command was executed without error
+		 */
+		OK,
+		/**
+		 * A Logo error occurred
+		 */
+		ERROR,
+		/**
+		 * The submission used up its step budget
+		 */
+		STEPS,
+		/**
+		 * The submission was stopped after the timeout
+		 */
+		TIMEOUT,
+		/**
+		 * The interpreter failed, e.g. it ran out of memory
+		 */
+		CRASHED
+	}
+	
+	/**
+	 * The latest versions of a user's record files
+	 */
+	public static class Submission {
+		private final String	user;
+		private final String	source;
+		
+		public Submission(String user, String source) {
+			this.user = user;
+			this.source = source;
+		}
+		
+		public String getUser() {
+			return user;
+		}
+		
+		/**
+		 * @return the procedures of all record files
+		 */
+		public String getSource() {
+			return source;
+		}
+	}
+	
+	public static class Result {
+		private final String	user;
+		private final Status	status;
+		private final long		steps;
+		private final long		millis;
+		private final String	history;
+		
+		public Result(String user, Status status, long steps, long millis, String history) {
+			this.user = user;
+			this.status = status;
+			this.steps = steps;
+			this.millis = millis;
+			this.history = history;
+		}
+		
+		public String getUser() {
+			return user;
+		}
+		
+		public Status getStatus() {
+			return status;
+		}
+		
+		/**
+		 * @return the number of primitives and procedures that were executed
+		 */
+		public long getSteps() {
+			return steps;
+		}
+		
+		public long getMillis() {
+			return millis;
+		}
+		
+		/**
+		 * @return the history of the test command, containing its output and error messages
+		 */
+		public String getHistory() {
+			return history;
+		}
+	}
+	
+	private final String	command;
+	private final long		stepBudget;
+	private final long		timeout;
+	private final int		parallelism;
+	
+	private long			totalMillis;
+	
+	/**
+	 * @param command the Logo instructions that test a submission
+	 * @param stepBudget the number of primitives and procedures a submission may execute, 0 means no limit
+	 * @param timeout in milliseconds, 0 means no time limit
+	 * @param parallelism the number of submissions that are graded at the same time
+	 */
+	public BatchGrader(String command, long stepBudget, long timeout, int parallelism) {
+		this.command = command;
+		this.stepBudget = stepBudget;
+		this.timeout = timeout;
+		this.parallelism = parallelism;
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * SUBMISSIONS
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	/**
+	 * @param workspaceDir
+	 * @return the submission of every user in the workspace that has a contest directory
+	 * @throws IOException If a record file could not be read
+	 */
+	public static List<Submission> findSubmissions(File workspaceDir) throws IOException {
+		List<Submission> submissions = new ArrayList<Submission>();
+		File[] userDirs = WSManager.listDirectories(workspaceDir);
+		Arrays.sort(userDirs);
+		for (File userDir : userDirs) {
+			if (!WSManager.isUserDirectory(userDir))
+				continue;
+			File contestDir = UserConfig.getContestDir(userDir);
+			if (!contestDir.isDirectory())
+				continue;
+			
+			StringBuilder source = new StringBuilder();
+			File[] recordDirs = WSManager.listDirectories(contestDir);
+			Arrays.sort(recordDirs);
+			for (File recordDir : recordDirs) {
+				if (recordDir.getName().equals(UserConfig.getContestSourceDirName()))
+					continue;
+				File latest = getLatestRecord(recordDir);
+				if (latest != null)
+					source.append(getProcedures(Utils.readLogoFile(latest.toString())));
+			}
+			submissions.add(new Submission(userDir.getName(), source.toString()));
+		}
+		return submissions;
+	}
+	
+	/**
+	 * The records are named by their time stamp (see {@link Utils#getTimeStamp()}), so the latest has the greatest name.
+	 * @return the latest record of a record file, or null if there is none
+	 */
+	private static File getLatestRecord(File recordDir) {
+		File latest = null;
+		File[] records = recordDir.listFiles();
+		if (records == null)
+			return null;
+		for (File record : records) {
+			if (!record.isFile() || !record.getName().endsWith(GlobalConfig.LOGO_FILE_EXTENSION))
+				continue;
+			if (latest == null || record.getName().compareTo(latest.getName()) > 0)
+				latest = record;
+		}
+		return latest;
+	}
+	
+	/**
+	 * A network context expects global variables before the first procedure.
+	 * Therefore the time stamp header of a record, and everything else before the first procedure, is removed.
+	 * @param text the text of a record
+	 * @return the text from the first procedure on
+	 */
+	private static String getProcedures(String text) {
+		String to = Logo.messages.getString("pour").toLowerCase() + " ";
+		int start = 0;
+		while (start < text.length()) {
+			int end = text.indexOf('\n', start);
+			if (end < 0)
+				end = text.length();
+			String line = text.substring(start, end).trim();
+			if (line.toLowerCase().startsWith(to))
+				return line + text.substring(end) + "\n";
+			start = end + 1;
+		}
+		return "";
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * GRADING
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	/**
+	 * Grades all submissions in parallel. The headless applications are built before, one after the other,
+	 * because building an application initializes the primitives, which are shared by all applications.
+	 * @param submissions
+	 * @return the results in the order of the submissions
+	 * @throws InterruptedException
+	 * @throws ExecutionException If the grading of a submission failed unexpectedly
+	 */
+	public List<Result> grade(List<Submission> submissions) throws InterruptedException, ExecutionException {
+		int workers = Math.max(1, Math.min(parallelism, submissions.size()));
+		final LinkedBlockingQueue<HeadlessApplication> applications = new LinkedBlockingQueue<HeadlessApplication>();
+		for (int i = 0; i < workers; i++)
+			applications.add(new HeadlessApplication());
+		
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+		for (final Submission submission : submissions) {
+			tasks.add(new Callable<Result>(){
+				public Result call() throws Exception {
+					HeadlessApplication app = applications.take();
+					try {
+						return grade(app, submission);
+					}
+					finally {
+						applications.put(app);
+					}
+				}
+			});
+		}
+		
+		long start = System.currentTimeMillis();
+		ForkJoinPool pool = new ForkJoinPool(workers);
+		List<Result> results = new ArrayList<Result>();
+		try {
+			for (Future<Result> future : pool.invokeAll(tasks))
+				results.add(future.get());
+		}
+		finally {
+			pool.shutdown();
+		}
+		totalMillis = System.currentTimeMillis() - start;
+		return results;
+	}
+	
+	/**
+	 * Executes the test command with the procedures of the submission only
+	 */
+	private Result grade(HeadlessApplication app, Submission submission) throws InterruptedException {
+		app.clear();
+		UserSpace userSpace = app.getKernel().getWorkspace();
+		ExecutionGovernor governor = app.getKernel().getExecutionContext().getGovernor();
+		governor.setStepBudget(stepBudget);
+		userSpace.pushNetworkMode(submission.getSource());
+		try {
+			long start = System.currentTimeMillis();
+			boolean ok = app.execute(command, timeout);
+			long millis = System.currentTimeMillis() - start;
+			
+			Status status;
+			if (app.isTimedOut())
+				status = Status.TIMEOUT;
+			else if (app.isCrashed())
+				status = Status.CRASHED;
+			else if (governor.isStepBudgetExceeded())
+				status = Status.STEPS;
+			else if (ok)
+				status = Status.OK;
+			else
+				status = Status.ERROR;
+			return new Result(submission.getUser(), status, governor.getSteps(), millis, app.getHistoryText());
+		}
+		finally {
+			userSpace.popNetworkMode();
+		}
+	}
+	
+	/**
+	 * @return the time in milliseconds the last call of {@link #grade(List)} took, without building the applications
+	 */
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+	
+	/**
+	 * @return the graded submissions per second of the last call of {@link #grade(List)}
+	 */
+	public double getThroughput(List<Result> results) {
+		return totalMillis == 0 ? 0 : results.size() * 1000.0 / totalMillis;
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * REPORT
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	/**
+	 * One line per submission: user, status, steps, milliseconds, history
+	 */
+	public String toCSV(List<Result> results) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("user,status,steps,millis,history\n");
+		for (Result result : results) {
+			sb.append(quoteCSV(result.getUser())).append(',');
+			sb.append(result.getStatus()).append(',');
+			sb.append(result.getSteps()).append(',');
+			sb.append(result.getMillis()).append(',');
+			sb.append(quoteCSV(result.getHistory())).append('\n');
+		}
+		return sb.toString();
+	}
+	
+	private static String quoteCSV(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+	
+	public String toJSON(List<Result> results) {
+		JSONObject report = new JSONObject();
+		report.put("command", command);
+		report.put("steps", stepBudget);
+		report.put("timeout", timeout);
+		report.put("threads", parallelism);
+		report.put("submissions", results.size());
+		report.put("totalMillis", totalMillis);
+		report.put("throughput", getThroughput(results));
+		
+		JSONArray array = new JSONArray();
+		for (Result result : results) {
+			JSONObject json = new JSONObject();
+			json.put("user", result.getUser());
+			json.put("status", result.getStatus().toString());
+			json.put("steps", result.getSteps());
+			json.put("millis", result.getMillis());
+			json.put("history", result.getHistory());
+			array.put(json);
+		}
+		report.put("results", array);
+		return report.toString(2);
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * COMMAND LINE
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		
+		Map<String, String> options = HeadlessApplication.parseOptions(args);
+		if (options == null || !options.containsKey("workspace") || !options.containsKey("command")) {
+			System.err.println(USAGE);
+			System.exit(HeadlessApplication.EXIT_USAGE);
+		}
+		
+		int exitValue = HeadlessApplication.EXIT_OK;
+		try {
+			long steps = getLong(options, "steps", DEFAULT_STEPS);
+			long timeout = getLong(options, "timeout", DEFAULT_TIMEOUT);
+			int threads = (int) getLong(options, "threads", Runtime.getRuntime().availableProcessors());
+			String format = options.containsKey("format") ? options.get("format") : "csv";
+			if (!format.equals("csv") && !format.equals("json"))
+				throw new NumberFormatException(format);
+			
+			if (!HeadlessApplication.enterUserSpace(options.get("workspace"), options.get("user")))
+				System.exit(HeadlessApplication.EXIT_USAGE);
+			if (options.containsKey("engine") && !HeadlessApplication.selectEngine(options.get("engine")))
+				System.exit(HeadlessApplication.EXIT_USAGE);
+			if (options.containsKey("tables"))
+				CordicTables.setDirectory(new File(options.get("tables")));
+			
+			WorkspaceConfig wc = WSManager.getWorkspaceConfig();
+			Logo.generateLanguage(AppSettings.getInstance().getLanguage());
+			Logo.generateLogoLanguage(wc.getLogoLanguage());
+			
+			BatchGrader grader = new BatchGrader(options.get("command"), steps, timeout, threads);
+			List<Result> results = grader.grade(findSubmissions(new File(options.get("workspace")).getAbsoluteFile()));
+			String report = format.equals("json") ? grader.toJSON(results) : grader.toCSV(results);
+			
+			if (options.containsKey("output")) {
+				Writer out = new OutputStreamWriter(new FileOutputStream(options.get("output")), Charset.forName("UTF-8"));
+				try {
+					out.write(report);
+				}
+				finally {
+					out.close();
+				}
+			}
+			else
+				System.out.print(report);
+			System.err.println(results.size() + " submissions in " + grader.getTotalMillis() + " ms ("
+					+ String.format("%.1f", grader.getThroughput(results)) + " per second)");
+		}
+		catch (NumberFormatException e) {
+			System.err.println(USAGE);
+			exitValue = HeadlessApplication.EXIT_USAGE;
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			exitValue = HeadlessApplication.EXIT_LOGO_ERROR;
+		}
+		System.exit(exitValue);
+	}
+	
+	private static long getLong(Map<String, String> options, String name, long defaultValue) {
+		if (!options.containsKey(name))
+			return defaultValue;
+		return Long.parseLong(options.get(name));
+	}
+}
@@ -0,0 +1,423 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import xlogo.kernel.Affichage;
+import xlogo.kernel.CordicTables;
+import xlogo.kernel.ExecutionGovernor;
+import xlogo.kernel.Profiler;
+import xlogo.messages.async.AsyncMediumAdapter;
+import xlogo.messages.async.AsyncMessage;
+import xlogo.messages.async.AsyncMessenger;
+import xlogo.messages.async.history.HistoryMessage.HistoryMessageType;
+import xlogo.messages.async.history.HistoryMessenger;
+import xlogo.messages.async.history.HistoryWriter;
+import xlogo.storage.WSManager;
+import xlogo.storage.user.ExecutionEngine;
+import xlogo.storage.user.UserConfig;
+import xlogo.storage.workspace.WorkspaceConfig;
+import xlogo.utils.Utils;
+
+/**
+ * Runs Logo programs without any window, e.g. on a server that has no display.
+ * <p>
+ * Only the kernel, the history and the drawing area of {@link Application} are built (see {@link Application#initHeadlessComponent()}).
+ * The drawing area is never shown, the turtles only draw into its off-screen image.
+ * The history is collected as plain text.
+ * <p>
+ * Command line usage:
+ * <pre>
+ * java -Djava.awt.headless=true xlogo.HeadlessApplication [-workspace dir] [-user name] -command instructions [-image file.png] [-history file.txt]
+ *     [-tables dir] [-engine interpreter|tree]
+ * </pre>
+ * The procedures of the user's files are loaded by the user space as usual.
+ * The engine option selects the engine of the user, see {@link ExecutionEngine}.
+ * The Cordic tables of setdigits are kept in the tables directory across runs, see {@link CordicTables}.
+ * The exit value is 0 if the instructions were executed without error, 1 if a Logo error occurred and 2 for wrong arguments.
+ */
+public class HeadlessApplication extends Application {
+	
+	public static final int		EXIT_OK			= 0;
+	public static final int		EXIT_LOGO_ERROR	= 1;
+	public static final int		EXIT_USAGE		= 2;
+	
+	/**
+	 * Milliseconds to wait after the time budget, before a blocked interpreter is stopped
+	 */
+	private static final long	TIMEOUT_GRACE	= 1000;
+	
+	private static final String	USAGE			= "Usage: xlogo.HeadlessApplication [-workspace dir] [-user name] "
+														+ "-command instructions [-image file.png] [-history file.txt] [-tables dir] [-engine interpreter|tree]";
+	
+	private final StringBuffer	historyText		= new StringBuffer();
+	private volatile boolean	errorOccurred	= false;
+	private volatile boolean	timedOut		= false;
+	private volatile boolean	crashed			= false;
+	
+	private final HistoryWriter	historyWriter	= new HistoryWriter(){
+													public void writeMessage(String messageType, String message) {
+														if (HistoryMessageType.ERROR.toString().equals(messageType))
+															errorOccurred = true;
+														historyText.append(message);
+													}
+												};
+	
+	/**
+	 * The user space of the active user in {@link WSManager} is loaded.
+	 */
+	public HeadlessApplication() {
+		super();
+		// Before, the history panel was set as medium, but it never becomes displayable.
+		HistoryMessenger.getInstance().setMedium(
+				new AsyncMediumAdapter<AsyncMessage<HistoryWriter>, HistoryWriter>(){
+					public boolean isReady() {
+						return true;
+					}
+					
+					public HistoryWriter getMedium() {
+						return historyWriter;
+					}
+					
+					public void addMediumReadyListener(AsyncMessenger messenger) {}
+				});
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * INIT : no window
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	@Override
+	protected void initComponent() {
+		initHeadlessComponent();
+	}
+	
+	@Override
+	protected void layoutComponent() {}
+	
+	@Override
+	protected void initEventListeners() {}
+	
+	@Override
+	public void setText() {}
+	
+	@Override
+	public void showWelcomeMessage() {}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * There is no command line, no editor and no window to close
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	@Override
+	public void setCommandLine(boolean b) {}
+	
+	@Override
+	public void focusCommandLine() {}
+	
+	@Override
+	public boolean commande_isEditable() {
+		return false;
+	}
+	
+	@Override
+	public void setCommandText(String txt) {}
+	
+	@Override
+	public void closeWindow() {}
+	
+	/**
+	 * The profile is only written to the history
+	 */
+	@Override
+	public void showProfile(Profiler profiler) {}
+	
+	/**
+	 * The drawing area is resized at once, because there is no event dispatch thread that would wait for the drawing.
+	 */
+	@Override
+	public void resizeDrawingZone() {
+		UserConfig uc = WSManager.getUserConfig();
+		getDrawPanel().dessin = new BufferedImage(uc.getImageWidth(), uc.getImageHeight(), BufferedImage.TYPE_INT_RGB);
+		getKernel().initGraphics();
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * EXECUTION
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	/**
+	 * Executes the instructions like the command line does, and waits until they are finished.
+	 * @param command Logo instructions
+	 * @return false if a Logo error occurred
+	 * @throws InterruptedException
+	 */
+	public boolean execute(String command) throws InterruptedException {
+		return execute(command, 0);
+	}
+	
+	/**
+	 * Executes the instructions like the command line does, and waits until they are finished.
+	 * If they are still running after timeout milliseconds, they are stopped by the {@link ExecutionGovernor} of the kernel.
+	 * Instructions that block the interpreter thread, e.g. while waiting for input, are stopped like with the stop button.
+	 * <p>
+	 * The history of the instructions is written by the calling thread and the interpreter thread directly into this application,
+	 * such that several headless applications can execute instructions at the same time.
+	 * @param command Logo instructions
+	 * @param timeout in milliseconds, 0 means no time limit
+	 * @return false if a Logo error occurred, the interpreter failed or the instructions were stopped
+	 * @throws InterruptedException
+	 */
+	public boolean execute(String command, long timeout) throws InterruptedException {
+		errorOccurred = false;
+		timedOut = false;
+		crashed = false;
+		ExecutionGovernor governor = getKernel().getExecutionContext().getGovernor();
+		governor.setTimeBudget(timeout);
+		HistoryMessenger messenger = HistoryMessenger.getInstance();
+		messenger.setThreadWriter(historyWriter);
+		try {
+			messenger.dispatchMessage(command + "\n");
+			startInterpretation(Utils.decoupe(toCommandLine(command)));
+			affichage.join(timeout == 0 ? 0 : timeout + TIMEOUT_GRACE);
+			if (affichage.isAlive()) {
+				timedOut = true;
+				error = true;
+				governor.cancel();
+				affichage.join();
+			}
+			else if (governor.isTimeBudgetExceeded())
+				timedOut = true;
+			crashed = affichage.getFailure() != null;
+		}
+		finally {
+			messenger.setThreadWriter(null);
+		}
+		return !errorOccurred && !timedOut && !crashed;
+	}
+	
+	/**
+	 * The instructions may have several lines, e.g. from a script. Every line is treated like the command line does,
+	 * its comment is removed, and the lines are joined. A line break would be read as the end of a procedure.
+	 * @param command Logo instructions
+	 * @return the instructions on one line
+	 */
+	static String toCommandLine(String command) {
+		StringBuilder sb = new StringBuilder();
+		for (String line : command.split("\r\n|\r|\n")) {
+			int a = line.indexOf('#');
+			while (a != -1) {
+				if (a == 0 || line.charAt(a - 1) != '\\') {
+					line = line.substring(0, a);
+					break;
+				}
+				a = line.indexOf('#', a + 1);
+			}
+			if (sb.length() > 0)
+				sb.append(' ');
+			sb.append(line);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * @return true if the last instructions were stopped, because they did not finish in time
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+	
+	/**
+	 * @return true if the last instructions ended because the interpreter failed, e.g. it ran out of memory, see {@link Affichage#getFailure()}
+	 */
+	public boolean isCrashed() {
+		return crashed;
+	}
+	
+	/**
+	 * Forgets the history, clears the drawing area, deletes the arrays and dictionaries and resets the precision of setdigits,
+	 * such that the next instructions start like in a new application.
+	 */
+	public void clear() {
+		historyText.setLength(0);
+		resizeDrawingZone();
+		getKernel().getWorkspace().getContainers().deleteAllContainers();
+		getKernel().resetCalculator();
+	}
+	
+	/**
+	 * @return everything that was written to the history so far
+	 */
+	public String getHistoryText() {
+		return historyText.toString();
+	}
+	
+	/**
+	 * Writes the drawing area into a png image
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeImage(File file) throws IOException {
+		ImageIO.write(getDrawPanel().dessin, "png", file);
+	}
+	
+	/**
+	 * Writes the history into a text file
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeHistory(File file) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+		try {
+			out.write(getHistoryText());
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * COMMAND LINE
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		
+		Map<String, String> options = parseOptions(args);
+		if (options == null || !options.containsKey("command")) {
+			System.err.println(USAGE);
+			System.exit(EXIT_USAGE);
+		}
+		
+		if (!enterUserSpace(options.get("workspace"), options.get("user")))
+			System.exit(EXIT_USAGE);
+		if (options.containsKey("engine") && !selectEngine(options.get("engine")))
+			System.exit(EXIT_USAGE);
+		if (options.containsKey("tables"))
+			CordicTables.setDirectory(new File(options.get("tables")));
+		
+		WorkspaceConfig wc = WSManager.getWorkspaceConfig();
+		Logo.generateLanguage(AppSettings.getInstance().getLanguage());
+		Logo.generateLogoLanguage(wc.getLogoLanguage());
+		
+		int exitValue = EXIT_OK;
+		try {
+			HeadlessApplication app = new HeadlessApplication();
+			if (!app.execute(options.get("command")))
+				exitValue = EXIT_LOGO_ERROR;
+			
+			if (options.containsKey("image"))
+				app.writeImage(new File(options.get("image")));
+			if (options.containsKey("history"))
+				app.writeHistory(new File(options.get("history")));
+			else
+				System.out.print(app.getHistoryText());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			exitValue = EXIT_LOGO_ERROR;
+		}
+		System.exit(exitValue);
+	}
+	
+	/**
+	 * @param args pairs of -option value
+	 * @return the values by option name, or null if the arguments are not pairs
+	 */
+	static Map<String, String> parseOptions(String[] args) {
+		if (args.length % 2 != 0)
+			return null;
+		Map<String, String> options = new HashMap<String, String>();
+		for (int i = 0; i < args.length; i += 2) {
+			if (!args[i].startsWith("-"))
+				return null;
+			options.put(args[i].substring(1), args[i + 1]);
+		}
+		return options;
+	}
+	
+	/**
+	 * Selects the engine that executes the instructions of the active user
+	 * @param name interpreter or tree
+	 * @return false if there is no such engine
+	 */
+	static boolean selectEngine(String name) {
+		try {
+			WSManager.getUserConfig().setEngine(ExecutionEngine.valueOf(name.toUpperCase()));
+			return true;
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println("No engine " + name);
+			return false;
+		}
+	}
+	
+	/**
+	 * Enters the workspace and user space the same way the welcome screen does.
+	 * Without workspace or user, the last used one is entered.
+	 * @param workspace a workspace directory, or null
+	 * @param user a user of the workspace, or null
+	 * @return false if there is no such workspace or user
+	 */
+	static boolean enterUserSpace(String workspace, String user) {
+		WSManager wsManager = WSManager.getInstance();
+		if (workspace != null) {
+			File dir = new File(workspace).getAbsoluteFile();
+			if (!WSManager.isWorkspaceDirectory(dir)) {
+				System.err.println("Not a workspace directory: " + dir);
+				return false;
+			}
+			wsManager.importWorkspace(dir, dir.getName());
+		}
+		WorkspaceConfig wc = WSManager.getWorkspaceConfig();
+		if (wc == null) {
+			System.err.println("No workspace.");
+			return false;
+		}
+		if (user != null) {
+			if (!wc.existsUserLogically(user)) {
+				System.err.println("No user " + user + " in workspace " + wc.getWorkspaceName());
+				return false;
+			}
+			wsManager.enterUserSpace(user);
+		}
+		if (WSManager.getUserConfig() == null) {
+			System.err.println("No user.");
+			return false;
+		}
+		return true;
+	}
+}
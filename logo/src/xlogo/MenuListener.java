@@ -149,9 +149,9 @@ public class MenuListener extends JDialog implements ActionListener {
 					JOptionPane.INFORMATION_MESSAGE, (Icon) icone);
 
 		} else if (MenuListener.ZOOMIN.equals(cmd)) {
-			cadre.getDrawPanel().zoom(zoomfactor * DrawPanel.zoom, true);
+			cadre.getDrawPanel().zoom(zoomfactor * cadre.getDrawPanel().zoom, true);
 		} else if (MenuListener.ZOOMOUT.equals(cmd)) {
-			cadre.getDrawPanel().zoom(1 / zoomfactor * DrawPanel.zoom, false);
+			cadre.getDrawPanel().zoom(1 / zoomfactor * cadre.getDrawPanel().zoom, false);
 		}
 		else if (MenuListener.HELP_LICENCE.equals(cmd) | MenuListener.HELP_TRANSLATED_LICENCE.equals(cmd))
 		{ // Affichage
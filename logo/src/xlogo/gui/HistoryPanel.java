@@ -216,7 +216,7 @@ public class HistoryPanel extends JPanel implements HistoryWriter
 	public void active_animation()
 	{
 		add(label_animation, BorderLayout.WEST);
-		DrawPanel.classicMode = DrawPanel.MODE_ANIMATION;
+		cadre.getDrawPanel().classicMode = DrawPanel.MODE_ANIMATION;
 		mouseAdapt = new MouseAdapter(){
 			public void mouseClicked(MouseEvent e)
 			{
@@ -230,7 +230,7 @@ public class HistoryPanel extends JPanel implements HistoryWriter
 	
 	public void stop_animation()
 	{
-		DrawPanel.classicMode = DrawPanel.MODE_CLASSIC;
+		cadre.getDrawPanel().classicMode = DrawPanel.MODE_CLASSIC;
 		remove(label_animation);
 		label_animation.removeMouseListener(mouseAdapt);
 		validate();
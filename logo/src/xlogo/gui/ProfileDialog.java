@@ -0,0 +1,165 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.gui;
+
+import java.awt.Dimension;
+import java.util.List;
+
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+import xlogo.Logo;
+import xlogo.kernel.Profiler;
+
+/**
+ * Shows the measures of the {@link Profiler} in two tables, one for the procedures and primitives and one for the lines.
+ * The tables can be sorted by clicking on a column header.
+ */
+public class ProfileDialog extends JDialog {
+	private static final long serialVersionUID = 1L;
+	
+	public ProfileDialog(JFrame owner, List<Profiler.Entry> entries, List<Profiler.Line> lines) {
+		super(owner, Logo.messages.getString("profile.title"), false);
+		JTabbedPane tabs = new JTabbedPane();
+		tabs.addTab(Logo.messages.getString("profile.title"), createTable(new EntryModel(entries)));
+		tabs.addTab(Logo.messages.getString("profile.lines"), createTable(new LineModel(lines)));
+		getContentPane().add(tabs);
+		setPreferredSize(new Dimension(600, 400));
+		pack();
+		setLocationRelativeTo(owner);
+	}
+	
+	private JScrollPane createTable(AbstractTableModel model) {
+		JTable table = new JTable(model);
+		table.setAutoCreateRowSorter(true);
+		table.setFillsViewportHeight(true);
+		return new JScrollPane(table);
+	}
+	
+	/**
+	 * @return the nanoseconds in milliseconds, such that the column is sorted by numbers
+	 */
+	private static Double toMillis(long nanos) {
+		return nanos / 1e6;
+	}
+	
+	private static class EntryModel extends AbstractTableModel {
+		private static final long		serialVersionUID	= 1L;
+		private static final String[]	COLUMNS				= { "profile.name", "profile.kind", "profile.calls",
+			"profile.total", "profile.self" };
+		private static final Class<?>[]	CLASSES				= { String.class, String.class, Long.class, Double.class,
+			Double.class };
+		
+		private final List<Profiler.Entry>	entries;
+		
+		EntryModel(List<Profiler.Entry> entries) {
+			this.entries = entries;
+		}
+		
+		public int getRowCount() {
+			return entries.size();
+		}
+		
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+		
+		@Override
+		public String getColumnName(int column) {
+			return Logo.messages.getString(COLUMNS[column]);
+		}
+		
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return CLASSES[column];
+		}
+		
+		public Object getValueAt(int row, int column) {
+			Profiler.Entry entry = entries.get(row);
+			switch (column) {
+			case 0:
+				return entry.getName();
+			case 1:
+				return Logo.messages.getString(entry.isProcedure() ? "profile.procedure" : "profile.primitive");
+			case 2:
+				return entry.getCalls();
+			case 3:
+				return toMillis(entry.getTotalNanos());
+			default:
+				return toMillis(entry.getSelfNanos());
+			}
+		}
+	}
+	
+	private static class LineModel extends AbstractTableModel {
+		private static final long		serialVersionUID	= 1L;
+		private static final String[]	COLUMNS				= { "profile.procedure", "profile.line", "profile.hits",
+			"profile.time" };
+		private static final Class<?>[]	CLASSES				= { String.class, Integer.class, Long.class, Double.class };
+		
+		private final List<Profiler.Line>	lines;
+		
+		LineModel(List<Profiler.Line> lines) {
+			this.lines = lines;
+		}
+		
+		public int getRowCount() {
+			return lines.size();
+		}
+		
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+		
+		@Override
+		public String getColumnName(int column) {
+			return Logo.messages.getString(COLUMNS[column]);
+		}
+		
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return CLASSES[column];
+		}
+		
+		public Object getValueAt(int row, int column) {
+			Profiler.Line line = lines.get(row);
+			switch (column) {
+			case 0:
+				return line.getProcedure();
+			case 1:
+				return line.getLine();
+			case 2:
+				return line.getHits();
+			default:
+				return toMillis(line.getNanos());
+			}
+		}
+	}
+}
@@ -35,7 +35,6 @@
 package xlogo.kernel;
 
 import java.util.Stack;
-import java.util.HashMap;
 import java.awt.event.*;
 
 import javax.swing.SwingUtilities;
@@ -43,7 +42,6 @@ import javax.swing.SwingUtilities;
 import xlogo.Application;
 import xlogo.messages.async.history.HistoryMessenger;
 import xlogo.utils.Utils;
-import xlogo.MemoryChecker;
 import xlogo.Logo;
 
 // Ce thread gère l'animation de la tortue pendant l'exécution
@@ -54,12 +52,19 @@ import xlogo.Logo;
  */
 public class Affichage extends Thread
 {
-	public static boolean	execution_lancee	= false;
-	private boolean			pause				= false;
 	private Application		cadre;
+	private ExecutionContext	context;
 	private StringBuffer	instruction;
 	private Souris			souris				= new Souris();
-	private MemoryChecker	memoryChecker					= null;
+	/**
+	 * The syntax tree engine uses the Java stack for nested Logo calls,
+	 * so deep recursive procedures need more than the default thread stack.
+	 */
+	private static final long	STACK_SIZE		= 64L * 1024 * 1024;
+	/**
+	 * The error that ended the program if it is not a {@link LogoError}, or null
+	 */
+	private volatile Throwable	failure;
 	
 	public Affichage()
 	{
@@ -67,7 +72,9 @@ public class Affichage extends Thread
 	
 	public Affichage(Application cadre, StringBuffer instruction)
 	{
+		super(null, null, "Affichage", STACK_SIZE);
 		this.cadre = cadre;
+		this.context = cadre.getKernel().getExecutionContext();
 		this.instruction = instruction;
 	}
 	
@@ -80,12 +87,12 @@ public class Affichage extends Thread
 		
 		public void mousePressed(MouseEvent e)
 		{
-			pause = true;
+			context.governor.setPaused(true);
 		}
 		
 		public void mouseReleased(MouseEvent e)
 		{
-			pause = false;
+			context.governor.setPaused(false);
 		}
 	}
 	
@@ -99,7 +106,7 @@ public class Affichage extends Thread
 											// n'est plus active
 			}
 		});
-		execution_lancee = true;
+		context.execution_lancee = true;
 		cadre.getDrawPanel().active_souris(); // On active les événements souris
 											// sur
 		// la zone de dessin
@@ -109,99 +116,102 @@ public class Affichage extends Thread
 		{
 			cadre.setCar(-1);
 			cadre.error = false;
-			Interprete.operande = Interprete.operateur = Interprete.drapeau_ouvrante = false;
 			cadre.getKernel().getInstructionBuffer().clear();
-			Interprete.calcul = new Stack<String>();
-			Interprete.nom = new Stack<String>();
-			Interprete.locale = new HashMap<String, String>();
-			Interprete.en_cours = new Stack<String>();
-			memoryChecker = new MemoryChecker(cadre);
-			memoryChecker.start();
+			context.reset();
 			boolean b = true;
 			while (b)
 			{
 				String st = cadre.getKernel().execute(instruction);
 				if (!st.equals(""))
 					throw new LogoError(Logo.messages.getString("error.whattodo") + " " + st + " ?");
-				if (Interprete.actionInstruction.length() == 0)
+				if (context.actionInstruction.length() == 0)
 					b = false;
 				else
 				{
-					instruction = Interprete.actionInstruction;
-					Interprete.actionInstruction = new StringBuffer();
+					instruction = context.actionInstruction;
+					context.actionInstruction = new StringBuffer();
 				}
 			}
 		}
 		catch (LogoError e)
 		{
-			// if (st.equals("siwhile")) st=Logo.messages.getString("tantque");
-			while (!Interprete.en_cours.isEmpty() && Interprete.en_cours.peek().equals("("))
-				Interprete.en_cours.pop();
-			if (!cadre.error & !Interprete.en_cours.isEmpty())
-			{
-				HistoryMessenger.getInstance().dispatchError(
-						Logo.messages.getString("dans") + " " + Interprete.en_cours.pop() + ", "
-								+ Logo.messages.getString("line") + " " + getLineNumber() + ":\n");
-			}
-			if (!cadre.error)
-				HistoryMessenger.getInstance().dispatchError(Utils.SortieTexte(e.getMessage()) + "\n");
-			abortExecution();
+			reportError(e.getMessage());
+		}
+		catch (VirtualMachineError e)
+		{
+			// e.g. OutOfMemoryError, the ExecutionGovernor did not catch it in time
+			failure = e;
+			reportError(Logo.messages.getString("depassement_memoire"));
 		}
+		catch (Throwable e)
+		{
+			// A failure of the interpreter must not end the program as if it succeeded
+			e.printStackTrace();
+			failure = e;
+			reportError(e.toString());
+		}
+		// The program has left all procedures
+		if (context.profiler.isActive())
+			context.profiler.closeAll();
 		cadre.setCommandLine(true);
 		if (!cadre.viewer3DVisible())
 			cadre.focusCommandLine();
-		execution_lancee = false;
-		memoryChecker.kill();
+		context.execution_lancee = false;
 		cadre.error = false;
 		cadre.scrollArea.getVerticalScrollBar().removeMouseListener(souris);
 		cadre.scrollArea.getHorizontalScrollBar().removeMouseListener(souris);
 	}
 	
-	private void abortExecution()
+	/**
+	 * @return the error that ended the program if the interpreter failed, e.g. it ran out of memory, otherwise null
+	 */
+	public Throwable getFailure()
 	{
-		cadre.focusCommandLine();
-		cadre.error = true;
-		Interprete.calcul = new Stack<String>();
-		cadre.getKernel().getInstructionBuffer().clear();
-		Primitive.stackLoop = new Stack<LoopProperties>();
+		return failure;
 	}
 	
-	private int getLineNumber()
+	/**
+	 * Write the error and the procedure where it occurred into the history, and stop the program
+	 */
+	private void reportError(String message)
 	{
-		String string = Interprete.lineNumber;
-		// System.out.println("bb"+string+"bb");
-		if (string.equals(""))
-			string = cadre.getKernel().getInstructionBuffer().toString();
-		// System.out.println("cc"+string+"cc");
-		int id = string.indexOf("\\l");
-		if (id != -1)
+		// if (st.equals("siwhile")) st=Logo.messages.getString("tantque");
+		while (!context.en_cours.isEmpty() && context.en_cours.peek().equals("("))
+			context.en_cours.pop();
+		if (!cadre.error & !context.en_cours.isEmpty())
 		{
-			String lineNumber = "";
-			int i = id + 2;
-			char c = string.charAt(i);
-			while (c != ' ')
-			{
-				lineNumber += c;
-				i++;
-				c = string.charAt(i);
-			}
-			// System.out.println(lineNumber);
-			return Integer.parseInt(lineNumber);
+			HistoryMessenger.getInstance().dispatchError(
+					Logo.messages.getString("dans") + " " + context.en_cours.pop() + ", "
+							+ Logo.messages.getString("line") + " " + getLineNumber() + ":\n");
 		}
-		return 1;
+		if (!cadre.error)
+			HistoryMessenger.getInstance().dispatchError(Utils.SortieTexte(message) + "\n");
+		abortExecution();
 	}
 	
-	protected boolean isOnPause()
+	private void abortExecution()
+	{
+		cadre.focusCommandLine();
+		cadre.error = true;
+		context.calcul = new ValueStack();
+		cadre.getKernel().getInstructionBuffer().clear();
+		context.stackLoop = new Stack<LoopProperties>();
+	}
+	
+	/**
+	 * @return the line of the error in the innermost procedure, see {@link Kernel#getLineNumber()}
+	 */
+	private int getLineNumber()
 	{
-		return pause;
+		int line = cadre.getKernel().getLineNumber();
+		return line == -1 ? 1 : line;
 	}
 	
 	/**
-	 * @param b
-	 * @uml.property name="pause"
+	 * Pause or resume the program, see {@link ExecutionGovernor#setPaused(boolean)}
 	 */
 	public void setPause(boolean b)
 	{
-		pause = b;
+		context.governor.setPaused(b);
 	}
 }
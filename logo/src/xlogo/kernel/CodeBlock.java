@@ -0,0 +1,323 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A CodeBlock is an immutable piece of Logo code that has already been cut into words (see {@link xlogo.utils.Utils#decoupe(String)}).
+ * <p>
+ * In XLogo, the interpreter worked directly on the text of the instructions. For every word, it searched the next white space,
+ * copied the word, lower-cased it, tried to parse it as a number (catching a NumberFormatException for every non-number),
+ * and finally deleted the word from the front of a StringBuffer. Procedure bodies were re-inserted as text on every call.
+ * <p>
+ * Now the text is tokenized only once. The words are interned, their lower case form and their kind (number, quoted word, variable)
+ * are computed in advance, and for code that was read from the editor, the line numbers are kept in a side table with one entry per line.
+ * The {@link InstructionBuffer} only walks over these arrays with an index.
+ */
+public class CodeBlock
+{
+	/**
+	 * A word that is neither a number, nor a quoted word, nor a variable
+	 */
+	public static final byte	OTHER		= 0;
+	/**
+	 * A word that can be parsed by {@link Double#parseDouble(String)}
+	 */
+	public static final byte	NUMBER		= 1;
+	/**
+	 * A word starting with a quote, e.g. "abc
+	 */
+	public static final byte	WORD		= 2;
+	/**
+	 * A word starting with a colon, e.g. :abc
+	 */
+	public static final byte	VARIABLE	= 3;
+
+	public static final CodeBlock	EMPTY	= new CodeBlock(new String[0], new String[0], new String[0], new byte[0], null,
+													null);
+
+	private final String[]		words;
+	private final String[]		lowerCaseWords;
+	/**
+	 * The value that is pushed by the interpreter for numbers and quoted words,
+	 * resp. the lower case name of a variable
+	 */
+	private final String[]		values;
+	private final byte[]		kinds;
+	/**
+	 * The line table: the words from lineOffsets[k] to lineOffsets[k+1]-1 are on the line lineNumbers[k] in the editor.
+	 * The offsets are strictly increasing. Both arrays are null if the code was not read from the editor.
+	 * In XLogo, there was a marker \l between the lines, which had to be parsed and deleted by the interpreter.
+	 */
+	private final int[]			lineOffsets;
+	private final int[]			lineNumbers;
+	/**
+	 * The arithmetic expressions that start at the words, parsed when the interpreter first reads them, see {@link #getExpression(int)}.
+	 * This cache does not change what the code means.
+	 */
+	private InfixExpression[]	expressions;
+
+	private CodeBlock(String[] words, String[] lowerCaseWords, String[] values, byte[] kinds, int[] lineOffsets,
+			int[] lineNumbers)
+	{
+		this.words = words;
+		this.lowerCaseWords = lowerCaseWords;
+		this.values = values;
+		this.kinds = kinds;
+		this.lineOffsets = lineOffsets;
+		this.lineNumbers = lineNumbers;
+	}
+
+	/**
+	 * @param code Logo code that has already been cut by {@link xlogo.utils.Utils#decoupe(String)}: words are separated by single white spaces.
+	 * @return the compiled code, without line numbers
+	 */
+	public static CodeBlock compile(CharSequence code)
+	{
+		if (code.length() == 0)
+			return EMPTY;
+		Builder builder = new Builder(false);
+		builder.append(code, 0);
+		return builder.build();
+	}
+
+	public int size()
+	{
+		return words.length;
+	}
+
+	public String getWord(int index)
+	{
+		return words[index];
+	}
+
+	public String getLowerCaseWord(int index)
+	{
+		return lowerCaseWords[index];
+	}
+
+	/**
+	 * @see #values
+	 */
+	public String getValue(int index)
+	{
+		return values[index];
+	}
+
+	/**
+	 * @return {@link #OTHER}, {@link #NUMBER}, {@link #WORD} or {@link #VARIABLE}
+	 */
+	public byte getKind(int index)
+	{
+		return kinds[index];
+	}
+
+	/**
+	 * @return the expression of numbers, variables and + - * / that starts with the word at index, or null
+	 * @see InfixExpression
+	 */
+	public InfixExpression getExpression(int index)
+	{
+		if (expressions == null)
+			expressions = new InfixExpression[words.length];
+		InfixExpression expression = expressions[index];
+		if (expression == null)
+		{
+			expression = InfixExpression.parse(this, index);
+			expressions[index] = expression;
+		}
+		return expression == InfixExpression.NONE ? null : expression;
+	}
+
+	public boolean hasLines()
+	{
+		return lineOffsets != null;
+	}
+
+	/**
+	 * @return the line of the word in the editor, or -1 if this code has no line numbers
+	 */
+	public int getLine(int index)
+	{
+		if (lineOffsets == null || lineOffsets.length == 0)
+			return -1;
+		int entry = Arrays.binarySearch(lineOffsets, index);
+		if (entry < 0)
+			entry = -entry - 2;
+		return lineNumbers[Math.max(0, entry)];
+	}
+
+	/**
+	 * @return true if the word is the first word of a line in the editor
+	 */
+	public boolean isLineStart(int index)
+	{
+		return lineOffsets != null && Arrays.binarySearch(lineOffsets, index) >= 0;
+	}
+
+	/**
+	 * @return the number of entries in the line table, 0 if this code has no line numbers
+	 */
+	public int getLineCount()
+	{
+		return lineOffsets == null ? 0 : lineOffsets.length;
+	}
+
+	/**
+	 * @return the index of the first word of the line table entry
+	 */
+	public int getLineOffset(int entry)
+	{
+		return lineOffsets[entry];
+	}
+
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		for (String word : words)
+		{
+			sb.append(word);
+			sb.append(' ');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Collects the words of a code block line by line
+	 */
+	public static class Builder
+	{
+		private final boolean				withLines;
+		private final ArrayList<String>		words		= new ArrayList<String>();
+		private final ArrayList<Integer>	lineOffsets	= new ArrayList<Integer>();
+		private final ArrayList<Integer>	lineNumbers	= new ArrayList<Integer>();
+
+		/**
+		 * @param withLines whether the line numbers should be kept
+		 */
+		public Builder(boolean withLines)
+		{
+			this.withLines = withLines;
+		}
+
+		/**
+		 * Append one line of code
+		 * @param code cut code, see {@link CodeBlock#compile(CharSequence)}
+		 * @param line the number of the line in the editor
+		 */
+		public Builder append(CharSequence code, int line)
+		{
+			boolean lineStart = true;
+			int length = code.length();
+			int start = 0;
+			while (start < length)
+			{
+				int end = start;
+				while (end < length && code.charAt(end) != ' ')
+					end++;
+				if (end > start)
+				{
+					if (lineStart)
+					{
+						lineOffsets.add(words.size());
+						lineNumbers.add(line);
+						lineStart = false;
+					}
+					words.add(code.subSequence(start, end).toString());
+				}
+				start = end + 1;
+			}
+			return this;
+		}
+
+		public CodeBlock build()
+		{
+			int size = words.size();
+			String[] w = new String[size];
+			String[] lower = new String[size];
+			String[] values = new String[size];
+			byte[] kinds = new byte[size];
+			for (int i = 0; i < size; i++)
+			{
+				String word = words.get(i).intern();
+				w[i] = word;
+				lower[i] = word.toLowerCase().intern();
+				classify(word, lower[i], i, values, kinds);
+			}
+			if (!withLines)
+				return new CodeBlock(w, lower, values, kinds, null, null);
+			int entries = lineOffsets.size();
+			int[] offsets = new int[entries];
+			int[] numbers = new int[entries];
+			for (int k = 0; k < entries; k++)
+			{
+				offsets[k] = lineOffsets.get(k);
+				numbers[k] = lineNumbers.get(k);
+			}
+			return new CodeBlock(w, lower, values, kinds, offsets, numbers);
+		}
+
+		/**
+		 * Parse numbers and words once, the same way the interpreter did it on every execution.
+		 */
+		private static void classify(String word, String lowerCase, int i, String[] values, byte[] kinds)
+		{
+			if (word.startsWith(":") && word.length() > 1)
+			{
+				kinds[i] = VARIABLE;
+				values[i] = lowerCase.substring(1).intern();
+			}
+			else if (isNumber(word))
+			{
+				kinds[i] = NUMBER;
+				values[i] = word.endsWith(".0") ? word.substring(0, word.length() - 2) : word;
+			}
+			else if (word.startsWith("\""))
+			{
+				kinds[i] = WORD;
+				String el = word.substring(1);
+				values[i] = isNumber(el) ? el : word;
+			}
+			else
+				kinds[i] = OTHER;
+		}
+
+		private static boolean isNumber(String word)
+		{
+			try
+			{
+				Double.parseDouble(word);
+				return true;
+			}
+			catch (NumberFormatException e)
+			{
+				return false;
+			}
+		}
+	}
+}
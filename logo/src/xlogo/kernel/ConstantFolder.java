@@ -0,0 +1,292 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+/**
+ * Replaces arithmetic on literals, e.g. <code>fd 100 * 2</code> or <code>rt 360 / 5</code>, by its value before the code runs.
+ * <p>
+ * The interpreter would compute such an expression with its operator stacks every time the code runs, i.e. in every iteration of a loop.
+ * The folder computes it once with the same {@link MyCalculator}, such that the result is exactly the value the interpreter would compute.
+ * Because the result depends on the precision of the calculator, folded code must be folded again after <code>setdigits</code>
+ * (which creates a new calculator).
+ * <p>
+ * Only maximal runs of numbers, + - * / and parentheses are folded, and only if no other infix arithmetic operator is right before or after them,
+ * because the run would then not be evaluated on its own (e.g. <code>:x * 100 + 2</code> or <code>:x - 100 + 2</code>).
+ * <ul>
+ * <li>Words inside brackets are not folded, since a list may be data. Lists that are run are folded when they are compiled for running.</li>
+ * <li>A run does not start with a signed number, and it is not followed by one, because the interpreter reads <code>3 -5</code> as a subtraction.</li>
+ * <li>Negative results are not folded for the same reason.</li>
+ * <li>Expressions that fail, e.g. a division by zero, are left to the interpreter, which reports the error where it occurs.</li>
+ * <li>Runs do not span several lines of the editor.</li>
+ * <li>Runs at the beginning or the end of the code are not folded, because the code may be inserted in the middle of an expression,
+ * e.g. by <code>run</code>. Procedures and loops end with a marker, so this only concerns lists.</li>
+ * </ul>
+ */
+public class ConstantFolder
+{
+	private final CodeBlock		block;
+	private final MyCalculator	calculator;
+	/**
+	 * The end of the run that is evaluated, exclusive
+	 */
+	private int					end;
+	/**
+	 * The position after the last word that was parsed
+	 */
+	private int					cursor;
+	/**
+	 * Whether an operation was computed in the run that is evaluated
+	 */
+	private boolean				computed;
+	
+	private ConstantFolder(CodeBlock block, MyCalculator calculator)
+	{
+		this.block = block;
+		this.calculator = calculator;
+	}
+	
+	/**
+	 * @return the code with all constant expressions replaced by their values, or the same code block if there is nothing to fold
+	 */
+	public static CodeBlock fold(CodeBlock block, MyCalculator calculator)
+	{
+		return new ConstantFolder(block, calculator).fold();
+	}
+	
+	private CodeBlock fold()
+	{
+		int size = block.size();
+		String[] folded = null;
+		// folded[i] == null for the words that are part of a folded run, except its first word
+		boolean[] removed = null;
+		int depth = 0;
+		int i = 0;
+		while (i < size)
+		{
+			String word = block.getLowerCaseWord(i);
+			if (word.equals("["))
+				depth++;
+			else if (word.equals("]"))
+				depth--;
+			else if (depth == 0 && isStartOfRun(i))
+			{
+				int lineEnd = i + 1;
+				while (lineEnd < size && !block.isLineStart(lineEnd))
+					lineEnd++;
+				end = lineEnd;
+				cursor = i;
+				computed = false;
+				String value = parseSum();
+				int runEnd = cursor;
+				if (computed && null != value && i > 0 && runEnd < size && !isArithmetic(i - 1) && !isArithmetic(runEnd)
+						&& !isSignedNumber(runEnd) && isPlainNumber(value))
+				{
+					if (null == folded)
+					{
+						folded = new String[size];
+						removed = new boolean[size];
+					}
+					folded[i] = value;
+					for (int j = i + 1; j < runEnd; j++)
+						removed[j] = true;
+					i = runEnd;
+					continue;
+				}
+			}
+			i++;
+		}
+		if (null == folded)
+			return block;
+		return rebuild(folded, removed);
+	}
+	
+	/**
+	 * Build a new code block with the folded values, line by line, such that the line numbers are kept
+	 */
+	private CodeBlock rebuild(String[] folded, boolean[] removed)
+	{
+		CodeBlock.Builder builder = new CodeBlock.Builder(block.hasLines());
+		StringBuilder line = new StringBuilder();
+		int size = block.size();
+		for (int i = 0; i < size; i++)
+		{
+			if (i > 0 && block.isLineStart(i))
+			{
+				builder.append(line, block.getLine(i - 1));
+				line.setLength(0);
+			}
+			if (removed[i])
+				continue;
+			line.append(null == folded[i] ? block.getWord(i) : folded[i]);
+			line.append(' ');
+		}
+		builder.append(line, block.getLine(size - 1));
+		return builder.build();
+	}
+	
+	private boolean isStartOfRun(int i)
+	{
+		if (block.getLowerCaseWord(i).equals("("))
+			return true;
+		return block.getKind(i) == CodeBlock.NUMBER && !isSignedNumber(i);
+	}
+	
+	/**
+	 * @return true if the word is + - * or /
+	 */
+	private boolean isArithmetic(int i)
+	{
+		if (i < 0 || i >= block.size())
+			return false;
+		String word = block.getLowerCaseWord(i);
+		return word.length() == 1 && "+-*/".indexOf(word.charAt(0)) != -1;
+	}
+	
+	private boolean isSignedNumber(int i)
+	{
+		if (i < 0 || i >= block.size() || block.getKind(i) != CodeBlock.NUMBER)
+			return false;
+		char c = block.getWord(i).charAt(0);
+		return c == '-' || c == '+';
+	}
+	
+	/**
+	 * @return true for a number without sign, i.e. neither a negative number, nor Infinity or NaN
+	 */
+	private static boolean isPlainNumber(String value)
+	{
+		char c = value.charAt(0);
+		return c == '.' || Character.isDigit(c);
+	}
+	
+	/**
+	 * sum := product ((+|-) product)*
+	 * @return the value, or null if the words at the cursor are not a constant expression
+	 */
+	private String parseSum()
+	{
+		String value = parseProduct();
+		while (null != value && cursor < end)
+		{
+			String operator = block.getLowerCaseWord(cursor);
+			if (!operator.equals("+") && !operator.equals("-"))
+				break;
+			int start = cursor;
+			cursor++;
+			String right = parseProduct();
+			if (null == right)
+			{
+				cursor = start;
+				break;
+			}
+			value = compute(operator.charAt(0), value, right);
+		}
+		return value;
+	}
+	
+	/**
+	 * product := factor ((*|/) factor)*
+	 */
+	private String parseProduct()
+	{
+		String value = parseFactor();
+		while (null != value && cursor < end)
+		{
+			String operator = block.getLowerCaseWord(cursor);
+			if (!operator.equals("*") && !operator.equals("/"))
+				break;
+			int start = cursor;
+			cursor++;
+			String right = parseFactor();
+			if (null == right)
+			{
+				cursor = start;
+				break;
+			}
+			value = compute(operator.charAt(0), value, right);
+		}
+		return value;
+	}
+	
+	/**
+	 * factor := number | ( sum )
+	 */
+	private String parseFactor()
+	{
+		if (cursor >= end)
+			return null;
+		if (block.getKind(cursor) == CodeBlock.NUMBER)
+			return block.getValue(cursor++);
+		if (!block.getLowerCaseWord(cursor).equals("("))
+			return null;
+		int start = cursor;
+		cursor++;
+		String value = parseSum();
+		if (null == value || cursor >= end || !block.getLowerCaseWord(cursor).equals(")"))
+		{
+			cursor = start;
+			return null;
+		}
+		cursor++;
+		return value;
+	}
+	
+	/**
+	 * @return the value that the interpreter would compute, or null if the interpreter would report an error
+	 */
+	private String compute(char operator, String a, String b)
+	{
+		if (null == a || null == b)
+			return null;
+		ValueStack param = new ValueStack();
+		param.push(a);
+		param.push(b);
+		ValueStack result = new ValueStack();
+		try
+		{
+			switch (operator)
+			{
+				case '+':
+					calculator.add(param, result);
+					break;
+				case '-':
+					calculator.substract(param, result);
+					break;
+				case '*':
+					calculator.multiply(param, result);
+					break;
+				default:
+					calculator.divide(param, result);
+			}
+		}
+		catch (LogoError e)
+		{
+			return null;
+		}
+		computed = true;
+		return result.get(0);
+	}
+}
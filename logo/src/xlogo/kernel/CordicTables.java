@@ -0,0 +1,365 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ *
+ * Contents of this file were initially written by Loic Le Coq
+ */
+
+
+package xlogo.kernel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The constants of the Cordic method that {@link MyCalculator} uses when the precision is set with setdigits:
+ * ln(1+10^-k) for exp and ln, and arctan(10^-k) for the trigonometric functions, k in {0,1....,digits-1}.
+ * The entry 0 is ln 2, resp. pi/4.
+ * <p>
+ * In XLogo, every calculator built its own tables on the first transcendental call, and setdigits creates a new calculator.
+ * Now the tables are shared by all calculators of the process, stored by precision. A table is computed with a few guard digits,
+ * hence a table of higher precision is simply rounded for a lower precision and no series is computed again.
+ * The entries of a large table are computed in parallel on the common {@link ForkJoinPool}.
+ * <p>
+ * If a directory is set with {@link #setDirectory(File)}, the tables are also written there as text and read again by the next run.
+ * A file that cannot be read or written is ignored, it is only a cache.
+ */
+public abstract class CordicTables
+{
+	/**
+	 * Extra digits of the computed tables, such that rounding errors of the series do not reach the requested precision
+	 */
+	private static final int			GUARD_DIGITS		= 5;
+	/**
+	 * Tables with fewer entries are computed in the calling thread
+	 */
+	private static final int			PARALLEL_THRESHOLD	= 64;
+	
+	/**
+	 * The same 10^-1 as in {@link MyCalculator}, the Cordic steps and the tables must agree
+	 */
+	private static final BigDecimal		TENTH				= new BigDecimal(0.1);
+	
+	private static final CordicTables	LOG					= new CordicTables("ln"){
+																	BigDecimal computeEntry(int j, MathContext mc)
+																	{
+																		return j == 0 ? ln2(mc) : lnSE(TENTH.pow(j, mc), mc);
+																	}
+																};
+	private static final CordicTables	ATAN				= new CordicTables("atan"){
+																	BigDecimal computeEntry(int j, MathContext mc)
+																	{
+																		return j == 0 ? quarterPI(mc) : MyCalculator.arctanSE(
+																				TENTH.pow(j, mc), mc);
+																	}
+																};
+	
+	private static volatile File		directory;
+	
+	private final String				name;
+	/**
+	 * The computed tables by precision. The entries carry {@link #GUARD_DIGITS} more digits than the precision.
+	 */
+	private final TreeMap<Integer, BigDecimal[]>	computed	= new TreeMap<Integer, BigDecimal[]>();
+	/**
+	 * The tables that were handed out, rounded to their precision
+	 */
+	private final TreeMap<Integer, BigDecimal[]>	rounded		= new TreeMap<Integer, BigDecimal[]>();
+	
+	private CordicTables(String name)
+	{
+		this.name = name;
+	}
+	
+	/**
+	 * @return ln(1+10^-k), k in {0,1....,precision-1}, with ln 2 at 0. The array must not be modified.
+	 */
+	static BigDecimal[] getLogTable(MathContext mc)
+	{
+		return LOG.get(mc.getPrecision());
+	}
+	
+	/**
+	 * @return arctan(10^-k), k in {0,1....,precision-1}, with pi/4 at 0. The array must not be modified.
+	 */
+	static BigDecimal[] getCosTable(MathContext mc)
+	{
+		return ATAN.get(mc.getPrecision());
+	}
+	
+	/**
+	 * @param dir where the tables are read from and written to, or null to keep them in memory only
+	 */
+	public static void setDirectory(File dir)
+	{
+		directory = dir;
+	}
+	
+	/**
+	 * @return the entry j of the table, computed with mc
+	 */
+	abstract BigDecimal computeEntry(int j, MathContext mc);
+	
+	private synchronized BigDecimal[] get(int precision)
+	{
+		BigDecimal[] table = rounded.get(precision);
+		if (table != null)
+			return table;
+		
+		Map.Entry<Integer, BigDecimal[]> higher = computed.ceilingEntry(precision);
+		BigDecimal[] source;
+		if (higher != null)
+			source = higher.getValue();
+		else
+		{
+			source = read(precision);
+			if (source == null)
+			{
+				source = compute(precision);
+				write(precision, source);
+			}
+			computed.put(source.length, source);
+		}
+		
+		MathContext mc = new MathContext(precision);
+		table = new BigDecimal[precision];
+		for (int j = 0; j < precision; j++)
+			table[j] = source[j].round(mc);
+		rounded.put(precision, table);
+		return table;
+	}
+	
+	private BigDecimal[] compute(int precision)
+	{
+		final MathContext mc = new MathContext(precision + GUARD_DIGITS);
+		BigDecimal[] table = new BigDecimal[precision];
+		if (precision < PARALLEL_THRESHOLD)
+		{
+			for (int j = 0; j < precision; j++)
+				table[j] = computeEntry(j, mc);
+			return table;
+		}
+		
+		List<Callable<BigDecimal>> tasks = new ArrayList<Callable<BigDecimal>>();
+		for (int j = 0; j < precision; j++)
+		{
+			final int entry = j;
+			tasks.add(new Callable<BigDecimal>(){
+				public BigDecimal call()
+				{
+					return computeEntry(entry, mc);
+				}
+			});
+		}
+		try
+		{
+			List<Future<BigDecimal>> futures = ForkJoinPool.commonPool().invokeAll(tasks);
+			for (int j = 0; j < precision; j++)
+				table[j] = futures.get(j).get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			for (int j = 0; j < precision; j++)
+				if (table[j] == null)
+					table[j] = computeEntry(j, mc);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		}
+		return table;
+	}
+	
+	/**
+	 * Reads the table of the smallest precision that is at least the given one
+	 * @return the entries, or null if there is no such file
+	 */
+	private BigDecimal[] read(int precision)
+	{
+		File dir = directory;
+		if (dir == null)
+			return null;
+		String[] files = dir.list();
+		if (files == null)
+			return null;
+		int best = -1;
+		String prefix = name + "-";
+		for (String file : files)
+		{
+			if (!file.startsWith(prefix) || !file.endsWith(".txt"))
+				continue;
+			try
+			{
+				int p = Integer.parseInt(file.substring(prefix.length(), file.length() - 4));
+				if (p >= precision && (best < 0 || p < best))
+					best = p;
+			}
+			catch (NumberFormatException e)
+			{}
+		}
+		if (best < 0)
+			return null;
+		
+		BigDecimal[] table = new BigDecimal[best];
+		BufferedReader reader = null;
+		try
+		{
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, prefix + best + ".txt")),
+					Charset.forName("UTF-8")));
+			for (int j = 0; j < best; j++)
+			{
+				String line = reader.readLine();
+				if (line == null)
+					return null;
+				table[j] = new BigDecimal(line);
+			}
+			return table;
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+		finally
+		{
+			close(reader);
+		}
+	}
+	
+	/**
+	 * Writes to a temporary file first, such that another process never reads half a table
+	 */
+	private void write(int precision, BigDecimal[] table)
+	{
+		File dir = directory;
+		if (dir == null || !dir.isDirectory())
+			return;
+		File file = new File(dir, name + "-" + precision + ".txt");
+		File tmp = new File(dir, file.getName() + ".tmp");
+		Writer out = null;
+		try
+		{
+			out = new OutputStreamWriter(new FileOutputStream(tmp), Charset.forName("UTF-8"));
+			for (BigDecimal entry : table)
+			{
+				out.write(entry.toString());
+				out.write('\n');
+			}
+			out.close();
+			out = null;
+			if (!tmp.renameTo(file))
+				tmp.delete();
+		}
+		catch (IOException e)
+		{
+			close(out);
+			tmp.delete();
+		}
+	}
+	
+	private static void close(Closeable closeable)
+	{
+		if (closeable == null)
+			return;
+		try
+		{
+			closeable.close();
+		}
+		catch (IOException e)
+		{}
+	}
+	
+	/**
+	 * ln 2=2*(x+x^3/3+x^5/5+....) with x=1/3
+	 */
+	private static BigDecimal ln2(MathContext mc)
+	{
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal previous = BigDecimal.ONE;
+		BigDecimal i = BigDecimal.ONE;
+		BigDecimal nine = new BigDecimal(9);
+		BigDecimal two = new BigDecimal(2);
+		BigDecimal power = new BigDecimal(3);
+		while (sum.subtract(previous, mc).abs(mc).compareTo(BigDecimal.ZERO) != 0)
+		{
+			previous = sum;
+			sum = sum.add(BigDecimal.ONE.divide(i.multiply(power, mc), mc), mc);
+			i = i.add(two, mc);
+			power = power.multiply(nine, mc);
+		}
+		return sum.multiply(two, mc);
+	}
+	
+	/**
+	 * ln(1+h)=h-h^2/2+h^3/3-.....
+	 */
+	private static BigDecimal lnSE(BigDecimal h, MathContext mc)
+	{
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal previous = BigDecimal.ONE;
+		BigDecimal i = BigDecimal.ONE;
+		BigDecimal power = h;
+		while (sum.subtract(previous, mc).abs(mc).compareTo(BigDecimal.ZERO) != 0)
+		{
+			previous = sum;
+			sum = sum.add(power.divide(i, mc), mc);
+			if (i.signum() == 1)
+				i = i.add(BigDecimal.ONE, mc).negate(mc);
+			else
+				i = i.subtract(BigDecimal.ONE, mc).negate(mc);
+			power = power.multiply(h, mc);
+		}
+		return sum;
+	}
+	
+	/**
+	 * pi/4 = 4arctg(1/5) - arctg(1/239)
+	 */
+	private static BigDecimal quarterPI(MathContext mc)
+	{
+		return new BigDecimal(4).multiply(MyCalculator.arctanSE(new BigDecimal("0.2"), mc), mc).subtract(
+				MyCalculator.arctanSE(BigDecimal.ONE.divide(new BigDecimal(239), mc), mc), mc);
+	}
+}
@@ -128,7 +128,7 @@ import xlogo.kernel.perspective.*;
 	/**
 	 * this int indicates the window mode, default 0
 	 */
-	protected static int WINDOW_MODE = 0;
+	protected int WINDOW_MODE = 0;
 	/**
 	 *  WINDOW MODE: 0 <br>
 	 *  Turtles can go out the drawing area
@@ -151,7 +151,7 @@ import xlogo.kernel.perspective.*;
 	protected static final int WINDOW_3D=3;
 
 	/** Boolean for animation mode */
-	public static boolean classicMode=true; // true si classique false si animation
+	public boolean classicMode=true; // true si classique false si animation
 	/** Animation mode:  */
 	public final static boolean MODE_ANIMATION=false;
 	/** Classic mode */
@@ -180,14 +180,14 @@ import xlogo.kernel.perspective.*;
 	private Rectangle2D rec;
 	private final Application cadre;
 	/** This Image is used for Buffering the drawing*/
-	public static BufferedImage dessin;
+	public BufferedImage dessin;
 	/**
 	 * Graphics of the BufferedImage dessin
 	 * @uml.property  name="g"
 	 */
 	private Graphics2D g;
 	/** The scale for the zoom*/
-	public static double zoom=1;
+	public double zoom=1;
 
 
 	/**
@@ -210,7 +210,7 @@ import xlogo.kernel.perspective.*;
 	/**
 	 * Boolean that indicates if the interpreter is recording polygon in 3D Mode
 	 */
-	protected static int record3D=0;
+	protected int record3D=0;
 	protected final static int record3D_NONE=0;
 	protected final static int record3D_POLYGON=1;
 	protected final static int record3D_LINE=2;
@@ -220,13 +220,13 @@ import xlogo.kernel.perspective.*;
 	/**
 	 * Boolean that indicates if the interpreter is recording polygon in 2D Mode
 	 */
-	private static int record2D=0;
+	private int record2D=0;
 	private final static int record2D_NONE=0;
 	private  final static int record2D_POLYGON=1;
 	private Vector<Point2D.Double> stackTriangle;
 
 
-	protected static Element3D poly;
+	protected Element3D poly;
 
 	private double[] coords;
 	private double oldx;
@@ -278,6 +278,8 @@ import xlogo.kernel.perspective.*;
 				 (int)(WSManager.getUserConfig().getImageWidth()*zoom),
 				 (int)(WSManager.getUserConfig().getImageHeight()*zoom)));
 		 this.cadre=cadre;
+		 dessin = new BufferedImage(WSManager.getUserConfig().getImageWidth(),
+				 WSManager.getUserConfig().getImageHeight(), BufferedImage.TYPE_INT_RGB);
     	addMouseListener(this);
     	addMouseMotionListener(this);
 		initGraphics();
@@ -331,7 +333,7 @@ import xlogo.kernel.perspective.*;
 
 		oldx = tortue.corX;
 		oldy = tortue.corY;
-		if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_CLASSIC) { //mode fenetre
+		if (WINDOW_MODE == DrawPanel.WINDOW_CLASSIC) { //mode fenetre
 			montrecacheTortue(false);
 
 			tortue.corX = tortue.corX + arg
@@ -413,15 +415,15 @@ import xlogo.kernel.perspective.*;
 				}
 			}
 			montrecacheTortue(true);
-		} else if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_WRAP) { //mode enroule
+		} else if (WINDOW_MODE == DrawPanel.WINDOW_WRAP) { //mode enroule
 			trace_enroule(arg, oldx, oldy);
-		} else if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_CLOSE) { //mode clos
+		} else if (WINDOW_MODE == DrawPanel.WINDOW_CLOSE) { //mode clos
 			try {
 				trace_ferme(oldx, oldy, arg);
 			} catch (final LogoError e) {
 			}
 		}
-		else if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_3D){
+		else if (WINDOW_MODE==DrawPanel.WINDOW_3D){
 			montrecacheTortue(false);
     		tortue.X=tortue.X+arg*tortue.getRotationMatrix()[0][1];
     		tortue.Y=tortue.Y+arg*tortue.getRotationMatrix()[1][1];
@@ -495,7 +497,7 @@ import xlogo.kernel.perspective.*;
 		}
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande = false;
+		cadre.getKernel().getExecutionContext().operande = false;
 
 		return DrawPanel.nullType;
 	}
@@ -516,7 +518,7 @@ import xlogo.kernel.perspective.*;
 		}
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande = false;
+		cadre.getKernel().getExecutionContext().operande = false;
 	}
 	/**
 	 * This method is used for drawing with primitive "uppitch" or "downpitch"
@@ -535,7 +537,7 @@ import xlogo.kernel.perspective.*;
 		}
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande = false;
+		cadre.getKernel().getExecutionContext().operande = false;
 	}
 	/**
 	 * This method set the turtle's Roll
@@ -548,7 +550,7 @@ import xlogo.kernel.perspective.*;
 		tortue.setRotationMatrix(w3d.EulerToRotation(-tortue.roll, tortue.pitch, -tortue.heading));
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande=false;
+		cadre.getKernel().getExecutionContext().operande=false;
 	}
 	/**
 	 * This method set the turtle's heading
@@ -561,7 +563,7 @@ import xlogo.kernel.perspective.*;
 		tortue.setRotationMatrix(w3d.EulerToRotation(-tortue.roll, tortue.pitch, -tortue.heading));
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande=false;
+		cadre.getKernel().getExecutionContext().operande=false;
 	}
 	/**
 	 * This method set the turtle's pitch
@@ -574,7 +576,7 @@ import xlogo.kernel.perspective.*;
 		tortue.setRotationMatrix(w3d.EulerToRotation(-tortue.roll, tortue.pitch, -tortue.heading));
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande=false;
+		cadre.getKernel().getExecutionContext().operande=false;
 	}
 	/**
 	 *
@@ -593,7 +595,7 @@ import xlogo.kernel.perspective.*;
 		tortue.setRotationMatrix(w3d.EulerToRotation(-tortue.roll, tortue.pitch, -tortue.heading));
 		if (tortue.isVisible())
 			montrecacheTortue(true);
-		Interprete.operande=false;
+		cadre.getKernel().getExecutionContext().operande=false;
 	}
 	/**
 	 * Primitive "origine"
@@ -796,7 +798,7 @@ import xlogo.kernel.perspective.*;
 		montrecacheTortue(false);
 		if (null==arc) arc=new Arc2D.Double();
 		if (!enabled3D()){
-			if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
+			if (WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
 			arc2D(tortue.corX,tortue.corY,rayon,fangle,angle);
 
 	/*	if (null==gp) gp=new GeneralPath();
@@ -840,7 +842,7 @@ import xlogo.kernel.perspective.*;
 		final int w = uc.getImageWidth();
 		final int h = uc.getImageHeight();
 
-		if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP){
+		if (WINDOW_MODE==DrawPanel.WINDOW_WRAP){
 			if (x+radius>w&& x<=w){
 				pt=new Point2D.Double(-w+x,y);
 				if (! centers.contains(pt))	{
@@ -886,7 +888,7 @@ import xlogo.kernel.perspective.*;
 			g.setPaintMode();
 		}
 		g.draw(s);
-		if (DrawPanel.record3D==DrawPanel.record3D_LINE||DrawPanel.record3D==DrawPanel.record3D_POLYGON){
+		if (record3D==DrawPanel.record3D_LINE||record3D==DrawPanel.record3D_POLYGON){
 			recordArcCircle3D(radius,angleStart,angleExtent);
 		}
 	}
@@ -910,7 +912,7 @@ import xlogo.kernel.perspective.*;
 			final int x=(int)coords[0];
 			final int y=(int)coords[1];
 			if (0 < x && x < w && 0 < y && y < h) {
-				couleur = DrawPanel.dessin.getRGB(x, y);
+				couleur = dessin.getRGB(x, y);
 			}
 			return new Color(couleur);
 		}
@@ -923,7 +925,7 @@ import xlogo.kernel.perspective.*;
 		montrecacheTortue(false);
 		if (null==arc) arc=new Arc2D.Double();
 		if (!enabled3D()){
-			if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
+			if (WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
 			circle2D(tortue.corX,tortue.corY,radius);
 	/*	if (null==clipArc) clipArc=new Arc2D.Double();
 		clipArc.setArcByCenter(tortue.corX,tortue.corY,
@@ -963,7 +965,7 @@ import xlogo.kernel.perspective.*;
 			}
 			g.draw(arc);
 			clip();
-			if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP){
+			if (WINDOW_MODE==DrawPanel.WINDOW_WRAP){
 				if (x+radius>w&& x<=w){
 					pt=new Point2D.Double(-w+x,y);
 					if (! centers.contains(pt))	{
@@ -1130,7 +1132,7 @@ import xlogo.kernel.perspective.*;
 		// Math.pow(w3d.screenDistance,2)*(d*d+2*d*z*c+lambda*c*c);
 		big[5]=screenDistance.pow(2).multiply(bd.pow(2).add(deux.multiply(bd).multiply(bz).multiply(bc)).add(lambda.multiply(bc.pow(2))));
 		new Conic(this,big);
-		if (DrawPanel.record3D==DrawPanel.record3D_LINE||DrawPanel.record3D==DrawPanel.record3D_POLYGON){
+		if (record3D==DrawPanel.record3D_LINE||record3D==DrawPanel.record3D_POLYGON){
 			recordArcCircle3D(radius,0,360);
 		}
 	}
@@ -1157,14 +1159,14 @@ import xlogo.kernel.perspective.*;
 		int indexMax=(int)angleExtent;
 		if (indexMax!=angleExtent) indexMax+=2;
 		else indexMax+=1;
-		if (null!=DrawPanel.poly&&DrawPanel.poly.getVertexCount()>1)
-			DrawPanel.poly.addToScene();
-		if (DrawPanel.record3D==DrawPanel.record3D_POLYGON) {
-			DrawPanel.poly=new ElementPolygon(cadre.getViewer3D());
-			DrawPanel.poly.addVertex(pos, tortue.couleurcrayon);
+		if (null!=poly&&poly.getVertexCount()>1)
+			poly.addToScene();
+		if (record3D==DrawPanel.record3D_POLYGON) {
+			poly=new ElementPolygon(cadre.getViewer3D());
+			poly.addVertex(pos, tortue.couleurcrayon);
 		}
 		else {
-			DrawPanel.poly=new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
+			poly=new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
 		}
 
 		for(int i=0;i<indexMax-1;i++){
@@ -1174,7 +1176,7 @@ import xlogo.kernel.perspective.*;
 			tmp2.scale(Math.sin(Math.toRadians(angleStart+i)));
 			tmp1.add(tmp2);
 			tmp1.add(pos);
-			DrawPanel.poly.addVertex(tmp1, tortue.couleurcrayon);
+			poly.addVertex(tmp1, tortue.couleurcrayon);
 		}
 		final Point3d tmp1=new Point3d(v1);
 		tmp1.scale(Math.cos(Math.toRadians(angleStart+angleExtent)));
@@ -1182,7 +1184,7 @@ import xlogo.kernel.perspective.*;
 		tmp2.scale(Math.sin(Math.toRadians(angleStart+angleExtent)));
 		tmp1.add(tmp2);
 		tmp1.add(pos);
-		DrawPanel.poly.addVertex(tmp1, tortue.couleurcrayon);
+		poly.addVertex(tmp1, tortue.couleurcrayon);
 	}
 
 /**
@@ -1257,12 +1259,12 @@ import xlogo.kernel.perspective.*;
 		while (Math.abs(longueur) < Math.abs(arg)) {
 		//	System.out.println(Math.abs(longueur)+" "+Math.abs(arg));
 			arg -= longueur;
-			DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
+			WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
 			av(longueur);
 			//System.out.println(Math.abs(longueur)+" "+Math.abs(arg));
 			if (cadre.error)
 				break; //permet d'interrompre avec le bouton stop
-			DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_WRAP;
+			WINDOW_MODE = DrawPanel.WINDOW_WRAP;
 			if (uc.getTurtleSpeed() != 0) {
 				try {
 					Thread.sleep(uc.getTurtleSpeed() * 5);
@@ -1303,10 +1305,10 @@ import xlogo.kernel.perspective.*;
 				longueur = trouve_longueur(0, diagonale, tortue.corX,
 						tortue.corY);
 		}
-		DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
+		WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
 		if (!cadre.error)
 			av(arg);
-		DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_WRAP;
+		WINDOW_MODE = DrawPanel.WINDOW_WRAP;
 	}
 /**
  * This method is used for drawing with primitive forward, backward in CLOSE MODE
@@ -1336,9 +1338,9 @@ import xlogo.kernel.perspective.*;
 					+ Logo.messages.getString("erreur_sortie2")
 					+ Math.abs((int) (longueur)));
 		else {
-			DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
+			WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
 			av(arg);
-			DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLOSE;
+			WINDOW_MODE = DrawPanel.WINDOW_CLOSE;
 		}
 	}
 	/**
@@ -1389,7 +1391,7 @@ import xlogo.kernel.perspective.*;
     		uc.setDrawGrid(false);
     		change_image_tortue(cadre,"tortue0.png");
         	montrecacheTortue(false);
-    		DrawPanel.WINDOW_MODE=DrawPanel.WINDOW_3D;
+    		WINDOW_MODE=DrawPanel.WINDOW_3D;
         	w3d=new World3D();
         	montrecacheTortue(true);
     	}
@@ -1399,9 +1401,9 @@ import xlogo.kernel.perspective.*;
 	 * @param id The window Mode
 	 */
 	protected void setWindowMode(final int id){
-		if (DrawPanel.WINDOW_MODE!=id) {
+		if (WINDOW_MODE!=id) {
     		montrecacheTortue(false);
-    		DrawPanel.WINDOW_MODE=id;
+    		WINDOW_MODE=id;
         	w3d=null;
     		montrecacheTortue(true);
     	}
@@ -1417,9 +1419,9 @@ import xlogo.kernel.perspective.*;
 	//		w3d.toScreenCoord(coord);
 			// camera world
 			// If we have to record the polygon coordinates
-    		if (DrawPanel.record3D!=DrawPanel.record3D_NONE&&DrawPanel.record3D!=DrawPanel.record3D_TEXT&&drawPoly){
+    		if (record3D!=DrawPanel.record3D_NONE&&record3D!=DrawPanel.record3D_TEXT&&drawPoly){
 
-    			DrawPanel.poly.addVertex(new Point3d(coord[0]/1000,coord[1]/1000,coord[2]/1000),tortue.couleurcrayon);
+    			poly.addVertex(new Point3d(coord[0]/1000,coord[1]/1000,coord[2]/1000),tortue.couleurcrayon);
 			}
 
 			w3d.toCameraWorld(coord);
@@ -1457,7 +1459,7 @@ import xlogo.kernel.perspective.*;
 		}
 	}
 	public boolean  enabled3D(){
-		return (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_3D);
+		return (WINDOW_MODE==DrawPanel.WINDOW_3D);
 	}
 
 	/**
@@ -1712,8 +1714,8 @@ import xlogo.kernel.perspective.*;
 		final UserConfig uc = WSManager.getUserConfig();
 		final int w = uc.getImageWidth();
 //		System.out.println(x+" "+y);
-		while (!meme_couleur(DrawPanel.dessin.getRGB(x, y) ,couleur_frontiere)) {
-			DrawPanel.dessin.setRGB(x, y, couleur_frontiere);
+		while (!meme_couleur(dessin.getRGB(x, y) ,couleur_frontiere)) {
+			dessin.setRGB(x, y, couleur_frontiere);
 			x = x + increment;
 			if (!(x > 0 && x < w-1))
 				break;
@@ -1784,7 +1786,7 @@ import xlogo.kernel.perspective.*;
 		final int w = uc.getImageWidth();
 		final int h = uc.getImageHeight();
 		if (x > 0 & x < w & y > 0 & y < h) {
-			final int couleur_origine = DrawPanel.dessin.getRGB(x, y);
+			final int couleur_origine = dessin.getRGB(x, y);
 			final int couleur_frontiere = tortue.couleurcrayon.getRGB();
 		//	System.out.println(couleur_origine+" " +couleur_frontiere);
 			final Stack<Point> pile_germes = new Stack<Point>();
@@ -1806,7 +1808,7 @@ import xlogo.kernel.perspective.*;
 				for (int i = xmin; i < xmax + 1; i++) {
 					//on recherche les germes au dessus et au dessous
 					if (ygerme > 0
-							&& meme_couleur(DrawPanel.dessin.getRGB(i, ygerme - 1) ,couleur_frontiere)) {
+							&& meme_couleur(dessin.getRGB(i, ygerme - 1) ,couleur_frontiere)) {
 						if (ligne_dessus)
 							pile_germes.push(new Point(i - 1, ygerme - 1));
 						ligne_dessus = false;
@@ -1816,7 +1818,7 @@ import xlogo.kernel.perspective.*;
 							pile_germes.push(new Point(xmax, ygerme - 1));
 					}
 					if (ygerme < h-1
-							&& meme_couleur(DrawPanel.dessin.getRGB(i, ygerme + 1),couleur_frontiere)) {
+							&& meme_couleur(dessin.getRGB(i, ygerme + 1),couleur_frontiere)) {
 						if (ligne_dessous)
 							pile_germes.push(new Point(i - 1, ygerme + 1));
 						ligne_dessous = false;
@@ -1844,8 +1846,8 @@ import xlogo.kernel.perspective.*;
 			final int couleur_origine) {
 		final UserConfig uc = WSManager.getUserConfig();
 		final int w = uc.getImageWidth();
-		while (DrawPanel.dessin.getRGB(x, y) == couleur_origine) {
-			DrawPanel.dessin.setRGB(x, y, couleur_crayon);
+		while (dessin.getRGB(x, y) == couleur_origine) {
+			dessin.setRGB(x, y, couleur_crayon);
 			x = x + increment;
 			if (!(x > 0 && x < w-1))
 				break;
@@ -1864,7 +1866,7 @@ import xlogo.kernel.perspective.*;
 		final int h = uc.getImageHeight();
 
 		if (x > 0 & x < w & y > 0 & y < h) {
-		final int couleur_origine = DrawPanel.dessin.getRGB(x, y);
+		final int couleur_origine = dessin.getRGB(x, y);
 		final int couleur_crayon = tortue.couleurcrayon.getRGB();
 		if (x > 0 & x < w & y > 0 & y < h) {
 			final Stack<Point> pile_germes = new Stack<Point>();
@@ -1887,7 +1889,7 @@ import xlogo.kernel.perspective.*;
 				for (int i = xmin; i < xmax + 1; i++) {
 					//on recherche les germes au dessus et au dessous
 					if (ygerme > 0
-							&& DrawPanel.dessin.getRGB(i, ygerme - 1) != couleur_origine) {
+							&& dessin.getRGB(i, ygerme - 1) != couleur_origine) {
 						if (ligne_dessus)
 							pile_germes.push(new Point(i - 1, ygerme - 1));
 						ligne_dessus = false;
@@ -1897,7 +1899,7 @@ import xlogo.kernel.perspective.*;
 							pile_germes.push(new Point(xmax, ygerme - 1));
 					}
 					if (ygerme < h-1
-							&& DrawPanel.dessin.getRGB(i, ygerme + 1) != couleur_origine) {
+							&& dessin.getRGB(i, ygerme + 1) != couleur_origine) {
 						if (ligne_dessous)
 							pile_germes.push(new Point(i - 1, ygerme + 1));
 						ligne_dessous = false;
@@ -1922,7 +1924,7 @@ import xlogo.kernel.perspective.*;
 		montrecacheTortue(false);
 		if (!enabled3D()){
 			final double angle = Math.PI / 2 - tortue.angle;
-			if(DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
+			if(WINDOW_MODE==DrawPanel.WINDOW_WRAP) centers=new Vector<Point2D.Double>();
 			etiquette2D(tortue.corX,tortue.corY,angle,mot);
 /*			g.rotate(angle);
 			g.setPaintMode();
@@ -2014,7 +2016,7 @@ import xlogo.kernel.perspective.*;
 	    g.drawString(word, x1, y1);
 		g.rotate(-angle);
 		g.translate(-x, -y);
-		if (DrawPanel.WINDOW_MODE==DrawPanel.WINDOW_WRAP){
+		if (WINDOW_MODE==DrawPanel.WINDOW_WRAP){
 		    final Rectangle2D.Double rec=new Rectangle2D.Double(0,0,width,height);
 		    final AffineTransform at=new AffineTransform();
 		    at.translate(x, y);
@@ -2263,7 +2265,7 @@ import xlogo.kernel.perspective.*;
 			final GuiComponent gc=gm.get(id);
 			// If gc is a JButton
 			if (gc.isButton()){
-				((GuiButton)gc).setAction(Utils.decoupe(liste));
+				((GuiButton)gc).setAction(Utils.decoupe(liste, true));
 				if (!gc.hasAction()){
 					((javax.swing.JButton)gc.getGuiObject()).addActionListener(gc);
 					gc.hasAction=true;
@@ -2363,33 +2365,33 @@ import xlogo.kernel.perspective.*;
 				chemin = "tortue1.png";
 			tortue.tort = Toolkit.getDefaultToolkit().getImage(
 					Utils.class.getResource(chemin));
-			MediaTracker tracker = new MediaTracker(cadre.getFrame());
+			MediaTracker tracker = new MediaTracker(this);
 			tracker.addImage(tortue.tort, 0);
 			try {
 				tracker.waitForID(0);
 			} catch (final InterruptedException e1) {
 			}
-			final double largeur_ecran = Toolkit.getDefaultToolkit().getScreenSize()
+			final double largeur_ecran = Utils.getScreenSize()
 					.getWidth();
 			// On fait attention à la résolution de l'utilisateur
 			final double facteur = largeur_ecran / 1024.0;
 
 			if ((int) (facteur + 0.001) != 1) {
-				tortue.largeur = tortue.tort.getWidth(cadre.getFrame());
-				tortue.hauteur = tortue.tort.getHeight(cadre.getFrame());
+				tortue.largeur = tortue.tort.getWidth(this);
+				tortue.hauteur = tortue.tort.getHeight(this);
 				tortue.tort = tortue.tort.getScaledInstance(
 						(int) (facteur * tortue.largeur),
 						(int) (facteur * tortue.hauteur),
 						Image.SCALE_SMOOTH);
-				tracker = new MediaTracker(cadre.getFrame());
+				tracker = new MediaTracker(this);
 				tracker.addImage(tortue.tort, 0);
 				try {
 					tracker.waitForID(0);
 				} catch (final InterruptedException e1) {
 				}
 			}
-			tortue.largeur = tortue.tort.getWidth(cadre.getFrame());
-			tortue.hauteur = tortue.tort.getHeight(cadre.getFrame());
+			tortue.largeur = tortue.tort.getWidth(this);
+			tortue.hauteur = tortue.tort.getHeight(this);
 		}
 		tortue.gabarit = Math.max(tortue.hauteur,
 				tortue.largeur);
@@ -2483,7 +2485,7 @@ import xlogo.kernel.perspective.*;
 	    	}
 	    	else {
 	    		g.setXORMode(couleurfond);
-	    		tracker=new MediaTracker(cadre.getFrame());
+	    		tracker=new MediaTracker(this);
 	    		tracker.addImage(tortue.tort,0);
 	    		try{tracker.waitForID(0);}
 	    		catch(final InterruptedException e){}
@@ -2661,10 +2663,10 @@ import xlogo.kernel.perspective.*;
 		  g2d.setClip(shape);
 		  shape=null;
 	  }
-	  g2d.scale(DrawPanel.zoom,DrawPanel.zoom);
+	  g2d.scale(zoom,zoom);
 	  g2d.drawImage(dessin,0,0,this);
-	  g2d.scale(1/DrawPanel.zoom,1/DrawPanel.zoom);
-	  if (!Affichage.execution_lancee&&null!=selection&&cadre.commande_isEditable()){
+	  g2d.scale(1/zoom,1/zoom);
+	  if (!cadre.getKernel().getExecutionContext().isRunning()&&null!=selection&&cadre.commande_isEditable()){
 		  g2d.setColor(colorSelection);
 		  g2d.fillRect(selection.x, selection.y, selection.width, selection.height);
 	  }
@@ -2685,7 +2687,7 @@ import xlogo.kernel.perspective.*;
 		 return possouris;
 	 }
 	  public void mousePressed(final MouseEvent e){
-		 if (!Affichage.execution_lancee) {
+		 if (!cadre.getKernel().getExecutionContext().isRunning()) {
 			 selection=new Rectangle();
 			 origine=new Point(e.getPoint());
 			 selection.setSize(0, 0);
@@ -2696,7 +2698,7 @@ import xlogo.kernel.perspective.*;
 		 final UserConfig uc = WSManager.getUserConfig();
 		final int w = uc.getImageWidth();
 		final int h = uc.getImageHeight();
-		 if (!Affichage.execution_lancee){
+		 if (!cadre.getKernel().getExecutionContext().isRunning()){
 			 selection=null;
 			 origine=null;
 			 repaint();
@@ -2715,7 +2717,7 @@ import xlogo.kernel.perspective.*;
 	 }
 	 // Select an export area
 	 public void mouseDragged(final MouseEvent e){
-		 if (!Affichage.execution_lancee&&null!=selection){
+		 if (!cadre.getKernel().getExecutionContext().isRunning()&&null!=selection){
 			 // First, we test if we need to move the scrollbars
 			 	final Point pos=e.getPoint();
 				final javax.swing.JViewport jv=cadre.scrollArea.getViewport();
@@ -2799,7 +2801,7 @@ import xlogo.kernel.perspective.*;
     * @return
     */
    private BufferedImage getImagePart(final int[] coords){
-	   Image pic=DrawPanel.dessin;
+	   Image pic=dessin;
 	   if (zoom!=1){
 		  pic=createImage(new FilteredImageSource(pic.getSource(),
 				 new ReplicateScaleFilter((int)(dessin.getWidth()*zoom),(int)(dessin.getHeight()*zoom))));
@@ -2811,7 +2813,7 @@ import xlogo.kernel.perspective.*;
 
 
    public BufferedImage getSelectionImage(){
-	   Image pic=DrawPanel.dessin;
+	   Image pic=dessin;
 	   if (zoom!=1){
 		  pic=createImage(new FilteredImageSource(pic.getSource(),
 				 new ReplicateScaleFilter((int)(dessin.getWidth()*zoom),(int)(dessin.getHeight()*zoom))));
@@ -2891,7 +2893,7 @@ import xlogo.kernel.perspective.*;
 	   }
    }
    private void tryRecord2DMode(final double a, final double b){
-		if (DrawPanel.record2D==DrawPanel.record2D_POLYGON){
+		if (record2D==DrawPanel.record2D_POLYGON){
 			// FillPolygon mode
 			if (stackTriangle.size()==3){
 				stackTriangle.remove(0);
@@ -2914,11 +2916,11 @@ import xlogo.kernel.perspective.*;
 
    }
    protected void startRecord2DPolygon(){
-	   DrawPanel.record2D=DrawPanel.record2D_POLYGON;
+	   record2D=DrawPanel.record2D_POLYGON;
 	   	stackTriangle=new Vector<Point2D.Double>();
 	    stackTriangle.add(new Point2D.Double(tortue.corX,tortue.corY));
    }
    protected void stopRecord2DPolygon(){
-		DrawPanel.record2D=DrawPanel.record2D_NONE;
+		record2D=DrawPanel.record2D_NONE;
    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ *
+ * Contents of this file were initially written by Loic Le Coq
+ */
+
+package xlogo.kernel;
+
+import java.util.Stack;
+
+/**
+ * The state of a running Logo program. In XLogo, these were static fields of {@link Interprete}, {@link Primitive},
+ * {@link Kernel} and {@link Affichage}, hence one JVM could run only one program at a time.
+ * Now every {@link Kernel} owns one ExecutionContext, and several kernels can run side by side.
+ * <p>
+ * The fields keep their names from XLogo.
+ */
+public class ExecutionContext
+{
+	/**
+	 * The values that were computed, but not yet consumed by a primitive or procedure
+	 */
+	public ValueStack					calcul				= new ValueStack();
+	/**
+	 * The primitives and procedures that wait for their arguments.
+	 * {@link Primitive#END_PROCEDURE} marks the beginning of a procedure, "(" an opening parenthesis.
+	 */
+	protected Stack<String>				nom					= new Stack<String>();
+	/**
+	 * The names of the running procedures
+	 */
+	public Stack<String>				en_cours			= new Stack<String>();
+	/**
+	 * The local variables of the running procedure
+	 */
+	protected LocalFrame				locale				= new LocalFrame();
+	/**
+	 * The local variables of the calling procedures
+	 */
+	protected Stack<LocalFrame>			stockvariable		= new Stack<LocalFrame>();
+	/**
+	 * The running loops
+	 */
+	protected Stack<LoopProperties>		stackLoop			= new Stack<LoopProperties>();
+	
+	protected boolean					operande			= false;
+	protected boolean					operateur			= false;
+	protected boolean					drapeau_ouvrante	= false;
+	protected boolean					drapeau_fermante	= false;
+	protected boolean					renvoi_instruction	= false;
+	protected boolean					stop				= false;
+	/**
+	 * The size of {@link #nom} while the argument of <code>output</code> is evaluated at the end of a procedure, or -1.
+	 * A procedure that is the whole argument replaces the running procedure, see {@link LaunchPrimitive}
+	 */
+	protected int						tailOutput			= -1;
+	/**
+	 * The instructions of gui buttons and menus that were activated while the program runs
+	 */
+	public StringBuffer					actionInstruction	= new StringBuffer();
+	/**
+	 * The start time of the primitive chrono
+	 */
+	protected long						chrono				= 0;
+	/**
+	 * true if procedure calls and outputs are traced
+	 */
+	protected boolean					mode_trace			= false;
+	/**
+	 * true while a program runs
+	 */
+	protected boolean					execution_lancee	= false;
+	/**
+	 * Counts the steps of the running program, and stops or pauses it
+	 */
+	protected final ExecutionGovernor	governor			= new ExecutionGovernor();
+	/**
+	 * Measures the procedures and primitives while it is active, see profile.start
+	 */
+	protected final Profiler			profiler			= new Profiler();
+	
+	/**
+	 * Forget the state of the last program before a new program runs
+	 */
+	protected void reset()
+	{
+		operande = operateur = drapeau_ouvrante = false;
+		tailOutput = -1;
+		calcul = new ValueStack();
+		nom = new Stack<String>();
+		locale = new LocalFrame();
+		en_cours = new Stack<String>();
+		governor.reset();
+	}
+	
+	public ExecutionGovernor getGovernor()
+	{
+		return governor;
+	}
+	
+	public Profiler getProfiler()
+	{
+		return profiler;
+	}
+	
+	/**
+	 * Leave the local variables of the current procedure, and go back to the ones of the caller.
+	 * The frame of the current procedure is reused by the next procedure call.
+	 */
+	protected void restoreLocale()
+	{
+		locale.release();
+		locale = stockvariable.pop();
+	}
+	
+	/**
+	 * @return true while a program runs
+	 */
+	public boolean isRunning()
+	{
+		return execution_lancee;
+	}
+}
@@ -0,0 +1,288 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import xlogo.Logo;
+import xlogo.storage.global.GlobalConfig;
+
+/**
+ * Decides how long a Logo program may run, and stops or pauses it.
+ * <p>
+ * In XLogo, a MemoryChecker thread woke up every few seconds, looked at the heap and stopped the running program
+ * when the memory was almost full, and the interpreter spun in a loop while the program was paused.
+ * Now the interpreter counts every primitive and procedure call with {@link #step()}, and every {@link #CHECK_INTERVAL} steps
+ * (or at once, if another thread has cancelled or paused the program) the governor checks
+ * <ul>
+ * <li>whether the program has been cancelled with {@link #cancel()},</li>
+ * <li>whether it has been paused with {@link #setPaused(boolean)}. The interpreter thread then blocks until the program is resumed,</li>
+ * <li>whether the program has run longer than its time budget, see {@link #setTimeBudget(long)},</li>
+ * <li>and, at most every {@link #MEMORY_CHECK_INTERVAL} nanoseconds, whether the memory is almost full.</li>
+ * </ul>
+ * The step budget, see {@link #setStepBudget(long)}, is checked on every step, such that a program is always stopped after the same instruction.
+ * The budgets stay the same for all programs that are run by the same {@link Kernel}, until they are changed.
+ */
+public class ExecutionGovernor
+{
+	/**
+	 * The number of steps between two checks, a power of two
+	 */
+	protected static final int		CHECK_INTERVAL			= 1024;
+	protected static final long		MEMORY_CHECK_INTERVAL	= 500L * 1000 * 1000;
+	
+	/**
+	 * The number of primitives and procedures that were executed by the running program
+	 */
+	private long					steps;
+	/**
+	 * The program is stopped with an error after this number of steps, 0 means no limit
+	 */
+	private long					stepBudget;
+	/**
+	 * The program is stopped with an error after this number of milliseconds, 0 means no limit
+	 */
+	private long					timeBudget;
+	/**
+	 * {@link System#nanoTime()} when the running program has used up its time budget, only valid if {@link #timeBudget} > 0
+	 */
+	private long					deadline;
+	private boolean					timeBudgetExceeded;
+	private long					nextMemoryCheck;
+	private long					memoryThreshold;
+	
+	private volatile boolean		cancelled;
+	private volatile boolean		paused;
+	/**
+	 * Set by other threads, such that the interpreter checks at the next step
+	 */
+	private volatile boolean		attention;
+	
+	/**
+	 * Prepare the governor for a new program
+	 */
+	protected void reset()
+	{
+		steps = 0;
+		timeBudgetExceeded = false;
+		long now = System.nanoTime();
+		deadline = now + timeBudget * 1000 * 1000;
+		nextMemoryCheck = now + MEMORY_CHECK_INTERVAL;
+		memoryThreshold = GlobalConfig.getMemoryThreshold();
+		synchronized (this)
+		{
+			cancelled = false;
+			paused = false;
+			attention = false;
+		}
+	}
+	
+	/**
+	 * Count the execution of one primitive or procedure
+	 * @throws LogoError if the program has used up a budget, has been cancelled or the memory is full
+	 */
+	protected void step() throws LogoError
+	{
+		steps++;
+		if (stepBudget > 0 && steps > stepBudget)
+			throw new LogoError(Logo.messages.getString("error.step.budget") + " " + stepBudget);
+		if (attention || (steps & (CHECK_INTERVAL - 1)) == 0)
+			checkpoint();
+	}
+	
+	/**
+	 * Check only whether another thread has cancelled or paused the program.
+	 * Loops that do not call primitives use this.
+	 */
+	protected void poll() throws LogoError
+	{
+		if (attention)
+			checkpoint();
+	}
+	
+	/**
+	 * Check all limits, and wait as long as the program is paused
+	 */
+	protected void checkpoint() throws LogoError
+	{
+		if (paused)
+			awaitResume();
+		if (cancelled)
+			throw new LogoError(Logo.messages.getString("stop"));
+		long now = System.nanoTime();
+		if (timeBudget > 0 && now - deadline > 0)
+		{
+			timeBudgetExceeded = true;
+			throw new LogoError(Logo.messages.getString("error.time.budget") + " " + timeBudget);
+		}
+		if (now - nextMemoryCheck > 0)
+		{
+			nextMemoryCheck = now + MEMORY_CHECK_INTERVAL;
+			checkMemory();
+		}
+	}
+	
+	/**
+	 * Stop the program if the memory is almost full, even after a garbage collection
+	 */
+	private void checkMemory() throws LogoError
+	{
+		if (usedMemory() <= memoryThreshold)
+			return;
+		System.gc();
+		if (usedMemory() > memoryThreshold)
+			throw new LogoError(Logo.messages.getString("depassement_memoire"));
+	}
+	
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	/**
+	 * Block until the program is resumed or cancelled. An interrupt of the interpreter thread cancels the program,
+	 * otherwise the program would stay paused and the interpreter would come back here at every step.
+	 */
+	private synchronized void awaitResume()
+	{
+		while (paused && !cancelled)
+		{
+			try
+			{
+				wait();
+			}
+			catch (InterruptedException e)
+			{
+				cancel();
+			}
+		}
+	}
+	
+	/**
+	 * Wait for the primitive wait. The interpreter wakes up early if the program is cancelled or runs out of time.
+	 * @param millis milliseconds
+	 */
+	protected void sleep(long millis) throws LogoError
+	{
+		long end = System.nanoTime() + millis * 1000 * 1000;
+		synchronized (this)
+		{
+			while (!cancelled)
+			{
+				long remaining = end - System.nanoTime();
+				if (timeBudget > 0)
+					remaining = Math.min(remaining, deadline - System.nanoTime());
+				if (remaining <= 0)
+					break;
+				try
+				{
+					wait(remaining / 1000000, (int) (remaining % 1000000));
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		checkpoint();
+	}
+	
+	/**
+	 * Stop the running program at its next step. May be called by any thread.
+	 */
+	public synchronized void cancel()
+	{
+		cancelled = true;
+		attention = true;
+		notifyAll();
+	}
+	
+	/**
+	 * Pause or resume the running program. May be called by any thread.
+	 * While the program is paused, the interpreter thread blocks at its next step.
+	 */
+	public synchronized void setPaused(boolean paused)
+	{
+		this.paused = paused;
+		attention = paused || cancelled;
+		notifyAll();
+	}
+	
+	public boolean isPaused()
+	{
+		return paused;
+	}
+	
+	/**
+	 * @return the number of primitives and procedures that were executed by the running or the last program
+	 */
+	public long getSteps()
+	{
+		return steps;
+	}
+	
+	/**
+	 * @param stepBudget the maximum number of primitives and procedures a program may execute, 0 means no limit
+	 */
+	public void setStepBudget(long stepBudget)
+	{
+		this.stepBudget = stepBudget;
+	}
+	
+	public long getStepBudget()
+	{
+		return stepBudget;
+	}
+	
+	/**
+	 * @return true if the last program was stopped because it used up its step budget
+	 */
+	public boolean isStepBudgetExceeded()
+	{
+		return stepBudget > 0 && steps > stepBudget;
+	}
+	
+	/**
+	 * @param timeBudget the maximum number of milliseconds a program may run, 0 means no limit. Used from the next program on.
+	 */
+	public void setTimeBudget(long timeBudget)
+	{
+		this.timeBudget = timeBudget;
+	}
+	
+	public long getTimeBudget()
+	{
+		return timeBudget;
+	}
+	
+	/**
+	 * @return true if the last program was stopped because it used up its time budget
+	 */
+	public boolean isTimeBudgetExceeded()
+	{
+		return timeBudgetExceeded;
+	}
+}
@@ -0,0 +1,251 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+/**
+ * An arithmetic expression on numbers and variables, e.g. <code>:x * :x + :y / 2</code> or <code>(:a + 1) * 3</code>,
+ * parsed once by precedence climbing and evaluated without the {@link InstructionBuffer}.
+ * <p>
+ * The {@link Interprete} evaluates infix operators like primitives with two arguments: every operator and every operand
+ * passes the main loop, the operators wait on the stack {@link ExecutionContext#nom}, and their priority is compared by
+ * <code>prioriteinf</code>. The right operand of every operator is read by a nested call of the interpreter.
+ * For an expression that contains neither calls nor signs, the result is the same as if the expression was parsed once,
+ * with * and / binding stronger than + and -, and all of them being left-associative.
+ * The interpreter therefore evaluates such an expression at once, when it starts reading an argument
+ * (see {@link CodeBlock#getExpression(int)}).
+ * The operators are still executed by {@link LaunchPrimitive}, hence the results and the errors don't change.
+ * <p>
+ * An expression is only parsed if
+ * <ul>
+ * <li>it contains at least one of the operators + - * /,</li>
+ * <li>its operands are numbers, variables or expressions in parentheses,</li>
+ * <li>it lies on a single line in the editor (the interpreter ends an expression at the end of the line),</li>
+ * <li>and it is not followed by + - * / (e.g. <code>:x * 2 + sin 30</code>, where the interpreter reads sin 30 as operand).
+ * Comparisons and | &amp; may follow, they have a lower priority.</li>
+ * </ul>
+ * A unary - or + is left to the interpreter, since it reads e.g. <code>2 * - 3 + 1</code> as <code>2 * -1 * 3 + 1</code>.
+ */
+public abstract class InfixExpression
+{
+	private static final int	TIMES	= 30;
+	private static final int	DIVIDE	= 31;
+	private static final int	PLUS	= 32;
+	private static final int	MINUS	= 33;
+	
+	/**
+	 * Marks the words of a {@link CodeBlock} that do not start an expression
+	 */
+	static final InfixExpression	NONE	= new Constant("");
+	
+	/**
+	 * The number of words of the whole expression, only set for the root
+	 */
+	private int					length;
+	
+	/**
+	 * @return the number of words of this expression in the code block
+	 */
+	public int getLength()
+	{
+		return length;
+	}
+	
+	/**
+	 * @return the value of the expression
+	 * @throws LogoError if a variable has no value or an operation fails
+	 */
+	abstract String evaluate(Interprete interprete) throws LogoError;
+	
+	/**
+	 * @return the expression that starts with the word at index, or {@link #NONE}
+	 */
+	static InfixExpression parse(CodeBlock block, int index)
+	{
+		Parser parser = new Parser(block, index);
+		InfixExpression expression = parser.parseExpression(0);
+		if (null == expression || parser.operations == 0 || !parser.isComplete())
+			return NONE;
+		expression.length = parser.cursor - index;
+		return expression;
+	}
+	
+	/**
+	 * @return the id of the primitive if the word is + - * /, or -1
+	 */
+	private static int getOperator(String word)
+	{
+		if (word.length() != 1)
+			return -1;
+		switch (word.charAt(0))
+		{
+			case '*':
+				return TIMES;
+			case '/':
+				return DIVIDE;
+			case '+':
+				return PLUS;
+			case '-':
+				return MINUS;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Precedence climbing over the words of a code block
+	 */
+	private static class Parser
+	{
+		private final CodeBlock	block;
+		private final int		start;
+		private int				cursor;
+		private int				operations	= 0;
+		
+		Parser(CodeBlock block, int start)
+		{
+			this.block = block;
+			this.start = start;
+			this.cursor = start;
+		}
+		
+		/**
+		 * @return false if the word at the cursor belongs to another line or to another segment of the instruction buffer
+		 */
+		private boolean hasNext()
+		{
+			return cursor < block.size() && (cursor == start || !block.isLineStart(cursor));
+		}
+		
+		/**
+		 * The expression must not continue with an operator that the interpreter would apply to its last operand.
+		 * At the end of the block, the next word is unknown.
+		 */
+		private boolean isComplete()
+		{
+			if (cursor >= block.size())
+				return false;
+			return block.isLineStart(cursor) || getOperator(block.getWord(cursor)) == -1;
+		}
+		
+		/**
+		 * Parse an operand and all following operators with a higher priority than level
+		 * @param level 2 for * /, 1 for + -, 0 for none
+		 * @return the expression, or null if this is not an expression on numbers and variables
+		 */
+		InfixExpression parseExpression(int level)
+		{
+			InfixExpression left = parseOperand();
+			while (null != left && hasNext())
+			{
+				String name = block.getWord(cursor);
+				int operator = getOperator(name);
+				int priority = (operator == TIMES || operator == DIVIDE) ? 2 : 1;
+				if (operator == -1 || priority <= level)
+					break;
+				cursor++;
+				InfixExpression right = parseExpression(priority);
+				if (null == right)
+					return null;
+				left = new Operation(operator, name, left, right);
+				operations++;
+			}
+			return left;
+		}
+		
+		private InfixExpression parseOperand()
+		{
+			if (!hasNext())
+				return null;
+			switch (block.getKind(cursor))
+			{
+				case CodeBlock.NUMBER:
+					return new Constant(block.getValue(cursor++));
+				case CodeBlock.VARIABLE:
+					return new Variable(block.getValue(cursor++));
+			}
+			if (!block.getWord(cursor).equals("("))
+				return null;
+			cursor++;
+			InfixExpression expression = parseExpression(0);
+			if (null == expression || !hasNext() || !block.getWord(cursor).equals(")"))
+				return null;
+			cursor++;
+			return expression;
+		}
+	}
+	
+	private static class Constant extends InfixExpression
+	{
+		private final String	value;
+		
+		Constant(String value)
+		{
+			this.value = value;
+		}
+		
+		String evaluate(Interprete interprete)
+		{
+			return value;
+		}
+	}
+	
+	private static class Variable extends InfixExpression
+	{
+		private final String	name;
+		
+		Variable(String name)
+		{
+			this.name = name;
+		}
+		
+		String evaluate(Interprete interprete) throws LogoError
+		{
+			return interprete.getVariable(name).toString();
+		}
+	}
+	
+	private static class Operation extends InfixExpression
+	{
+		private final int				operator;
+		private final String			name;
+		private final InfixExpression	left;
+		private final InfixExpression	right;
+		
+		Operation(int operator, String name, InfixExpression left, InfixExpression right)
+		{
+			this.operator = operator;
+			this.name = name;
+			this.left = left;
+			this.right = right;
+		}
+		
+		String evaluate(Interprete interprete) throws LogoError
+		{
+			String a = left.evaluate(interprete);
+			String b = right.evaluate(interprete);
+			return interprete.operate(operator, name, a, b);
+		}
+	}
+}
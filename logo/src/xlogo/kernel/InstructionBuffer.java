@@ -25,182 +25,340 @@
  * Contents of this file were initially written by Loic Le Coq,
  * modifications, extensions, refactorings might have been applied by Marko Zivkovic 
  */
-
 package xlogo.kernel;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The instructions that remain to be executed.
+ * <p>
+ * In XLogo, this was a StringBuffer with the text of all instructions. Every executed word was deleted from its front,
+ * and every procedure call or loop iteration inserted its text at the front again (which copied the whole buffer).
+ * <p>
+ * Now the buffer is a stack of segments. Each segment is an immutable {@link CodeBlock} with a cursor.
+ * Inserting code pushes a new segment, reading a word only moves the cursor of the top segment.
+ * A segment is removed after its last word was deleted, as soon as the next word is read or new code is inserted.
+ * Until then, it still provides the line number of its last word.
+ * <p>
+ * Loops keep their compiled body (see {@link LoopProperties#getCode(MyCalculator)}), so an iteration only pushes a reference to it.
+ * @author Marko Zivkovic, Loic
+ */
 public class InstructionBuffer {
 	/**
-	 * This integer represents the max Characters in the StringBuffer
+	 * The segments, segments[depth-1] is the top of the stack.
 	 */
-	
-	private final static int MAX_CHARACTERS=15000;
+	private CodeBlock[] blocks = new CodeBlock[16];
+	private int[] cursors = new int[16];
 	/**
-	 * The main StringBuffer containing instruction
+	 * For each segment, the entry of its line table (see {@link CodeBlock#getLineOffset(int)}) whose line start has not been passed yet.
+	 * The entries before it correspond to the deleted line number markers \l of XLogo.
 	 */
-	private StringBuffer mainBuffer;
+	private int[] nextLines = new int[16];
+	private int depth = 0;
 	/**
-	 * If the main StringBuffer is very large, Xlogo could become very slow. If main StringBuffer should contain more than MAX_CHARACTERS, those characters are saved in this StringBuffer
+	 * The lists of if, run, while... are inserted as text, usually the same text on every iteration of a loop.
+	 * Their compiled code blocks are kept here, the least recently used ones are forgotten.
+	 * Their constant expressions are folded by {@link #foldedWith}, see {@link ConstantFolder}.
 	 */
-	private StringBuffer stock;
+	private static final int MAX_CACHED_BLOCKS = 256;
+	@SuppressWarnings("serial")
+	private final Map<String, CodeBlock> compiled = new LinkedHashMap<String, CodeBlock>(64, 0.75f, true){
+		protected boolean removeEldestEntry(Map.Entry<String, CodeBlock> eldest){
+			return size() > MAX_CACHED_BLOCKS;
+		}
+	};
+	private final Kernel kernel;
+	private MyCalculator foldedWith;
 	
-	InstructionBuffer(){
+	InstructionBuffer(Kernel kernel){
+		this.kernel = kernel;
 		clear();
 	}
-	InstructionBuffer(String s){
-		mainBuffer=new StringBuffer(s);
-		stock=new StringBuffer();
-	}
 	/**
-	 * Inserts some instructions at the beginning of the StringBuffer mainBuffer 
+	 * Inserts some instructions at the beginning of the buffer
 	 * @param sb: The code to insert
 	 */
 	void insertCode(StringBuffer sb){
-		if (sb.length()>InstructionBuffer.MAX_CHARACTERS) {
-			// insert current mainBuffer to stock
-			if (mainBuffer.length()!=0) stock.insert(0,mainBuffer);
-			// Copy MAX_CHARACTERS into mainBuffer
-			mainBuffer=new StringBuffer(sb.substring(0, InstructionBuffer.MAX_CHARACTERS));
-			// All remaining characters into stock
-			stock.insert(0,sb.substring(InstructionBuffer.MAX_CHARACTERS));
-		}
-		else {
-			mainBuffer.insert(0, sb);
-		}
-		
+		if (sb.length() != 0)
+			insertCode(CodeBlock.compile(sb));
 	}
 	/**
-	 * returns the total length of the two Buffer
+	 * Inserts an already compiled code block at the beginning of the buffer.
+	 * The block is not copied.
+	 * @param block
 	 */
-	protected int getLength(){
-		return mainBuffer.length()+stock.length();
+	void insertCode(CodeBlock block){
+		if (block.size() == 0)
+			return;
+		dropFinished();
+		if (depth == blocks.length){
+			int n = 2 * depth;
+			blocks = Arrays.copyOf(blocks, n);
+			cursors = Arrays.copyOf(cursors, n);
+			nextLines = Arrays.copyOf(nextLines, n);
+		}
+		blocks[depth] = block;
+		cursors[depth] = 0;
+		nextLines[depth] = 0;
+		depth++;
 	}
 	/**
-	 * Inserts the String s at the beginning of the mainBuffer
+	 * Inserts the String s at the beginning of the buffer
 	 * @param s
 	 */
 	protected void insert(String s){
-		mainBuffer.insert(0, s);
+		MyCalculator calculator = kernel.getCalculator();
+		if (foldedWith != calculator){
+			// setdigits: the constant expressions must be computed again
+			compiled.clear();
+			foldedWith = calculator;
+		}
+		CodeBlock block = compiled.get(s);
+		if (block == null){
+			block = ConstantFolder.fold(CodeBlock.compile(s), calculator);
+			compiled.put(s, block);
+		}
+		insertCode(block);
+	}
+	/**
+	 * @return true if there are no more instructions
+	 */
+	protected boolean isEmpty(){
+		dropFinished();
+		return depth == 0;
 	}
 	/**
-	 * Search for the String s , first in mainBuffer and then in stock
-	 * if it isn't found in any buffer returns -1
-	 * @param s: The String to search
+	 * Search for the word s, starting at the next word.
+	 * @param s: The word to search
+	 * @return the position of the word, relative to the next word, or -1 if not found
 	 */
 	protected int indexOf(String s){
-		int index=mainBuffer.indexOf(s);
-		if (index==-1){
-			index=stock.indexOf(s);
-			if (index==-1) return -1;
-			else return index+mainBuffer.length();
-		}
-		return index;
-		
+		return indexOf(s, 0);
 	}
 	/**
-	 * Search for the String s , first in mainBuffer and then in stock
-	 * if not found in any buffer returns -1
-	 * @param s: The String to search
+	 * Search for the word s
+	 * @param s: The word to search
+	 * @param fromIndex: number of words to skip
+	 * @return the position of the word, relative to the next word, or -1 if not found
 	 */
 	protected int indexOf(String s, int fromIndex){
-		int index=-1;
-		if (fromIndex<mainBuffer.length()) index=mainBuffer.indexOf(s,fromIndex);
-		if (index==-1){
-			int from=0;
-			if (fromIndex>=mainBuffer.length()) from=fromIndex-mainBuffer.length();
-			index=stock.indexOf(s,from);
-			if (index==-1) return -1;
-			else return index+mainBuffer.length();
+		int offset = 0;
+		for (int d = depth - 1; d >= 0; d--){
+			CodeBlock block = blocks[d];
+			int size = block.size();
+			for (int i = cursors[d]; i < size; i++){
+				if (offset >= fromIndex && block.getWord(i).equals(s))
+					return offset;
+				offset++;
+			}
 		}
-		return index;
-		
+		return -1;
 	}
-	
-	
 	/**
-	 * Delete all code from offset start to offset end
-	 * @param start Start offset
-	 * @param end End offset
+	 * Search for the first word that is equal to s1 or s2
+	 * @return the position of the word, relative to the next word, or -1 if not found
 	 */
-	protected void delete(int start, int end){
-		if (end<=mainBuffer.length()) mainBuffer.delete(start, end);
-		else {
-			stock.delete(0, end-mainBuffer.length());
-			mainBuffer=new StringBuffer();
-			transferStock();
+	protected int indexOf(String s1, String s2){
+		int offset = 0;
+		for (int d = depth - 1; d >= 0; d--){
+			CodeBlock block = blocks[d];
+			int size = block.size();
+			for (int i = cursors[d]; i < size; i++){
+				String word = block.getWord(i);
+				if (word.equals(s1) || word.equals(s2))
+					return offset;
+				offset++;
+			}
 		}
-		if (mainBuffer.length()==0){
-			// if there are instruction in stock yet
-			if (stock.length()!=0) transferStock();
+		return -1;
+	}
+	/**
+	 * @param s: The word to count
+	 * @param end: number of words to look at
+	 * @return how many times the word s occurs in the next end words 
+	 */
+	protected int count(String s, int end){
+		int offset = 0;
+		int count = 0;
+		for (int d = depth - 1; d >= 0 && offset < end; d--){
+			CodeBlock block = blocks[d];
+			int size = block.size();
+			for (int i = cursors[d]; i < size && offset < end; i++){
+				if (block.getWord(i).equals(s))
+					count++;
+				offset++;
+			}
 		}
-		
+		return count;
 	}
 	/**
-	 * Transfers MAX_CHARCATERS from the buffer stock to mainBuffer
+	 * @param offset: position of the word, relative to the next word
+	 * @return the word at this position, or an empty String
 	 */
-	
-	private void transferStock(){
-		if (stock.length()>InstructionBuffer.MAX_CHARACTERS){
-			mainBuffer.append(stock.substring(0, InstructionBuffer.MAX_CHARACTERS));			
-			stock.delete(0, InstructionBuffer.MAX_CHARACTERS);
+	protected String getWord(int offset){
+		for (int d = depth - 1; d >= 0; d--){
+			int remaining = blocks[d].size() - cursors[d];
+			if (offset < remaining)
+				return blocks[d].getWord(cursors[d] + offset);
+			offset -= remaining;
 		}
-		else {
-			mainBuffer.append(stock);
-			stock=new StringBuffer();
+		return "";
+	}
+	/**
+	 * Delete the next n words
+	 * @param n number of words
+	 */
+	protected void delete(int n){
+		dropFinished();
+		while (n > 0 && depth > 0){
+			int d = depth - 1;
+			int remaining = blocks[d].size() - cursors[d];
+			if (n <= remaining){
+				cursors[d] += n;
+				return;
+			}
+			n -= remaining;
+			pop();
 		}
 	}
+	
+	private void pop(){
+		depth--;
+		blocks[depth] = null;
+	}
+	/**
+	 * Removes the segments whose words have all been deleted
+	 */
+	private void dropFinished(){
+		while (depth > 0 && cursors[depth - 1] == blocks[depth - 1].size())
+			pop();
+	}
 	/**
 	 * Returns next Word 
-	 * @return a String which represents the next word
+	 * @return a String which represents the next word, or an empty String if the buffer is empty
 	 */
 	protected String getNextWord() {
-		StringBuffer mot = new StringBuffer();
-		char caractere;
-		for (int i = 0; i < mainBuffer.length(); i++) {
-			caractere = mainBuffer.charAt(i);
-			if (caractere == ' ') {
-				return mot.toString();
-			} else
-				mot.append(caractere);
-			if (i==mainBuffer.length()-1&& stock.length()!=0){
-				transferStock();
-			}
-		}
-		// System.out.println("mot: "+mot);
-		return mot.toString();
+		dropFinished();
+		if (depth == 0)
+			return "";
+		return blocks[depth - 1].getWord(cursors[depth - 1]);
+	}
+	/**
+	 * @return the next word in lower case
+	 */
+	protected String getNextLowerCaseWord() {
+		dropFinished();
+		if (depth == 0)
+			return "";
+		return blocks[depth - 1].getLowerCaseWord(cursors[depth - 1]);
+	}
+	/**
+	 * @return the kind of the next word, see {@link CodeBlock#getKind(int)}
+	 */
+	protected byte getNextKind() {
+		dropFinished();
+		if (depth == 0)
+			return CodeBlock.OTHER;
+		return blocks[depth - 1].getKind(cursors[depth - 1]);
+	}
+	/**
+	 * @return the parsed value of the next word, see {@link CodeBlock#getValue(int)}
+	 */
+	protected String getNextValue() {
+		dropFinished();
+		return blocks[depth - 1].getValue(cursors[depth - 1]);
 	}
- /**
-  * Deletes the String mot from the mainBuffer instructions
-  * @param mot The string to delete
-  */
+	/**
+	 * @return the arithmetic expression that starts with the next word, or null, see {@link CodeBlock#getExpression(int)}
+	 */
+	protected InfixExpression getNextExpression() {
+		dropFinished();
+		if (depth == 0)
+			return null;
+		return blocks[depth - 1].getExpression(cursors[depth - 1]);
+	}
+	/**
+	 * @return true if the next word is the first word of a line in the editor, and this line start was not passed yet.
+	 * @see #passLineStart()
+	 */
+	protected boolean isAtLineStart() {
+		dropFinished();
+		if (depth == 0)
+			return false;
+		int d = depth - 1;
+		CodeBlock block = blocks[d];
+		int entry = skipLines(d);
+		return entry < block.getLineCount() && block.getLineOffset(entry) == cursors[d];
+	}
+	/**
+	 * Skip the entries of the line table whose line start lies behind the cursor, e.g. because the words were deleted.
+	 * The cursor only moves forward, hence every entry is skipped at most once.
+	 * @return the entry of the next line start of segment d
+	 */
+	private int skipLines(int d) {
+		CodeBlock block = blocks[d];
+		int count = block.getLineCount();
+		int entry = nextLines[d];
+		while (entry < count && block.getLineOffset(entry) < cursors[d])
+			entry++;
+		nextLines[d] = entry;
+		return entry;
+	}
+	/**
+	 * The interpreter has continued with the next word on a new line.
+	 * Formerly, this was deleting the line number marker \l.
+	 */
+	protected void passLineStart() {
+		dropFinished();
+		if (depth > 0 && isAtLineStart())
+			nextLines[depth - 1]++;
+	}
+	/**
+	 * Deletes the next word
+	 * @param mot The next word, as returned by {@link #getNextWord()}
+	 */
 	protected void deleteFirstWord(String mot) {
-		if (mainBuffer.length() > mot.length())
-			mainBuffer = mainBuffer.delete(0, mot.length() + 1);
-		else
-			mainBuffer = new StringBuffer();
-		if (mainBuffer.length()==0){
-			// if there are instruction in stock yet
-			if (stock.length()!=0) transferStock();
-		}
+		dropFinished();
+		if (depth == 0)
+			return;
+		cursors[depth - 1]++;
 	}
 	/**
-	 * Return Character at the chosen index. this methos search first in mainBuffer and then in stock
-	 * @param index The chosen index
-	 * @return A character
+	 * @return the line in the editor where the innermost procedure currently is, or -1 if there is no such line.
+	 * This is the line of the last word that was deleted, or the line of the next word, if the interpreter has already passed its line start.
 	 */
-	protected char charAt(int index){
-		if (index<mainBuffer.length()) return mainBuffer.charAt(index);
-		return stock.charAt(index-mainBuffer.length());
-		
+	protected int getLineNumber() {
+		for (int d = depth - 1; d >= 0; d--){
+			CodeBlock block = blocks[d];
+			if (block.hasLines()){
+				int cursor = cursors[d];
+				int passed = nextLines[d] - 1;
+				if (d == depth - 1 && cursor < block.size() && passed >= 0 && block.getLineOffset(passed) == cursor)
+					return block.getLine(cursor);
+				return block.getLine(cursor - 1);
+			}
+		}
+		return -1;
 	}
 	/**
-	 * Clear the both buffers
+	 * Clear the buffer
 	 */
 	public void clear(){
-		mainBuffer=new StringBuffer();
-		stock=new StringBuffer();
+		for (int d = 0; d < depth; d++)
+			blocks[d] = null;
+		depth = 0;
 	}
 	public String toString(){
-		return mainBuffer.toString()+stock.toString();
-//		return "MainBuffer:"+mainBuffer.toString()+":stock:"+stock.toString();
+		StringBuilder sb = new StringBuilder();
+		for (int d = depth - 1; d >= 0; d--){
+			CodeBlock block = blocks[d];
+			for (int i = cursors[d]; i < block.size(); i++){
+				sb.append(block.getWord(i));
+				sb.append(' ');
+			}
+		}
+		return sb.toString();
 	}
 }
@@ -33,16 +33,20 @@
  * @author Loïc Le Coq */
 package xlogo.kernel;
 
+import java.util.ArrayList;
 import java.util.Stack;
-import java.util.HashMap;
 
 import xlogo.Application;
 import xlogo.Logo;
 import xlogo.kernel.userspace.UserSpace;
 import xlogo.kernel.userspace.procedures.Procedure;
 
-public class Interprete
+public class Interprete implements ProcedureCaller
 {
+	/**
+	 * The primitive output
+	 */
+	private static final int						OUTPUT				= 29;
 	
 	private LaunchPrimitive							lanceprim;
 	
@@ -51,35 +55,23 @@ public class Interprete
 	private Kernel									kernel;
 	
 	private UserSpace								wp;
-	protected static boolean						renvoi_instruction	= false;
-	public static Stack<String>						calcul				= new Stack<String>();
-	protected static Stack<HashMap<String, String>>	stockvariable		= new Stack<HashMap<String, String>>();
-	protected static boolean						stop				= false;
-	protected static Stack<String>					nom					= new Stack<String>();
-	// procédures attendant
-	// parmamètres à recevoir
-	public static Stack<String>						en_cours			= new Stack<String>();
-	// actuellement en cours
-	// d'exécution
+	private SymbolTable								symbols;
+	/**
+	 * The state of the running program
+	 */
+	private ExecutionContext						context;
 	/**
 	 * This buffer contains all instructions to execute
 	 * 
 	 * @uml.property name="instructionBuffer"
 	 * @uml.associationEnd multiplicity="(1 1)"
 	 */
-	private InstructionBuffer						instructionBuffer	= new InstructionBuffer();
-	
-	public static StringBuffer						actionInstruction	= new StringBuffer();
-	
-	protected static HashMap<String, String>		locale				= new HashMap<String, String>();
-	// noms des variables
-	// locales
-	
-	protected static boolean						operande			= false;
-	protected static boolean						operateur			= false;
-	protected static boolean						drapeau_ouvrante	= false;
-	protected static boolean						drapeau_fermante	= false;
-	public static String							lineNumber			= "";
+	private InstructionBuffer						instructionBuffer;
+	/**
+	 * The buffers of the procedures that are called by primitives such as map, one for each level of nested calls, see {@link #call(Procedure, ValueStack)}
+	 */
+	private final ArrayList<InstructionBuffer>		callBuffers			= new ArrayList<InstructionBuffer>();
+	private int										callDepth			= 0;
 	
 	// private TreeParser tp;
 	/*
@@ -91,11 +83,30 @@ public class Interprete
 		this.kernel = app.getKernel();
 		this.app = app;
 		wp = kernel.getWorkspace();
-		lanceprim = new LaunchPrimitive(app, wp);
+		symbols = kernel.getSymbolTable();
+		context = kernel.getExecutionContext();
+		instructionBuffer = new InstructionBuffer(kernel);
+		lanceprim = new LaunchPrimitive(app, wp, this);
 		app.error = false;
 	}
 	
 	String execute(StringBuffer instructions) throws LogoError
+	{
+		try
+		{
+			return executeValue(instructions).toString();
+		}
+		catch (StackOverflowError e)
+		{
+			throw new LogoError(Logo.messages.getString("depassement_memoire"));
+		}
+	}
+	
+	/**
+	 * Execute the instructions until one of them outputs a value
+	 * @return the value, as it is returned by {@link ValueStack#getValue(int)}, or "" if there is none
+	 */
+	Object executeValue(StringBuffer instructions) throws LogoError
 	{
 		if (!instructions.equals(""))
 		{
@@ -103,19 +114,11 @@ public class Interprete
 		}
 		
 		// Object obca1,obca2,oban;
-		while (instructionBuffer.getLength() != 0)
+		while (!instructionBuffer.isEmpty())
 		{
 			if (app.error) // TODO  && LogoError.lance : before, lance was always false, thus this branch was never taken. check this.
 				throw new LogoError(Logo.messages.getString("stop"));
-			while (app.affichage.isOnPause())
-			{ // Si l'on touche aux scrollbars
-				try
-				{
-					wait();
-				}
-				catch (Exception e)
-				{}
-			}
+			// A paused program waits in ExecutionGovernor#step()
 			// System.out.println("en_cours d'execution "+"\n"+
 			// en_cours+"\n\n");
 			// System.out.println("nom "+nom);
@@ -125,12 +128,20 @@ public class Interprete
 			// System.out.println("operande "+calcul+" "+operande+"debut"+instructionBuffer);
 			
 			// Is this line really interesting??
-			if (instructionBuffer.getLength() == 0)
+			if (instructionBuffer.isEmpty())
 				break;
 			// System.out.print("debut\n"+instructionBuffer+"\nfin\n------------------\n");
 			String element = instructionBuffer.getNextWord();
 			// System.out.println(app.affichage.getPause()+element);
 			
+			// In XLogo, a line number marker \l was found here
+			if (instructionBuffer.isAtLineStart())
+			{
+				if (context.operande)
+					break;
+				instructionBuffer.passLineStart();
+			}
+			
 			// System.out.println("/"+instructionBuffer+"/");
 			
 			/*
@@ -140,26 +151,39 @@ public class Interprete
 				 * // si c'est une primitive ou une procedure *******
 				 * ***********************************************
 				 */
-			String element_minuscule = element.toLowerCase();
+			String element_minuscule = instructionBuffer.getNextLowerCaseWord();
+			byte kind = instructionBuffer.getNextKind();
+			
+			// Arithmetic on numbers and variables is evaluated at once, see InfixExpression
+			if (!context.operande && (kind == CodeBlock.NUMBER || kind == CodeBlock.VARIABLE || element.equals("("))
+					&& startsArgument())
+			{
+				InfixExpression expression = instructionBuffer.getNextExpression();
+				if (null != expression)
+				{
+					instructionBuffer.delete(expression.getLength());
+					context.calcul.push(expression.evaluate(this));
+					context.operande = true;
+					context.operateur = false;
+					context.drapeau_ouvrante = false;
+					continue;
+				}
+			}
 			/*
 			 * Marko Zivkovic: In XLogo4Schools, a procedure is identified by its name, not by its position in a stack.
 			 * Now, i denotes only Logo primitives. If element_minuscule is a procedure, then i will be set to -2,
 			 * s.t. the interpreter can assume as before that it denotes something other than primitive.
 			 * If i >= 0, then the interpreter will work just as before, using i.
 			 */
-			boolean isProcedure = wp.isExecutable(element_minuscule);
-			int i;
+			boolean callable = kind != CodeBlock.NUMBER && kind != CodeBlock.VARIABLE;
+			Symbol symbol = callable ? symbols.get(element_minuscule) : null;
+			boolean isProcedure = callable && symbol.isProcedure();
+			// identifiant de la primitive
+			int i = callable && !isProcedure ? symbol.getPrimitiveId() : -1;
 			
-			if (Primitive.primitives.containsKey(element_minuscule) || isProcedure)
+			if (isProcedure || i != -1)
 			{
-				
-				// identifiant de la primitive
-				if (!isProcedure)
-				{
-					i = Integer.valueOf(Primitive.primitives.get(element_minuscule)).intValue()
-							% Primitive.PRIMITIVE_NUMBER;
-				}
-				else
+				if (isProcedure)
 				{
 					//i = -i - 2;
 					i = -2; // Marko Zivkovic : i now denotes something else than a primitive : if i < -1 => isProcedure
@@ -169,12 +193,11 @@ public class Interprete
 				// monException(cadre,Logo.messages.getString("que_faire")+"
 				// "+calcul.pop() +" gdfdsf");
 				// exécuter la procédure ou la primitive.
-				Stack<String> param = new Stack<String>();
+				ValueStack param = new ValueStack();
 				if (isInfixedOperator(i))
 				{ // Si c'est un opérateur infixé
-					deleteLineNumber();
-					operateur = true;
-					operande = false;
+					context.operateur = true;
+					context.operande = false;
 					/*
 					 * if (drapeau_ouvrante) { drapeau_ouvrante=false;
 					 * if (i!=32&&i!=33) throw new myException(element+"
@@ -182,17 +205,17 @@ public class Interprete
 					 * param.push("0"); }
 					 */
 					// else
-					if (calcul.isEmpty())
+					if (context.calcul.isEmpty())
 					{ // Si le + ou le - représente le
 						// signe négatif ou positif
 						if (i != 32 && i != 33)
 							throw new LogoError(element + " " + Logo.messages.getString("error.ne_peut_etre")); // d'un
 						// nombre
-						if (nom.isEmpty())
+						if (context.nom.isEmpty())
 							param.push("0");
 						else
 						{
-							String st = nom.peek();
+							String st = context.nom.peek();
 							if (!testoperateur(st))
 								param.push("0");
 							else if ("*/".indexOf(st) > -1)
@@ -213,62 +236,53 @@ public class Interprete
 								param.push("0");
 						}
 					}
-					else if (nom.isEmpty())
+					else if (context.nom.isEmpty())
 					{
-						param.push(calcul.pop());
+						param.pushFrom(context.calcul);
 					}
 					else
 					{
-						String st = nom.peek();
+						String st = context.nom.peek();
 						if (testoperateur(st))
 						{
 							// System.out.println("st "+st+" element "+element+"
 							// "+prioriteinf(st,element));
 							if (prioriteinf(st, element))
 							{
-								param.push(calcul.pop());
+								param.pushFrom(context.calcul);
 							}
 							else
-								return (calcul.pop());
+								return (context.calcul.popValue());
 						}
 						else
-							param.push(calcul.pop());
+							param.pushFrom(context.calcul);
 					}
 				}// END: INFIX OPERATOR
-				else if (operande && i != 204)
+				else if (context.operande && i != 204)
 				{
 					checkParenthesis();
-					operande = false;
+					context.operande = false;
 					break;
 				} // Si ce n'est pas l'opérateur de fin de parenthèse, on sort
 				
-				/*
-				 * Example:
-				 * To test | Formatted Form:
-				 * fd 5 | fd 5 \l1 rt \l2
-				 * rt | --> The \l2 can't be removed before be
-				 * end | sure the rt has noproblem
-				 */
-				if (!element.equals("\n"))
-					deleteLineNumber();
 				instructionBuffer.deleteFirstWord(element);
 				
 				// Case with parenthensis
 				// eg (sum 3 4 5)
 				// eg (myProcedure 2 3 4 5)
-				if (drapeau_ouvrante)
+				if (context.drapeau_ouvrante)
 				{
-					drapeau_ouvrante = false;
+					context.drapeau_ouvrante = false;
 					int constantNumber = -1;
-					if (!hasGeneralForm(element_minuscule, i))
+					if (!hasGeneralForm(symbol, i))
 					{
 						if (!isProcedure)
-							constantNumber = kernel.primitive.parametres[i];
+							constantNumber = lanceprim.getHandler(i).getArity();
 						else
-							constantNumber = wp.getExecutable(element_minuscule).nbparametre;
+							constantNumber = symbol.getProcedure().nbparametre;
 					}
 					// Looking for all arguments (Number undefined)
-					nom.push(element);
+					context.nom.push(element);
 					int j = 0;
 					while (true)
 					{
@@ -281,7 +295,7 @@ public class Interprete
 							break;
 						try
 						{
-							operande = operateur = drapeau_ouvrante = false;
+							context.operande = context.operateur = context.drapeau_ouvrante = false;
 							if (instructionBuffer.getNextWord().equals(")"))
 							{
 								if (constantNumber != -1)
@@ -293,13 +307,11 @@ public class Interprete
 										throw new LogoError(Logo.messages.getString("too_much_arguments"));
 									}
 									else if (j < constantNumber)
-										throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + nom.peek());
+										throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + context.nom.peek());
 								}
 								break;
 							}
-							String a = execute(new StringBuffer());
-							
-							param.push(a);
+							param.pushValue(executeValue(new StringBuffer()));
 						}
 						catch (LogoError e)
 						{
@@ -314,12 +326,12 @@ public class Interprete
 						if (wp.isProcedureAmbiguous(element_minuscule))
 							throw new LogoError(Logo.messages.getString("error.call.ambiguous.procedure.name"));
 						
-						Procedure proc = wp.getExecutable(element_minuscule);
+						Procedure proc = symbol.getProcedure();
 						
 						if (j > proc.nbparametre + proc.optVariables.size())
 							throw new LogoError(Logo.messages.getString("too_much_arguments"));
 						else if (j < proc.nbparametre)
-							throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + nom.peek());
+							throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + context.nom.peek());
 						// Searching for optional arguments that are not defined
 						
 						if (j < proc.optVariables.size() + proc.nbparametre)
@@ -329,9 +341,8 @@ public class Interprete
 							{
 								try
 								{
-									operande = operateur = drapeau_ouvrante = false;
-									String a = execute(proc.optVariablesExp.get(c));
-									param.push(a);
+									context.operande = context.operateur = context.drapeau_ouvrante = false;
+									param.pushValue(executeValue(proc.optVariablesExp.get(c)));
 								}
 								catch (LogoError e)
 								{
@@ -345,26 +356,45 @@ public class Interprete
 				// classic case: predefined number of arguments
 				else
 				{
-					drapeau_ouvrante = false;
+					context.drapeau_ouvrante = false;
 					// How many arguments for the procedure or the primitive
 					int nbparametre = 0;
 					// For primitive
 					if (!isProcedure)
-						nbparametre = kernel.primitive.parametres[i];
+						nbparametre = lanceprim.getHandler(i).getArity();
 					// For procedure
 					else
-						nbparametre = wp.getExecutable(element_minuscule).nbparametre;
+						nbparametre = symbol.getProcedure().nbparametre;
 					// Looking for each arguments
 					int j = 0;
-					nom.push(element);
+					context.nom.push(element);
+					if (i == OUTPUT && startsTailOutput())
+					{
+						int tailOutput = context.tailOutput;
+						context.tailOutput = context.nom.size();
+						try
+						{
+							context.operande = context.operateur = context.drapeau_ouvrante = false;
+							param.pushValue(executeValue(new StringBuffer()));
+							j++;
+						}
+						catch (LaunchPrimitive.TailCallSignal e)
+						{
+							// The called procedure replaced the running procedure, it runs in place of output
+							continue;
+						}
+						finally
+						{
+							context.tailOutput = tailOutput;
+						}
+					}
 					while (j < nbparametre)
 					{
 						try
 						{
-							operande = operateur = drapeau_ouvrante = false;
+							context.operande = context.operateur = context.drapeau_ouvrante = false;
 							
-							String a = execute(new StringBuffer());
-							param.push(a);
+							param.pushValue(executeValue(new StringBuffer()));
 							j++;
 						}
 						catch (LogoError e)
@@ -377,15 +407,14 @@ public class Interprete
 					// Looking for Optional arguments in case of procedure
 					if (isProcedure)
 					{
-						Procedure proc = wp.getExecutable(element_minuscule);
+						Procedure proc = symbol.getProcedure();
 						nbparametre = proc.optVariables.size();
 						for (j = 0; j < nbparametre; j++)
 						{
 							try
 							{
-								operande = operateur = drapeau_ouvrante = false;
-								String a = execute(proc.optVariablesExp.get(j));
-								param.push(a);
+								context.operande = context.operateur = context.drapeau_ouvrante = false;
+								param.pushValue(executeValue(proc.optVariablesExp.get(j)));
 							}
 							catch (LogoError e)
 							{
@@ -399,30 +428,35 @@ public class Interprete
 				// System.out.println(nom+" "+"debut "+instruction+"
 				// fin\n"+param.toString());
 				// System.out.println(nom);
-				nom.pop();
+				context.nom.pop();
 				if (!app.error)
-					lanceprim.execute(i, element_minuscule, param);
+				{
+					if (isProcedure)
+						lanceprim.execute(symbol.getProcedure(), param);
+					else
+						lanceprim.execute(i, element_minuscule, param);
+				}
 				if (app.error)
 					break;
-				if (drapeau_fermante && !calcul.empty())
+				if (context.drapeau_fermante && !context.calcul.empty())
 				{
-					drapeau_fermante = false;
-					operande = false;
-					return calcul.pop();
+					context.drapeau_fermante = false;
+					context.operande = false;
+					return context.calcul.popValue();
 				}
 				
 				// Tester si la procédure rend quelque chose lorsqu'attendu
 				
-				if (!operande)
+				if (!context.operande)
 				{
 					// dans le cas des primitives exec ou si
-					if (renvoi_instruction)
+					if (context.renvoi_instruction)
 					{
-						renvoi_instruction = false;
+						context.renvoi_instruction = false;
 					}
 					else
 					{
-						if (!nom.isEmpty() && !app.error && !nom.peek().equals("\n"))
+						if (!context.nom.isEmpty() && !app.error && !context.nom.peek().equals("\n"))
 						{
 							if (!element.equals("\n"))
 							{
@@ -433,16 +467,16 @@ public class Interprete
 									// The loop had been executed, we have to
 									// remove
 									// the loop instruction
-									int offset = instructionBuffer.indexOf(" \\ ");
-									instructionBuffer.delete(0, offset + 1);
+									int offset = instructionBuffer.indexOf(Primitive.END_LOOP);
+									instructionBuffer.delete(offset);
 									
-									throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + nom.peek());
+									throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + context.nom.peek());
 								}
 								// (av 100) ---> OK
 								// av av 20 ----> Bad
-								if (!nom.peek().equals("("))
+								if (!context.nom.peek().equals("("))
 									throw new LogoError(element + " " + Logo.messages.getString("ne_renvoie_pas") + " "
-											+ nom.peek());
+											+ context.nom.peek());
 								
 							}
 						}
@@ -452,8 +486,8 @@ public class Interprete
 				{
 					// The primitive returns a word or a list.
 					// There's no primitive or procedure waiting for it.
-					if (!nom.isEmpty() && nom.peek().equals("\n"))
-						throw new LogoError(Logo.messages.getString("error.whattodo") + " " + calcul.peek() + " ?");
+					if (!context.nom.isEmpty() && context.nom.peek().equals("\n"))
+						throw new LogoError(Logo.messages.getString("error.whattodo") + " " + context.calcul.peek() + " ?");
 				}
 			}
 			
@@ -461,42 +495,19 @@ public class Interprete
 			 * / IF element IS A VARIABLE
 			 * ********************************
 			 */
-			else if (element.substring(0, 1).equals(":") && element.length() > 1)
+			else if (kind == CodeBlock.VARIABLE)
 			{
 				// System.out.println(operande);
-				if (operande)
+				if (context.operande)
 				{
 					checkParenthesis();
-					operande = false;
+					context.operande = false;
 					break;
 				}
-				else
-					deleteLineNumber();
-				String value;
-				String variableName = element_minuscule.substring(1, element_minuscule.length());
-				// If the variable isn't local
-				if (!locale.containsKey(variableName))
-				{
-					// check it's a global variable
-					if (!wp.getGlobals().getVariables().contains(variableName)) // TODO
-																				// CHECK
-						throw new LogoError(variableName + " " + Logo.messages.getString("error.novalue"));
-					else
-						value = wp.getGlobals().getValue(variableName).toString(); // TODO
-																					// CHECK
-				}
-				// If the variable is local
-				else
-				{
-					value = locale.get(variableName);
-				}
-				
-				if (null == value)
-					throw new LogoError(variableName + "  " + Logo.messages.getString("error.novalue"));
-				calcul.push(value);
-				operande = true;
-				operateur = false;
-				drapeau_ouvrante = false;
+				context.calcul.pushValue(getVariable(instructionBuffer.getNextValue()));
+				context.operande = true;
+				context.operateur = false;
+				context.drapeau_ouvrante = false;
 				instructionBuffer.deleteFirstWord(element);
 			}
 			else
@@ -505,44 +516,23 @@ public class Interprete
 				 * IF element IS A NUMBER ******
 				 * **************************
 				 */
-				try
+				if (kind == CodeBlock.NUMBER)
 				{
-					Double.parseDouble(element);
-					boolean deleteEndZero = false;
-					if (element.endsWith(".0"))
-					{
-						deleteEndZero = true;
-						element = element.substring(0, element.length() - 2);
-					}
-					/*
-					 * boolean addStartZero=false;
-					 * if (element.startsWith(".") || element.equals("")){
-					 * element = "0" + element;
-					 * addStartZero=true;
-					 * }
-					 */
-					calcul.push(element);
-					if (operande)
+					// "3.0" is pushed as "3"
+					context.calcul.push(instructionBuffer.getNextValue());
+					if (context.operande)
 					{
 						checkParenthesis();
-						calcul.pop();
-						operande = false;
+						context.calcul.pop();
+						context.operande = false;
 						break;
 					}
-					else
-						deleteLineNumber();
-					operande = true;
-					operateur = false;
-					drapeau_ouvrante = false;
-					// if (addStartZero)
-					// instructionBuffer.deleteFirstWord(element.substring(1));
-					if (deleteEndZero)
-						instructionBuffer.deleteFirstWord(element + ".0");
-					else
-						instructionBuffer.deleteFirstWord(element);
-					
+					context.operande = true;
+					context.operateur = false;
+					context.drapeau_ouvrante = false;
+					instructionBuffer.deleteFirstWord(element);
 				}
-				catch (NumberFormatException e)
+				else
 				{
 					/* *********************************
 					 * IF element IS A SQUARE BRACKET [
@@ -554,19 +544,17 @@ public class Interprete
 						
 						// Utilité de cette ligne?
 						// if (!calcul.isEmpty()&&operateur==false) break;
-						if (operande)
+						if (context.operande)
 						{
 							checkParenthesis();
 							break;
 						}
-						else
-							deleteLineNumber();
-						operande = true;
-						operateur = false;
-						drapeau_ouvrante = false;
+						context.operande = true;
+						context.operateur = false;
+						context.drapeau_ouvrante = false;
 						instructionBuffer.deleteFirstWord(element);
 						String a = chercheListe();
-						calcul.push(a);
+						context.calcul.push(a);
 					}
 					/* ***************************
 					 * IF element IS A PARENTHESIS
@@ -575,16 +563,14 @@ public class Interprete
 					 */
 					else if (element.equals("("))
 					{
-						if (operande)
+						if (context.operande)
 						{
 							checkParenthesis();
 							break;
 						}
-						else
-							deleteLineNumber();
-						drapeau_ouvrante = true;
+						context.drapeau_ouvrante = true;
 						
-						Interprete.en_cours.push("(");
+						context.en_cours.push("(");
 						int pos = chercheParenthese();
 						if (pos == -1)
 						{
@@ -597,36 +583,25 @@ public class Interprete
 						}
 						instructionBuffer.deleteFirstWord(element);
 						// System.out.println("&&"+instruction);
-						Interprete.nom.push("(");
+						context.nom.push("(");
 					}
 					/* **********************************
 					 * IF element IS A WORD
 					 * **************************
 					 */
-					else if (element.substring(0, 1).equals("\""))
+					else if (kind == CodeBlock.WORD)
 					{
-						try
-						{
-							String el = element.substring(1);
-							Double.parseDouble(el);
-							calcul.push(el);
-						}
-						catch (NumberFormatException e1)
-						{
-							calcul.push(element);
-						}
-						if (operande)
+						context.calcul.push(instructionBuffer.getNextValue());
+						if (context.operande)
 						{
 							checkParenthesis();
-							calcul.pop();
-							operande = false;
+							context.calcul.pop();
+							context.operande = false;
 							break;
 						}
-						else
-							deleteLineNumber();
-						operande = true;
-						operateur = false;
-						drapeau_ouvrante = false;
+						context.operande = true;
+						context.operateur = false;
+						context.drapeau_ouvrante = false;
 						instructionBuffer.deleteFirstWord(element);
 					}
 					// Si c'est le mot pour
@@ -651,7 +626,7 @@ public class Interprete
 						{
 							String definition = Logo.messages.getString("pour") + " " + element + " ";
 							instructionBuffer.deleteFirstWord(element);
-							while (instructionBuffer.getLength() != 0)
+							while (!instructionBuffer.isEmpty())
 							{
 								element = instructionBuffer.getNextWord().toLowerCase();
 								if (null == element)
@@ -670,20 +645,8 @@ public class Interprete
 							}
 						}
 					}*/
-					else if (element.startsWith("\\l"))
-					{
-						if (operande)
-						{
-							break;
-						}
-						instructionBuffer.deleteFirstWord(element);
-						lineNumber = element + " ";
-						element = instructionBuffer.getNextWord();
-						
-					}
 					else
 					{
-						deleteLineNumber();
 						throw new LogoError(Logo.messages.getString("je_ne_sais_pas") + " " + element);
 					}
 				}
@@ -695,87 +658,85 @@ public class Interprete
 		 * *****************************
 		 */
 		// S'il n'y a rien à retourner.
-		if (calcul.isEmpty())
+		if (context.calcul.isEmpty())
 		{
-			if (!nom.isEmpty())
+			if (!context.nom.isEmpty())
 			{// &&!nom.peek().equals("\n")) {
-				while ((!nom.isEmpty()) && nom.peek().equals("\n"))
-					nom.pop();
-				if (!nom.isEmpty()) { throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + nom.peek()); }
+				while ((!context.nom.isEmpty()) && context.nom.peek().equals("\n"))
+					context.nom.pop();
+				if (!context.nom.isEmpty()) { throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + context.nom.peek()); }
 			}
 		}
 		// Sinon on retourne la valeur contenue dans la pile de calcul.
-		if (!calcul.isEmpty())
+		if (!context.calcul.isEmpty())
 		{
 			// S'il y a une procédure de lancer
 			// Ex: pour t -- 6 -- fin . Puis, av t.
-			if ((!nom.isEmpty()) && nom.peek().equals("\n"))
-			{
-				String up = "";
-				int id = 0;
-				while (!nom.isEmpty() && nom.peek().equals("\n"))
-				{
-					nom.pop();
-					id++;
-				}
-				if (!nom.isEmpty())
-				{
-					up = nom.peek().toString();
-					try
-					{
-						throw new LogoError(en_cours.get(en_cours.size() - id) + " "
-								+ Logo.messages.getString("ne_renvoie_pas") + " " + up);
-					}
-					catch (LogoError e)
-					{}
-				}
-				else
-				{
-					try
-					{
-						throw new LogoError(Logo.messages.getString("error.whattodo") + " " + calcul.peek() + " ?");
-					}
-					catch (LogoError e)
-					{}
-				}
-				/*
-				 * }
-				 * if (!nom.isEmpty() && nom.peek().equals("\n")) {
-				 * up = en_cours.get(en_cours.size() - 2).toString();
-				 * try {
-				 * throw new myException( en_cours.peek() + " "
-				 * + Logo.messages.getString("ne_renvoie_pas")
-				 * + " " + up);
-				 * } catch (myException e) {
-				 * }
-				 * } else if (!nom.isEmpty()) {
-				 * up = nom.peek().toString();
-				 * try {
-				 * throw new myException( en_cours.peek() + " "
-				 * + Logo.messages.getString("ne_renvoie_pas")
-				 * + " " + up);
-				 * } catch (myException e) {
-				 * }
-				 * } else {
-				 * try {
-				 * throw new myException( Logo.messages
-				 * .getString("que_faire")
-				 * + " " + calcul.peek() + " ?");
-				 * } catch (myException e) {
-				 * }}
-				 */
-				
-			}
+			// The value is an instruction of a procedure or a loop, as the TreeInterpreter reports it
+			if ((!context.nom.isEmpty()) && context.nom.peek().equals("\n"))
+				throw new LogoError(Logo.messages.getString("error.whattodo") + " " + context.calcul.peek() + " ?");
 			// ///////////
 			else
 			{
-				operande = false;
-				return (calcul.pop());
+				context.operande = false;
+				return (context.calcul.popValue());
 			}
 		}
 		return ("");
 	}
 	
+	/**
+	 * The procedure is executed in a buffer of its own, with its own values and waiting primitives.
+	 * Hence its end of procedure, <code>output</code> and <code>stop</code> cannot reach the instructions of the caller,
+	 * and the interpreter returns as soon as the procedure is done.
+	 */
+	@Override
+	public Object call(Procedure procedure, ValueStack param) throws LogoError
+	{
+		InstructionBuffer savedBuffer = instructionBuffer;
+		ValueStack savedCalcul = context.calcul;
+		Stack<String> savedNom = context.nom;
+		boolean operande = context.operande;
+		boolean operateur = context.operateur;
+		boolean ouvrante = context.drapeau_ouvrante;
+		boolean fermante = context.drapeau_fermante;
+		boolean renvoi = context.renvoi_instruction;
+		if (callDepth == callBuffers.size())
+			callBuffers.add(new InstructionBuffer(kernel));
+		instructionBuffer = callBuffers.get(callDepth++);
+		instructionBuffer.clear();
+		context.calcul = new ValueStack();
+		context.nom = new Stack<String>();
+		try
+		{
+			// Optional arguments that are not given
+			for (int c = param.size() - procedure.nbparametre; c < procedure.optVariables.size(); c++)
+			{
+				context.operande = context.operateur = context.drapeau_ouvrante = false;
+				param.pushValue(executeValue(procedure.optVariablesExp.get(c)));
+			}
+			context.operande = context.operateur = context.drapeau_ouvrante = context.drapeau_fermante = false;
+			context.renvoi_instruction = false;
+			lanceprim.execute(procedure, param);
+			Object value = executeValue(new StringBuffer());
+			if (app.error)
+				throw new LogoError(Logo.messages.getString("stop"));
+			return "".equals(value) ? null : value;
+		}
+		finally
+		{
+			callDepth--;
+			instructionBuffer = savedBuffer;
+			context.calcul = savedCalcul;
+			context.nom = savedNom;
+			context.operande = operande;
+			context.operateur = operateur;
+			context.drapeau_ouvrante = ouvrante;
+			context.drapeau_fermante = fermante;
+			context.renvoi_instruction = renvoi;
+		}
+	}
+	
 	private int chercheParenthese()
 	{ // position ou s'arrete la prochaine
 		// parenthese
@@ -806,13 +767,13 @@ public class Interprete
 	{
 		String liste = "[ ";
 		String element = "";
-		while (instructionBuffer.getLength() != 0)
+		while (!instructionBuffer.isEmpty())
 		{
 			element = instructionBuffer.getNextWord();
 			// SI crochet ouvrant, on l'empile dans la pile de calcul
 			if (element.equals("["))
 			{
-				calcul.push("[");
+				context.calcul.push("[");
 				instructionBuffer.deleteFirstWord(element);
 				liste += "[ ";
 			}
@@ -822,16 +783,16 @@ public class Interprete
 				instructionBuffer.deleteFirstWord(element);
 				// if (((Stack)instruction.peek()).isEmpty()) instruction.pop();
 				liste += "] ";
-				if (calcul.empty())
+				if (context.calcul.empty())
 				{
 					return (liste);
 				} // 1er cas: rien dans la pile de calcul, on renvoie la liste
-				else if (!calcul.peek().toString().equals("["))
+				else if (!context.calcul.peek().toString().equals("["))
 				{
 					return (liste);
 				} // 2eme cas: pas de crochet ouvrant en haut de la pile, idem
 				else
-					calcul.pop(); // 3eme cas: un crochet ouvrant en haut de
+					context.calcul.pop(); // 3eme cas: un crochet ouvrant en haut de
 									// la pile, on l'enleve
 			}
 			else
@@ -843,6 +804,61 @@ public class Interprete
 		throw new LogoError(Logo.messages.getString("erreur_crochet"));
 	}
 	
+	/**
+	 * @param variableName the lower case name of a variable
+	 * @return the value of the local variable, or else of the global variable
+	 * @throws LogoError if the variable has no value
+	 */
+	Object getVariable(String variableName) throws LogoError
+	{
+		Object value;
+		// If the variable isn't local
+		if (!context.locale.containsKey(variableName))
+		{
+			// check it's a global variable
+			if (!wp.getGlobals().getVariables().contains(variableName)) // TODO
+																		// CHECK
+				throw new LogoError(variableName + " " + Logo.messages.getString("error.novalue"));
+			else
+				value = wp.getGlobals().getValue(variableName); // TODO
+																			// CHECK
+		}
+		// If the variable is local
+		else
+		{
+			value = context.locale.getValue(variableName);
+		}
+		
+		if (null == value)
+			throw new LogoError(variableName + "  " + Logo.messages.getString("error.novalue"));
+		return value;
+	}
+	
+	/**
+	 * Execute an infix operator of an {@link InfixExpression}, as the main loop does when both operands were read
+	 * @return the result of the operation
+	 */
+	String operate(int id, String name, String left, String right) throws LogoError
+	{
+		ValueStack param = new ValueStack();
+		param.push(left);
+		param.push(right);
+		lanceprim.execute(id, name, param);
+		return context.calcul.pop();
+	}
+	
+	/**
+	 * @return true if the interpreter starts reading an argument, i.e. no operator of + - * / waits for its right operand.
+	 * Comparisons and | &amp; have a lower priority, the argument is their whole right operand.
+	 */
+	private boolean startsArgument()
+	{
+		if (context.nom.isEmpty())
+			return true;
+		String st = context.nom.peek();
+		return !testoperateur(st) || isLogicOperator(st);
+	}
+	
 	private boolean testoperateur(String st)
 	{ // l'élément trouvé est-il un
 		// opérateur
@@ -895,19 +911,19 @@ public class Interprete
 		lanceprim.setWorkspace(workspace);
 	}
 	
-	private boolean hasGeneralForm(String name, int i)
+	private boolean hasGeneralForm(Symbol symbol, int i)
 	{
 		// If it's a procedure
-		if (wp.isExecutable(name))
-			return !wp.getExecutable(name).optVariables.isEmpty();
-		return kernel.primitive.generalForm[i];
+		if (symbol.isProcedure())
+			return !symbol.getProcedure().optVariables.isEmpty();
+		return lanceprim.getHandler(i).hasGeneralForm();
 	}
 	
 	private void checkParenthesis() throws LogoError
 	{
-		if (!nom.isEmpty())
+		if (!context.nom.isEmpty())
 		{
-			String name = nom.peek();
+			String name = context.nom.peek();
 			if (name.equals("(")) { throw new LogoError(Logo.messages.getString("too_much_arguments"));
 			
 			}
@@ -915,11 +931,6 @@ public class Interprete
 		
 	}
 	
-	private void deleteLineNumber()
-	{
-		lineNumber = "";
-	}
-	
 	/**
 	 * This method indicates if a primitive is an infixed operator<br>
 	 * Infixed operators are for example: +,-,*-,/,&,>=.....
@@ -928,6 +939,19 @@ public class Interprete
 	 *            The integer identifiant for the primitive
 	 * @return true or false if it's an infixed operator
 	 */
+	/**
+	 * @return true if <code>output</code> is an instruction of the running procedure, and not an argument.
+	 * Then, a procedure that is the whole argument of output may replace the running procedure, see {@link LaunchPrimitive}
+	 */
+	private boolean startsTailOutput()
+	{
+		int size = context.nom.size();
+		if (context.mode_trace || context.en_cours.isEmpty() || size < 2 || !context.calcul.isEmpty())
+			return false;
+		// The memo table waits for the output of the running procedure
+		return context.nom.get(size - 2).equals(Primitive.END_PROCEDURE) && null == context.locale.getMemoCall();
+	}
+	
 	private boolean isInfixedOperator(int id)
 	{
 		boolean b1 = (29 < id) && (id < 39);
@@ -32,7 +32,9 @@ import java.util.ArrayList;
 import java.awt.Color;
 
 import xlogo.kernel.userspace.UserSpace;
+import xlogo.storage.WSManager;
 import xlogo.storage.user.DrawQuality;
+import xlogo.storage.user.ExecutionEngine;
 import xlogo.storage.workspace.LogoLanguage;
 /**
  * Title : XLogo
@@ -45,23 +47,17 @@ import xlogo.Application;
 
 public class Kernel
 {
-	protected static long		chrono		= 0;
-	
 	protected ArrayFlow			flows		= new ArrayFlow();	// Contient les
 																// flux de
 																// lecture ou
 																// d'écriture
 																
-	protected static boolean	mode_trace	= false;			// true si le
-																// mode trace
-																// est
-																// enclenchée
-																// (permet de
-																// suivre les
-																// procédures)
-																
 	// interprete the user command and launch primitive and procedure
 	private Interprete			interprete;
+	// alternative engine that evaluates syntax trees, see ExecutionEngine
+	private TreeInterpreter		treeInterpreter;
+	// the engine that executed the last command
+	private ExecutionEngine		engine		= ExecutionEngine.INTERPRETER;
 	// For all drawing operation
 	// protected DrawPanel dg;
 	// For primitive
@@ -70,11 +66,19 @@ public class Kernel
 	private Application			app;
 	private MP3Player			mp3Player;
 	private MyCalculator		myCalculator;
+	// the meaning of the identifiers, shared by both engines
+	private SymbolTable			symbols;
+	// the results of the memoized procedures, shared by both engines
+	private MemoTable			memos;
+	// the state of the running program
+	private final ExecutionContext	context	= new ExecutionContext();
 	
 	public Kernel(Application app, UserSpace userSpace)
 	{
 		this.app = app;
 		this.userSpace = userSpace;
+		this.symbols = new SymbolTable(userSpace);
+		this.memos = new MemoTable(userSpace);
 		initCalculator(-1);
 	}
 	
@@ -86,7 +90,10 @@ public class Kernel
 	public void setWorkspace(UserSpace workspace)
 	{
 		userSpace = workspace;
+		symbols.setWorkspace(userSpace);
+		memos.setWorkspace(userSpace);
 		interprete.setWorkspace(userSpace);
+		treeInterpreter.setWorkspace(userSpace);
 	}
 	
 	protected String listSearch() throws xlogo.kernel.LogoError
@@ -109,6 +116,21 @@ public class Kernel
 		return myCalculator;
 	}
 	
+	public SymbolTable getSymbolTable()
+	{
+		return symbols;
+	}
+	
+	public MemoTable getMemoTable()
+	{
+		return memos;
+	}
+	
+	public ExecutionContext getExecutionContext()
+	{
+		return context;
+	}
+	
 	public void fcc(Color color)
 	{
 		app.getDrawPanel().fcc(color);
@@ -151,15 +173,37 @@ public class Kernel
 	
 	public String execute(StringBuffer st) throws LogoError
 	{
+		engine = WSManager.getUserConfig().getEngine();
+		symbols.invalidate();
+		if (engine == ExecutionEngine.TREE)
+			return treeInterpreter.execute(st);
 		return interprete.execute(st);
 	}
 	
+	/**
+	 * @return the line in the editor of the instruction that is executed in the innermost procedure, or -1
+	 */
+	public int getLineNumber()
+	{
+		if (engine == ExecutionEngine.TREE)
+			return treeInterpreter.getLineNumber();
+		return interprete.getInstructionBuffer().getLineNumber();
+	}
+	
 	protected void initCalculator(int s)
 	{
 		myCalculator = new MyCalculator(s);
 		
 	}
 	
+	/**
+	 * Go back to the default precision, as if setdigits was never executed
+	 */
+	public void resetCalculator()
+	{
+		initCalculator(-1);
+	}
+	
 	public void initPrimitive()
 	{
 		primitive = new Primitive(app);
@@ -168,6 +212,7 @@ public class Kernel
 	public void initInterprete()
 	{
 		interprete = new Interprete(app);
+		treeInterpreter = new TreeInterpreter(app);
 	}
 	
 	/**
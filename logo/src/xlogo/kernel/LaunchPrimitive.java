@@ -36,9 +36,10 @@
 package xlogo.kernel;
 
 import java.util.Stack;
-import java.util.Vector;
 import java.util.Iterator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.StringTokenizer;
 import java.util.Calendar;
 import java.awt.BasicStroke;
@@ -77,9 +78,13 @@ import xlogo.kernel.gui.*;
 import xlogo.kernel.perspective.ElementPolygon;
 import xlogo.kernel.perspective.ElementLine;
 import xlogo.kernel.perspective.ElementPoint;
+import xlogo.kernel.userspace.ContainerTable;
 import xlogo.kernel.userspace.UserSpace;
 import xlogo.kernel.userspace.files.LogoFile;
 import xlogo.kernel.userspace.procedures.Procedure;
+import xlogo.kernel.grammar.LogoList;
+import xlogo.kernel.grammar.LogoType;
+import xlogo.kernel.grammar.LogoWord;
 import xlogo.messages.async.history.HistoryMessenger;
 
 /*******************************************************************************
@@ -96,10 +101,15 @@ public class LaunchPrimitive
 	 * Default kernel
 	 */
 	private Kernel				kernel;
+	private ExecutionContext	context;
 	/**
 	 * Default workspace
 	 */
 	private UserSpace			wp;
+	/**
+	 * Runs the procedures that map, filter, reduce and sort call for the elements of a list
+	 */
+	private final ProcedureCaller	caller;
 	
 	private Procedure			procedure;
 	// private MathContext mc=MathContext.DECIMAL64;
@@ -111,22 +121,52 @@ public class LaunchPrimitive
 	 * Elle vaut "\"" pour les mots et "" pour les nombres<br>
 	 */
 	private String				debut_chaine	= "";
+	/**
+	 * The number of lists that are kept in {@link #parsedLists}, a power of 2
+	 */
+	private static final int	LIST_CACHE_SIZE	= 64;
 	/**
 	 * When we launch the primitive "listentcp", we have to save workspaces
 	 */
 	//private Stack<LogoContext>	savedWorkspace;
+	/**
+	 * The handlers of all primitives, indexed by the primitive number
+	 */
+	private final PrimitiveHandler[]	handlers		= new PrimitiveHandler[Primitive.PRIMITIVE_NUMBER];
+	/**
+	 * The lists that were recently parsed by the list primitives, stored at {@link #getListSlot(String)} of their text.
+	 * A list that is written in the code is passed around as text, and a list primitive that reads the same text object again
+	 * does not have to parse it again.
+	 * Only the identity of the text is compared, so the lookup never reads the text. Lists never change, so an entry cannot become wrong.
+	 */
+	private final String[]		listTexts		= new String[LIST_CACHE_SIZE];
+	private final LogoList[]	parsedLists		= new LogoList[LIST_CACHE_SIZE];
 	
 	/**
 	 * @param cadre
 	 *            Default frame Application
 	 * @param wp
 	 *            Default workspace
+	 * @param caller
+	 *            The engine that runs this LaunchPrimitive
 	 */
-	public LaunchPrimitive(Application cadre, UserSpace wp)
+	public LaunchPrimitive(Application cadre, UserSpace wp, ProcedureCaller caller)
 	{
 		this.wp = wp;
 		this.cadre = cadre;
+		this.caller = caller;
 		this.kernel = cadre.getKernel();
+		this.context = kernel.getExecutionContext();
+		initHandlers();
+	}
+	
+	/**
+	 * @param id a primitive number
+	 * @return the handler of this primitive
+	 */
+	protected PrimitiveHandler getHandler(int id)
+	{
+		return handlers[id];
 	}
 	
 	/**
@@ -142,3520 +182,5856 @@ public class LaunchPrimitive
 	 * @param param
 	 *            The Stack that contains all arguments
 	 */
-	protected void execute(int id, String element_minuscule, Stack<String> param) throws LogoError
+	protected void execute(int id, String element_minuscule, ValueStack param) throws LogoError
 	{
-		UserConfig uc = WSManager.getUserConfig();
-		int w = uc.getImageWidth();
-		int h = uc.getImageHeight();
-		Font font = WSManager.getWorkspaceConfig().getFont();
-		String defaultFolder;
-		
 		// identifiant procédure ou primitive, valeur des paramètres
 		if (id < 0)
+			execute(wp.getExecutable(element_minuscule), param);
+		else
+		{
+			context.governor.step();
+			if (context.profiler.isActive())
+				executeProfiled(id, element_minuscule, param);
+			else
+				handlers[id].execute(element_minuscule, param);
+		}
+	}
+	
+	/**
+	 * Execute a primitive and measure it with the {@link Profiler}.
+	 * The internal primitives (end of procedure, end of loop, \siwhile, \x) are not measured, their time belongs to the running procedure.
+	 * The primitives of the profiler are not measured either, see {@link PrimitiveHandler#isInternal()}.
+	 */
+	private void executeProfiled(int id, String element_minuscule, ValueStack param) throws LogoError
+	{
+		PrimitiveHandler handler = handlers[id];
+		if (handler.isInternal())
+		{
+			handler.execute(element_minuscule, param);
+			return;
+		}
+		context.profiler.enterPrimitive(element_minuscule, context.en_cours, kernel.getLineNumber());
+		try
+		{
+			handler.execute(element_minuscule, param);
+		}
+		finally
+		{
+			context.profiler.leavePrimitive();
+		}
+	}
+	
+	/**
+	 * Call a procedure that has already been looked up, see {@link Symbol#getProcedure()}
+	 */
+	protected void execute(Procedure procedure, ValueStack param) throws LogoError
+	{
+		this.procedure = procedure;
+		List<String> arguments = null;
+		if (procedure.isMemoized())
+		{
+			arguments = MemoTable.getArguments(param);
+			String value = kernel.getMemoTable().get(procedure, arguments, kernel.getCalculator());
+			if (null != value)
+			{
+				// The state after output, see Primitive.retourne
+				context.governor.step();
+				context.calcul.push(value);
+				context.operande = true;
+				return;
+			}
+		}
+		String output = null;
+		if (!procedure.mayOutput() && isTailCall())
+			leaveProcedure();
+		else if (isTailOutput())
+		{
+			output = context.nom.pop();
+			leaveProcedure();
+		}
+		enterProcedure(procedure, param);
+		if (null != arguments)
+			context.locale.setMemoCall(new MemoTable.Call(procedure, arguments));
+		// Add Procedure code in Interprete.instruction, it ends with END_PROCEDURE
+		kernel.getInstructionBuffer().insertCode(procedure.getFoldedCode(kernel.getCalculator()));
+		// System.out.println("instr " +Interprete.instruction);
+		// System.out.println("stock "+Interprete.stockInstruction);
+		// System.out.println("a"+Interprete.instruction+"a");
+		context.nom.push("\n");
+		if (null != output)
+		{
+			context.locale.setOutput(output);
+			throw TailCallSignal.TAIL_CALL;
+		}
+	}
+	
+	/**
+	 * Creates the handler of every primitive, family by family
+	 */
+	private void initHandlers()
+	{
+		initTurtleHandlers();
+		initDrawingHandlers();
+		initArithmeticHandlers();
+		initListHandlers();
+		initControlHandlers();
+		initWorkspaceHandlers();
+		initFileHandlers();
+		initInteractionHandlers();
+	}
+	
+	/**
+	 * Creates the handlers of the turtle primitives: moving and turning, the pen, the shape and the number of turtles, the orientation in 3D
+	 */
+	private void initTurtleHandlers()
+	{
+		// av
+		handlers[0] = new PrimitiveHandler(0)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				cadre.getDrawPanel().av(kernel.getCalculator().numberDouble(param, 0));
+			}
+		};
+		
+		// re
+		handlers[1] = new PrimitiveHandler(1)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				cadre.getDrawPanel().av(-kernel.getCalculator().numberDouble(param, 0));
+			}
+		};
+		
+		// td
+		handlers[2] = new PrimitiveHandler(2)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				cadre.getDrawPanel().td(kernel.getCalculator().numberDouble(param, 0));
+			}
+		};
+		
+		// tg
+		handlers[3] = new PrimitiveHandler(3)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				cadre.getDrawPanel().td(-kernel.getCalculator().numberDouble(param, 0));
+			}
+		};
+		
+		// ve
+		handlers[6] = new PrimitiveHandler(6)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// ct
+		handlers[7] = new PrimitiveHandler(7)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (kernel.getActiveTurtle().isVisible())
+				{
+					cadre.getDrawPanel().ct_mt();
+					cadre.getDrawPanel().tortues_visibles.remove(String.valueOf(kernel.getActiveTurtle().id));
+				}
+				kernel.getActiveTurtle().setVisible(false);
+			}
+		};
+		
+		// mt
+		handlers[8] = new PrimitiveHandler(8)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (!kernel.getActiveTurtle().isVisible())
+				{
+					cadre.getDrawPanel().ct_mt();
+					cadre.getDrawPanel().tortues_visibles.push(String.valueOf(kernel.getActiveTurtle().id));
+				}
+				kernel.getActiveTurtle().setVisible(true);
+			}
+		};
+		
+		// origine
+		handlers[12] = new PrimitiveHandler(12)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				cadre.getDrawPanel().origine();
+			}
+		};
+		
+		// fpos
+		handlers[13] = new PrimitiveHandler(13)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				String list = getFinalList(param.get(0));
+				cadre.getDrawPanel().fpos(list);
+			}
+		};
+		
+		// fixex
+		handlers[14] = new PrimitiveHandler(14)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				int h = uc.getImageHeight();
+				delay();
+				if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
+				{
+					double x = kernel.getCalculator().numberDouble(param, 0);
+					double y = h / 2 - kernel.getActiveTurtle().corY;
+					cadre.getDrawPanel().fpos(x + " " + y);
+				}
+				else
+					cadre.getDrawPanel().fpos(
+							kernel.getCalculator().numberDouble(param, 0) + " " + kernel.getActiveTurtle().Y
+									+ " " + kernel.getActiveTurtle().Z);
+			}
+		};
+		
+		// fixey
+		handlers[15] = new PrimitiveHandler(15)
 		{
-			procedure = wp.getExecutable(element_minuscule);
-			Interprete.stockvariable.push(Interprete.locale);
-			Interprete.locale = new HashMap<String, String>();
-			// Read local Variable
-			int optSize = procedure.optVariables.size();
-			int normSize = procedure.variable.size();
-			for (int j = 0; j < optSize + normSize; j++)
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
 			{
-				// Add local Variable
-				if (j < normSize)
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				delay();
+				if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
 				{
-					Interprete.locale.put(procedure.variable.get(j), param.get(j));
-				}	// add optional variables
+					double y = kernel.getCalculator().numberDouble(param, 0);
+					double x = kernel.getActiveTurtle().corX - w / 2;
+					cadre.getDrawPanel().fpos(x + " " + y);
+				}
+				else
+					cadre.getDrawPanel().fpos(
+							kernel.getActiveTurtle().X + " " + kernel.getCalculator().numberDouble(param, 0)
+									+ " " + kernel.getActiveTurtle().Z);
+			}
+		};
+		
+		// fixexy
+		handlers[16] = new PrimitiveHandler(16)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive2D("drawing.fixexy");
+				cadre.getDrawPanel().fpos(
+						kernel.getCalculator().numberDouble(param, 0) + " "
+								+ kernel.getCalculator().numberDouble(param, 1));
+			}
+		};
+		
+		// fixecap
+		handlers[17] = new PrimitiveHandler(17)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
+					cadre.getDrawPanel().td(
+							360 - kernel.getActiveTurtle().heading
+									+ kernel.getCalculator().numberDouble(param.pop()));
 				else
 				{
-					String value = "";
-					if (j < param.size())
-						value = param.get(j);
-					else
-						value = procedure.optVariablesExp.get(j - param.size()).toString();
-					Interprete.locale.put(procedure.optVariables.get(j - normSize), value);
+					cadre.getDrawPanel().setHeading(kernel.getCalculator().numberDouble(param.pop()));
+				}
+			}
+		};
+		
+		// lc
+		handlers[18] = new PrimitiveHandler(18)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getActiveTurtle().setPenDown(false);
+			}
+		};
+		
+		// bc
+		handlers[19] = new PrimitiveHandler(19)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getActiveTurtle().setPenDown(true);
+			}
+		};
+		
+		// gomme
+		handlers[20] = new PrimitiveHandler(20)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getActiveTurtle().setPenDown(true);
+				// if mode penerase isn't active yet
+				if (kernel.getActiveTurtle().couleurmodedessin.equals(kernel.getActiveTurtle().couleurcrayon))
+				{
+					kernel.getActiveTurtle().couleurmodedessin = kernel.getActiveTurtle().couleurcrayon;
+					kernel.getActiveTurtle().couleurcrayon = cadre.getDrawPanel().getBackgroundColor();
+					kernel.getActiveTurtle().stroke = new BasicStroke(3); // TODO
+																			// make
+																			// member
+				}
+			}
+		};
+		
+		// inversecrayon
+		handlers[21] = new PrimitiveHandler(21)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getActiveTurtle().setPenDown(true);
+				kernel.getActiveTurtle().setPenReverse(true);
+			}
+		};
+		
+		// dessine
+		handlers[22] = new PrimitiveHandler(22)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getActiveTurtle().setPenReverse(false);
+				kernel.getActiveTurtle().setPenDown(true);
+				kernel.getActiveTurtle().couleurcrayon = kernel.getActiveTurtle().couleurmodedessin;
+				kernel.getActiveTurtle().stroke = new BasicStroke(1); // TODO
+																		// make
+																		// member
+			}
+		};
+		
+		// pos
+		handlers[41] = new PrimitiveHandler(41)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				context.operande = true;
+				if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
+				{
+					double a = kernel.getActiveTurtle().corX - w / 2;
+					double b = h / 2 - kernel.getActiveTurtle().corY;
+					context.calcul.push("[ " + MyCalculator.teste_fin_double(a) + " "
+							+ MyCalculator.teste_fin_double(b) + " ] ");
+				}
+				else
+				{
+					context.calcul.push("[ " + kernel.getActiveTurtle().X + " " + kernel.getActiveTurtle().Y
+							+ " " + kernel.getActiveTurtle().Z + " ] ");
 					
 				}
 			}
-			// Add Optional variable
-			if (Kernel.mode_trace)
+		};
+		
+		// cap
+		handlers[42] = new PrimitiveHandler(42)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
 			{
-				StringBuffer buffer = new StringBuffer();
-				for (int i = 0; i < Interprete.en_cours.size(); i++)
-					buffer.append("  ");
-				buffer.append(procedure.name);
-				for (int i = 0; i < param.size(); i++)
-					buffer.append(" " + Utils.SortieTexte(param.get(i)));
-				String msg = buffer + "\n";
-				HistoryMessenger.getInstance().dispatchMessage(msg);
-			}
-			Interprete.en_cours.push(procedure.name);
-			procedure.decoupe();
-			// Add Procedure code in Interprete.instruction
-			kernel.getInstructionBuffer().insert("\n ");
-			kernel.getInstructionBuffer().insertCode(procedure.instr);
-			// System.out.println("instr " +Interprete.instruction);
-			// System.out.println("stock "+Interprete.stockInstruction);
-			// System.out.println("a"+Interprete.instruction+"a");
-			Interprete.nom.push("\n");
-		}
-		else
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().heading));
+			}
+		};
+		
+		// ftc, fixetaillecrayon
+		handlers[91] = new PrimitiveHandler(91)
 		{
-			Language lang = AppSettings.getInstance().getLanguage();
-			
-			switch (id)
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
 			{
-				case 0: // av
-					delay();
-					cadre.getDrawPanel().av(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 1: // re
-					delay();
-					cadre.getDrawPanel().av(-kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 2: // td
-					delay();
-					cadre.getDrawPanel().td(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 3: // tg
-					delay();
-					cadre.getDrawPanel().td(-kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 4: // arithmetic.power puissance
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().power(param.get(0), param.get(1)));
-					break;
-				case 5: // repete controls.repeat
-					String liste = getList(param.get(1));
-					kernel.primitive.repete(kernel.getCalculator().getInteger(param.get(0)), liste);
-					break;
-				case 6: // ve
-					cadre.getDrawPanel().videecran();
-					break;
-				case 7: // ct
-					if (kernel.getActiveTurtle().isVisible())
-					{
-						cadre.getDrawPanel().ct_mt();
-						cadre.getDrawPanel().tortues_visibles.remove(String.valueOf(kernel.getActiveTurtle().id));
-					}
-					kernel.getActiveTurtle().setVisible(false);
-					break;
-				case 8: // mt
-					if (!kernel.getActiveTurtle().isVisible())
+				double nombre = kernel.getCalculator().numberDouble(param, 0);
+				if (nombre < 0)
+					nombre = Math.abs(nombre);
+				if (cadre.getDrawPanel().record3D == DrawPanel.record3D_LINE || cadre.getDrawPanel().record3D == DrawPanel.record3D_POINT)
+				{
+					if (kernel.getActiveTurtle().getPenWidth() != (float) nombre)
+						cadre.getDrawPanel().poly.addToScene();
+				}
+				kernel.getActiveTurtle().fixe_taille_crayon((float) nombre);
+				cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
+				if (cadre.getDrawPanel().record3D == DrawPanel.record3D_LINE)
+				{
+					cadre.getDrawPanel().poly = new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
+					cadre.getDrawPanel().poly.addVertex(
+							new Point3d(kernel.getActiveTurtle().X / 1000, kernel.getActiveTurtle().Y / 1000,
+									kernel.getActiveTurtle().Z / 1000), kernel.getActiveTurtle().couleurcrayon);
+				}
+				else if (cadre.getDrawPanel().record3D == DrawPanel.record3D_POINT)
+				{
+					cadre.getDrawPanel().poly = new ElementPoint(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
+				}
+			}
+		};
+		
+		// vers=towards vers
+		handlers[99] = new PrimitiveHandler(99)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
+				{
+					double angle = cadre.getDrawPanel().vers2D(getFinalList(param.get(0)));
+					context.calcul.push(MyCalculator.teste_fin_double(angle));
+				}
+				else
+				{
+					double[] orientation = cadre.getDrawPanel().vers3D(getFinalList(param.get(0)));
+					context.calcul.push("[ " + orientation[0] + " " + orientation[1] + " " + orientation[2]
+							+ " ] ");
+				}
+			}
+		};
+		
+		// distance
+		handlers[100] = new PrimitiveHandler(100)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				double distance = cadre.getDrawPanel().distance(getFinalList(param.get(0)));
+				context.calcul.push(MyCalculator.teste_fin_double(distance));
+			}
+		};
+		
+		// couleurcrayon
+		handlers[101] = new PrimitiveHandler(101)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push("[ " + kernel.getActiveTurtle().couleurcrayon.getRed() + " "
+						+ kernel.getActiveTurtle().couleurcrayon.getGreen() + " "
+						+ kernel.getActiveTurtle().couleurcrayon.getBlue() + " ] ");
+			}
+		};
+		
+		// bc?
+		handlers[103] = new PrimitiveHandler(103)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (kernel.getActiveTurtle().isPenDown())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// visible?
+		handlers[104] = new PrimitiveHandler(104)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (kernel.getActiveTurtle().isVisible())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// forme
+		handlers[121] = new PrimitiveHandler(121)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive2D("turtle.forme");
+				context.operande = true;
+				context.calcul.push(String.valueOf(kernel.getActiveTurtle().getShape()));
+			}
+		};
+		
+		// fixeforme setshape
+		handlers[122] = new PrimitiveHandler(122)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				String chemin;
+				UserConfig uc = WSManager.getUserConfig();
+				primitive2D("turtle.fforme");
+				i = kernel.getCalculator().getInteger(param.get(0)) % 7;
+				if (kernel.getActiveTurtle().id == 0)
+				{
+					uc.setActiveTurtle(i);
+				}
+				chemin = "tortue" + i + ".png";
+				kernel.change_image_tortue(chemin);
+			}
+		};
+		
+		// tortue
+		handlers[124] = new PrimitiveHandler(124)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(String.valueOf(kernel.getActiveTurtle().id));
+			}
+		};
+		
+		// tortues
+		handlers[125] = new PrimitiveHandler(125)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				context.operande = true;
+				String li = "[ ";
+				for (i = 0; i < cadre.getDrawPanel().tortues.length; i++)
+				{
+					if (null != cadre.getDrawPanel().tortues[i])
+						li += String.valueOf(i) + " ";
+				}
+				li += "]";
+				context.calcul.push(li);
+			}
+		};
+		
+		// fixetortue
+		handlers[126] = new PrimitiveHandler(126)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				try
+				{
+					i = Integer.parseInt(param.get(0));
+					if (i > -1 && i < uc.getMaxTurtles())
 					{
-						cadre.getDrawPanel().ct_mt();
-						cadre.getDrawPanel().tortues_visibles.push(String.valueOf(kernel.getActiveTurtle().id));
+						if (null == cadre.getDrawPanel().tortues[i])
+						{
+							cadre.getDrawPanel().tortues[i] = new Turtle(cadre);
+							cadre.getDrawPanel().tortues[i].id = i;
+							cadre.getDrawPanel().tortues[i].setVisible(false);
+						}
+						cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[i];
+						cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
+						String police = cadre.getDrawPanel().getGraphicsFont().getName();
+						cadre.getDrawPanel().setGraphicsFont(
+								new java.awt.Font(police, java.awt.Font.PLAIN, kernel.getActiveTurtle().police));
+						
 					}
-					kernel.getActiveTurtle().setVisible(true);
-					break;
-				case 9: // ecris, ec
-					int size = param.size();
-					String result = "";
-					String mot;
-					for (int i = 0; i < size; i++)
+					else
 					{
-						String par = param.get(i).trim();
-						if (isList(par))
-							par = formatList(par.substring(1, par.length() - 1));
-						mot = getWord(param.get(i));
-						if (null == mot)
-							result += Utils.SortieTexte(par) + " ";
-						else
-							result += Utils.SortieTexte(mot) + " ";
+						throw new LogoError(Logo.messages.getString("tortue_inaccessible"));
 					}
-					HistoryMessenger.getInstance().dispatchLogoOutput(result + "\n");
-					break;
-				case 10: // si // if
-					
-					liste = getList(param.get(1));
-					liste = new String(Utils.decoupe(liste));
-					String liste2 = null;
-					boolean predicat = predicat(param.get(0));
-					InstructionBuffer instruction = cadre.getKernel().getInstructionBuffer();
-					if (instruction.getLength() != 0)
+				}
+				catch (NumberFormatException e)
+				{
+					kernel.getCalculator().getInteger(param.get(0));
+				}
+			}
+		};
+		
+		// tuetortue
+		handlers[129] = new PrimitiveHandler(129)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int id;
+				String str;
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				try
+				{
+					id = Integer.parseInt(param.get(0));
+					if (id > -1 && id < uc.getMaxTurtles())
 					{
-						try
+						// On compte le nombre de tortues à l'écran
+						int compteur = 0;
+						int premier_dispo = -1;
+						for (i = 0; i < uc.getMaxTurtles(); i++)
+						{
+							if (null != cadre.getDrawPanel().tortues[i])
+							{
+								if (i != id && premier_dispo == -1)
+									premier_dispo = i;
+								compteur++;
+							}
+						}
+						// On vérifie que ce n'est pas la seule tortue
+						// dispopnible:
+						if (null != cadre.getDrawPanel().tortues[id])
 						{
-							String element = instruction.getNextWord();
-							// System.out.println("a"+element+"a");
-							if (element.startsWith("\\l"))
+							if (compteur > 1)
 							{
-								instruction.deleteFirstWord(element);
-								Interprete.lineNumber = element + " ";
+								int tortue_utilisee = kernel.getActiveTurtle().id;
+								cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[id];
+								cadre.getDrawPanel().ct_mt();
+								cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[tortue_utilisee];
+								cadre.getDrawPanel().tortues[id] = null;
+								if (cadre.getDrawPanel().tortues_visibles.search(String.valueOf(id)) > 0)
+									cadre.getDrawPanel().tortues_visibles.remove(String.valueOf(id));
+								if (kernel.getActiveTurtle().id == id)
+								{
+									cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[premier_dispo];
+									cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon); // on
+									// adapte
+									// le
+									// nouveau
+									// crayon
+									str = cadre.getDrawPanel().getGraphicsFont().getName();
+									cadre.getDrawPanel().setFont(
+											new java.awt.Font(str, java.awt.Font.PLAIN,
+													kernel.getActiveTurtle().police));
+									
+								}
 							}
-							if (instruction.charAt(0) == '[')
+							else
 							{
-								instruction.deleteFirstWord("[");
-								liste2 = getFinalList(kernel.listSearch());
-								liste2 = new String(Utils.decoupe(liste2));
+								throw new LogoError(Logo.messages.getString("seule_tortue_dispo"));
 							}
 						}
-						catch (Exception e)
-						{}
 					}
-					kernel.primitive.si(predicat, liste, liste2);
-					Interprete.renvoi_instruction = true;
-					break;
-				case 11: // STOP
-					kernel.primitive.stop();
-					break;
-				case 12: // origine
-					delay();
-					cadre.getDrawPanel().origine();
-					break;
-				case 13: // fpos
-					delay();
-					String list = getFinalList(param.get(0));
-					cadre.getDrawPanel().fpos(list);
-					break;
-				case 14: // fixex
-					delay();
-					if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
-					{
-						double x = kernel.getCalculator().numberDouble(param.get(0));
-						double y = h / 2 - kernel.getActiveTurtle().corY;
-						cadre.getDrawPanel().fpos(x + " " + y);
-					}
-					else
-						cadre.getDrawPanel().fpos(
-								kernel.getCalculator().numberDouble(param.get(0)) + " " + kernel.getActiveTurtle().Y
-										+ " " + kernel.getActiveTurtle().Z);
-					break;
-				case 15: // fixey
-					delay();
-					if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
-					{
-						double y = kernel.getCalculator().numberDouble(param.get(0));
-						double x = kernel.getActiveTurtle().corX - w / 2;
-						cadre.getDrawPanel().fpos(x + " " + y);
-					}
-					else
-						cadre.getDrawPanel().fpos(
-								kernel.getActiveTurtle().X + " " + kernel.getCalculator().numberDouble(param.get(0))
-										+ " " + kernel.getActiveTurtle().Z);
-					break;
-				case 16: // fixexy
-					delay();
-					primitive2D("drawing.fixexy");
-					cadre.getDrawPanel().fpos(
-							kernel.getCalculator().numberDouble(param.get(0)) + " "
-									+ kernel.getCalculator().numberDouble(param.get(1)));
-					break;
-				case 17: // fixecap
-					delay();
-					if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
-						cadre.getDrawPanel().td(
-								360 - kernel.getActiveTurtle().heading
-										+ kernel.getCalculator().numberDouble(param.pop()));
-					else
-					{
-						cadre.getDrawPanel().setHeading(kernel.getCalculator().numberDouble(param.pop()));
-					}
-					break;
-				case 18: // lc
-					kernel.getActiveTurtle().setPenDown(false);
-					break;
-				case 19: // bc
-					kernel.getActiveTurtle().setPenDown(true);
-					break;
-				case 20: // gomme
-					kernel.getActiveTurtle().setPenDown(true);
-					// if mode penerase isn't active yet
-					if (kernel.getActiveTurtle().couleurmodedessin.equals(kernel.getActiveTurtle().couleurcrayon))
-					{
-						kernel.getActiveTurtle().couleurmodedessin = kernel.getActiveTurtle().couleurcrayon;
-						kernel.getActiveTurtle().couleurcrayon = cadre.getDrawPanel().getBackgroundColor();
-						kernel.getActiveTurtle().stroke = new BasicStroke(3); // TODO
-																				// make
-																				// member
-					}
-					break;
-				case 21: // inversecrayon
-					kernel.getActiveTurtle().setPenDown(true);
-					kernel.getActiveTurtle().setPenReverse(true);
-					break;
-				case 22: // dessine
-					kernel.getActiveTurtle().setPenReverse(false);
-					kernel.getActiveTurtle().setPenDown(true);
-					kernel.getActiveTurtle().couleurcrayon = kernel.getActiveTurtle().couleurmodedessin;
-					kernel.getActiveTurtle().stroke = new BasicStroke(1); // TODO
-																			// make
-																			// member
-					break;
-				case 23: // somme
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().add(param));
-					break;
+				}
+				catch (NumberFormatException e)
+				{
+					kernel.getCalculator().getInteger(param.get(0));
+				}
+			}
+		};
+		
+		// tc taillecrayon
+		handlers[215] = new PrimitiveHandler(215)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				double penwidth = 2 * kernel.getActiveTurtle().getPenWidth();
+				context.calcul.push(String.valueOf(MyCalculator.teste_fin_double(penwidth)));
+			}
+		};
+		
+		// setpenshape=ffc fixeformecrayon
+		handlers[216] = new PrimitiveHandler(216)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i != PenShape.OVAL.getValue() && i != PenShape.SQUARE.getValue())
+				{
+					str = Utils.primitiveName("setpenshape") + " " + Logo.messages.getString("error_bad_values");
+					str += " " + PenShape.SQUARE.getValue() + " " + PenShape.OVAL.getValue();
+					throw new LogoError(str);
+				}
+				uc.setPenShape(PenShape.getPenShape(i));
+				cadre.getDrawPanel().updateAllTurtleShape();
+				cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
+			}
+		};
+		
+		// penshape=fc formecrayon
+		handlers[217] = new PrimitiveHandler(217)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				context.calcul.push(String.valueOf(uc.getPenShape().getValue()));
+			}
+		};
+		
+		// setturtlesnumber=fmt fixemaxtortues
+		handlers[220] = new PrimitiveHandler(220)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				context.operande = false;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i < 0)
+				{
+					String fmt = Utils.primitiveName("setturtlesnumber");
+					throw new LogoError(fmt + " " + Logo.messages.getString("attend_positif"));
+				}
+				else if (i == 0)
+					i = 1;
+				kernel.setNumberOfTurtles(i);
+			}
+		};
+		
+		// turtlesnumber=maxtortues
+		handlers[221] = new PrimitiveHandler(221)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				context.calcul.push(String.valueOf(uc.getMaxTurtles()));
+			}
+		};
+		
+		// perspective
+		handlers[247] = new PrimitiveHandler(247)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().perspective();
+			}
+		};
+		
+		// rightroll=rd roulisdroite
+		handlers[248] = new PrimitiveHandler(248)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive3D("3d.rightroll");
+				cadre.getDrawPanel().rightroll(kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// uppitch=cabre
+		handlers[249] = new PrimitiveHandler(249)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive3D("3d.uppitch");
+				cadre.getDrawPanel().uppitch(kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// leftroll=rg roulisgauche
+		handlers[250] = new PrimitiveHandler(250)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive3D("3d.leftroll");
+				cadre.getDrawPanel().rightroll(-kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// downpitch=pique
+		handlers[251] = new PrimitiveHandler(251)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive3D("3d.downpitch");
+				cadre.getDrawPanel().uppitch(-kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// roll=roulis
+		handlers[252] = new PrimitiveHandler(252)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.roll");
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().roll));
+			}
+		};
+		
+		// pitch=cabrement tangage
+		handlers[253] = new PrimitiveHandler(253)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.pitch");
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().pitch));
+			}
+		};
+		
+		// setroll=fixeroulis
+		handlers[254] = new PrimitiveHandler(254)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.setroll");
+				delay();
+				cadre.getDrawPanel().setRoll(kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// setpitch=fixetangage
+		handlers[255] = new PrimitiveHandler(255)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.setpitch");
+				delay();
+				cadre.getDrawPanel().setPitch(kernel.getCalculator().numberDouble(param.pop()));
+			}
+		};
+		
+		// setorientation=fixeorientation
+		handlers[256] = new PrimitiveHandler(256)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.setorientation");
+				delay();
+				cadre.getDrawPanel().setOrientation(getFinalList(param.pop()));
+			}
+		};
+		
+		// orientation=orientation
+		handlers[257] = new PrimitiveHandler(257)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.orientation");
+				context.operande = true;
+				String pitch = MyCalculator.teste_fin_double(kernel.getActiveTurtle().pitch);
+				String roll = MyCalculator.teste_fin_double(kernel.getActiveTurtle().roll);
+				String heading = MyCalculator.teste_fin_double(kernel.getActiveTurtle().heading);
+				context.calcul.push("[ " + roll + " " + pitch + " " + heading + " ] ");
+			}
+		};
+		
+		// setxyz=fposxyz
+		handlers[258] = new PrimitiveHandler(258)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.setxyz");
+				cadre.getDrawPanel().fpos(
+						kernel.getCalculator().numberDouble(param, 0) + " "
+								+ kernel.getCalculator().numberDouble(param, 1) + " "
+								+ kernel.getCalculator().numberDouble(param, 2));
+			}
+		};
+		
+		// setz=fixez
+		handlers[259] = new PrimitiveHandler(259)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				delay();
+				primitive3D("3d.setz");
+				cadre.getDrawPanel().fpos(
+						kernel.getActiveTurtle().X + " " + kernel.getActiveTurtle().Y + " "
+								+ kernel.getCalculator().numberDouble(param, 0));
+			}
+		};
+		
+		// drawing.x
+		handlers[294] = new PrimitiveHandler(294)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().getX()));
+			}
+		};
+		
+		// drawing.y
+		handlers[295] = new PrimitiveHandler(295)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().getY()));
+			}
+		};
+		
+		// drawing.z
+		handlers[296] = new PrimitiveHandler(296)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				primitive3D("drawing.z");
+				context.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().Z));
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of the drawing area: colors, labels and fonts, images, filling, animation, zoom, grid and axes, the 3D viewer
+	 */
+	private void initDrawingHandlers()
+	{
+		// fcc
+		handlers[75] = new PrimitiveHandler(75)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Color color = null;
+				if (isList(param.get(0)))
+				{
+					color = rgb(param.get(0), Utils.primitiveName("fcc"));
+				}
+				else
+				{
+					int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
+					if (coul < 0)
+						coul += DrawPanel.defaultColors.length;
+					color = DrawPanel.defaultColors[coul];
+				}
+				cadre.getDrawPanel().fcc(color);
+			}
+		};
+		
+		// fcfg setscreencolor
+		handlers[76] = new PrimitiveHandler(76)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Color color;
+				color = null;
+				if (isList(param.get(0)))
+				{
+					color = rgb(param.get(0), Utils.primitiveName("fcfg"));
+				}
+				else
+				{
+					int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
+					if (coul < 0)
+						coul += DrawPanel.defaultColors.length;
+					color = DrawPanel.defaultColors[coul];
+				}
+				cadre.getDrawPanel().fcfg(color);
+			}
+		};
+		
+		// etiquette
+		handlers[84] = new PrimitiveHandler(84)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String par = param.get(0).trim();
+				if (isList(par))
+					par = formatList(par.substring(1, par.length() - 1));
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					cadre.getDrawPanel().etiquette(Utils.SortieTexte(par, kernel.getCalculator()));
+				else
+					cadre.getDrawPanel().etiquette(Utils.SortieTexte(mot, kernel.getCalculator()));
+			}
+		};
+		
+		// /trouvecouleur
+		handlers[85] = new PrimitiveHandler(85)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				if (kernel.getActiveTurtle().isVisible())
+					cadre.getDrawPanel().montrecacheTortue(false);
 				
-				case 24: // difference
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().substract(param));
-					break;
-				case 25: // arithmetic.minus moins (opposé)
-					Interprete.calcul.push(kernel.getCalculator().minus(param.get(0)));
-					Interprete.operande = true;
-					break;
-				case 26: // produit
-					Interprete.calcul.push(kernel.getCalculator().multiply(param));
-					Interprete.operande = true;
-					break;
-				case 27: // div
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().divide(param));
-					break;
-				case 28: // reste
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().remainder(param.get(0), param.get(1)));
-					break;
-				case 29: // retourne
-					kernel.primitive.retourne(param.get(0));
-					break;
-				case 30: // *
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().multiply(param));
-					break;
-				case 31: // diviser /
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().divide(param));
-					break;
-				case 32: // +
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().add(param));
-					break;
-				case 33: // -
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().substract(param));
-					break;
-				case 34: // =
-					equal(param);
-					break;
-				case 35: // <
-					inf(param);
-					break;
-				case 36: // >
-					sup(param);
-					break;
-				case 37: // |
-					boolean b1 = predicat(param.get(0));
-					boolean b2 = predicat(param.get(1));
-					b1 = b1 | b2;
-					if (b1)
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					Interprete.operande = true;
-					break;
-				case 38: // &
-					b1 = predicat(param.get(0));
-					b2 = predicat(param.get(1));
-					b1 = b1 & b2;
-					if (b1)
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					Interprete.operande = true;
-					break;
-				case 39: // opérateur interne \n signalant une fin de
-							// procédure
-					Interprete.locale = Interprete.stockvariable.pop();
-					if (Interprete.nom.peek().equals("\n"))
-					{
-						Interprete.nom.pop();
-						Interprete.lineNumber = "";
-					}
-					else
-					{
-						/*
-						 * Example
-						 * to bug
-						 * av
-						 * end
-						 */
-						throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + Interprete.nom.peek());
-					}
-					/*
-					 * to bug [:a] | (bug 10)
-					 * av :a |
-					 * end |
-					 */
-					if (!Interprete.nom.isEmpty() && !Interprete.nom.peek().equals("\n")
-							&& !Interprete.nom.peek().equals("("))
-					{
-						if (!cadre.error)
-							throw new LogoError(Interprete.en_cours.peek() + " "
-									+ Logo.messages.getString("ne_renvoie_pas") + " "
-									+ Interprete.nom.peek().toString());
-					}
-					if (!Interprete.en_cours.isEmpty())
-						Interprete.en_cours.pop();
-					break;
-				case 40: // opérateur interne \ signalant une fin de boucle
-					
-					LoopProperties loop = Primitive.stackLoop.peek();
-					// LOOP REPEAT
-					if (loop.isRepeat())
-					{
-						BigDecimal compteur = loop.getCounter();
-						BigDecimal fin = loop.getEnd();
-						if (compteur.compareTo(fin) < 0)
-						{
-							loop.incremente();
-							Primitive.stackLoop.pop();
-							Primitive.stackLoop.push(loop);
-							cadre.getKernel().getInstructionBuffer().insert(loop.getInstr() + Primitive.END_LOOP + " ");
-						}
-						else if (compteur.compareTo(fin) == 0)
-						{
-							Primitive.stackLoop.pop();
-						}
-					}
-					// LOOP FOR or LOOP FOREACH
-					else if (loop.isFor() || loop.isForEach())
-					{
-						BigDecimal inc = loop.getIncrement();
-						BigDecimal compteur = loop.getCounter();
-						BigDecimal fin = loop.getEnd();
-						if ((inc.compareTo(BigDecimal.ZERO) == 1 && (compteur.add(inc).compareTo(fin) <= 0))
-								|| (inc.compareTo(BigDecimal.ZERO) == -1 && (compteur.add(inc).compareTo(fin) >= 0)))
-						{
-							loop.incremente();
-							((LoopFor) loop).AffecteVar(false);
-							Primitive.stackLoop.pop();
-							Primitive.stackLoop.push(loop);
-							cadre.getKernel().getInstructionBuffer().insert(loop.getInstr() + Primitive.END_LOOP + " ");
-						}
-						else
-						{
-							((LoopFor) loop).DeleteVar();
-							Primitive.stackLoop.pop();
-						}
-					}
-					// LOOP FOREVER
-					else if (loop.isForEver())
-					{
-						cadre.getKernel().getInstructionBuffer().insert(loop.getInstr() + Primitive.END_LOOP + " ");
-					}
-					// LOOP FILL POLYGON
-					else if (loop.isFillPolygon())
-					{
-						cadre.getDrawPanel().stopRecord2DPolygon();
-						Primitive.stackLoop.pop();
-					}
-					break;
-				case 41: // pos
-					Interprete.operande = true;
-					if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
-					{
-						double a = kernel.getActiveTurtle().corX - w / 2;
-						double b = h / 2 - kernel.getActiveTurtle().corY;
-						Interprete.calcul.push("[ " + MyCalculator.teste_fin_double(a) + " "
-								+ MyCalculator.teste_fin_double(b) + " ] ");
-					}
-					else
-					{
-						Interprete.calcul.push("[ " + kernel.getActiveTurtle().X + " " + kernel.getActiveTurtle().Y
-								+ " " + kernel.getActiveTurtle().Z + " ] ");
-						
-					}
-					break;
-				case 42: // cap
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().heading));
-					break;
-				case 43: // arrondi
-					Interprete.operande = true;
-					Interprete.calcul
-							.push(String.valueOf(Math.round(kernel.getCalculator().numberDouble(param.get(0)))));
-					break;
-				case 44: // log10
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().log10(param.get(0)));
-					break;
-				case 45: // arithmetic.sin
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().sin(param.get(0)));
-					break;
-				case 46: // arithmetic.cos
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().cos(param.get(0)));
-					break;
-				case 47: // ou
-					ou(param);
-					break;
-				case 48: // et
-					et(param);
-					break;
-				case 49: // non
-					Interprete.operande = true;
-					b1 = predicat(param.get(0));
-					if (b1)
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					break;
-				case 50: // liste
-					liste = "[ ";
-					Interprete.operande = true;
-					String mot2;
-					for (int i = 0; i < param.size(); i++)
-					{
-						mot2 = param.get(i);
-						mot = getWord(param.get(i));
-						if (null == mot)
-						{
-							liste += mot2;
-							// System.out.println("a"+mot2+"a");
-						}
-						else
-						{
-							if (mot.equals(""))
-								mot = "\\v";
-							liste += mot + " ";
-						}
-					}
-					Interprete.calcul.push(liste + "] ");
-					break;
-				case 51: // phrase
-					liste = "[ ";
-					Interprete.operande = true;
-					for (int i = 0; i < param.size(); i++)
-					{
-						mot = getWord(param.get(i));
-						mot2 = param.get(i).trim();
-						if (null == mot)
-						{
-							if (isList(mot2))
-								liste += mot2.substring(1, mot2.length() - 1).trim() + " ";
-							else
-								liste += mot2 + " ";
-						}
-						else
-						{
-							if (mot.equals(""))
-								mot = "\\v";
-							liste += mot + " ";
-						}
-					}
-					Interprete.calcul.push(liste + "] ");
-					break;
-				case 52: // metspremier
-					liste = getFinalList(param.get(1));
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null != mot && mot.equals(""))
-						mot = "\\v";
-					if (null == mot)
-					{
-						if (!liste.equals(""))
-							Interprete.calcul.push("[ " + param.get(0).trim() + " " + liste.trim() + " ] ");
-						else
-							Interprete.calcul.push("[ " + param.get(0).trim() + " ] ");
-					}
-					else
-					{
-						if (!liste.equals(""))
-							Interprete.calcul.push("[ " + mot + " " + liste.trim() + " ] ");
-						else
-							Interprete.calcul.push("[ " + mot + " ] ");
-					}
-					break;
-				case 53: // metsdernier
-					liste = getFinalList(param.get(1)).trim();
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null != mot && mot.equals(""))
-						mot = "\\v";
-					if (null == mot)
-					{ // Si c'est une liste
-						Interprete.calcul.push(("[ " + liste).trim() + " " + param.get(0).trim() + " ] ");
-						
-					}
-					else
-						Interprete.calcul.push(("[ " + liste).trim() + " " + mot + " ] ");
-					
-					break;
-				case 54: // inverse liste
-					liste = getFinalList(param.get(0)).trim();
-					Interprete.operande = true;
-					StringTokenizer st = new StringTokenizer(liste);
-					liste = " ] ";
-					String element = "";
-					while (st.hasMoreTokens())
-					{
-						element = st.nextToken();
-						if (element.equals("["))
-							element = extractList(st);
-						liste = " " + element + liste;
-					}
-					Interprete.calcul.push("[" + liste);
-					break;
-				case 55: // choix
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{
-						liste = getFinalList(param.get(0));
-						int nombre = (int) Math.floor(numberOfElements(liste) * Math.random()) + 1;
-						String tmp = item(liste, nombre);
-						if (tmp.equals("\"\\v"))
-							tmp = "\"";
-						Interprete.calcul.push(tmp);
-					}
-					else
-					{
-						int nombre = (int) Math.floor(Math.random() * getWordLength(mot)) + 1;
-						String str = "";
-						try
-						{
-							str = itemWord(nombre, mot);
-							Double.parseDouble(str);
-							Interprete.calcul.push(str);
-						}
-						catch (NumberFormatException e1)
-						{
-							Interprete.calcul.push("\"" + str);
-						}
-					}
-					break;
-				case 56: // enleve
-					Interprete.operande = true;
-					liste = getFinalList(param.get(1));
-					st = new StringTokenizer(liste);
-					liste = "[ ";
-					mot = getWord(param.get(0));
-					String str;
-					if (null != mot && mot.equals(""))
-						mot = "\\v";
-					if (null == mot)
-						mot = param.get(0).trim();
-					
-					while (st.hasMoreTokens())
-					{
-						str = st.nextToken();
-						if (str.equals("["))
-							str = extractList(st);
-						if (!str.equals(mot))
-							liste += str + " ";
-					}
-					Interprete.calcul.push(liste.trim() + " ] ");
-					break;
-				case 57: // item
-					Interprete.operande = true;
-					mot = getWord(param.get(1));
-					if (null == mot)
-						Interprete.calcul.push(item(getFinalList(param.get(1)),
-								kernel.getCalculator().getInteger(param.get(0))));
-					else
-					{
-						int i = kernel.getCalculator().getInteger(param.get(0));
-						if (i < 1 || i > getWordLength(mot))
-							throw new LogoError(Utils.primitiveName("item") + " "
-									+ Logo.messages.getString("n_aime_pas") + i + " "
-									+ Logo.messages.getString("comme_parametre") + ".");
-						else
-						{
-							str = itemWord(i, mot);
-							try
-							{
-								Double.parseDouble(str);
-								Interprete.calcul.push(str);
-							}
-							catch (NumberFormatException e1)
-							{
-								Interprete.calcul.push("\"" + str);
-							}
-						}
-					}
-					break;
-				case 58: // saufdernier
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{
-						liste = getFinalList(param.get(0)).trim();
-						element = item(liste, numberOfElements(liste));
-						int longueur = element.length();
-						
-						if (element.startsWith("\"") || element.startsWith("["))
-							longueur--;
-						Interprete.calcul.push("[ " + liste.substring(0, liste.length() - longueur) + "] ");
-					}
-					else if (mot.equals(""))
-					{
-						throw new LogoError(Logo.messages.getString("mot_vide"));
-					}
-					else if (getWordLength(mot) == 1)
-						Interprete.calcul.push("\"");
-					else
-					{
-						String tmp = mot.substring(0, mot.length() - 1);
-						if (tmp.endsWith("\\"))
-							tmp = tmp.substring(0, tmp.length() - 1);
-						try
-						{
-							Double.parseDouble(tmp);
-							Interprete.calcul.push(tmp);
-						}
-						catch (NumberFormatException e)
-						{
-							Interprete.calcul.push(debut_chaine + tmp);
-						}
-					}
-					break;
-				case 59: // saufpremier
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{
-						liste = getFinalList(param.get(0)).trim();
-						element = item(liste, 1);
-						int longueur = element.length();
-						if (element.startsWith("\"") || element.startsWith("["))
-							longueur--;
-						Interprete.calcul.push("[" + liste.substring(longueur, liste.length()) + " ] ");
-					}
-					else if (mot.equals(""))
-					{
-						throw new LogoError(Logo.messages.getString("mot_vide"));
-					}
-					else if (getWordLength(mot) == 1)
-						Interprete.calcul.push("\"");
-					else
-					{
-						if (!mot.startsWith("\\"))
-							mot = mot.substring(1);
-						else
-							mot = mot.substring(2);
-						try
-						{
-							Double.parseDouble(mot);
-							Interprete.calcul.push(mot);
-						}
-						catch (NumberFormatException e)
-						{
-							Interprete.calcul.push(debut_chaine + mot);
-						}
-					}
-					
-					break;
-				case 60: // dernier
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{ // Si c'est une liste
-						liste = getFinalList(param.get(0));
-						Interprete.calcul.push(item(liste, numberOfElements(liste)));
-					}
-					else if (getWordLength(mot) == 1)
-						Interprete.calcul.push(debut_chaine + mot);
-					else
-					{
-						str = "";
-						try
-						{
-							str = itemWord(getWordLength(mot), mot);
-							Double.parseDouble(str);
-							Interprete.calcul.push(str);
-						}
-						catch (NumberFormatException e1)
-						{
-							Interprete.calcul.push("\"" + str);
-						}
-					}
-					break;
-				case 61: // premier first
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{ // SI c'est une liste
-						liste = getFinalList(param.get(0));
-						// System.out.println("b"+item(liste, 1)+"b");
-						Interprete.calcul.push(item(liste, 1));
-					}
-					else if (getWordLength(mot) == 1)
-						Interprete.calcul.push(debut_chaine + mot);
-					else
-					{
-						str = "";
-						try
-						{
-							str = itemWord(1, mot);
-							Double.parseDouble(str);
-							Interprete.calcul.push(str);
-						}
-						catch (NumberFormatException e2)
-						{
-							Interprete.calcul.push("\"" + str);
-						}
-					}
-					break;
-				case 62: // compte
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{
-						liste = getFinalList(param.get(0));
-						Interprete.calcul.push(String.valueOf(numberOfElements(liste)));
-					}
-					else
-						Interprete.calcul.push(String.valueOf(getWordLength(mot)));
-					break;
-				case 63: // mot?
-					mot = getWord(param.get(0));
-					if (null == mot)
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					Interprete.operande = true;
-					break;
-				case 64: // nombre?
-					try
-					{
-						Double.parseDouble(param.get(0));
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					}
-					catch (NumberFormatException e)
-					{
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					}
-					Interprete.operande = true;
-					break;
-				case 65: // liste?
-					liste = param.get(0).trim();
-					if (isList(liste))
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					Interprete.operande = true;
-					break;
-				case 66: // vide?
-					liste = param.get(0).trim();
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{ // si c'est une liste ou un nombre
-						liste = getFinalList(liste).trim();
-						if (liste.equals(""))
-							Interprete.calcul.push(Logo.messages.getString("vrai"));
-						else
-							Interprete.calcul.push(Logo.messages.getString("faux"));
-					}
-					else
-					{ // Si c'est un mot
-						if (mot.equals(""))
-							Interprete.calcul.push(Logo.messages.getString("vrai"));
-						else
-							Interprete.calcul.push(Logo.messages.getString("faux"));
-					}
-					Interprete.operande = true;
-					break;
-				case 67: // egal?
-					equal(param);
-					break;
-				case 68: // precede?
-					precede(param);
-					break;
-				case 69: // membre ?
-					membre(param, id);
-					break;
-				case 70: // racine arithmetic.sqrt
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().sqrt(param.get(0)));
-					break;
-				case 71: // membre
-					membre(param, id);
-					break;
-				case 72: // donne
-					donne(param);
-					Interprete.operande = false;
-					
-					break;
-				case 73: // locale
-					locale(param);
-					Interprete.operande = false;
-					break;
-				case 74: // donnelocale
-					locale(param);
-					donne(param);
-					Interprete.operande = false;
-					break;
-				case 75: // fcc
-					Color color = null;
-					if (isList(param.get(0)))
-					{
-						color = rgb(param.get(0), Utils.primitiveName("fcc"));
-					}
-					else
-					{
-						int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
-						if (coul < 0)
-							coul += DrawPanel.defaultColors.length;
-						color = DrawPanel.defaultColors[coul];
-					}
-					cadre.getDrawPanel().fcc(color);
-					break;
-				case 76: // fcfg setscreencolor
-					color = null;
-					if (isList(param.get(0)))
-					{
-						color = rgb(param.get(0), Utils.primitiveName("fcfg"));
-					}
-					else
-					{
-						int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
-						if (coul < 0)
-							coul += DrawPanel.defaultColors.length;
-						color = DrawPanel.defaultColors[coul];
-					}
-					cadre.getDrawPanel().fcfg(color);
-					break;
-				case 77: // hasard
-					Interprete.operande = true;
-					int i = kernel.getCalculator().getInteger(param.get(0));
-					i = (int) Math.floor(Math.random() * i);
-					Interprete.calcul.push(String.valueOf(i));
-					break;
-				case 78: // attends
-					try
-					{
-						int temps = kernel.getCalculator().getInteger(param.get(0));
-						if (temps < 0)
-						{
-							String attends = Utils.primitiveName("attends");
-							throw new LogoError(attends + " " + Logo.messages.getString("attend_positif"));
-						}
-						else
-						{
-							int nbsecondes = temps / 60;
-							int reste = temps % 60;
-							for (i = 0; i < nbsecondes; i++)
-							{
-								Thread.sleep(1000);
-								if (cadre.error)
-									break;
-							}
-							if (!cadre.error)
-								Thread.sleep(reste * 50 / 3);
-						}
-						
-					}
-					catch (InterruptedException e2)
-					{}
-					break;
-				case 79: // procedures
-					Interprete.operande = true;
-					Interprete.calcul.push(new String(getAllProcedures()));
-					break;
-				case 80: // effaceprocedure efp
-					erase(param.get(0), "procedure");
-					break;
+				liste = getFinalList(param.get(0));
+				Color r = cadre.getDrawPanel().guessColorPoint(liste);
+				context.operande = true;
+				context.calcul.push("[ " + r.getRed() + " " + r.getGreen() + " " + r.getBlue() + " ] ");
+				if (kernel.getActiveTurtle().isVisible())
+					cadre.getDrawPanel().montrecacheTortue(true);
+			}
+		};
+		
+		// fenetre
+		handlers[86] = new PrimitiveHandler(86)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_CLASSIC);
+			}
+		};
+		
+		// enroule
+		handlers[87] = new PrimitiveHandler(87)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_WRAP);
+			}
+		};
+		
+		// clos
+		handlers[88] = new PrimitiveHandler(88)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_CLOSE);
+			}
+		};
+		
+		// chargeimage
+		handlers[90] = new PrimitiveHandler(90)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				BufferedImage image = null;
+				
+				primitive2D("ci");
+				image = getImage(param.get(0));
+				if (null != image)
+					cadre.getDrawPanel().chargeimage(image);
+			}
+		};
+		
+		// remplis
+		handlers[97] = new PrimitiveHandler(97)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().remplis();
+			}
+		};
+		
+		// point
+		handlers[98] = new PrimitiveHandler(98)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (kernel.getActiveTurtle().isVisible())
+					cadre.getDrawPanel().montrecacheTortue(false);
+				
+				cadre.getDrawPanel().point(getFinalList(param.get(0)));
+				if (kernel.getActiveTurtle().isVisible())
+					cadre.getDrawPanel().montrecacheTortue(true);
+			}
+		};
+		
+		// couleurfond
+		handlers[102] = new PrimitiveHandler(102)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Color color;
+				context.operande = true;
+				color = cadre.getDrawPanel().getBackgroundColor();
+				context.calcul.push("[ " + color.getRed() + " " + color.getGreen() + " " + color.getBlue()
+						+ " ] ");
+			}
+		};
+		
+		// police
+		handlers[127] = new PrimitiveHandler(127)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(String.valueOf(kernel.getActiveTurtle().police));
+			}
+		};
+		
+		// fixetaillepolice
+		handlers[128] = new PrimitiveHandler(128)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Font font = WSManager.getWorkspaceConfig().getFont();
+				int taille = kernel.getCalculator().getInteger(param.get(0));
+				kernel.getActiveTurtle().police = taille;
+				Font police = font;
+				cadre.getDrawPanel().setGraphicsFont(police.deriveFont((float) kernel.getActiveTurtle().police));
+			}
+		};
+		
+		// fnp fixenompolice
+		handlers[149] = new PrimitiveHandler(149)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int int_police = kernel.getCalculator().getInteger(param.get(0));
+				cadre.getDrawPanel().police_etiquette = int_police % UserConfig.fontes.length;
+			}
+		};
+		
+		// np nompolice
+		handlers[150] = new PrimitiveHandler(150)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push("[ " + cadre.getDrawPanel().police_etiquette + " [ "
+						+ UserConfig.fontes[cadre.getDrawPanel().police_etiquette].getFontName() + " ] ] ");
+			}
+		};
+		
+		// nettoie
+		handlers[164] = new PrimitiveHandler(164)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().nettoie();
+			}
+		};
+		
+		// cercle
+		handlers[166] = new PrimitiveHandler(166)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().circle((kernel.getCalculator().numberDouble(param.pop())));
+			}
+		};
+		
+		// arc
+		handlers[167] = new PrimitiveHandler(167)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().arc(kernel.getCalculator().numberDouble(param, 0),
+						kernel.getCalculator().numberDouble(param, 1),
+						kernel.getCalculator().numberDouble(param, 2));
+			}
+		};
+		
+		// rempliszone
+		handlers[168] = new PrimitiveHandler(168)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().rempliszone();
+			}
+		};
+		
+		// animation
+		handlers[169] = new PrimitiveHandler(169)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().setAnimation(true);
+				context.operande = false;
+			}
+		};
+		
+		// rafraichis
+		handlers[170] = new PrimitiveHandler(170)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (cadre.getDrawPanel().classicMode == DrawPanel.MODE_ANIMATION)
+				{
+					cadre.getDrawPanel().refresh();
+				}
+			}
+		};
+		
+		// tailledessin
+		handlers[171] = new PrimitiveHandler(171)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				context.operande = true;
+				StringBuffer sb = new StringBuffer();
+				sb.append("[ ");
+				sb.append(w);
+				sb.append(" ");
+				sb.append(h);
+				sb.append(" ] ");
+				context.calcul.push(new String(sb));
+			}
+		};
+		
+		// gris
+		handlers[187] = new PrimitiveHandler(187)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(8);
+			}
+		};
+		
+		// grisclair
+		handlers[188] = new PrimitiveHandler(188)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(9);
+			}
+		};
+		
+		// rougefonce
+		handlers[189] = new PrimitiveHandler(189)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(10);
+			}
+		};
+		
+		// vertfonce
+		handlers[190] = new PrimitiveHandler(190)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(11);
+			}
+		};
+		
+		// bleufonce
+		handlers[191] = new PrimitiveHandler(191)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(12);
+			}
+		};
+		
+		// orange
+		handlers[192] = new PrimitiveHandler(192)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(13);
+			}
+		};
+		
+		// rose
+		handlers[193] = new PrimitiveHandler(193)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(14);
+			}
+		};
+		
+		// violet
+		handlers[194] = new PrimitiveHandler(194)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(15);
+			}
+		};
+		
+		// marron
+		handlers[195] = new PrimitiveHandler(195)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(16);
+			}
+		};
+		
+		// noir
+		handlers[196] = new PrimitiveHandler(196)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(0);
+			}
+		};
+		
+		// rouge
+		handlers[197] = new PrimitiveHandler(197)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(1);
+			}
+		};
+		
+		// vert
+		handlers[198] = new PrimitiveHandler(198)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(2);
+			}
+		};
+		
+		// jaune
+		handlers[199] = new PrimitiveHandler(199)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(3);
+			}
+		};
+		
+		// bleu
+		handlers[200] = new PrimitiveHandler(200)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(4);
+			}
+		};
+		
+		// magenta
+		handlers[201] = new PrimitiveHandler(201)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(5);
+			}
+		};
+		
+		// cyan
+		handlers[202] = new PrimitiveHandler(202)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(6);
+			}
+		};
+		
+		// blanc
+		handlers[203] = new PrimitiveHandler(203)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				colorCode(7);
+			}
+		};
+		
+		// listaillefenetre
+		handlers[207] = new PrimitiveHandler(207)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringBuffer sb;
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				context.operande = true;
+				java.awt.Point p = cadre.scrollArea.getViewport().getViewPosition();
+				Rectangle rec = cadre.scrollArea.getVisibleRect();
+				sb = new StringBuffer();
+				int x1 = p.x - w / 2;
+				int y1 = h / 2 - p.y;
+				int x2 = x1 + rec.width - cadre.scrollArea.getVerticalScrollBar().getWidth();
+				int y2 = y1 - rec.height + cadre.scrollArea.getHorizontalScrollBar().getHeight();
+				sb.append("[ ");
+				sb.append(x1);
+				sb.append(" ");
+				sb.append(y1);
+				sb.append(" ");
+				sb.append(x2);
+				sb.append(" ");
+				sb.append(y2);
+				sb.append(" ] ");
+				context.calcul.push(new String(sb));
+			}
+		};
+		
+		// LongueurEtiquette
+		handlers[208] = new PrimitiveHandler(208)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				int longueur;
+				mot = getWord(param.getValue(0));
+				if (null != mot)
+					mot = Utils.SortieTexte(mot, kernel.getCalculator());
+				else
+					mot = getFinalList(param.get(0)).trim();
+				context.operande = true;
+				java.awt.FontMetrics fm = cadre.getDrawPanel().getFontMetrics(cadre.getDrawPanel().getGraphicsFont());
+				longueur = fm.stringWidth(mot);
+				context.calcul.push(String.valueOf(longueur));
+			}
+		};
+		
+		// init resetall
+		handlers[214] = new PrimitiveHandler(214)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String chemin;
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				Font font = WSManager.getWorkspaceConfig().getFont();
+				context.operande = false;
+				// resize drawing zone if necessary
+				if (h != 1000 || w != 1000)
+				{
+					h = 1000;
+					w = 1000;
+					cadre.resizeDrawingZone();
+				}
+				uc.setDrawGrid(false);
+				uc.setDrawXAxis(false);
+				uc.setDrawYAxis(false);
+				cadre.getDrawPanel().origine();
+				kernel.getActiveTurtle().stroke = new BasicStroke(1);
+				cadre.getDrawPanel().setBackgroundColor(Color.WHITE);
+				if (kernel.getActiveTurtle().id == 0)
+				{
+					uc.setActiveTurtle(0);
+				}
+				cadre.getDrawPanel().WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
+				chemin = "tortue0.png";
+				kernel.change_image_tortue(chemin);
+				cadre.getDrawPanel().fcfg(Color.WHITE);
+				cadre.getDrawPanel().fcc(Color.BLACK);
+				cadre.getDrawPanel().setAnimation(false);
+				font = new Font("dialog", Font.PLAIN, 12);
+				WSManager.getWorkspaceConfig().setFont(font);
+				kernel.getActiveTurtle().police = 12;
+				cadre.getDrawPanel().setGraphicsFont(font);
+				HistoryPanel.fontPrint = UserConfig.police_id(font);
+				cadre.getHistoryPanel().getDsd().fixepolice(12);
+				cadre.getHistoryPanel().getDsd().fixenompolice(HistoryPanel.fontPrint);
+				cadre.getHistoryPanel().getDsd().fixecouleur(Color.black);
+				uc.setPenShape(PenShape.SQUARE);
+				uc.setQuality(DrawQuality.NORMAL);
+				kernel.setDrawingQuality(uc.getQuality());
+				kernel.setNumberOfTurtles(16);
+				uc.setTurtleSpeed(0);
+				context.mode_trace = false;
+				cadre.getDrawPanel().WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
+				cadre.getDrawPanel().zoom(1, false);
+			}
+		};
+		
+		// setdrawingquality=fqd fixequalitedessin
+		handlers[218] = new PrimitiveHandler(218)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i != DrawQuality.NORMAL.getValue() && i != DrawQuality.HIGH.getValue()
+						&& i != DrawQuality.LOW.getValue())
+				{
+					str = Utils.primitiveName("setdrawingquality") + " "
+							+ Logo.messages.getString("error_bad_values") + " 0 1 2";
+					throw new LogoError(str);
+				}
+				uc.setQuality(DrawQuality.getDrawQuality(i));
+				kernel.setDrawingQuality(uc.getQuality());
+			}
+		};
+		
+		// drawingquality=qd qualitedessin
+		handlers[219] = new PrimitiveHandler(219)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				context.calcul.push(String.valueOf(uc.getQuality().getValue()));
+			}
+		};
+		
+		// setscreensize=ftd fixetailledessin
+		handlers[222] = new PrimitiveHandler(222)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringTokenizer st;
+				String liste;
+				MyTextAreaDialog jt;
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				context.operande = false;
 				
-				case 81: // effacevariable
-					erase(param.get(0), "variable");
-					break;
-				case 82: // effacetout erall
+				String prim = Utils.primitiveName("setscreensize");
+				liste = getFinalList(param.get(0));
+				int width,
+				height;
+				st = new StringTokenizer(liste);
+				try
+				{
+					if (!st.hasMoreTokens())
+						throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
+								+ Logo.messages.getString("comme_parametre"));
+					width = Integer.parseInt(st.nextToken().toString());
+					if (!st.hasMoreTokens())
+						throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
+								+ Logo.messages.getString("comme_parametre"));
+					height = Integer.parseInt(st.nextToken().toString());
+				}
+				catch (NumberFormatException e)
+				{
+					throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
+							+ Logo.messages.getString("comme_parametre"));
+				}
+				if (st.hasMoreTokens())
+					throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
+							+ Logo.messages.getString("comme_parametre"));
+				boolean changement = false;
+				if (height != h)
+					changement = true;
+				int tmp_hauteur = h;
+				h = height;
+				if (width != w)
+					changement = true;
+				int tmp_largeur = w;
+				w = width;
+				if (w < 100 || h < 100)
+				{
+					w = 1000;
+					h = 1000;
+				}
+				if (changement)
+				{
+					int memoire_necessaire = w * h * 4 / 1024 / 1024;
+					int memoire_image = tmp_hauteur * tmp_largeur * 4 / 1024 / 1024;
+					long free = Runtime.getRuntime().freeMemory() / 1024 / 1024;
+					long total = Runtime.getRuntime().totalMemory() / 1024 / 1024;
 					/*
-					 * Marko Zivkovic:
-					 * In XLogo4Schools, we delete all files (together with the
-					 * procedures) and clear all variables and property lists.
+					 * System.out.println("memoire nécessaire
+					 * "+memoire_necessaire); System.out.println("memoire
+					 * image
+					 * "+memoire_image); System.out.println("memoire
+					 * libre "+free); System.out.println("memoire totale
+					 * "+total); System.out.println("memoire envisagee
+					 * "+(total-free+memoire_necessaire-memoire_image));
+					 * System.out.println();
 					 */
-					wp.eraseAll();
-					break;
-				case 83: // mot
-					Interprete.operande = true;
-					result = "";
-					for (i = 0; i < param.size(); i++)
-					{
-						mot = getWord(param.get(i));
-						if (null == mot)
-							throw new LogoError(param.get(i) + " " + Logo.messages.getString("error.word"));
-						result += mot;
-					}
-					try
-					{
-						Double.parseDouble(result);
-					}
-					catch (NumberFormatException e)
-					{
-						result = "\"" + result;
-					}
-					Interprete.calcul.push(result);
-					break;
-				case 84: // etiquette
-					String par = param.get(0).trim();
-					if (isList(par))
-						par = formatList(par.substring(1, par.length() - 1));
-					mot = getWord(param.get(0));
-					if (null == mot)
-						cadre.getDrawPanel().etiquette(Utils.SortieTexte(par));
-					else
-						cadre.getDrawPanel().etiquette(Utils.SortieTexte(mot));
-					break;
-				case 85: // /trouvecouleur
-					if (kernel.getActiveTurtle().isVisible())
-						cadre.getDrawPanel().montrecacheTortue(false);
-					
-					liste = getFinalList(param.get(0));
-					Color r = cadre.getDrawPanel().guessColorPoint(liste);
-					Interprete.operande = true;
-					Interprete.calcul.push("[ " + r.getRed() + " " + r.getGreen() + " " + r.getBlue() + " ] ");
-					if (kernel.getActiveTurtle().isVisible())
-						cadre.getDrawPanel().montrecacheTortue(true);
-					break;
-				case 86: // fenetre
-					cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_CLASSIC);
-					break;
-				case 87: // enroule
-					cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_WRAP);
-					break;
-				case 88: // clos
-					cadre.getDrawPanel().setWindowMode(DrawPanel.WINDOW_CLOSE);
-					break;
-				case 89: // videtexte
-					cadre.getHistoryPanel().vide_texte();
-					break;
-				case 90: // chargeimage
-					BufferedImage image = null;
-					
-					primitive2D("ci");
-					image = getImage(param.get(0));
-					if (null != image)
-						cadre.getDrawPanel().chargeimage(image);
-					break;
-				case 91: // ftc, fixetaillecrayon
-					double nombre = kernel.getCalculator().numberDouble(param.get(0));
-					if (nombre < 0)
-						nombre = Math.abs(nombre);
-					if (DrawPanel.record3D == DrawPanel.record3D_LINE || DrawPanel.record3D == DrawPanel.record3D_POINT)
-					{
-						if (kernel.getActiveTurtle().getPenWidth() != (float) nombre)
-							DrawPanel.poly.addToScene();
-					}
-					kernel.getActiveTurtle().fixe_taille_crayon((float) nombre);
-					cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
-					if (DrawPanel.record3D == DrawPanel.record3D_LINE)
-					{
-						DrawPanel.poly = new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
-						DrawPanel.poly.addVertex(
-								new Point3d(kernel.getActiveTurtle().X / 1000, kernel.getActiveTurtle().Y / 1000,
-										kernel.getActiveTurtle().Z / 1000), kernel.getActiveTurtle().couleurcrayon);
-					}
-					else if (DrawPanel.record3D == DrawPanel.record3D_POINT)
-					{
-						DrawPanel.poly = new ElementPoint(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
-					}
-					break;
-				case 92: // tantque
-					String li1 = getList(param.get(0));
-					li1 = new String(Utils.decoupe(li1));
-					String li2 = getList(param.get(1));
-					li2 = new String(Utils.decoupe(li2));
-					String instr = "\\siwhile " + li1 + "[ " + li2 + "] ";
-					LoopWhile bp = new LoopWhile(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE, instr);
-					Primitive.stackLoop.push(bp);
-					cadre.getKernel().getInstructionBuffer().insert(instr + Primitive.END_LOOP + " ");
-					
-					break;
-				case 93: // lis
-					liste = getFinalList(param.get(0));
-					mot = getWord(param.get(1));
-					if (null == mot)
-						throw new LogoError(Logo.messages.getString("error.word"));
-					java.awt.FontMetrics fm = cadre.getFrame().getGraphics().getFontMetrics(font);
-					int longueur = fm.stringWidth(liste) + 100;
-					Lis lis = new Lis(liste, longueur);
-					while (lis.isVisible())
-					{
-						try
-						{
-							Thread.sleep(50);
-						}
-						catch (InterruptedException e)
-						{}
-					}
-					param = new Stack<String>();
-					param.push("\"" + mot);
-					String phrase = lis.getText();
-					// phrase="[ "+Logo.rajoute_backslash(phrase)+" ] ";
-					StringBuffer tampon = new StringBuffer();
-					for (int j = 0; j < phrase.length(); j++)
-					{
-						char c = phrase.charAt(j);
-						if (c == '\\')
-							tampon.append("\\\\");
-						else
-							tampon.append(c);
-					}
-					int offset = tampon.indexOf(" ");
-					if (offset != -1)
-					{
-						tampon.insert(0, "[ ");
-						tampon.append(" ] ");
-					}
-					else
+					if (total - free + memoire_necessaire - memoire_image < GlobalConfig.getMaximumMemory() * 0.8)
 					{
-						try
-						{
-							Double.parseDouble(phrase);
-						}
-						catch (NumberFormatException e)
-						{
-							tampon.insert(0, "\"");
-						}
+						cadre.resizeDrawingZone();
 					}
-					phrase = new String(tampon);
-					param.push(phrase);
-					donne(param);
-					String texte = liste + "\n" + phrase;
-					HistoryMessenger.getInstance().dispatchComment(Utils.SortieTexte(texte) + "\n");
-					cadre.focusCommandLine();
-					lis.dispose();
-					cadre.focusCommandLine();
-					break;
-				case 94: // touche?
-					Interprete.operande = true;
-					if (cadre.getCar() != -1)
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
 					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 95: // siwhile --> Evalue l'expression test du while
-					liste = getFinalList(param.get(1));
-					boolean pred = predicat(param.get(0));
-					kernel.primitive.whilesi(pred, liste);
-					break;
-				case 96: // liscar
-					while (cadre.getCar() == -1)
-					{
-						try
-						{
-							Thread.sleep(100);
-						}
-						catch (InterruptedException e)
-						{}
-						//if (LogoError.lance) //TODO this was always false
-						//	break;
-					}
-					Interprete.calcul.push(String.valueOf(cadre.getCar()));
-					Interprete.operande = true;
-					cadre.setCar(-1);
-					break;
-				case 97: // remplis
-					cadre.getDrawPanel().remplis();
-					break;
-				case 98: // point
-					if (kernel.getActiveTurtle().isVisible())
-						cadre.getDrawPanel().montrecacheTortue(false);
-					
-					cadre.getDrawPanel().point(getFinalList(param.get(0)));
-					if (kernel.getActiveTurtle().isVisible())
-						cadre.getDrawPanel().montrecacheTortue(true);
-					break;
-				case 99: // vers=towards vers
-					
-					Interprete.operande = true;
-					if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
 					{
-						double angle = cadre.getDrawPanel().vers2D(getFinalList(param.get(0)));
-						Interprete.calcul.push(MyCalculator.teste_fin_double(angle));
+						w = tmp_largeur;
+						h = tmp_hauteur;
+						long conseil = 64 * ((total - free + memoire_necessaire - memoire_image) / 64) + 64;
+						if (total - free + memoire_necessaire - memoire_image > 0.8 * conseil)
+							conseil += 64;
+						if (conseil == GlobalConfig.getMaximumMemory())
+							conseil += 64;
+						String message = Logo.messages.getString("erreur_memoire") + " " + conseil + "\n"
+								+ Logo.messages.getString("relancer");
+						jt = new MyTextAreaDialog(message);
+						JOptionPane.showMessageDialog(cadre.getFrame(), jt, Logo.messages.getString("erreur"),
+								JOptionPane.ERROR_MESSAGE);
 					}
-					else
+				}
+			}
+		};
+		
+		// zoom
+		handlers[228] = new PrimitiveHandler(228)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				double d;
+				context.operande = false;
+				d = kernel.getCalculator().numberDouble(param, 0);
+				if (d <= 0)
+				{
+					String name = Utils.primitiveName("zoom");
+					throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+				}
+				cadre.getDrawPanel().zoom(d, false);
+			}
+		};
+		
+		// grille
+		handlers[229] = new PrimitiveHandler(229)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				primitive2D("grille");
+				int[] args = new int[2];
+				for (i = 0; i < 2; i++)
+				{
+					args[i] = kernel.getCalculator().getInteger(param.get(i));
+					if (args[i] < 0)
 					{
-						double[] orientation = cadre.getDrawPanel().vers3D(getFinalList(param.get(0)));
-						Interprete.calcul.push("[ " + orientation[0] + " " + orientation[1] + " " + orientation[2]
-								+ " ] ");
+						String grille = Utils.primitiveName("grille");
+						throw new LogoError(grille + " " + Logo.messages.getString("attend_positif"));
 					}
-					break;
-				case 100: // distance
-					Interprete.operande = true;
-					double distance = cadre.getDrawPanel().distance(getFinalList(param.get(0)));
-					Interprete.calcul.push(MyCalculator.teste_fin_double(distance));
-					break;
-				case 101: // couleurcrayon
-					Interprete.operande = true;
-					Interprete.calcul.push("[ " + kernel.getActiveTurtle().couleurcrayon.getRed() + " "
-							+ kernel.getActiveTurtle().couleurcrayon.getGreen() + " "
-							+ kernel.getActiveTurtle().couleurcrayon.getBlue() + " ] ");
-					break;
-				case 102: // couleurfond
-					Interprete.operande = true;
-					color = cadre.getDrawPanel().getBackgroundColor();
-					Interprete.calcul.push("[ " + color.getRed() + " " + color.getGreen() + " " + color.getBlue()
-							+ " ] ");
-					break;
-				case 103: // bc?
-					Interprete.operande = true;
-					if (kernel.getActiveTurtle().isPenDown())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 104: // visible?
-					Interprete.operande = true;
-					if (kernel.getActiveTurtle().isVisible())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 105: // prim?
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					if (Primitive.primitives.containsKey(mot))
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 106: // proc?
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (wp.isExecutable(mot))
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 107: // exec
-					mot = getWord(param.get(0));
-					if (null == mot)
+					else if (args[i] == 0)
 					{
-						mot = getList(param.get(0).trim());
-						mot = new String(Utils.decoupe(mot));
+						args[i] = 1;
 					}
-					else
-						mot = mot + " ";
-					cadre.getKernel().getInstructionBuffer().insert(mot);
-					Interprete.renvoi_instruction = true;
-					break;
-				case 108: // catalogue
-					defaultFolder = uc.getDefaultFolder();
-					str = Utils.SortieTexte(defaultFolder);
-					File f = new File(str);
-					String fichier = "";
-					String dossier = "";
-					int nbdossier = 0;
-					int nbfichier = 0;
-					String[] l = f.list();
-					for (i = 0; i < l.length; i++)
+				}
+				uc.setDrawGrid(true);
+				uc.setXGrid(args[0]);
+				uc.setYGrid(args[1]);
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// stopgrille
+		handlers[230] = new PrimitiveHandler(230)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				uc.setDrawGrid(false);
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// stopanimation
+		handlers[231] = new PrimitiveHandler(231)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().setAnimation(false);
+				context.operande = false;
+			}
+		};
+		
+		// axis
+		handlers[234] = new PrimitiveHandler(234)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				
+				context.operande = false;
+				
+				primitive2D("axis");
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i < 0)
+				{
+					String name = Utils.primitiveName("axis");
+					throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+				}
+				else if (i < 25)
+					i = 25;
+				uc.setDrawXAxis(true);
+				uc.setXAxis(i);
+				uc.setDrawYAxis(true);
+				uc.setYAxis(i);
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// xaxis
+		handlers[235] = new PrimitiveHandler(235)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				primitive2D("xaxis");
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i < 0)
+				{
+					String name = Utils.primitiveName("xaxis");
+					throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+				}
+				else if (i < 25)
+					i = 25;
+				uc.setDrawXAxis(true);
+				uc.setXAxis(i);
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// yaxis
+		handlers[236] = new PrimitiveHandler(236)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				primitive2D("yaxis");
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i < 0)
+				{
+					String name = Utils.primitiveName("yaxis");
+					throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+				}
+				else if (i < 25)
+					i = 25;
+				uc.setDrawYAxis(true);
+				uc.setYAxis(i);
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// stopaxis
+		handlers[237] = new PrimitiveHandler(237)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				uc.setDrawXAxis(false);
+				uc.setDrawYAxis(false);
+				context.operande = false;
+				cadre.getDrawPanel().videecran();
+			}
+		};
+		
+		// axiscolor= couleuraxes
+		handlers[240] = new PrimitiveHandler(240)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Color c;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				c = new Color(uc.getAxisColor());
+				context.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
+			}
+		};
+		
+		// gridcolor=couleurgrille
+		handlers[241] = new PrimitiveHandler(241)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Color c;
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				c = new Color(uc.getGridColor());
+				context.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
+			}
+		};
+		
+		// grid?=grille?
+		handlers[242] = new PrimitiveHandler(242)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				if (uc.isDrawGrid())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// xaxis?=axex?
+		handlers[243] = new PrimitiveHandler(243)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				if (uc.isDrawXAxis())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// yaxis?=axey?
+		handlers[244] = new PrimitiveHandler(244)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				if (uc.isDrawYAxis())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// setgridcolor=fcg fixecouleurgrille
+		handlers[245] = new PrimitiveHandler(245)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				if (isList(param.get(0)))
+				{
+					uc.setGridColor(rgb(param.get(0), Utils.primitiveName("setgridcolor")).getRGB());
+				}
+				else
+				{
+					int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
+					if (coul < 0)
+						coul += DrawPanel.defaultColors.length;
+					uc.setGridColor(DrawPanel.defaultColors[coul].getRGB());
+				}
+			}
+		};
+		
+		// setaxiscolor=fca fixecouleuraxes
+		handlers[246] = new PrimitiveHandler(246)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = false;
+				if (isList(param.get(0)))
+				{
+					uc.setAxisColor(rgb(param.get(0), Utils.primitiveName("setaxiscolor")).getRGB());
+				}
+				else
+				{
+					int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
+					if (coul < 0)
+						coul += DrawPanel.defaultColors.length;
+					uc.setAxisColor(DrawPanel.defaultColors[coul].getRGB());
+				}
+			}
+		};
+		
+		// polystart=polydef
+		handlers[264] = new PrimitiveHandler(264)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_POLYGON;
+				cadre.initViewer3D();
+				// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
+				// java.util.Vector<Shape3D>();
+				cadre.getDrawPanel().poly = new ElementPolygon(cadre.getViewer3D());
+			}
+		};
+		
+		// polyend=polyfin
+		handlers[265] = new PrimitiveHandler(265)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_NONE;
+				cadre.getDrawPanel().poly.addToScene();
+			}
+		};
+		
+		// polyview=polyaf vue3d
+		handlers[266] = new PrimitiveHandler(266)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				primitive3D("3d.polyview");
+				cadre.viewerOpen();
+			}
+		};
+		
+		// linestart=lignedef
+		handlers[267] = new PrimitiveHandler(267)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_LINE;
+				cadre.initViewer3D();
+				// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
+				// java.util.Vector<Shape3D>();
+				cadre.getDrawPanel().poly = new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
+				cadre.getDrawPanel().poly.addVertex(new Point3d(kernel.getActiveTurtle().X / 1000,
+						kernel.getActiveTurtle().Y / 1000, kernel.getActiveTurtle().Z / 1000), kernel
+						.getActiveTurtle().couleurcrayon);
+			}
+		};
+		
+		// lineend=lignefin
+		handlers[268] = new PrimitiveHandler(268)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_NONE;
+				cadre.getDrawPanel().poly.addToScene();
+			}
+		};
+		
+		// pointstart=pointdef
+		handlers[269] = new PrimitiveHandler(269)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_POINT;
+				cadre.initViewer3D();
+				// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
+				// java.util.Vector<Shape3D>();
+				cadre.getDrawPanel().poly = new ElementPoint(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
+			}
+		};
+		
+		// pointend=pointfin
+		handlers[270] = new PrimitiveHandler(270)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_NONE;
+				cadre.getDrawPanel().poly.addToScene();
+			}
+		};
+		
+		// textstart=textedef
+		handlers[271] = new PrimitiveHandler(271)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_TEXT;
+				cadre.initViewer3D();
+				// if (null==DrawPanel.listText) DrawPanel.listText=new
+				// java.util.Vector<TransformGroup>();
+				cadre.getDrawPanel().poly = null;
+			}
+		};
+		
+		// textend=textefin
+		handlers[272] = new PrimitiveHandler(272)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getDrawPanel().record3D = DrawPanel.record3D_NONE;
+			}
+		};
+		
+		// drawing.saveimage
+		handlers[290] = new PrimitiveHandler(290)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringTokenizer st;
+				String list;
+				UserConfig uc = WSManager.getUserConfig();
+				int w = uc.getImageWidth();
+				int h = uc.getImageHeight();
+				String word = getWord(param.getValue(0));
+				if (null == word)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				if (word.equals(""))
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("mot_vide"));
+				// xmin, ymin, width, height
+				int[] coord = new int[4];
+				list = getFinalList(param.get(1));
+				st = new StringTokenizer(list);
+				if (st.countTokens() == 4)
+				{
+					try
 					{
-						if ((new File(str + File.separator + l[i])).isDirectory())
+						int j = 0;
+						while (st.hasMoreTokens())
 						{
-							nbdossier++;
-							if (nbdossier % 5 == 0)
-								dossier += l[i] + "\n";
-							else
-								dossier += l[i] + " ";
+							coord[j] = Integer.parseInt(st.nextToken());
+							j++;
 						}
-						else
+						coord[0] += w / 2;
+						coord[2] += w / 2;
+						coord[1] = h / 2 - coord[1];
+						coord[3] = h / 2 - coord[3];
+						if (coord[2] < coord[0])
 						{
-							nbfichier++;
-							if (nbfichier % 5 == 0)
-								fichier += l[i] + "\n";
-							else
-								fichier += l[i] + " ";
+							int tmp = coord[0];
+							coord[0] = coord[2];
+							coord[2] = tmp;
+						}
+						if (coord[3] < coord[1])
+						{
+							int tmp = coord[1];
+							coord[1] = coord[3];
+							coord[3] = tmp;
 						}
+						coord[2] = coord[2] - coord[0];
+						coord[3] = coord[3] - coord[1];
 					}
-					texte = "";
-					if (!dossier.equals(""))
-						texte += Logo.messages.getString("repertoires") + ":\n" + dossier + "\n";
-					if (!fichier.equals(""))
-						texte += Logo.messages.getString("fichiers") + ":\n" + fichier + "\n";
-					HistoryMessenger.getInstance().dispatchComment(texte);
-					break;
-				case 109: // frepertoire
-					liste = getWord(param.get(0));
-					if (null == liste)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					String chemin = Utils.SortieTexte(liste);
-					if ((new File(chemin)).isDirectory() && !chemin.startsWith(".."))
+					catch (NumberFormatException e)
+					{
+						coord[0] = 0;
+						coord[2] = w;
+						coord[1] = 0;
+						coord[3] = h;
+					}
+				}
+				else
+				{
+					coord[0] = 0;
+					coord[2] = w;
+					coord[1] = 0;
+					coord[3] = h;
+				}
+				if (coord[2] == 0 || coord[3] == 0)
+				{
+					coord[0] = 0;
+					coord[2] = w;
+					coord[1] = 0;
+					coord[3] = h;
+				}
+				cadre.getDrawPanel().saveImage(word, coord);
+				context.operande = false;
+			}
+		};
+		
+		// zoom
+		handlers[293] = new PrimitiveHandler(293)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(cadre.getDrawPanel().zoom));
+			}
+		};
+		
+		// drawing.fillpolygon
+		handlers[297] = new PrimitiveHandler(297)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String list;
+				context.operande = false;
+				list = getFinalList(param.get(0));
+				LoopFillPolygon lfp = new LoopFillPolygon();
+				context.stackLoop.push(lfp);
+				cadre.getKernel().getInstructionBuffer().insert(Utils.decoupe(list, true) + Primitive.END_LOOP + " ");
+				cadre.getDrawPanel().startRecord2DPolygon();
+			}
+		};
+		
+		// drawing.setfontjustify
+		handlers[302] = new PrimitiveHandler(302)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String li1;
+				context.operande = false;
+				li1 = getFinalList(param.get(0));
+				kernel.getActiveTurtle().setFontJustify(li1);
+			}
+		};
+		
+		// drawing.fontjustify
+		handlers[303] = new PrimitiveHandler(303)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getActiveTurtle().getFontJustify());
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of arithmetic, comparison and logic
+	 */
+	private void initArithmeticHandlers()
+	{
+		// arithmetic.power puissance
+		handlers[4] = new PrimitiveHandler(4)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().power(param, context.calcul);
+			}
+		};
+		
+		// somme
+		handlers[23] = new PrimitiveHandler(23)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().add(param, context.calcul);
+			}
+		};
+		
+		// difference
+		handlers[24] = new PrimitiveHandler(24)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().substract(param, context.calcul);
+			}
+		};
+		
+		// arithmetic.minus moins (opposé)
+		handlers[25] = new PrimitiveHandler(25)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.calcul.push(kernel.getCalculator().minus(param.get(0)));
+				context.operande = true;
+			}
+		};
+		
+		// produit
+		handlers[26] = new PrimitiveHandler(26)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getCalculator().multiply(param, context.calcul);
+				context.operande = true;
+			}
+		};
+		
+		// div
+		handlers[27] = new PrimitiveHandler(27)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().divide(param, context.calcul);
+			}
+		};
+		
+		// reste
+		handlers[28] = new PrimitiveHandler(28)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().remainder(param.get(0), param.get(1)));
+			}
+		};
+		
+		// *
+		handlers[30] = new PrimitiveHandler(30)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().multiply(param, context.calcul);
+			}
+		};
+		
+		// diviser /
+		handlers[31] = new PrimitiveHandler(31)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().divide(param, context.calcul);
+			}
+		};
+		
+		// +
+		handlers[32] = new PrimitiveHandler(32)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().add(param, context.calcul);
+			}
+		};
+		
+		// -
+		handlers[33] = new PrimitiveHandler(33)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().substract(param, context.calcul);
+			}
+		};
+		
+		// =
+		handlers[34] = new PrimitiveHandler(34)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				equal(param);
+			}
+		};
+		
+		// <
+		handlers[35] = new PrimitiveHandler(35)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				inf(param);
+			}
+		};
+		
+		// >
+		handlers[36] = new PrimitiveHandler(36)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				sup(param);
+			}
+		};
+		
+		// |
+		handlers[37] = new PrimitiveHandler(37)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				boolean b1 = predicat(param.get(0));
+				boolean b2 = predicat(param.get(1));
+				b1 = b1 | b2;
+				if (b1)
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+				context.operande = true;
+			}
+		};
+		
+		// &
+		handlers[38] = new PrimitiveHandler(38)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				boolean b2;
+				boolean b1;
+				b1 = predicat(param.get(0));
+				b2 = predicat(param.get(1));
+				b1 = b1 & b2;
+				if (b1)
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+				context.operande = true;
+			}
+		};
+		
+		// arrondi
+		handlers[43] = new PrimitiveHandler(43)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul
+						.push(String.valueOf(Math.round(kernel.getCalculator().numberDouble(param, 0))));
+			}
+		};
+		
+		// log10
+		handlers[44] = new PrimitiveHandler(44)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().log10(param, context.calcul);
+			}
+		};
+		
+		// arithmetic.sin
+		handlers[45] = new PrimitiveHandler(45)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().sin(param, context.calcul);
+			}
+		};
+		
+		// arithmetic.cos
+		handlers[46] = new PrimitiveHandler(46)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().cos(param, context.calcul);
+			}
+		};
+		
+		// ou
+		handlers[47] = new PrimitiveHandler(47)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				ou(param);
+			}
+		};
+		
+		// et
+		handlers[48] = new PrimitiveHandler(48)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				et(param);
+			}
+		};
+		
+		// non
+		handlers[49] = new PrimitiveHandler(49)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				boolean b1;
+				context.operande = true;
+				b1 = predicat(param.get(0));
+				if (b1)
+					context.calcul.push(Logo.messages.getString("faux"));
+				else
+					context.calcul.push(Logo.messages.getString("vrai"));
+			}
+		};
+		
+		// racine arithmetic.sqrt
+		handlers[70] = new PrimitiveHandler(70)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().sqrt(param, context.calcul);
+			}
+		};
+		
+		// hasard
+		handlers[77] = new PrimitiveHandler(77)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				int i = kernel.getCalculator().getInteger(param.get(0));
+				i = (int) Math.floor(Math.random() * i);
+				context.calcul.push(String.valueOf(i));
+			}
+		};
+		
+		// pi
+		handlers[114] = new PrimitiveHandler(114)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().pi());
+			}
+		};
+		
+		// tangente arithmetic.tan
+		handlers[115] = new PrimitiveHandler(115)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				
+				kernel.getCalculator().tan(param, context.calcul);
+			}
+		};
+		
+		// acos
+		handlers[116] = new PrimitiveHandler(116)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getCalculator().acos(param, context.calcul);
+				context.operande = true;
+			}
+		};
+		
+		// asin
+		handlers[117] = new PrimitiveHandler(117)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getCalculator().asin(param, context.calcul);
+				context.operande = true;
+			}
+		};
+		
+		// atan
+		handlers[118] = new PrimitiveHandler(118)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.getCalculator().atan(param, context.calcul);
+				context.operande = true;
+			}
+		};
+		
+		// vrai
+		handlers[119] = new PrimitiveHandler(119)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(Logo.messages.getString("vrai"));
+			}
+		};
+		
+		// faux
+		handlers[120] = new PrimitiveHandler(120)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// quotient
+		handlers[172] = new PrimitiveHandler(172)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().quotient(param.get(0), param.get(1)));
+			}
+		};
+		
+		// entier?
+		handlers[173] = new PrimitiveHandler(173)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				double ent = kernel.getCalculator().numberDouble(param, 0);
+				if ((int) ent == ent)
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// tronque
+		handlers[176] = new PrimitiveHandler(176)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().truncate(param.get(0)));
+			}
+		};
+		
+		// absolue
+		handlers[184] = new PrimitiveHandler(184)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().abs(param.get(0)));
+			}
+		};
+		
+		// operator <=
+		handlers[273] = new PrimitiveHandler(273)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				infequal(param);
+			}
+		};
+		
+		// operator >=
+		handlers[274] = new PrimitiveHandler(274)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				supequal(param);
+			}
+		};
+		
+		// arithmetic.exp
+		handlers[279] = new PrimitiveHandler(279)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().exp(param, context.calcul);
+			}
+		};
+		
+		// arithmetic.log
+		handlers[280] = new PrimitiveHandler(280)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				kernel.getCalculator().log(param, context.calcul);
+			}
+		};
+		
+		// arithmetic.setdigits
+		handlers[286] = new PrimitiveHandler(286)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				kernel.initCalculator(kernel.getCalculator().getInteger(param.get(0)));
+			}
+		};
+		
+		// arithmetic.digits
+		handlers[287] = new PrimitiveHandler(287)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(String.valueOf(kernel.getCalculator().getDigits()));
+			}
+		};
+		
+		// arithmetic.alea
+		handlers[298] = new PrimitiveHandler(298)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(Math.random()));
+			}
+		};
+		
+		// arithmetic.modulo
+		handlers[301] = new PrimitiveHandler(301)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.getCalculator().modulo(param.get(0), param.get(1)));
+			}
+		};
+		
+		// arithmetic.inf
+		handlers[304] = new PrimitiveHandler(304)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				inf(param);
+			}
+		};
+		
+		// arithmetic.sup
+		handlers[305] = new PrimitiveHandler(305)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				sup(param);
+			}
+		};
+		
+		// arithmetic.infequal
+		handlers[306] = new PrimitiveHandler(306)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				infequal(param);
+			}
+		};
+		
+		// arithmetic.supequal
+		handlers[307] = new PrimitiveHandler(307)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				supequal(param);
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of words, lists, arrays and dictionaries
+	 */
+	private void initListHandlers()
+	{
+		// liste
+		handlers[50] = new PrimitiveHandler(50)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = LogoList.EMPTY;
+				context.operande = true;
+				for (int i = 0; i < param.size(); i++)
+					list = list.lput(toElement(param.getValue(i)));
+				pushList(list);
+			}
+		};
+		
+		// phrase
+		handlers[51] = new PrimitiveHandler(51)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = LogoList.EMPTY;
+				context.operande = true;
+				for (int i = 0; i < param.size(); i++)
+				{
+					LogoType element = toElement(param.getValue(i));
+					if (element.isList())
 					{
-						defaultFolder = Utils.rajoute_backslash(chemin);
-						uc.setDefaultFolder(defaultFolder);
+						LogoList elements = (LogoList) element;
+						for (int j = 0; j < elements.size(); j++)
+							list = list.lput(elements.get(j));
 					}
 					else
-						throw new LogoError(liste + " " + Logo.messages.getString("erreur_pas_repertoire"));
-					break;
-				case 110: // repertoire
-					Interprete.operande = true;
-					defaultFolder = uc.getDefaultFolder();
-					Interprete.calcul.push("\"" + defaultFolder);
-					break;
-				case 111: // sauve
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(Logo.messages.getString("error.word"));
-					liste = getFinalList(param.get(1));
-					st = new StringTokenizer(liste);
-					Stack<String> pile = new Stack<String>();
-					while (st.hasMoreTokens())
-						pile.push(st.nextToken());
-					saveProcedures(mot, pile);
-					break;
-				case 112: // sauved
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					saveProcedures(mot, null);
-					break;
-				case 113: // ramene load
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					defaultFolder = uc.getDefaultFolder();
-					String path = Utils.SortieTexte(defaultFolder) + File.separator + mot;
-					String fileName = wp.makeUniqueFileName(mot);
-					try
-					{
-						String txt = Utils.readLogoFile(path); // TODO this
-																// does not
-																// work...
-																// should
-																// load from
-																// path....
-																// later:
-																// looks ok,
-																// not?
-						wp.createFile(fileName);
-						wp.writeFileText(fileName, txt);
-					}
-					catch (IOException e1)
-					{
-						throw new LogoError(Logo.messages.getString("error.iolecture"));
-					}
-					
-					break;
-				case 114: // pi
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().pi());
-					break;
-				case 115: // tangente arithmetic.tan
-					Interprete.operande = true;
-					
-					Interprete.calcul.push(kernel.getCalculator().tan(param.get(0)));
-					
-					break;
-				case 116: // acos
-					
-					Interprete.calcul.push(kernel.getCalculator().acos(param.get(0)));
-					Interprete.operande = true;
-					break;
-				case 117: // asin
-					
-					Interprete.calcul.push(kernel.getCalculator().asin(param.get(0)));
-					Interprete.operande = true;
-					break;
-				case 118: // atan
-					Interprete.calcul.push(kernel.getCalculator().atan(param.get(0)));
-					Interprete.operande = true;
-					break;
-				case 119: // vrai
-					Interprete.operande = true;
-					Interprete.calcul.push(Logo.messages.getString("vrai"));
-					break;
-				case 120: // faux
-					Interprete.operande = true;
-					Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 121: // forme
-					primitive2D("turtle.forme");
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(kernel.getActiveTurtle().getShape()));
-					break;
-				case 122: // fixeforme setshape
-					primitive2D("turtle.fforme");
-					i = kernel.getCalculator().getInteger(param.get(0)) % 7;
-					if (kernel.getActiveTurtle().id == 0)
-					{
-						uc.setActiveTurtle(i);
-					}
-					chemin = "tortue" + i + ".png";
-					kernel.change_image_tortue(chemin);
-					break;
-				case 123: // definis workspace.define
-					define(param); // Method extracted by Marko Zivkovic
-									// 21.6.2013
-					break;
-				
-				case 124: // tortue
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(kernel.getActiveTurtle().id));
-					break;
-				case 125: // tortues
-					Interprete.operande = true;
-					String li = "[ ";
-					for (i = 0; i < cadre.getDrawPanel().tortues.length; i++)
-					{
-						if (null != cadre.getDrawPanel().tortues[i])
-							li += String.valueOf(i) + " ";
-					}
-					li += "]";
-					Interprete.calcul.push(li);
-					break;
-				case 126: // fixetortue
-					try
-					{
-						i = Integer.parseInt(param.get(0));
-						if (i > -1 && i < uc.getMaxTurtles())
-						{
-							if (null == cadre.getDrawPanel().tortues[i])
-							{
-								cadre.getDrawPanel().tortues[i] = new Turtle(cadre);
-								cadre.getDrawPanel().tortues[i].id = i;
-								cadre.getDrawPanel().tortues[i].setVisible(false);
-							}
-							cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[i];
-							cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
-							String police = cadre.getDrawPanel().getGraphicsFont().getName();
-							cadre.getDrawPanel().setGraphicsFont(
-									new java.awt.Font(police, java.awt.Font.PLAIN, kernel.getActiveTurtle().police));
-							
-						}
-						else
-						{
-							throw new LogoError(Logo.messages.getString("tortue_inaccessible"));
-						}
-					}
-					catch (NumberFormatException e)
-					{
-						kernel.getCalculator().getInteger(param.get(0));
-					}
-					break;
-				case 127: // police
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(kernel.getActiveTurtle().police));
-					break;
-				case 128: // fixetaillepolice
-					int taille = kernel.getCalculator().getInteger(param.get(0));
-					kernel.getActiveTurtle().police = taille;
-					Font police = font;
-					cadre.getDrawPanel().setGraphicsFont(police.deriveFont((float) kernel.getActiveTurtle().police));
-					
-					break;
-				case 129: // tuetortue
+						list = list.lput(element);
+				}
+				pushList(list);
+			}
+		};
+		
+		// metspremier
+		handlers[52] = new PrimitiveHandler(52)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = getLogoList(param.getValue(1));
+				context.operande = true;
+				pushList(list.fput(toElement(param.getValue(0))));
+			}
+		};
+		
+		// metsdernier
+		handlers[53] = new PrimitiveHandler(53)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = getLogoList(param.getValue(1));
+				context.operande = true;
+				pushList(list.lput(toElement(param.getValue(0))));
+			}
+		};
+		
+		// inverse liste
+		handlers[54] = new PrimitiveHandler(54)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = getLogoList(param.getValue(0));
+				context.operande = true;
+				pushList(list.reverse());
+			}
+		};
+		
+		// choix
+		handlers[55] = new PrimitiveHandler(55)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					LogoList list = getLogoList(param.getValue(0));
+					int nombre = (int) Math.floor(list.size() * Math.random()) + 1;
+					String tmp = item(list, nombre);
+					if (tmp.equals("\"\\v"))
+						tmp = "\"";
+					context.calcul.push(tmp);
+				}
+				else
+				{
+					int nombre = (int) Math.floor(Math.random() * getWordLength(mot)) + 1;
+					String str = "";
 					try
 					{
-						id = Integer.parseInt(param.get(0));
-						if (id > -1 && id < uc.getMaxTurtles())
-						{
-							// On compte le nombre de tortues à l'écran
-							int compteur = 0;
-							int premier_dispo = -1;
-							for (i = 0; i < uc.getMaxTurtles(); i++)
-							{
-								if (null != cadre.getDrawPanel().tortues[i])
-								{
-									if (i != id && premier_dispo == -1)
-										premier_dispo = i;
-									compteur++;
-								}
-							}
-							// On vérifie que ce n'est pas la seule tortue
-							// dispopnible:
-							if (null != cadre.getDrawPanel().tortues[id])
-							{
-								if (compteur > 1)
-								{
-									int tortue_utilisee = kernel.getActiveTurtle().id;
-									cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[id];
-									cadre.getDrawPanel().ct_mt();
-									cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[tortue_utilisee];
-									cadre.getDrawPanel().tortues[id] = null;
-									if (cadre.getDrawPanel().tortues_visibles.search(String.valueOf(id)) > 0)
-										cadre.getDrawPanel().tortues_visibles.remove(String.valueOf(id));
-									if (kernel.getActiveTurtle().id == id)
-									{
-										cadre.getDrawPanel().tortue = cadre.getDrawPanel().tortues[premier_dispo];
-										cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon); // on
-										// adapte
-										// le
-										// nouveau
-										// crayon
-										str = cadre.getDrawPanel().getGraphicsFont().getName();
-										cadre.getDrawPanel().setFont(
-												new java.awt.Font(str, java.awt.Font.PLAIN,
-														kernel.getActiveTurtle().police));
-										
-									}
-								}
-								else
-								{
-									throw new LogoError(Logo.messages.getString("seule_tortue_dispo"));
-								}
-							}
-						}
-					}
-					catch (NumberFormatException e)
-					{
-						kernel.getCalculator().getInteger(param.get(0));
+						str = itemWord(nombre, mot);
+						Double.parseDouble(str);
+						context.calcul.push(str);
 					}
-					break;
-				case 130: // sequence
-					liste = getFinalList(param.get(0));
-					cadre.getSon().cree_sequence(Utils.decoupe(liste).toString());
-					break;
-				case 131: // instrument
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(cadre.getSon().getInstrument()));
-					break;
-				case 132: // fixeinstrument
-					i = kernel.getCalculator().getInteger(param.get(0));
-					cadre.getSon().setInstrument(i);
-					
-					break;
-				case 133: // joue
-					cadre.getSon().joue();
-					break;
-				case 134: // effacesequence
-					cadre.getSon().efface_sequence();
-					break;
-				case 135: // indexsequence
-					Interprete.operande = true;
-					double d = (double) cadre.getSon().getTicks() / 64;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(d));
-					
-					break;
-				case 136: // fixeindexsequence
-					i = kernel.getCalculator().getInteger(param.get(0));
-					cadre.getSon().setTicks(i * 64);
-					break;
-				case 137:// fpt
-					i = kernel.getCalculator().getInteger(param.get(0));
-					cadre.getHistoryPanel().getDsd().fixepolice(i);
-					break;
-				case 138: // ptexte
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(cadre.getHistoryPanel().police()));
-					break;
-				case 139: // fct,fixecouleurtexte
-					if (isList(param.get(0)))
+					catch (NumberFormatException e1)
 					{
-						cadre.getHistoryPanel().getDsd().fixecouleur(rgb(param.get(0), Utils.primitiveName("fct")));
+						context.calcul.push("\"" + str);
 					}
+				}
+			}
+		};
+		
+		// enleve
+		handlers[56] = new PrimitiveHandler(56)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = getLogoList(param.getValue(1));
+				context.operande = true;
+				String mot = getElementText(toElement(param.getValue(0)));
+				LogoList reste = LogoList.EMPTY;
+				for (int i = 0; i < list.size(); i++)
+				{
+					if (!getElementText(list.get(i)).equals(mot))
+						reste = reste.lput(list.get(i));
+				}
+				pushList(reste);
+			}
+		};
+		
+		// item
+		handlers[57] = new PrimitiveHandler(57)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (isContainer(param.getValue(1)))
+				{
+					context.operande = true;
+					context.calcul.push(getItem(param.get(1), param.get(0)));
+					return;
+				}
+				String str;
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(1));
+				if (null == mot)
+					pushItem(getLogoList(param.getValue(1)), kernel.getCalculator().getInteger(param.get(0)));
+				else
+				{
+					int i = kernel.getCalculator().getInteger(param.get(0));
+					if (i < 1 || i > getWordLength(mot))
+						throw new LogoError(Utils.primitiveName("item") + " "
+								+ Logo.messages.getString("n_aime_pas") + i + " "
+								+ Logo.messages.getString("comme_parametre") + ".");
 					else
 					{
-						int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
-						if (coul < 0)
-							coul += DrawPanel.defaultColors.length;
-						cadre.getHistoryPanel().getDsd().fixecouleur(DrawPanel.defaultColors[coul]);
-					}
-					break;
-				case 140: // couleurtexte
-					Interprete.operande = true;
-					Color c = cadre.getHistoryPanel().getCouleurtexte();
-					Interprete.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
-					break;
-				case 141: // lissouris readmouse
-					while (!cadre.getDrawPanel().get_lissouris())
-					{
+						str = itemWord(i, mot);
 						try
 						{
-							Thread.sleep(100);
-						}
-						catch (InterruptedException e)
-						{}
-						//if (LogoError.lance) //TODO Marko: this was always false
-						//	break;
-					}
-					Interprete.calcul.push(String.valueOf(cadre.getDrawPanel().get_bouton_souris()));
-					Interprete.operande = true;
-					break;
-				case 142: // possouris
-					Interprete.calcul.push(cadre.getDrawPanel().get_possouris());
-					Interprete.operande = true;
-					break;
-				case 143: // msg message
-					liste = getFinalList(param.get(0));
-					st = new StringTokenizer(liste); // On
-														// découpe
-														// le
-														// message
-														// en
-														// tranche
-														// de
-														// longueurs
-														// acceptables
-					fm = cadre.getFrame().getGraphics().getFontMetrics(font);
-					liste = "";
-					String buf = "";
-					while (st.hasMoreTokens())
-					{
-						buf += st.nextToken() + " ";
-						if (fm.stringWidth(buf) > 200)
-						{
-							liste += buf + "\n";
-							buf = "";
-						}
-					}
-					liste += buf;
-					liste = Utils.SortieTexte(liste);
-					
-					MyTextAreaDialog jt = new MyTextAreaDialog(liste, cadre.getHistoryPanel().getDsd());
-					ImageIcon icone = new ImageIcon(Utils.class.getResource("icone.png"));
-					JOptionPane.showMessageDialog(cadre.getFrame(), jt, "", JOptionPane.INFORMATION_MESSAGE,
-							(Icon) icone);
-					break;
-				case 144: // date
-					Interprete.operande = true;
-					Calendar cal = Calendar.getInstance(lang.getLocale());
-					int jour = cal.get(Calendar.DAY_OF_MONTH);
-					int mois = cal.get(Calendar.MONTH) + 1;
-					int annee = cal.get(Calendar.YEAR);
-					Interprete.calcul.push("[ " + jour + " " + mois + " " + annee + " ] ");
-					break;
-				case 145: // heure
-					Interprete.operande = true;
-					cal = Calendar.getInstance(lang.getLocale());
-					int heure = cal.get(Calendar.HOUR_OF_DAY);
-					int minute = cal.get(Calendar.MINUTE);
-					int seconde = cal.get(Calendar.SECOND);
-					Interprete.calcul.push("[ " + heure + " " + minute + " " + seconde + " ] ");
-					break;
-				case 146: // temps
-					Interprete.operande = true;
-					long heure_actuelle = Calendar.getInstance().getTimeInMillis();
-					Interprete.calcul.push(String.valueOf((heure_actuelle - uc.getHeure_demarrage()) / 1000));
-					break;
-				case 147: // debuttemps
-					int temps = kernel.getCalculator().getInteger(param.get(0));
-					Kernel.chrono = Calendar.getInstance().getTimeInMillis() + 1000 * temps;
-					break;
-				case 148: // fintemps?
-					Interprete.operande = true;
-					if (Calendar.getInstance().getTimeInMillis() > Kernel.chrono)
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 149: // fnp fixenompolice
-					int int_police = kernel.getCalculator().getInteger(param.get(0));
-					cadre.getDrawPanel().police_etiquette = int_police % UserConfig.fontes.length;
-					break;
-				case 150: // np nompolice
-					Interprete.operande = true;
-					Interprete.calcul.push("[ " + cadre.getDrawPanel().police_etiquette + " [ "
-							+ UserConfig.fontes[cadre.getDrawPanel().police_etiquette].getFontName() + " ] ] ");
-					break;
-				case 151: // fnpt fixenompolicetexte
-					int_police = kernel.getCalculator().getInteger(param.get(0));
-					HistoryPanel.fontPrint = int_police % UserConfig.fontes.length;
-					cadre.getHistoryPanel().getDsd().fixenompolice(int_police);
-					
-					break;
-				case 152: // npt nompolicetexte
-					Interprete.operande = true;
-					Interprete.calcul.push("[ " + HistoryPanel.fontPrint + " [ "
-							+ UserConfig.fontes[HistoryPanel.fontPrint].getFontName() + " ] ] ");
-					break;
-				case 153: // listeflux
-					liste = "[ ";
-					for (MyFlow flow : kernel.flows)
-					{
-						liste += "[ " + flow.getId() + " " + flow.getPath() + " ] ";
-					}
-					liste += "] ";
-					Interprete.operande = true;
-					Interprete.calcul.push(liste);
-					break;
-				case 154: // lisligneflux
-					try
-					{
-						int ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						MyFlow flow = kernel.flows.get(index);
-						MyFlowReader flowReader;
-						// If the flow is a writable flow, throw error
-						if (flow.isWriter())
-							throw new LogoError(Logo.messages.getString("flux_lecture"));
-						// else if the flow is a readable flow, convert to
-						// MyFlowReader
-						else if (flow.isReader())
-						{
-							flowReader = ((MyFlowReader) flow);
-						}
-						// else the flow isn't yet defined, initialize
-						else
-							flowReader = new MyFlowReader(flow);
-						
-						if (flowReader.isFinished())
-							throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
-						// Reading line
-						String line = flowReader.readLine();
-						if (null == line)
-						{
-							flow.setFinished(true);
-							throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
-						}
-						Interprete.operande = true;
-						Interprete.calcul.push("[ " + Utils.decoupe(line.trim()) + " ] ");
-						kernel.flows.set(index, flowReader);
-					}
-					catch (FileNotFoundException e1)
-					{
-						throw new LogoError(Logo.messages.getString("error.iolecture"));
-					}
-					catch (IOException e2)
-					{}
-					break;
-				case 155: // liscaractereflux
-					try
-					{
-						int ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						MyFlow flow = kernel.flows.get(index);
-						MyFlowReader flowReader;
-						// If the flow is a writable flow, throw error
-						if (flow.isWriter())
-							throw new LogoError(Logo.messages.getString("flux_lecture"));
-						// else if the flow is reader, convert to MyFlowReader
-						else if (flow.isReader())
-						{
-							flowReader = ((MyFlowReader) flow);
+							Double.parseDouble(str);
+							context.calcul.push(str);
 						}
-						// else the flow isn't yet defined, initialize
-						else
-							flowReader = new MyFlowReader(flow);
-						
-						if (flowReader.isFinished())
-							throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
-						
-						int character = ((MyFlowReader) flow).readChar();
-						if (character == -1)
+						catch (NumberFormatException e1)
 						{
-							flow.setFinished(true);
-							throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
+							context.calcul.push("\"" + str);
 						}
-						Interprete.operande = true;
-						String car = String.valueOf(character);
-						if (car.equals("\\"))
-							car = "\\\\";
-						Interprete.calcul.push(car);
-						kernel.flows.set(index, flowReader);
-					}
-					catch (FileNotFoundException e1)
-					{
-						throw new LogoError(Logo.messages.getString("error.iolecture"));
 					}
-					catch (IOException e2)
-					{}
-					break;
-				case 156: // ecrisligneflux
+				}
+			}
+		};
+		
+		// saufdernier
+		handlers[58] = new PrimitiveHandler(58)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					LogoList list = getLogoList(param.getValue(0));
+					if (list.isEmpty())
+						throw new LogoError(Logo.messages.getString("liste_vide"));
+					pushList(list.butLast());
+				}
+				else if (mot.equals(""))
+				{
+					throw new LogoError(Logo.messages.getString("mot_vide"));
+				}
+				else if (getWordLength(mot) == 1)
+					context.calcul.push("\"");
+				else
+				{
+					String tmp = mot.substring(0, mot.length() - 1);
+					if (tmp.endsWith("\\"))
+						tmp = tmp.substring(0, tmp.length() - 1);
 					try
 					{
-						int ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						liste = getFinalList(param.get(1));
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						MyFlow flow = kernel.flows.get(index);
-						MyFlowWriter flowWriter;
-						// If the flow is a readable flow, throw an error
-						if (flow.isReader())
-							throw new LogoError(Logo.messages.getString("flux_ecriture"));
-						// Else if the flow is a writable flow , convert to
-						// MrFlowWriter
-						else if (flow.isWriter())
-							flowWriter = (MyFlowWriter) flow;
-						// Else the flow isn't defined yet, initialize
-						else
-							flowWriter = new MyFlowWriter(flow);
-						
-						// System.out.println(flow.isReader()+" "+flow.isWriter());
-						// Write the line
-						flowWriter.write(Utils.SortieTexte(liste));
-						kernel.flows.set(index, flowWriter);
+						Double.parseDouble(tmp);
+						context.calcul.push(tmp);
 					}
-					catch (FileNotFoundException e1)
-					{}
-					catch (IOException e2)
-					{}
-					break;
-				case 157: // finficher?
-					try
+					catch (NumberFormatException e)
 					{
-						int ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						else
-						{
-							MyFlow flow = kernel.flows.get(index);
-							MyFlowReader flowReader = null;
-							// If the flow isn't defined yet, initialize
-							if (!flow.isWriter() && !flow.isReader())
-							{
-								flowReader = new MyFlowReader(flow);
-							}
-							else if (flow.isReader())
-								flowReader = (MyFlowReader) flow;
-							if (null != flowReader)
-							{
-								if (flow.isFinished())
-								{
-									Interprete.operande = true;
-									Interprete.calcul.push(Logo.messages.getString("vrai"));
-								}
-								else
-								{
-									int read = flowReader.isReadable();
-									if (read == -1)
-									{
-										Interprete.operande = true;
-										Interprete.calcul.push(Logo.messages.getString("vrai"));
-										flow.setFinished(true);
-									}
-									else
-									{
-										Interprete.operande = true;
-										Interprete.calcul.push(Logo.messages.getString("faux"));
-									}
-								}
-							}
-							else
-								throw new LogoError(Logo.messages.getString("flux_lecture"));
-						}
+						context.calcul.push(debut_chaine + tmp);
 					}
-					catch (FileNotFoundException e1)
-					{}
-					catch (IOException e2)
-					{}
-					break;
-				case 158: // ouvreflux
-					mot = getWord(param.get(1));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					defaultFolder = uc.getDefaultFolder();
-					liste = Utils.SortieTexte(defaultFolder) + File.separator + Utils.SortieTexte(mot);
-					int ident = kernel.getCalculator().getInteger(param.get(0));
-					if (kernel.flows.search(ident) == -1)
-						kernel.flows.add(new MyFlow(ident, liste, false));
+				}
+			}
+		};
+		
+		// saufpremier
+		handlers[59] = new PrimitiveHandler(59)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					LogoList list = getLogoList(param.getValue(0));
+					if (list.isEmpty())
+						throw new LogoError(Logo.messages.getString("y_a_pas") + " 1 "
+								+ Logo.messages.getString("element_dans_liste") + "]");
+					pushList(list.butFirst());
+				}
+				else if (mot.equals(""))
+				{
+					throw new LogoError(Logo.messages.getString("mot_vide"));
+				}
+				else if (getWordLength(mot) == 1)
+					context.calcul.push("\"");
+				else
+				{
+					if (!mot.startsWith("\\"))
+						mot = mot.substring(1);
 					else
-						throw new LogoError(ident + " " + Logo.messages.getString("flux_existant"));
-					break;
-				case 159: // fermeflux
+						mot = mot.substring(2);
 					try
 					{
-						ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						MyFlow flow = kernel.flows.get(index);
-						// If the flow is a readable flow
-						if (flow.isReader())
-							((MyFlowReader) flow).close();
-						// Else if it's a writable flow
-						else if (flow.isWriter())
-							((MyFlowWriter) flow).close();
-						kernel.flows.remove(index);
+						Double.parseDouble(mot);
+						context.calcul.push(mot);
+					}
+					catch (NumberFormatException e)
+					{
+						context.calcul.push(debut_chaine + mot);
 					}
-					catch (IOException e2)
-					{}
-					break;
-				case 160: // ajouteligneflux
+				}
+			}
+		};
+		
+		// dernier
+		handlers[60] = new PrimitiveHandler(60)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{ // Si c'est une liste
+					LogoList list = getLogoList(param.getValue(0));
+					pushItem(list, list.size());
+				}
+				else if (getWordLength(mot) == 1)
+					context.calcul.push(debut_chaine + mot);
+				else
+				{
+					str = "";
 					try
 					{
-						ident = kernel.getCalculator().getInteger(param.get(0));
-						int index = kernel.flows.search(ident);
-						liste = getFinalList(param.get(1));
-						if (index == -1)
-							throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
-						MyFlow flow = kernel.flows.get(index);
-						MyFlowWriter flowWriter;
-						// If the flow is a readable flow, throw an error
-						if (flow.isReader())
-							throw new LogoError(Logo.messages.getString("flux_ecriture"));
-						// Else if the flow is a writable flow , convert to
-						// MrFlowWriter
-						else if (flow.isWriter())
-							flowWriter = (MyFlowWriter) flow;
-						// Else the flow isn't defined yet, initialize
-						else
-							flowWriter = new MyFlowWriter(flow);
-						
-						// Write the line
-						flowWriter.append(Utils.SortieTexte(liste));
-						kernel.flows.set(index, flowWriter);
+						str = itemWord(getWordLength(mot), mot);
+						Double.parseDouble(str);
+						context.calcul.push(str);
 					}
-					catch (FileNotFoundException e1)
-					{}
-					catch (IOException e2)
-					{}
-					break;
-				case 161: // souris?
-					Interprete.operande = true;
-					if (cadre.getDrawPanel().get_lissouris())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 162: // variables
-					Interprete.operande = true;
-					Interprete.calcul.push(new String(getAllVariables()));
-					break;
-				case 163: // chose thing
-					mot = getWord(param.get(0));
-					if (null == mot)
-					{
-						throw new LogoError(Logo.messages.getString("error.word"));
-					} // si c'est une liste
-					else if (debut_chaine.equals("")) { throw new LogoError(
-							Logo.messages.getString("erreur_variable")); } // si
-																			// c'est
-																			// un
-																			// nombre
-					Interprete.operande = true;
-					String value;
-					mot = mot.toLowerCase();
-					if (!Interprete.locale.containsKey(mot))
+					catch (NumberFormatException e1)
 					{
-						if (!wp.getGlobals().getVariables().contains(mot))
-							throw new LogoError(mot + " " + Logo.messages.getString("erreur_variable"));
-						else
-							value = wp.getGlobals().getValue(mot);
+						context.calcul.push("\"" + str);
 					}
-					else
+				}
+			}
+		};
+		
+		// premier first
+		handlers[61] = new PrimitiveHandler(61)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{ // SI c'est une liste
+					pushItem(getLogoList(param.getValue(0)), 1);
+				}
+				else if (getWordLength(mot) == 1)
+					context.calcul.push(debut_chaine + mot);
+				else
+				{
+					str = "";
+					try
 					{
-						value = Interprete.locale.get(mot);
+						str = itemWord(1, mot);
+						Double.parseDouble(str);
+						context.calcul.push(str);
 					}
-					if (null == value)
-						throw new LogoError(mot + "  " + Logo.messages.getString("erreur_variable"));
-					Interprete.calcul.push(value);
-					break;
-				case 164: // nettoie
-					cadre.getDrawPanel().nettoie();
-					break;
-				case 165: // tape
-					par = param.get(0).trim();
-					if (isList(par))
-						par = formatList(par.substring(1, par.length() - 1));
-					mot = getWord(param.get(0));
-					if (null == mot)
-						HistoryMessenger.getInstance().dispatchLogoOutput(Utils.SortieTexte(par));
-					else
-						HistoryMessenger.getInstance().dispatchLogoOutput(Utils.SortieTexte(mot));
-					break;
-				case 166: // cercle
-					cadre.getDrawPanel().circle((kernel.getCalculator().numberDouble(param.pop())));
-					break;
-				case 167: // arc
-					cadre.getDrawPanel().arc(kernel.getCalculator().numberDouble(param.get(0)),
-							kernel.getCalculator().numberDouble(param.get(1)),
-							kernel.getCalculator().numberDouble(param.get(2)));
-					break;
-				case 168: // rempliszone
-					cadre.getDrawPanel().rempliszone();
-					break;
-				case 169: // animation
-					cadre.getDrawPanel().setAnimation(true);
-					Interprete.operande = false;
-					break;
-				case 170: // rafraichis
-					if (DrawPanel.classicMode == DrawPanel.MODE_ANIMATION)
+					catch (NumberFormatException e2)
 					{
-						cadre.getDrawPanel().refresh();
+						context.calcul.push("\"" + str);
 					}
-					break;
-				
-				case 171: // tailledessin
-					Interprete.operande = true;
-					StringBuffer sb = new StringBuffer();
-					sb.append("[ ");
-					sb.append(w);
-					sb.append(" ");
-					sb.append(h);
-					sb.append(" ] ");
-					Interprete.calcul.push(new String(sb));
-					break;
-				case 172: // quotient
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().quotient(param.get(0), param.get(1)));
-					break;
-				case 173: // entier?
-					Interprete.operande = true;
-					double ent = kernel.getCalculator().numberDouble(param.get(0));
-					if ((int) ent == ent)
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
+				}
+			}
+		};
+		
+		// compte
+		handlers[62] = new PrimitiveHandler(62)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (isContainer(param.getValue(0)))
+				{
+					context.operande = true;
+					context.calcul.push(String.valueOf(getContainerSize(param.get(0))));
+					return;
+				}
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					context.calcul.push(String.valueOf(getLogoList(param.getValue(0)).size()));
+				}
+				else
+					context.calcul.push(String.valueOf(getWordLength(mot)));
+			}
+		};
+		
+		// mot?
+		handlers[63] = new PrimitiveHandler(63)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					context.calcul.push(Logo.messages.getString("faux"));
+				else
+					context.calcul.push(Logo.messages.getString("vrai"));
+				context.operande = true;
+			}
+		};
+		
+		// nombre?
+		handlers[64] = new PrimitiveHandler(64)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				try
+				{
+					Double.parseDouble(param.get(0));
+					context.calcul.push(Logo.messages.getString("vrai"));
+				}
+				catch (NumberFormatException e)
+				{
+					context.calcul.push(Logo.messages.getString("faux"));
+				}
+				context.operande = true;
+			}
+		};
+		
+		// liste?
+		handlers[65] = new PrimitiveHandler(65)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (param.isList(0) || isList(param.get(0).trim()))
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+				context.operande = true;
+			}
+		};
+		
+		// vide?
+		handlers[66] = new PrimitiveHandler(66)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{ // si c'est une liste ou un nombre
+					if (getLogoList(param.getValue(0)).isEmpty())
+						context.calcul.push(Logo.messages.getString("vrai"));
 					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 174: // fixeseparation
-					nombre = kernel.getCalculator().numberDouble(param.get(0));
-					if (nombre < 0 || nombre > 1)
-						throw new LogoError(nombre + " " + Logo.messages.getString("entre_zero_un"));
-					cadre.drawingAndHistory.setResizeWeight(nombre);
-					cadre.drawingAndHistory.setDividerLocation(nombre);
-					break;
-				case 175: // separation
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(cadre.drawingAndHistory.getResizeWeight()));
-					break;
-				case 176: // tronque
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().truncate(param.get(0)));
-					break;
-				case 177: // trace
-					Kernel.mode_trace = true;
-					Interprete.operande = false;
-					break;
-				case 178:// changedossier
-					Interprete.operande = false;
-					mot = getWord(param.get(0));
+						context.calcul.push(Logo.messages.getString("faux"));
+				}
+				else
+				{ // Si c'est un mot
+					if (mot.equals(""))
+						context.calcul.push(Logo.messages.getString("vrai"));
+					else
+						context.calcul.push(Logo.messages.getString("faux"));
+				}
+				context.operande = true;
+			}
+		};
+		
+		// egal?
+		handlers[67] = new PrimitiveHandler(67)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				equal(param);
+			}
+		};
+		
+		// precede?
+		handlers[68] = new PrimitiveHandler(68)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				precede(param);
+			}
+		};
+		
+		// membre ?
+		handlers[69] = new PrimitiveHandler(69)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				membre(param, getId());
+			}
+		};
+		
+		// membre
+		handlers[71] = new PrimitiveHandler(71)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				membre(param, getId());
+			}
+		};
+		
+		// mot
+		handlers[83] = new PrimitiveHandler(83)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String result;
+				String mot;
+				int i;
+				context.operande = true;
+				result = "";
+				for (i = 0; i < param.size(); i++)
+				{
+					mot = getWord(param.getValue(i));
 					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					chemin = "";
-					defaultFolder = uc.getDefaultFolder();
-					if (defaultFolder.endsWith(File.separator))
-						chemin = Utils.SortieTexte(defaultFolder + mot);
+						throw new LogoError(param.get(i) + " " + Logo.messages.getString("error.word"));
+					result += mot;
+				}
+				try
+				{
+					Double.parseDouble(result);
+				}
+				catch (NumberFormatException e)
+				{
+					result = "\"" + result;
+				}
+				context.calcul.push(result);
+			}
+		};
+		
+		// unicode
+		handlers[179] = new PrimitiveHandler(179)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				else if (getWordLength(mot) != 1)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("un_caractere"));
+				else
+				{
+					context.operande = true;
+					str = String.valueOf((int) Utils.SortieTexte(itemWord(1, mot)).charAt(0));
+					context.calcul.push(str);
+				}
+			}
+		};
+		
+		// caractere
+		handlers[180] = new PrimitiveHandler(180)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String str;
+				int i;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				if (i < 0 || i > 65535)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("nombre_unicode"));
+				else
+				{
+					str = "";
+					context.operande = true;
+					if (i == 92)
+						str = "\"\\\\";
+					else if (i == 10)
+						str = "\"\\n";
+					else if (i == 32)
+						str = "\"\\e";
 					else
-						chemin = Utils.SortieTexte(defaultFolder + Utils.rajoute_backslash(File.separator) + mot);
-					if ((new File(chemin)).isDirectory())
 					{
+						str = String.valueOf((char) i);
 						try
 						{
-							defaultFolder = Utils.rajoute_backslash((new File(chemin)).getCanonicalPath());
-							uc.setDefaultFolder(defaultFolder);
+							Double.parseDouble(str);
+						}
+						catch (NumberFormatException e)
+						{
+							str = "\"" + str;
 						}
-						catch (NullPointerException e1)
-						{}
-						catch (IOException e2)
-						{}
 					}
-					else
-						throw new LogoError(Utils.rajoute_backslash(chemin) + " "
-								+ Logo.messages.getString("erreur_pas_repertoire"));
-					
-					break;
-				case 179:// unicode
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					else if (getWordLength(mot) != 1)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("un_caractere"));
-					else
+					context.calcul.push(str);
+				}
+			}
+		};
+		
+		// remplace
+		handlers[185] = new PrimitiveHandler(185)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (isContainer(param.getValue(0)))
+				{ // setitem changes an array or a dictionary in place and outputs it, as it outputs the new list
+					setItem(param.get(0), param.get(1), param.get(2));
+					context.operande = true;
+					context.calcul.push(param.get(0));
+					return;
+				}
+				LogoList list = getLogoList(param.getValue(0));
+				int entier = kernel.getCalculator().getInteger(param.get(1));
+				if (entier < 1 || entier > list.size())
+					throw new LogoError(Logo.messages.getString("y_a_pas") + " " + entier + " "
+							+ Logo.messages.getString("element_dans_liste") + getElementsText(list) + "]");
+				context.operande = true;
+				pushList(list.set(entier - 1, toElement(param.getValue(2))));
+			}
+		};
+		
+		// ajoute
+		handlers[186] = new PrimitiveHandler(186)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LogoList list = getLogoList(param.getValue(0));
+				int entier = kernel.getCalculator().getInteger(param.get(1));
+				if (entier < 1 || entier > list.size() + 1)
+					throw new LogoError(Logo.messages.getString("y_a_pas") + " " + entier + " "
+							+ Logo.messages.getString("element_dans_liste") + getElementsText(list) + "]");
+				context.operande = true;
+				pushList(list.insert(entier - 1, toElement(param.getValue(2))));
+			}
+		};
+		
+		// list.array
+		handlers[313] = new PrimitiveHandler(313)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int size = kernel.getCalculator().getInteger(param.get(0));
+				if (size < 0)
+					throw new LogoError(Utils.primitiveName("list.array") + " "
+							+ Logo.messages.getString("n_aime_pas") + size + " "
+							+ Logo.messages.getString("comme_parametre"));
+				context.operande = true;
+				context.calcul.push("\"" + wp.getContainers().newArray(size));
+			}
+		};
+		
+		// list.dictionary
+		handlers[314] = new PrimitiveHandler(314)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push("\"" + wp.getContainers().newDictionary());
+			}
+		};
+		
+		// list.getitem
+		handlers[315] = new PrimitiveHandler(315)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(getItem(param.get(0), param.get(1)));
+			}
+		};
+		
+		// list.haskey
+		handlers[316] = new PrimitiveHandler(316)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (hasKey(param.get(0), param.get(1)))
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// list.keys
+		handlers[317] = new PrimitiveHandler(317)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				pushList(getKeys(param.get(0)));
+			}
+		};
+		
+		// list.free
+		handlers[318] = new PrimitiveHandler(318)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String handle = getContainerHandle(param.get(0));
+				if (null == handle || !wp.getContainers().deleteContainer(handle))
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.container"));
+			}
+		};
+		
+		// list.map
+		handlers[319] = new PrimitiveHandler(319)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Procedure proc = getCallback(param.get(0), 1);
+				LogoList list = getLogoList(param.getValue(1));
+				LogoList result = LogoList.EMPTY;
+				for (int i = 0; i < list.size(); i++)
+					result = result.lput(toElement(callback(proc, element_minuscule, getElementValue(list, i))));
+				context.operande = true;
+				pushList(result);
+			}
+		};
+		
+		// list.filter
+		handlers[320] = new PrimitiveHandler(320)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Procedure proc = getCallback(param.get(0), 1);
+				LogoList list = getLogoList(param.getValue(1));
+				LogoList result = LogoList.EMPTY;
+				for (int i = 0; i < list.size(); i++)
+				{
+					if (predicat(callback(proc, element_minuscule, getElementValue(list, i)).toString()))
+						result = result.lput(list.get(i));
+				}
+				context.operande = true;
+				if (result.size() == list.size())
+					pushList(list);
+				else
+					pushList(result);
+			}
+		};
+		
+		// list.reduce
+		handlers[321] = new PrimitiveHandler(321)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				checkArguments(element_minuscule, param, 2, 3);
+				Procedure proc = getCallback(param.get(0), 2);
+				LogoList list = getLogoList(param.getValue(1));
+				int i = 0;
+				Object value;
+				if (param.size() == 3)
+					value = param.getValue(2);
+				else if (list.isEmpty())
+					throw new LogoError(Logo.messages.getString("liste_vide"));
+				else
+					value = getElementValue(list, i++);
+				for (; i < list.size(); i++)
+					value = callback(proc, element_minuscule, value, getElementValue(list, i));
+				context.operande = true;
+				context.calcul.pushValue(value);
+			}
+		};
+		
+		// list.sort
+		handlers[322] = new PrimitiveHandler(322)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				checkArguments(element_minuscule, param, 1, 2);
+				LogoList list = getLogoList(param.getValue(0));
+				LogoList result;
+				if (param.size() == 1)
+					result = list.sort();
+				else
+					result = sort(list, getCallback(param.get(1), 2), element_minuscule);
+				context.operande = true;
+				pushList(result);
+			}
+		};
+		
+		// list.iseq
+		handlers[323] = new PrimitiveHandler(323)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int from = kernel.getCalculator().getInteger(param.get(0));
+				int to = kernel.getCalculator().getInteger(param.get(1));
+				context.operande = true;
+				pushList(sequence(from, from <= to ? (long) to + 1 : (long) to - 1, from <= to ? 1 : -1));
+			}
+		};
+		
+		// list.range
+		handlers[324] = new PrimitiveHandler(324)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				checkArguments(element_minuscule, param, 2, 3);
+				int from = kernel.getCalculator().getInteger(param.get(0));
+				int to = kernel.getCalculator().getInteger(param.get(1));
+				int step = 1;
+				if (param.size() == 3)
+					step = kernel.getCalculator().getInteger(param.get(2));
+				if (step == 0)
+					throw new LogoError(element_minuscule + " " + Logo.messages.getString("n_aime_pas") + "0 "
+							+ Logo.messages.getString("comme_parametre"));
+				context.operande = true;
+				pushList(sequence(from, to, step));
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of the control structures, and of the internal operators that end a procedure, a loop or an argument list
+	 */
+	private void initControlHandlers()
+	{
+		// repete controls.repeat
+		handlers[5] = new PrimitiveHandler(5)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste = getList(param.get(1));
+				kernel.primitive.repete(kernel.getCalculator().getInteger(param.get(0)), liste);
+			}
+		};
+		
+		// si // if
+		handlers[10] = new PrimitiveHandler(10)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				
+				liste = getList(param.get(1));
+				liste = new String(Utils.decoupe(liste, true));
+				String liste2 = null;
+				boolean predicat = predicat(param.get(0));
+				InstructionBuffer instruction = cadre.getKernel().getInstructionBuffer();
+				if (!instruction.isEmpty())
+				{
+					try
+					{
+						if (instruction.getNextWord().equals("["))
+						{
+							instruction.deleteFirstWord("[");
+							liste2 = getFinalList(kernel.listSearch());
+							liste2 = new String(Utils.decoupe(liste2, true));
+						}
+					}
+					catch (Exception e)
+					{}
+				}
+				kernel.primitive.si(predicat, liste, liste2);
+				context.renvoi_instruction = true;
+			}
+		};
+		
+		// STOP
+		handlers[11] = new PrimitiveHandler(11)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.primitive.stop();
+			}
+		};
+		
+		// retourne
+		handlers[29] = new PrimitiveHandler(29)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				kernel.primitive.retourne(param.getValue(0));
+			}
+		};
+		
+		// opérateur interne \n signalant une fin de
+		handlers[39] = new PrimitiveHandler(39, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+						// procédure
+				// The procedure replaced a procedure that outputs its output, see isTailOutput()
+				String output = context.locale.getOutput();
+				context.restoreLocale();
+				if (context.nom.peek().equals("\n"))
+				{
+					context.nom.pop();
+				}
+				else
+				{
+					/*
+					 * Example
+					 * to bug
+					 * av
+					 * end
+					 */
+					throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + context.nom.peek());
+				}
+				if (null != output)
+					throw new LogoError(context.en_cours.peek() + " " + Logo.messages.getString("ne_renvoie_pas") + " " + output);
+				/*
+				 * to bug [:a] | (bug 10)
+				 * av :a |
+				 * end |
+				 */
+				if (!context.nom.isEmpty() && !context.nom.peek().equals("\n")
+						&& !context.nom.peek().equals("("))
+				{
+					if (!cadre.error)
+						throw new LogoError(context.en_cours.peek() + " "
+								+ Logo.messages.getString("ne_renvoie_pas") + " "
+								+ context.nom.peek().toString());
+				}
+				if (!context.en_cours.isEmpty())
+					context.en_cours.pop();
+			}
+		};
+		
+		// opérateur interne \ signalant une fin de boucle
+		handlers[40] = new PrimitiveHandler(40, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LoopProperties loop = context.stackLoop.peek();
+				// LOOP REPEAT
+				if (loop.isRepeat())
+				{
+					int comparison = loop.compareCounterToEnd();
+					if (comparison < 0)
+					{
+						loop.incremente();
+						context.stackLoop.pop();
+						context.stackLoop.push(loop);
+						cadre.getKernel().getInstructionBuffer().insertCode(loop.getCode(kernel.getCalculator()));
+					}
+					else if (comparison == 0)
+					{
+						context.stackLoop.pop();
+					}
+				}
+				// LOOP FOR or LOOP FOREACH
+				else if (loop.isFor() || loop.isForEach())
+				{
+					if (((LoopFor) loop).hasNext())
 					{
-						Interprete.operande = true;
-						str = String.valueOf((int) Utils.SortieTexte(itemWord(1, mot)).charAt(0));
-						Interprete.calcul.push(str);
+						loop.incremente();
+						((LoopFor) loop).AffecteVar(context.locale, false);
+						context.stackLoop.pop();
+						context.stackLoop.push(loop);
+						cadre.getKernel().getInstructionBuffer().insertCode(loop.getCode(kernel.getCalculator()));
 					}
-					break;
-				case 180:// caractere
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i < 0 || i > 65535)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("nombre_unicode"));
 					else
 					{
-						str = "";
-						Interprete.operande = true;
-						if (i == 92)
-							str = "\"\\\\";
-						else if (i == 10)
-							str = "\"\\n";
-						else if (i == 32)
-							str = "\"\\e";
-						else
-						{
-							str = String.valueOf((char) i);
-							try
-							{
-								Double.parseDouble(str);
-							}
-							catch (NumberFormatException e)
-							{
-								str = "\"" + str;
-							}
-						}
-						Interprete.calcul.push(str);
+						((LoopFor) loop).DeleteVar(context.locale);
+						context.stackLoop.pop();
 					}
-					break;
-				case 181: // stoptout
-					cadre.error = true;
-					break;
-				case 182: // compteur
-					boolean erreur = false;
-					if (!Primitive.stackLoop.isEmpty())
+				}
+				// LOOP FOREVER
+				else if (loop.isForEver())
+				{
+					cadre.getKernel().getInstructionBuffer().insertCode(loop.getCode(kernel.getCalculator()));
+				}
+				// LOOP FILL POLYGON
+				else if (loop.isFillPolygon())
+				{
+					cadre.getDrawPanel().stopRecord2DPolygon();
+					context.stackLoop.pop();
+				}
+			}
+		};
+		
+		// attends
+		handlers[78] = new PrimitiveHandler(78)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int temps = kernel.getCalculator().getInteger(param.get(0));
+				if (temps < 0)
+				{
+					String attends = Utils.primitiveName("attends");
+					throw new LogoError(attends + " " + Logo.messages.getString("attend_positif"));
+				}
+				// The argument is in 1/60 seconds. The stop button wakes the interpreter up.
+				context.governor.sleep(temps * 50L / 3);
+			}
+		};
+		
+		// tantque
+		handlers[92] = new PrimitiveHandler(92)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String li1 = getList(param.get(0));
+				li1 = new String(Utils.decoupe(li1, true));
+				String li2 = getList(param.get(1));
+				li2 = new String(Utils.decoupe(li2, true));
+				String instr = "\\siwhile " + li1 + "[ " + li2 + "] ";
+				LoopWhile bp = new LoopWhile(1, 0, 1, instr);
+				context.stackLoop.push(bp);
+				cadre.getKernel().getInstructionBuffer().insertCode(bp.getCode(kernel.getCalculator()));
+			}
+		};
+		
+		// siwhile --> Evalue l'expression test du while
+		handlers[95] = new PrimitiveHandler(95, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				liste = getFinalList(param.get(1));
+				boolean pred = predicat(param.get(0));
+				kernel.primitive.whilesi(pred, liste);
+			}
+		};
+		
+		// exec
+		handlers[107] = new PrimitiveHandler(107)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					mot = getList(param.get(0).trim());
+					mot = new String(Utils.decoupe(mot, true));
+				}
+				else
+					mot = mot + " ";
+				cadre.getKernel().getInstructionBuffer().insert(mot);
+				context.renvoi_instruction = true;
+			}
+		};
+		
+		// stoptout
+		handlers[181] = new PrimitiveHandler(181)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.error = true;
+			}
+		};
+		
+		// compteur
+		handlers[182] = new PrimitiveHandler(182)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				boolean erreur = false;
+				if (!context.stackLoop.isEmpty())
+				{
+					LoopProperties lp = context.stackLoop.peek();
+					if (lp.isRepeat())
 					{
-						LoopProperties lp = Primitive.stackLoop.peek();
-						if (lp.isRepeat())
-						{
-							Interprete.operande = true;
-							Interprete.calcul.push(lp.getCounter().toString());
-						}
-						else
-							erreur = true;
+						context.operande = true;
+						context.calcul.push(lp.getCounterText());
 					}
 					else
 						erreur = true;
-					if (erreur) { throw new LogoError(Logo.messages.getString("erreur_compteur")); }
-					break;
-				case 183: // controls.for repetepour
-					li2 = getList(param.get(1));
-					li2 = new String(Utils.decoupe(li2));
-					li1 = getFinalList(param.get(0));
-					int nb = numberOfElements(li1);
-					if (nb < 3 || nb > 4)
-						throw new LogoError(Logo.messages.getString("erreur_repetepour"));
-					st = new StringTokenizer(li1);
-					String var = st.nextToken().toLowerCase();
-					BigDecimal deb = kernel.getCalculator().numberDecimal(st.nextToken());
-					BigDecimal fin = kernel.getCalculator().numberDecimal(st.nextToken());
-					BigDecimal increment = BigDecimal.ONE;
-					if (nb == 4)
-						increment = kernel.getCalculator().numberDecimal(st.nextToken());
-					if (var.equals(""))
-						throw new LogoError(Logo.messages.getString("variable_vide"));
-					try
-					{
-						Double.parseDouble(var);
-						throw new LogoError(Logo.messages.getString("erreur_nom_nombre_variable"));
-					}
-					catch (NumberFormatException e)
+				}
+				else
+					erreur = true;
+				if (erreur) { throw new LogoError(Logo.messages.getString("erreur_compteur")); }
+			}
+		};
+		
+		// controls.for repetepour
+		handlers[183] = new PrimitiveHandler(183)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String li2;
+				li2 = getList(param.get(1));
+				li2 = new String(Utils.decoupe(li2, true));
+				LoopFor lf = newLoopFor(param.get(0), li2);
+				if (null != lf)
+				{
+					cadre.getKernel().getInstructionBuffer().insertCode(lf.getCode(kernel.getCalculator()));
+					context.stackLoop.push(lf);
+				}
+			}
+		};
+		
+		// Parenthese fermante
+		handlers[204] = new PrimitiveHandler(204)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				InstructionBuffer instruction;
+						// Distinguons les deux cas : (3)*2 et (4+3)*2
+						// Le 3 est ici a retourner au +
+				boolean a_retourner = true;
+				// On enleve le "(" correspondant a la parenthese ouvrante
+				// de la
+				// pile nom
+				// a condition que l'element attendant de la pile nom ne
+				// soit
+				// pas une procedure
+				boolean est_procedure = false;
+				int pos = context.nom.lastIndexOf("(");
+				if (pos == -1)
+				{
+					// Parenthese fermante sans parenthese ouvrante au
+					// prealable
+					throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
+				}
+				else
+				{ // Evitons l'erreur en cas de par exemple: "ec )"
+					// (parenthese fermante sans ouvrante)--> else a
+					// executer qu'en cas de non erreur
+					if (context.drapeau_ouvrante)
 					{
-						LoopFor lf = new LoopFor(deb, fin, increment, li2, var);
-						lf.AffecteVar(true);
+						// parenthese vide
+						throw new LogoError(Logo.messages.getString("parenthese_vide"));
 						
-						if ((increment.compareTo(BigDecimal.ZERO) == 1 && fin.compareTo(deb) >= 0)
-								|| (increment.compareTo(BigDecimal.ZERO) == -1 && fin.compareTo(deb) <= 0))
-						{
-							cadre.getKernel().getInstructionBuffer().insert(li2 + Primitive.END_LOOP + " ");
-							Primitive.stackLoop.push(lf);
-						}
 					}
-					break;
-				case 184: // absolue
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().abs(param.get(0)));
-					break;
-				case 185: // remplace
-					String reponse = "";
-					liste = getFinalList(param.get(0));
-					int entier = kernel.getCalculator().getInteger(param.get(1));
-					mot = getWord(param.get(2));
-					if (null != mot && mot.equals(""))
-						mot = "\\v";
-					if (null == mot)
-						mot = "[ " + getFinalList(param.get(2)) + "]";
-					char ch;
-					int compteur = 1;
-					boolean espace = true;
-					boolean crochet = false;
-					boolean error = true;
-					for (int j = 0; j < liste.length(); j++)
+					for (int j = pos; j < context.nom.size(); j++)
 					{
-						if (compteur == entier)
-						{
-							error = false;
-							compteur = j;
-							break;
-						}
-						ch = liste.charAt(j);
-						if (ch == '[')
-						{
-							if (espace)
-								crochet = true;
-							espace = false;
-						}
-						if (ch == ' ')
+						String proc = context.nom.get(j).toLowerCase();
+						if (Primitive.primitives.containsKey(proc))
+							est_procedure = true;
+						else
 						{
-							espace = true;
-							if (crochet)
+							if (wp.isExecutable(proc))	// TODO changed
 							{
-								crochet = false;
-								j = extractList(liste, j);
+								est_procedure = true;
+								break;
 							}
-							compteur++;
 						}
 					}
-					if (error)
-						throw new LogoError(Logo.messages.getString("y_a_pas") + " " + entier + " "
-								+ Logo.messages.getString("element_dans_liste") + liste + "]");
-					reponse = "[ " + liste.substring(0, compteur) + mot;
-					// On extrait le mot suivant
-					if (compteur + 1 < liste.length() && liste.charAt(compteur) == '['
-							&& liste.charAt(compteur + 1) == ' ')
+				}
+				// Si une procedure est presente dans la pile nom, on garde
+				// les parenteses
+				// System.out.println(Primitive.primitives.containsKey("puissance")+"
+				// "+est_procedure);
+				if (est_procedure)
+				{
+					cadre.getKernel().getInstructionBuffer().insert(") ");
+				}
+				// Sinon on les enleve avec leurs imbrications eventuelles
+				else
+				{
+					if (context.en_cours.isEmpty() || !context.en_cours.peek().equals("("))
 					{
-						compteur = extractList(liste, compteur + 2);
-						reponse += liste.substring(compteur) + "] ";
-						
+						throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
 					}
 					else
+						context.en_cours.pop();
+					if (!context.nom.isEmpty())
 					{
-						for (i = compteur + 1; i < liste.length(); i++)
-						{
-							if (liste.charAt(i) == ' ')
-							{
-								compteur = i;
-								break;
-							}
-						}
-						reponse += liste.substring(compteur) + "] ";
-					}
-					Interprete.operande = true;
-					Interprete.calcul.push(reponse);
-					break;
-				case 186: // ajoute
-					reponse = "";
-					liste = getFinalList(param.get(0));
-					entier = kernel.getCalculator().getInteger(param.get(1));
-					mot = getWord(param.get(2));
-					if (null != mot && mot.equals(""))
-						mot = "\\v";
-					if (null == mot)
-						mot = "[ " + getFinalList(param.get(2)) + "]";
-					compteur = 1;
-					espace = true;
-					crochet = false;
-					error = true;
-					for (int j = 0; j < liste.length(); j++)
-					{
-						if (compteur == entier)
+						if (context.nom.peek().equals("("))
+							a_retourner = false;
+						pos = context.nom.lastIndexOf("(");
+						if (pos == -1)
 						{
-							error = false;
-							compteur = j;
-							break;
-						}
-						ch = liste.charAt(j);
-						if (ch == '[')
-						{
-							if (espace)
-								crochet = true;
-							espace = false;
+							// Parenthese fermante sans parenthese ouvrante
+							// au prelable
+							throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
 						}
-						if (ch == ' ')
+						else
 						{
-							espace = true;
-							if (crochet)
+							context.nom.removeElementAt(pos);
+							// S'il y a imbrication de parentheses (((20)))
+							pos--;
+							instruction = cadre.getKernel().getInstructionBuffer();
+							while (instruction.getNextWord().equals(")") && (pos > -1))
 							{
-								crochet = false;
-								j = extractList(liste, j);
-							}
-							compteur++;
-							if (j == liste.length() - 1 && compteur == entier)
-							{
-								error = false;
-								compteur = liste.length();
+								if (!context.nom.isEmpty() && context.nom.get(pos).equals("("))
+								{
+									instruction.deleteFirstWord(")");
+									context.nom.removeElementAt(pos);
+									pos--;
+								}
+								else
+									break;
 							}
 						}
 					}
-					if (error && entier != compteur)
-						throw new LogoError(Logo.messages.getString("y_a_pas") + " " + entier + " "
-								+ Logo.messages.getString("element_dans_liste") + liste + "]");
-					if (!liste.trim().equals(""))
-						reponse = "[ " + liste.substring(0, compteur) + mot + " " + liste.substring(compteur) + "] ";
+				}
+				if (context.calcul.isEmpty())
+				{
+					context.operande = false;
+				}
+				else
+				{
+					context.operande = true;
+					context.drapeau_fermante = a_retourner;
+				}
+			}
+		};
+		
+		// \x internal operator to specify
+		handlers[212] = new PrimitiveHandler(212, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+						// the end of network instructions with
+						// "executetcp"
+						// have to replace workspace
+				context.operande = false;
+									
+				/*
+				 * Marko Zivkovic : new implementation of network context
+				 */
+				wp.popNetworkMode();
+			}
+		};
+		
+		// controls.ifelse
+		handlers[281] = new PrimitiveHandler(281)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				boolean pred;
+				String liste2;
+				String liste;
+				liste = getList(param.get(1));
+				liste = new String(Utils.decoupe(liste, true));
+				pred = predicat(param.get(0));
+				liste2 = getList(param.get(2));
+				liste = new String(Utils.decoupe(liste, true));
+				kernel.primitive.si(pred, liste, liste2);
+				context.renvoi_instruction = true;
+			}
+		};
+		
+		// controls.foreach pourchaque
+		handlers[284] = new PrimitiveHandler(284)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LoopForEach lfe = newLoopForEach(param.get(0), param.get(1), param.get(2));
+				if (null != lfe)
+				{
+					cadre.getKernel().getInstructionBuffer().insertCode(lfe.getCode(kernel.getCalculator()));
+					context.stackLoop.push(lfe);
+				}
+			}
+		};
+		
+		// controls.forever repetetoujours
+		handlers[285] = new PrimitiveHandler(285)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String li2;
+				li2 = getList(param.get(0));
+				li2 = new String(Utils.decoupe(li2, true));
+				LoopProperties lp = new LoopProperties(1, 0, 1, li2);
+				cadre.getKernel().getInstructionBuffer().insertCode(lp.getCode(kernel.getCalculator()));
+				context.stackLoop.push(lp);
+			}
+		};
+		
+		// loop.dountil
+		handlers[299] = new PrimitiveHandler(299)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String li2;
+				String li1;
+				String instr;
+				li1 = getList(param.get(0));
+				li1 = new String(Utils.decoupe(li1, true));
+				li2 = getList(param.get(1));
+				li2 = new String(Utils.decoupe(li2, true));
+				instr = "\\siwhile " + Utils.primitiveName("non") + " " + li2 + "[ " + li1 + "] ";
+				LoopWhile lw = new LoopWhile(1, 0, 1, instr);
+				context.stackLoop.push(lw);
+				cadre.getKernel().getInstructionBuffer().insertCode(lw.getCode(kernel.getCalculator()));
+			}
+		};
+		
+		// loop.dowhile
+		handlers[300] = new PrimitiveHandler(300)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				LoopWhile lw;
+				String li2;
+				String li1;
+				String instr;
+				li1 = getList(param.get(0));
+				li1 = new String(Utils.decoupe(li1, true));
+				li2 = getList(param.get(1));
+				li2 = new String(Utils.decoupe(li2, true));
+				instr = "\\siwhile " + li2 + "[ " + li1 + "] ";
+				lw = new LoopWhile(1, 0, 1, instr);
+				context.stackLoop.push(lw);
+				cadre.getKernel().getInstructionBuffer().insertCode(lw.getCode(kernel.getCalculator()));
+				cadre.getKernel().getInstructionBuffer().insert(li1);
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of variables, procedures, property lists, the profiler and the memo table
+	 */
+	private void initWorkspaceHandlers()
+	{
+		// donne
+		handlers[72] = new PrimitiveHandler(72)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				donne(param);
+				context.operande = false;
+			}
+		};
+		
+		// locale
+		handlers[73] = new PrimitiveHandler(73)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				locale(param);
+				context.operande = false;
+			}
+		};
+		
+		// donnelocale
+		handlers[74] = new PrimitiveHandler(74)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				locale(param);
+				donne(param);
+				context.operande = false;
+			}
+		};
+		
+		// procedures
+		handlers[79] = new PrimitiveHandler(79)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(new String(getAllProcedures()));
+			}
+		};
+		
+		// effaceprocedure efp
+		handlers[80] = new PrimitiveHandler(80)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				erase(param.get(0), "procedure");
+			}
+		};
+		
+		// effacevariable
+		handlers[81] = new PrimitiveHandler(81)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				erase(param.get(0), "variable");
+			}
+		};
+		
+		// effacetout erall
+		handlers[82] = new PrimitiveHandler(82)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				/*
+				 * Marko Zivkovic:
+				 * In XLogo4Schools, we delete all files (together with the
+				 * procedures) and clear all variables and property lists.
+				 */
+				wp.eraseAll();
+			}
+		};
+		
+		// prim?
+		handlers[105] = new PrimitiveHandler(105)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				if (Primitive.primitives.containsKey(mot))
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// proc?
+		handlers[106] = new PrimitiveHandler(106)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (wp.isExecutable(mot))
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// definis workspace.define
+		handlers[123] = new PrimitiveHandler(123)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				define(param); // Method extracted by Marko Zivkovic
+								// 21.6.2013
+			}
+		};
+		
+		// variables
+		handlers[162] = new PrimitiveHandler(162)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(new String(getAllVariables()));
+			}
+		};
+		
+		// chose thing
+		handlers[163] = new PrimitiveHandler(163)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+				{
+					throw new LogoError(Logo.messages.getString("error.word"));
+				} // si c'est une liste
+				else if (debut_chaine.equals("")) { throw new LogoError(
+						Logo.messages.getString("erreur_variable")); } // si
+																		// c'est
+																		// un
+																		// nombre
+				context.operande = true;
+				Object value;
+				mot = mot.toLowerCase();
+				if (!context.locale.containsKey(mot))
+				{
+					if (!wp.getGlobals().getVariables().contains(mot))
+						throw new LogoError(mot + " " + Logo.messages.getString("erreur_variable"));
 					else
-						reponse = "[ " + mot + " ] ";
-					Interprete.operande = true;
-					Interprete.calcul.push(reponse);
-					break;
-				case 187: // gris
-					colorCode(8);
-					break;
-				case 188: // grisclair
-					colorCode(9);
-					break;
-				case 189: // rougefonce
-					colorCode(10);
-					break;
-				case 190: // vertfonce
-					colorCode(11);
-					break;
-				case 191: // bleufonce
-					colorCode(12);
-					break;
-				case 192: // orange
-					colorCode(13);
-					break;
-				case 193: // rose
-					colorCode(14);
-					break;
-				case 194: // violet
-					colorCode(15);
-					break;
-				case 195: // marron
-					colorCode(16);
-					break;
-				case 196: // noir
-					colorCode(0);
-					break;
-				case 197: // rouge
-					colorCode(1);
-					break;
-				case 198: // vert
-					colorCode(2);
-					break;
-				case 199: // jaune
-					colorCode(3);
-					break;
-				case 200: // bleu
-					colorCode(4);
-					break;
-				case 201: // magenta
-					colorCode(5);
-					break;
-				case 202: // cyan
-					colorCode(6);
-					break;
-				case 203: // blanc
-					colorCode(7);
-					break;
-				case 204: // Parenthese fermante
-							// Distinguons les deux cas : (3)*2 et (4+3)*2
-							// Le 3 est ici a retourner au +
-					boolean a_retourner = true;
-					// On enleve le "(" correspondant a la parenthese ouvrante
-					// de la
-					// pile nom
-					// a condition que l'element attendant de la pile nom ne
-					// soit
-					// pas une procedure
-					boolean est_procedure = false;
-					int pos = Interprete.nom.lastIndexOf("(");
-					if (pos == -1)
+						value = wp.getGlobals().getValue(mot);
+				}
+				else
+				{
+					value = context.locale.getValue(mot);
+				}
+				if (null == value)
+					throw new LogoError(mot + "  " + Logo.messages.getString("erreur_variable"));
+				context.calcul.pushValue(value);
+			}
+		};
+		
+		// trace
+		handlers[177] = new PrimitiveHandler(177)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.mode_trace = true;
+				context.operande = false;
+			}
+		};
+		
+		// stoptrace
+		handlers[232] = new PrimitiveHandler(232)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.mode_trace = false;
+				context.operande = false;
+			}
+		};
+		
+		// var? variable?
+		handlers[239] = new PrimitiveHandler(239)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				mot = mot.toLowerCase();
+				if (wp.getGlobals().getVariables().contains(mot) || context.locale.containsKey(mot)) // TODO
+																										// changed
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// pprop=dprop
+		handlers[260] = new PrimitiveHandler(260)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot2;
+				String mot;
+				context.operande = false;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				mot2 = getWord(param.getValue(1));
+				if (null == mot2)
+					throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
+				wp.getPropertyLists().addPropList(mot, mot2, param.get(2)); // TODO
+																			// changed
+			}
+		};
+		
+		// gprop=rprop
+		handlers[261] = new PrimitiveHandler(261)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String value;
+				String mot2;
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				mot2 = getWord(param.getValue(1));
+				if (null == mot2)
+					throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
+				value = wp.getPropertyLists().getPropList(mot, mot2);  // TODO
+																		// CHANGED
+				if (value.startsWith("["))
+					value += " ";
+				context.calcul.push(value);
+			}
+		};
+		
+		// remprop=efprop
+		handlers[262] = new PrimitiveHandler(262)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot2;
+				String mot;
+				context.operande = false;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				mot2 = getWord(param.getValue(1));
+				if (null == mot2)
+					throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
+				wp.getPropertyLists().removePropList(mot, mot2);  // TODO
+																	// CHANGED
+			}
+		};
+		
+		// plist=lprop
+		handlers[263] = new PrimitiveHandler(263)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				context.calcul.push(wp.getPropertyLists().displayPropList(mot)); // TODO
+																					// CHANGED
+			}
+		};
+		
+		// primitives
+		handlers[275] = new PrimitiveHandler(275)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(kernel.primitive.getAllPrimitives());
+			}
+		};
+		
+		// listesproprietes propertylists
+		handlers[276] = new PrimitiveHandler(276)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(new String(getAllpropertyLists()));
+			}
+		};
+		
+		// contenu
+		handlers[277] = new PrimitiveHandler(277)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringBuffer sb;
+				context.operande = true;
+				sb = new StringBuffer("[ ");
+				sb.append(getAllProcedures());
+				sb.append(getAllVariables());
+				sb.append(getAllpropertyLists());
+				sb.append("] ");
+				context.calcul.push(new String(sb));
+			}
+		};
+		
+		// erpl=eflp effacelistepropriete
+		handlers[278] = new PrimitiveHandler(278)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				erase(param.get(0), "propertylist");
+			}
+		};
+		
+		// workspace.ed
+		handlers[282] = new PrimitiveHandler(282)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				
+				/*
+				 * Marko Zivkovic:
+				 * With the new Workspace (UserSpace + LogoFile) ed makes
+				 * not so much sense, because we work with
+				 * multiple files at the same time.
+				 * I therefore restrict this command to allow only a single
+				 * word as parameter, to open the file,
+				 * where the specified procedure is defined, and scroll to
+				 * the procedure's line.
+				 */
+				
+				mot = getWord(param.getValue(0));
+				if (mot == null)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				if (!wp.isExecutable(mot))
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.proc.does.not.exist"));
+				
+				cadre.displayProcedure(mot);
+			}
+		};
+		
+		// workspace.edall
+		handlers[283] = new PrimitiveHandler(283)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				/*
+				 * Marko Zivkovic:
+				 * Again, it makes no sense to open all files at a time.
+				 * Instead, I just open the last edited file.
+				 */
+				wp.editAll();
+			}
+		};
+		
+		// workspace.text
+		handlers[288] = new PrimitiveHandler(288)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringBuffer sb;
+				String var = getWord(param.getValue(0));
+				if (null == var)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				
+				Procedure proc = wp.getExecutable(var);
+				if (proc != null)
+				{
+					sb = new StringBuffer();
+					sb.append("[ [ ");
+					// Append variable names
+					for (int j = 0; j < proc.nbparametre; j++)
 					{
-						// Parenthese fermante sans parenthese ouvrante au
-						// prealable
-						throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
-					}
-					else
-					{ // Evitons l'erreur en cas de par exemple: "ec )"
-						// (parenthese fermante sans ouvrante)--> else a
-						// executer qu'en cas de non erreur
-						if (Interprete.drapeau_ouvrante)
-						{
-							// parenthese vide
-							throw new LogoError(Logo.messages.getString("parenthese_vide"));
-							
-						}
-						for (int j = pos; j < Interprete.nom.size(); j++)
-						{
-							String proc = Interprete.nom.get(j).toLowerCase();
-							if (Primitive.primitives.containsKey(proc))
-								est_procedure = true;
-							else
-							{
-								if (wp.isExecutable(proc))	// TODO changed
-								{
-									est_procedure = true;
-									break;
-								}
-							}
-						}
+						sb.append(proc.variable.get(j));
+						sb.append(" ");
 					}
-					// Si une procedure est presente dans la pile nom, on garde
-					// les parenteses
-					// System.out.println(Primitive.primitives.containsKey("puissance")+"
-					// "+est_procedure);
-					if (est_procedure)
+					for (int j = 0; j < proc.optVariables.size(); j++)
 					{
-						cadre.getKernel().getInstructionBuffer().insert(") ");
+						sb.append("[ ");
+						sb.append(proc.optVariables.get(j));
+						sb.append(" ");
+						sb.append(proc.optVariablesExp.get(j).toString());
+						sb.append(" ] ");
 					}
-					// Sinon on les enleve avec leurs imbrications eventuelles
-					else
+					sb.append("] ");
+					// Append body procedure
+					sb.append(proc.cutInList());
+					sb.append("] ");
+					context.operande = true;
+					context.calcul.push(sb.toString());
+				}
+				else
+					throw new LogoError(var + " " + Logo.messages.getString("error.procedure.must.be"));
+			}
+		};
+		
+		// profile.start
+		handlers[308] = new PrimitiveHandler(308, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				context.profiler.start();
+			}
+		};
+		
+		// profile.stop
+		handlers[309] = new PrimitiveHandler(309, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				context.profiler.stop();
+			}
+		};
+		
+		// profile.report
+		handlers[310] = new PrimitiveHandler(310, true)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				if (context.profiler.isActive())
+					context.profiler.update(context.en_cours);
+				HistoryMessenger.getInstance().dispatchMessage(context.profiler.getReport());
+				cadre.showProfile(context.profiler);
+			}
+		};
+		
+		// workspace.memo
+		handlers[311] = new PrimitiveHandler(311)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				memo(param.get(0), true);
+			}
+		};
+		
+		// workspace.unmemo
+		handlers[312] = new PrimitiveHandler(312)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				memo(param.get(0), false);
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of files, directories and streams
+	 */
+	private void initFileHandlers()
+	{
+		// catalogue
+		handlers[108] = new PrimitiveHandler(108)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String texte;
+				String str;
+				int i;
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				defaultFolder = uc.getDefaultFolder();
+				str = Utils.SortieTexte(defaultFolder);
+				File f = new File(str);
+				String fichier = "";
+				String dossier = "";
+				int nbdossier = 0;
+				int nbfichier = 0;
+				String[] l = f.list();
+				for (i = 0; i < l.length; i++)
+				{
+					if ((new File(str + File.separator + l[i])).isDirectory())
 					{
-						if (Interprete.en_cours.isEmpty() || !Interprete.en_cours.peek().equals("("))
-						{
-							throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
-						}
+						nbdossier++;
+						if (nbdossier % 5 == 0)
+							dossier += l[i] + "\n";
 						else
-							Interprete.en_cours.pop();
-						if (!Interprete.nom.isEmpty())
-						{
-							if (Interprete.nom.peek().equals("("))
-								a_retourner = false;
-							pos = Interprete.nom.lastIndexOf("(");
-							if (pos == -1)
-							{
-								// Parenthese fermante sans parenthese ouvrante
-								// au prelable
-								throw new LogoError(Logo.messages.getString("parenthese_ouvrante"));
-							}
-							else
-							{
-								Interprete.nom.removeElementAt(pos);
-								// S'il y a imbrication de parentheses (((20)))
-								pos--;
-								instruction = cadre.getKernel().getInstructionBuffer();
-								while (instruction.getNextWord().equals(")") && (pos > -1))
-								{
-									if (!Interprete.nom.isEmpty() && Interprete.nom.get(pos).equals("("))
-									{
-										instruction.deleteFirstWord(")");
-										Interprete.nom.removeElementAt(pos);
-										pos--;
-									}
-									else
-										break;
-								}
-							}
-						}
-					}
-					if (Interprete.calcul.isEmpty())
-					{
-						Interprete.operande = false;
+							dossier += l[i] + " ";
 					}
 					else
 					{
-						Interprete.operande = true;
-						Interprete.drapeau_fermante = a_retourner;
-					}
-					break;
-				case 205: // fixestyle
-					boolean gras = false;
-					boolean italique = false;
-					boolean souligne = false;
-					boolean exposant = false;
-					boolean indice = false;
-					boolean barre = false;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						liste = getFinalList(param.get(0));
-					else
-						liste = mot;
-					if (liste.trim().equals(""))
-						liste = Logo.messages.getString("style.none");
-					st = new StringTokenizer(liste);
-					while (st.hasMoreTokens())
-					{
-						element = st.nextToken().toLowerCase();
-						if (element.equals(Logo.messages.getString("style.underline").toLowerCase()))
-						{
-							souligne = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.bold").toLowerCase()))
-						{
-							gras = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.italic").toLowerCase()))
-						{
-							italique = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.exposant").toLowerCase()))
-						{
-							exposant = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.subscript").toLowerCase()))
-						{
-							indice = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.strike").toLowerCase()))
-						{
-							barre = true;
-						}
-						else if (element.equals(Logo.messages.getString("style.none").toLowerCase()))
-						{}
+						nbfichier++;
+						if (nbfichier % 5 == 0)
+							fichier += l[i] + "\n";
 						else
-							throw new LogoError(Logo.messages.getString("erreur_fixestyle"));
-					}
-					cadre.getHistoryPanel().getDsd().fixegras(gras);
-					cadre.getHistoryPanel().getDsd().fixeitalique(italique);
-					cadre.getHistoryPanel().getDsd().fixesouligne(souligne);
-					cadre.getHistoryPanel().getDsd().fixeexposant(exposant);
-					cadre.getHistoryPanel().getDsd().fixeindice(indice);
-					cadre.getHistoryPanel().getDsd().fixebarre(barre);
-					break;
-				case 206: // style
-					StringBuffer buffer = new StringBuffer();
-					compteur = 0;
-					if (cadre.getHistoryPanel().getDsd().estgras())
-					{
-						buffer.append(Logo.messages.getString("style.bold").toLowerCase() + " ");
-						compteur++;
+							fichier += l[i] + " ";
 					}
-					if (cadre.getHistoryPanel().getDsd().estitalique())
-					{
-						buffer.append(Logo.messages.getString("style.italic").toLowerCase() + " ");
-						compteur++;
-					}
-					if (cadre.getHistoryPanel().getDsd().estsouligne())
-					{
-						buffer.append(Logo.messages.getString("style.underline").toLowerCase() + " ");
-						compteur++;
-					}
-					if (cadre.getHistoryPanel().getDsd().estexposant())
-					{
-						buffer.append(Logo.messages.getString("style.exposant").toLowerCase() + " ");
-						compteur++;
-					}
-					if (cadre.getHistoryPanel().getDsd().estindice())
-					{
-						buffer.append(Logo.messages.getString("style.subscript").toLowerCase() + " ");
-						compteur++;
-					}
-					if (cadre.getHistoryPanel().getDsd().estbarre())
-					{
-						buffer.append(Logo.messages.getString("style.strike").toLowerCase() + " ");
-						compteur++;
-					}
-					Interprete.operande = true;
-					if (compteur == 0)
-						Interprete.calcul.push("\"" + Logo.messages.getString("style.none").toLowerCase());
-					else if (compteur == 1)
-						Interprete.calcul.push("\"" + new String(buffer).trim());
-					else if (compteur > 1)
-						Interprete.calcul.push("[ " + new String(buffer) + "]");
-					break;
-				case 207: // listaillefenetre
-					Interprete.operande = true;
-					java.awt.Point p = cadre.scrollArea.getViewport().getViewPosition();
-					Rectangle rec = cadre.scrollArea.getVisibleRect();
-					sb = new StringBuffer();
-					int x1 = p.x - w / 2;
-					int y1 = h / 2 - p.y;
-					int x2 = x1 + rec.width - cadre.scrollArea.getVerticalScrollBar().getWidth();
-					int y2 = y1 - rec.height + cadre.scrollArea.getHorizontalScrollBar().getHeight();
-					sb.append("[ ");
-					sb.append(x1);
-					sb.append(" ");
-					sb.append(y1);
-					sb.append(" ");
-					sb.append(x2);
-					sb.append(" ");
-					sb.append(y2);
-					sb.append(" ] ");
-					Interprete.calcul.push(new String(sb));
-					break;
-				case 208: // LongueurEtiquette
-					mot = getWord(param.get(0));
-					if (null != mot)
-						mot = Utils.SortieTexte(mot);
+				}
+				texte = "";
+				if (!dossier.equals(""))
+					texte += Logo.messages.getString("repertoires") + ":\n" + dossier + "\n";
+				if (!fichier.equals(""))
+					texte += Logo.messages.getString("fichiers") + ":\n" + fichier + "\n";
+				HistoryMessenger.getInstance().dispatchComment(texte);
+			}
+		};
+		
+		// frepertoire
+		handlers[109] = new PrimitiveHandler(109)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				liste = getWord(param.getValue(0));
+				if (null == liste)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				String chemin = Utils.SortieTexte(liste);
+				if ((new File(chemin)).isDirectory() && !chemin.startsWith(".."))
+				{
+					defaultFolder = Utils.rajoute_backslash(chemin);
+					uc.setDefaultFolder(defaultFolder);
+				}
+				else
+					throw new LogoError(liste + " " + Logo.messages.getString("erreur_pas_repertoire"));
+			}
+		};
+		
+		// repertoire
+		handlers[110] = new PrimitiveHandler(110)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				context.operande = true;
+				defaultFolder = uc.getDefaultFolder();
+				context.calcul.push("\"" + defaultFolder);
+			}
+		};
+		
+		// sauve
+		handlers[111] = new PrimitiveHandler(111)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringTokenizer st;
+				String mot;
+				String liste;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(Logo.messages.getString("error.word"));
+				liste = getFinalList(param.get(1));
+				st = new StringTokenizer(liste);
+				Stack<String> pile = new Stack<String>();
+				while (st.hasMoreTokens())
+					pile.push(st.nextToken());
+				saveProcedures(mot, pile);
+			}
+		};
+		
+		// sauved
+		handlers[112] = new PrimitiveHandler(112)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				saveProcedures(mot, null);
+			}
+		};
+		
+		// ramene load
+		handlers[113] = new PrimitiveHandler(113)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				defaultFolder = uc.getDefaultFolder();
+				String path = Utils.SortieTexte(defaultFolder) + File.separator + mot;
+				String fileName = wp.makeUniqueFileName(mot);
+				try
+				{
+					String txt = Utils.readLogoFile(path); // TODO this
+															// does not
+															// work...
+															// should
+															// load from
+															// path....
+															// later:
+															// looks ok,
+															// not?
+					wp.createFile(fileName);
+					wp.writeFileText(fileName, txt);
+				}
+				catch (IOException e1)
+				{
+					throw new LogoError(Logo.messages.getString("error.iolecture"));
+				}
+			}
+		};
+		
+		// listeflux
+		handlers[153] = new PrimitiveHandler(153)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				liste = "[ ";
+				for (MyFlow flow : kernel.flows)
+				{
+					liste += "[ " + flow.getId() + " " + flow.getPath() + " ] ";
+				}
+				liste += "] ";
+				context.operande = true;
+				context.calcul.push(liste);
+			}
+		};
+		
+		// lisligneflux
+		handlers[154] = new PrimitiveHandler(154)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				try
+				{
+					int ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					MyFlow flow = kernel.flows.get(index);
+					MyFlowReader flowReader;
+					// If the flow is a writable flow, throw error
+					if (flow.isWriter())
+						throw new LogoError(Logo.messages.getString("flux_lecture"));
+					// else if the flow is a readable flow, convert to
+					// MyFlowReader
+					else if (flow.isReader())
+					{
+						flowReader = ((MyFlowReader) flow);
+					}
+					// else the flow isn't yet defined, initialize
 					else
-						mot = getFinalList(param.get(0)).trim();
-					Interprete.operande = true;
-					fm = cadre.getDrawPanel().getGraphics().getFontMetrics(cadre.getDrawPanel().getGraphicsFont());
-					longueur = fm.stringWidth(mot);
-					Interprete.calcul.push(String.valueOf(longueur));
-					break;
-				case 209: // envoietcp // sendtcp // enviatcp etcp
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
-					mot = mot.toLowerCase();
-					liste = "";
-					liste = getFinalList(param.get(1));
-					NetworkClientSend ncs = new NetworkClientSend(mot, liste);
-					Interprete.calcul.push("[ " + ncs.getAnswer() + " ] ");
-					/*
-					 * {
-					 * liste = "[ "; mot2 =
-					 * getFinalList(param.get(0).toString()); liste += mot2 + "
-					 * ]"; String rip = liste.substring(2,17); // cadre.ecris("perso
-					 * ", rip + "\n");
-					 * //para debug String rdat = "_" + liste.substring(18,23) +
-					 * "*\n\r"; //
-					 * cadre.ecris("perso", rdat + "\n"); //para debug Socket
-					 * echoSocket = null;
-					 * DataOutputStream tcpout = null; BufferedReader tcpin =
-					 * null; String resp =
-					 * null; { echoSocket = new Socket(rip, 1948); tcpout =
-					 * new
-					 * DataOutputStream(echoSocket.getOutputStream()); tcpin=
-					 * new BufferedReader(new
-					 * InputStreamReader(echoSocket.getInputStream()));
-					 * tcpout.writeBytes(rdat);
-					 * resp = tcpin.readLine(); // readLine detiene el programa
-					 * hasta que recibe una
-					 * respuesta del robot. Que hacer si no recibe nada?
-					 * tcpout.close();
-					 * tcpin.close(); echoSocket.close(); } catch
-					 * (UnknownHostException e) { throw
-					 * new myException( Logo.messages.getString("erreur_tcp"));
-					 * } catch
-					 * (IOException e) { throw new myException(
-					 * Logo.messages.getString("erreur_tcp")); }
-					 * Interprete.calcul.push("[ " + resp + "
-					 * ]"); } catch(myException e){}
-					 */
-					break;
-				case 210: // ecoutetcp
-					/**
-					 * Marko Zivkovic : new implementation of context switch.
-					 * saving of workspace (now context) is done in {@link ContextManager}
-					 */
-					Interprete.operande = false;
-					new NetworkServer(cadre);
-					
-					break;
-				case 211: // executetcp
-					mot = getWord(param.get(0));
-					if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
-					mot = mot.toLowerCase();
-					liste = "";
-					liste = getFinalList(param.get(1));
-					new NetworkClientExecute(cadre.getKernel(), mot, liste);
-					break;
-				case 212: // \x internal operator to specify
-							// the end of network instructions with
-							// "executetcp"
-							// have to replace workspace
-					Interprete.operande = false;
-										
-					/*
-					 * Marko Zivkovic : new implementation of network context
-					 */
-					wp.popNetworkMode();
+						flowReader = new MyFlowReader(flow);
 					
-					break;
-				case 213: // chattcp
-					Interprete.operande = false;
-					mot = getWord(param.get(0));
-					if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
-					mot = mot.toLowerCase();
-					liste = "";
-					liste = getFinalList(param.get(1));
-					new NetworkClientChat(cadre, mot, liste);
-					break;
-				case 214: // init resetall
-					Interprete.operande = false;
-					// resize drawing zone if necessary
-					if (h != 1000 || w != 1000)
-					{
-						h = 1000;
-						w = 1000;
-						cadre.resizeDrawingZone();
-					}
-					uc.setDrawGrid(false);
-					uc.setDrawXAxis(false);
-					uc.setDrawYAxis(false);
-					cadre.getDrawPanel().origine();
-					kernel.getActiveTurtle().stroke = new BasicStroke(1);
-					cadre.getDrawPanel().setBackgroundColor(Color.WHITE);
-					if (kernel.getActiveTurtle().id == 0)
-					{
-						uc.setActiveTurtle(0);
-					}
-					DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
-					chemin = "tortue0.png";
-					kernel.change_image_tortue(chemin);
-					cadre.getDrawPanel().fcfg(Color.WHITE);
-					cadre.getDrawPanel().fcc(Color.BLACK);
-					cadre.getDrawPanel().setAnimation(false);
-					font = new Font("dialog", Font.PLAIN, 12);
-					WSManager.getWorkspaceConfig().setFont(font);
-					kernel.getActiveTurtle().police = 12;
-					cadre.getDrawPanel().setGraphicsFont(font);
-					HistoryPanel.fontPrint = UserConfig.police_id(font);
-					cadre.getHistoryPanel().getDsd().fixepolice(12);
-					cadre.getHistoryPanel().getDsd().fixenompolice(HistoryPanel.fontPrint);
-					cadre.getHistoryPanel().getDsd().fixecouleur(Color.black);
-					uc.setPenShape(PenShape.SQUARE);
-					uc.setQuality(DrawQuality.NORMAL);
-					kernel.setDrawingQuality(uc.getQuality());
-					kernel.setNumberOfTurtles(16);
-					uc.setTurtleSpeed(0);
-					Kernel.mode_trace = false;
-					DrawPanel.WINDOW_MODE = DrawPanel.WINDOW_CLASSIC;
-					cadre.getDrawPanel().zoom(1, false);
-					break;
-				case 215: // tc taillecrayon
-					Interprete.operande = true;
-					double penwidth = 2 * kernel.getActiveTurtle().getPenWidth();
-					Interprete.calcul.push(String.valueOf(MyCalculator.teste_fin_double(penwidth)));
-					break;
-				case 216: // setpenshape=ffc fixeformecrayon
-					Interprete.operande = false;
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i != PenShape.OVAL.getValue() && i != PenShape.SQUARE.getValue())
-					{
-						str = Utils.primitiveName("setpenshape") + " " + Logo.messages.getString("error_bad_values");
-						str += " " + PenShape.SQUARE.getValue() + " " + PenShape.OVAL.getValue();
-						throw new LogoError(str);
-					}
-					uc.setPenShape(PenShape.getPenShape(i));
-					cadre.getDrawPanel().updateAllTurtleShape();
-					cadre.getDrawPanel().setStroke(kernel.getActiveTurtle().crayon);
-					break;
-				case 217: // penshape=fc formecrayon
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(uc.getPenShape().getValue()));
-					break;
-				case 218: // setdrawingquality=fqd fixequalitedessin
-					Interprete.operande = false;
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i != DrawQuality.NORMAL.getValue() && i != DrawQuality.HIGH.getValue()
-							&& i != DrawQuality.LOW.getValue())
-					{
-						str = Utils.primitiveName("setdrawingquality") + " "
-								+ Logo.messages.getString("error_bad_values") + " 0 1 2";
-						throw new LogoError(str);
-					}
-					uc.setQuality(DrawQuality.getDrawQuality(i));
-					kernel.setDrawingQuality(uc.getQuality());
-					break;
-				case 219: // drawingquality=qd qualitedessin
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(uc.getQuality().getValue()));
-					break;
-				case 220: // setturtlesnumber=fmt fixemaxtortues
-					Interprete.operande = false;
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i < 0)
-					{
-						String fmt = Utils.primitiveName("setturtlesnumber");
-						throw new LogoError(fmt + " " + Logo.messages.getString("attend_positif"));
-					}
-					else if (i == 0)
-						i = 1;
-					kernel.setNumberOfTurtles(i);
-					break;
-				case 221: // turtlesnumber=maxtortues
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(uc.getMaxTurtles()));
+					if (flowReader.isFinished())
+						throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
+					// Reading line
+					String line = flowReader.readLine();
+					if (null == line)
+					{
+						flow.setFinished(true);
+						throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
+					}
+					context.operande = true;
+					context.calcul.push("[ " + Utils.decoupe(line.trim(), true) + " ] ");
+					kernel.flows.set(index, flowReader);
+				}
+				catch (FileNotFoundException e1)
+				{
+					throw new LogoError(Logo.messages.getString("error.iolecture"));
+				}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// liscaractereflux
+		handlers[155] = new PrimitiveHandler(155)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				try
+				{
+					int ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					MyFlow flow = kernel.flows.get(index);
+					MyFlowReader flowReader;
+					// If the flow is a writable flow, throw error
+					if (flow.isWriter())
+						throw new LogoError(Logo.messages.getString("flux_lecture"));
+					// else if the flow is reader, convert to MyFlowReader
+					else if (flow.isReader())
+					{
+						flowReader = ((MyFlowReader) flow);
+					}
+					// else the flow isn't yet defined, initialize
+					else
+						flowReader = new MyFlowReader(flow);
 					
-					break;
-				case 222: // setscreensize=ftd fixetailledessin
-					Interprete.operande = false;
+					if (flowReader.isFinished())
+						throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
 					
-					String prim = Utils.primitiveName("setscreensize");
-					liste = getFinalList(param.get(0));
-					int width,
-					height;
-					st = new StringTokenizer(liste);
-					try
-					{
-						if (!st.hasMoreTokens())
-							throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
-									+ Logo.messages.getString("comme_parametre"));
-						width = Integer.parseInt(st.nextToken().toString());
-						if (!st.hasMoreTokens())
-							throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
-									+ Logo.messages.getString("comme_parametre"));
-						height = Integer.parseInt(st.nextToken().toString());
-					}
-					catch (NumberFormatException e)
-					{
-						throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
-								+ Logo.messages.getString("comme_parametre"));
-					}
-					if (st.hasMoreTokens())
-						throw new LogoError(prim + " " + Logo.messages.getString("n_aime_pas") + liste
-								+ Logo.messages.getString("comme_parametre"));
-					boolean changement = false;
-					if (height != h)
-						changement = true;
-					int tmp_hauteur = h;
-					h = height;
-					if (width != w)
-						changement = true;
-					int tmp_largeur = w;
-					w = width;
-					if (w < 100 || h < 100)
-					{
-						w = 1000;
-						h = 1000;
-					}
-					if (changement)
-					{
-						int memoire_necessaire = w * h * 4 / 1024 / 1024;
-						int memoire_image = tmp_hauteur * tmp_largeur * 4 / 1024 / 1024;
-						long free = Runtime.getRuntime().freeMemory() / 1024 / 1024;
-						long total = Runtime.getRuntime().totalMemory() / 1024 / 1024;
-						/*
-						 * System.out.println("memoire nécessaire
-						 * "+memoire_necessaire); System.out.println("memoire
-						 * image
-						 * "+memoire_image); System.out.println("memoire
-						 * libre "+free); System.out.println("memoire totale
-						 * "+total); System.out.println("memoire envisagee
-						 * "+(total-free+memoire_necessaire-memoire_image));
-						 * System.out.println();
-						 */
-						if (total - free + memoire_necessaire - memoire_image < GlobalConfig.getMaximumMemory() * 0.8)
-						{
-							cadre.resizeDrawingZone();
-						}
-						else
-						{
-							w = tmp_largeur;
-							h = tmp_hauteur;
-							long conseil = 64 * ((total - free + memoire_necessaire - memoire_image) / 64) + 64;
-							if (total - free + memoire_necessaire - memoire_image > 0.8 * conseil)
-								conseil += 64;
-							if (conseil == GlobalConfig.getMaximumMemory())
-								conseil += 64;
-							String message = Logo.messages.getString("erreur_memoire") + " " + conseil + "\n"
-									+ Logo.messages.getString("relancer");
-							jt = new MyTextAreaDialog(message);
-							JOptionPane.showMessageDialog(cadre.getFrame(), jt, Logo.messages.getString("erreur"),
-									JOptionPane.ERROR_MESSAGE);
-						}
-					}
-					break;
-				case 223: // guibutton guibouton
-					String identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					mot = getWord(param.get(1));
-					if (null == mot)
-						throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
-					GuiButton gb = new GuiButton(identifier.toLowerCase(), mot, cadre);
-					cadre.getDrawPanel().addToGuiMap(gb);
-					break;
-				case 224: // guiaction
-					identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					liste = getFinalList(param.get(1));
-					cadre.getDrawPanel().guiAction(identifier, liste);
-					break;
-				case 225: // guiremove
-					identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					cadre.getDrawPanel().guiRemove(identifier);
-					break;
-				case 226: // guiposition
-					identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+					int character = ((MyFlowReader) flow).readChar();
+					if (character == -1)
+					{
+						flow.setFinished(true);
+						throw new LogoError(Logo.messages.getString("fin_flux") + " " + ident);
+					}
+					context.operande = true;
+					String car = String.valueOf(character);
+					if (car.equals("\\"))
+						car = "\\\\";
+					context.calcul.push(car);
+					kernel.flows.set(index, flowReader);
+				}
+				catch (FileNotFoundException e1)
+				{
+					throw new LogoError(Logo.messages.getString("error.iolecture"));
+				}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// ecrisligneflux
+		handlers[156] = new PrimitiveHandler(156)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				try
+				{
+					int ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
 					liste = getFinalList(param.get(1));
-					cadre.getDrawPanel().guiposition(identifier, liste, Utils.primitiveName("guiposition"));
-					break;
-				case 227: // guidraw
-					identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					cadre.getDrawPanel().guiDraw(identifier);
-					break;
-				case 228: // zoom
-					Interprete.operande = false;
-					d = kernel.getCalculator().numberDouble(param.get(0));
-					if (d <= 0)
-					{
-						String name = Utils.primitiveName("zoom");
-						throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
-					}
-					cadre.getDrawPanel().zoom(d, false);
-					break;
-				case 229: // grille
-					Interprete.operande = false;
-					primitive2D("grille");
-					int[] args = new int[2];
-					for (i = 0; i < 2; i++)
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					MyFlow flow = kernel.flows.get(index);
+					MyFlowWriter flowWriter;
+					// If the flow is a readable flow, throw an error
+					if (flow.isReader())
+						throw new LogoError(Logo.messages.getString("flux_ecriture"));
+					// Else if the flow is a writable flow , convert to
+					// MrFlowWriter
+					else if (flow.isWriter())
+						flowWriter = (MyFlowWriter) flow;
+					// Else the flow isn't defined yet, initialize
+					else
+						flowWriter = new MyFlowWriter(flow);
+					
+					// System.out.println(flow.isReader()+" "+flow.isWriter());
+					// Write the line
+					flowWriter.write(Utils.SortieTexte(liste, kernel.getCalculator()));
+					kernel.flows.set(index, flowWriter);
+				}
+				catch (FileNotFoundException e1)
+				{}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// finficher?
+		handlers[157] = new PrimitiveHandler(157)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				try
+				{
+					int ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					else
 					{
-						args[i] = kernel.getCalculator().getInteger(param.get(i));
-						if (args[i] < 0)
+						MyFlow flow = kernel.flows.get(index);
+						MyFlowReader flowReader = null;
+						// If the flow isn't defined yet, initialize
+						if (!flow.isWriter() && !flow.isReader())
 						{
-							String grille = Utils.primitiveName("grille");
-							throw new LogoError(grille + " " + Logo.messages.getString("attend_positif"));
+							flowReader = new MyFlowReader(flow);
 						}
-						else if (args[i] == 0)
+						else if (flow.isReader())
+							flowReader = (MyFlowReader) flow;
+						if (null != flowReader)
 						{
-							args[i] = 1;
+							if (flow.isFinished())
+							{
+								context.operande = true;
+								context.calcul.push(Logo.messages.getString("vrai"));
+							}
+							else
+							{
+								int read = flowReader.isReadable();
+								if (read == -1)
+								{
+									context.operande = true;
+									context.calcul.push(Logo.messages.getString("vrai"));
+									flow.setFinished(true);
+								}
+								else
+								{
+									context.operande = true;
+									context.calcul.push(Logo.messages.getString("faux"));
+								}
+							}
 						}
+						else
+							throw new LogoError(Logo.messages.getString("flux_lecture"));
 					}
-					uc.setDrawGrid(true);
-					uc.setXGrid(args[0]);
-					uc.setYGrid(args[1]);
-					cadre.getDrawPanel().videecran();
-					break;
-				case 230: // stopgrille
-					Interprete.operande = false;
-					uc.setDrawGrid(false);
-					cadre.getDrawPanel().videecran();
-					break;
-				case 231: // stopanimation
-					cadre.getDrawPanel().setAnimation(false);
-					Interprete.operande = false;
-					break;
-				case 232: // stoptrace
-					Kernel.mode_trace = false;
-					Interprete.operande = false;
-					break;
-				case 233: // guimenu
-					identifier = getWord(param.get(0));
-					if (null == identifier)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				}
+				catch (FileNotFoundException e1)
+				{}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// ouvreflux
+		handlers[158] = new PrimitiveHandler(158)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String liste;
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				mot = getWord(param.getValue(1));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				defaultFolder = uc.getDefaultFolder();
+				liste = Utils.SortieTexte(defaultFolder) + File.separator + Utils.SortieTexte(mot);
+				int ident = kernel.getCalculator().getInteger(param.get(0));
+				if (kernel.flows.search(ident) == -1)
+					kernel.flows.add(new MyFlow(ident, liste, false));
+				else
+					throw new LogoError(ident + " " + Logo.messages.getString("flux_existant"));
+			}
+		};
+		
+		// fermeflux
+		handlers[159] = new PrimitiveHandler(159)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int ident;
+				try
+				{
+					ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					MyFlow flow = kernel.flows.get(index);
+					// If the flow is a readable flow
+					if (flow.isReader())
+						((MyFlowReader) flow).close();
+					// Else if it's a writable flow
+					else if (flow.isWriter())
+						((MyFlowWriter) flow).close();
+					kernel.flows.remove(index);
+				}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// ajouteligneflux
+		handlers[160] = new PrimitiveHandler(160)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				int ident;
+				try
+				{
+					ident = kernel.getCalculator().getInteger(param.get(0));
+					int index = kernel.flows.search(ident);
 					liste = getFinalList(param.get(1));
-					GuiMenu gm = new GuiMenu(identifier.toLowerCase(), liste, cadre);
-					cadre.getDrawPanel().addToGuiMap(gm);
-					break;
-				case 234: // axis
-					
-					Interprete.operande = false;
+					if (index == -1)
+						throw new LogoError(Logo.messages.getString("flux_non_disponible") + " " + ident);
+					MyFlow flow = kernel.flows.get(index);
+					MyFlowWriter flowWriter;
+					// If the flow is a readable flow, throw an error
+					if (flow.isReader())
+						throw new LogoError(Logo.messages.getString("flux_ecriture"));
+					// Else if the flow is a writable flow , convert to
+					// MrFlowWriter
+					else if (flow.isWriter())
+						flowWriter = (MyFlowWriter) flow;
+					// Else the flow isn't defined yet, initialize
+					else
+						flowWriter = new MyFlowWriter(flow);
 					
-					primitive2D("axis");
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i < 0)
+					// Write the line
+					flowWriter.append(Utils.SortieTexte(liste, kernel.getCalculator()));
+					kernel.flows.set(index, flowWriter);
+				}
+				catch (FileNotFoundException e1)
+				{}
+				catch (IOException e2)
+				{}
+			}
+		};
+		
+		// changedossier
+		handlers[178] = new PrimitiveHandler(178)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String chemin;
+				UserConfig uc = WSManager.getUserConfig();
+				String defaultFolder;
+				context.operande = false;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				chemin = "";
+				defaultFolder = uc.getDefaultFolder();
+				if (defaultFolder.endsWith(File.separator))
+					chemin = Utils.SortieTexte(defaultFolder + mot);
+				else
+					chemin = Utils.SortieTexte(defaultFolder + Utils.rajoute_backslash(File.separator) + mot);
+				if ((new File(chemin)).isDirectory())
+				{
+					try
 					{
-						String name = Utils.primitiveName("axis");
-						throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+						defaultFolder = Utils.rajoute_backslash((new File(chemin)).getCanonicalPath());
+						uc.setDefaultFolder(defaultFolder);
 					}
-					else if (i < 25)
-						i = 25;
-					uc.setDrawXAxis(true);
-					uc.setXAxis(i);
-					uc.setDrawYAxis(true);
-					uc.setYAxis(i);
-					cadre.getDrawPanel().videecran();
-					break;
-				case 235: // xaxis
-					Interprete.operande = false;
-					primitive2D("xaxis");
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i < 0)
+					catch (NullPointerException e1)
+					{}
+					catch (IOException e2)
+					{}
+				}
+				else
+					throw new LogoError(Utils.rajoute_backslash(chemin) + " "
+							+ Logo.messages.getString("erreur_pas_repertoire"));
+			}
+		};
+		
+		// workspace.externalcommand
+		handlers[289] = new PrimitiveHandler(289)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String list;
+				int i;
+				context.operande = false;
+				
+				{
+					list = getFinalList(param.get(0));
+					int index = numberOfElements(list);
+					String[] cmd = new String[index];
+					for (i = 0; i < index; i++)
 					{
-						String name = Utils.primitiveName("xaxis");
-						throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+						String liste1 = item(list, i + 1);
+						cmd[i] = Utils.SortieTexte(getFinalList(liste1).trim());
 					}
-					else if (i < 25)
-						i = 25;
-					uc.setDrawXAxis(true);
-					uc.setXAxis(i);
-					cadre.getDrawPanel().videecran();
-					break;
-				case 236: // yaxis
-					Interprete.operande = false;
-					primitive2D("yaxis");
-					i = kernel.getCalculator().getInteger(param.get(0));
-					if (i < 0)
+					try
 					{
-						String name = Utils.primitiveName("yaxis");
-						throw new LogoError(name + " " + Logo.messages.getString("attend_positif"));
+						/*
+						 * String com="";
+						 * for(int i=0;i<cmd.length;i++){
+						 * com+=cmd[i]+" ";
+						 * }
+						 * System.out.println(com);
+						 */
+						Runtime.getRuntime().exec(cmd);
 					}
-					else if (i < 25)
-						i = 25;
-					uc.setDrawYAxis(true);
-					uc.setYAxis(i);
-					cadre.getDrawPanel().videecran();
-					break;
-				case 237: // stopaxis
-					uc.setDrawXAxis(false);
-					uc.setDrawYAxis(false);
-					Interprete.operande = false;
-					cadre.getDrawPanel().videecran();
-					break;
-				case 238: // bye
-					cadre.closeWindow();
-					break;
-				case 239: // var? variable?
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					mot = mot.toLowerCase();
-					if (wp.getGlobals().getVariables().contains(mot) || Interprete.locale.containsKey(mot)) // TODO
-																											// changed
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 240: // axiscolor= couleuraxes
-					Interprete.operande = true;
-					c = new Color(uc.getAxisColor());
-					Interprete.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
-					
-					break;
-				case 241: // gridcolor=couleurgrille
-					Interprete.operande = true;
-					c = new Color(uc.getGridColor());
-					Interprete.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
-					break;
-				case 242: // grid?=grille?
-					Interprete.operande = true;
-					if (uc.isDrawGrid())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 243: // xaxis?=axex?
-					Interprete.operande = true;
-					if (uc.isDrawXAxis())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 244: // yaxis?=axey?
-					Interprete.operande = true;
-					if (uc.isDrawYAxis())
-						Interprete.calcul.push(Logo.messages.getString("vrai"));
-					else
-						Interprete.calcul.push(Logo.messages.getString("faux"));
-					break;
-				case 245: // setgridcolor=fcg fixecouleurgrille
-					Interprete.operande = false;
-					if (isList(param.get(0)))
+					catch (IOException e2)
 					{
-						uc.setGridColor(rgb(param.get(0), Utils.primitiveName("setgridcolor")).getRGB());
+						// System.out.println("a");
 					}
+					
+				}
+				
+				{
+					// System.out.println("coucou");
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Creates the handlers of the history, the keyboard and the mouse, time, sound, the gui primitives, the network and bye
+	 */
+	private void initInteractionHandlers()
+	{
+		// ecris, ec
+		handlers[9] = new PrimitiveHandler(9)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int size = param.size();
+				String result = "";
+				String mot;
+				for (int i = 0; i < size; i++)
+				{
+					String par = param.get(i).trim();
+					if (isList(par))
+						par = formatList(par.substring(1, par.length() - 1));
+					mot = getWord(param.getValue(i));
+					if (null == mot)
+						result += Utils.SortieTexte(par, kernel.getCalculator()) + " ";
 					else
+						result += Utils.SortieTexte(mot, kernel.getCalculator()) + " ";
+				}
+				HistoryMessenger.getInstance().dispatchLogoOutput(result + "\n");
+			}
+		};
+		
+		// videtexte
+		handlers[89] = new PrimitiveHandler(89)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getHistoryPanel().vide_texte();
+			}
+		};
+		
+		// lis
+		handlers[93] = new PrimitiveHandler(93)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String liste;
+				Font font = WSManager.getWorkspaceConfig().getFont();
+				liste = getFinalList(param.get(0));
+				mot = getWord(param.getValue(1));
+				if (null == mot)
+					throw new LogoError(Logo.messages.getString("error.word"));
+				java.awt.FontMetrics fm = cadre.getDrawPanel().getFontMetrics(font);
+				int longueur = fm.stringWidth(liste) + 100;
+				Lis lis = new Lis(liste, longueur);
+				while (lis.isVisible())
+				{
+					try
 					{
-						int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
-						if (coul < 0)
-							coul += DrawPanel.defaultColors.length;
-						uc.setGridColor(DrawPanel.defaultColors[coul].getRGB());
-					}
-					break;
-				case 246: // setaxiscolor=fca fixecouleuraxes
-					Interprete.operande = false;
-					if (isList(param.get(0)))
-					{
-						uc.setAxisColor(rgb(param.get(0), Utils.primitiveName("setaxiscolor")).getRGB());
+						Thread.sleep(50);
 					}
+					catch (InterruptedException e)
+					{}
+				}
+				param = new ValueStack();
+				param.push("\"" + mot);
+				String phrase = lis.getText();
+				// phrase="[ "+Logo.rajoute_backslash(phrase)+" ] ";
+				StringBuffer tampon = new StringBuffer();
+				for (int j = 0; j < phrase.length(); j++)
+				{
+					char c = phrase.charAt(j);
+					if (c == '\\')
+						tampon.append("\\\\");
 					else
+						tampon.append(c);
+				}
+				int offset = tampon.indexOf(" ");
+				if (offset != -1)
+				{
+					tampon.insert(0, "[ ");
+					tampon.append(" ] ");
+				}
+				else
+				{
+					try
 					{
-						int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
-						if (coul < 0)
-							coul += DrawPanel.defaultColors.length;
-						uc.setAxisColor(DrawPanel.defaultColors[coul].getRGB());
+						Double.parseDouble(phrase);
 					}
-					break;
-				case 247: // perspective
-					
-					cadre.getDrawPanel().perspective();
-					
-					break;
-				case 248:// rightroll=rd roulisdroite
-					delay();
-					primitive3D("3d.rightroll");
-					cadre.getDrawPanel().rightroll(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 249:// uppitch=cabre
-					delay();
-					primitive3D("3d.uppitch");
-					cadre.getDrawPanel().uppitch(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 250:// leftroll=rg roulisgauche
-					delay();
-					primitive3D("3d.leftroll");
-					cadre.getDrawPanel().rightroll(-kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 251:// downpitch=pique
-					delay();
-					primitive3D("3d.downpitch");
-					cadre.getDrawPanel().uppitch(-kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 252:// roll=roulis
-					primitive3D("3d.roll");
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().roll));
-					break;
-				case 253:// pitch=cabrement tangage
-					primitive3D("3d.pitch");
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().pitch));
-					break;
-				case 254:// setroll=fixeroulis
-					primitive3D("3d.setroll");
-					delay();
-					cadre.getDrawPanel().setRoll(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 255:// setpitch=fixetangage
-					primitive3D("3d.setpitch");
-					delay();
-					cadre.getDrawPanel().setPitch(kernel.getCalculator().numberDouble(param.pop()));
-					break;
-				case 256:// setorientation=fixeorientation
-					primitive3D("3d.setorientation");
-					delay();
-					cadre.getDrawPanel().setOrientation(getFinalList(param.pop()));
-					break;
-				case 257: // orientation=orientation
-					primitive3D("3d.orientation");
-					Interprete.operande = true;
-					String pitch = MyCalculator.teste_fin_double(kernel.getActiveTurtle().pitch);
-					String roll = MyCalculator.teste_fin_double(kernel.getActiveTurtle().roll);
-					String heading = MyCalculator.teste_fin_double(kernel.getActiveTurtle().heading);
-					Interprete.calcul.push("[ " + roll + " " + pitch + " " + heading + " ] ");
-					break;
-				case 258: // setxyz=fposxyz
-					primitive3D("3d.setxyz");
-					cadre.getDrawPanel().fpos(
-							kernel.getCalculator().numberDouble(param.get(0)) + " "
-									+ kernel.getCalculator().numberDouble(param.get(1)) + " "
-									+ kernel.getCalculator().numberDouble(param.get(2)));
-					break;
-				case 259: // setz=fixez
-					delay();
-					primitive3D("3d.setz");
-					cadre.getDrawPanel().fpos(
-							kernel.getActiveTurtle().X + " " + kernel.getActiveTurtle().Y + " "
-									+ kernel.getCalculator().numberDouble(param.get(0)));
-					break;
-				case 260: // pprop=dprop
-					Interprete.operande = false;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					mot2 = getWord(param.get(1));
-					if (null == mot2)
-						throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
-					wp.getPropertyLists().addPropList(mot, mot2, param.get(2)); // TODO
-																				// changed
-					break;
-				case 261: // gprop=rprop
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					mot2 = getWord(param.get(1));
-					if (null == mot2)
-						throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
-					value = wp.getPropertyLists().getPropList(mot, mot2);  // TODO
-																			// CHANGED
-					if (value.startsWith("["))
-						value += " ";
-					Interprete.calcul.push(value);
-					break;
-				case 262: // remprop=efprop
-					Interprete.operande = false;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					mot2 = getWord(param.get(1));
-					if (null == mot2)
-						throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
-					wp.getPropertyLists().removePropList(mot, mot2);  // TODO
-																		// CHANGED
-					break;
-				case 263: // plist=lprop
-					Interprete.operande = true;
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					Interprete.calcul.push(wp.getPropertyLists().displayPropList(mot)); // TODO
-																						// CHANGED
-					
-					break;
-				case 264: // polystart=polydef
-					DrawPanel.record3D = DrawPanel.record3D_POLYGON;
-					cadre.initViewer3D();
-					// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
-					// java.util.Vector<Shape3D>();
-					DrawPanel.poly = new ElementPolygon(cadre.getViewer3D());
-					break;
-				case 265: // polyend=polyfin
-					DrawPanel.record3D = DrawPanel.record3D_NONE;
-					DrawPanel.poly.addToScene();
-					break;
-				case 266: // polyview=polyaf vue3d
-					primitive3D("3d.polyview");
-					cadre.viewerOpen();
-					break;
-				case 267: // linestart=lignedef
-					DrawPanel.record3D = DrawPanel.record3D_LINE;
-					cadre.initViewer3D();
-					// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
-					// java.util.Vector<Shape3D>();
-					DrawPanel.poly = new ElementLine(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
-					DrawPanel.poly.addVertex(new Point3d(kernel.getActiveTurtle().X / 1000,
-							kernel.getActiveTurtle().Y / 1000, kernel.getActiveTurtle().Z / 1000), kernel
-							.getActiveTurtle().couleurcrayon);
-					break;
-				case 268: // lineend=lignefin
-					DrawPanel.record3D = DrawPanel.record3D_NONE;
-					DrawPanel.poly.addToScene();
-					break;
-				case 269: // pointstart=pointdef
-					DrawPanel.record3D = DrawPanel.record3D_POINT;
-					cadre.initViewer3D();
-					// if (null==DrawPanel.listPoly) DrawPanel.listPoly=new
-					// java.util.Vector<Shape3D>();
-					DrawPanel.poly = new ElementPoint(cadre.getViewer3D(), cadre.getKernel().getActiveTurtle().getPenWidth());
-					break;
-				case 270: // pointend=pointfin
-					DrawPanel.record3D = DrawPanel.record3D_NONE;
-					DrawPanel.poly.addToScene();
-					break;
-				case 271: // textstart=textedef
-					DrawPanel.record3D = DrawPanel.record3D_TEXT;
-					cadre.initViewer3D();
-					// if (null==DrawPanel.listText) DrawPanel.listText=new
-					// java.util.Vector<TransformGroup>();
-					DrawPanel.poly = null;
-					break;
-				case 272: // textend=textefin
-					DrawPanel.record3D = DrawPanel.record3D_NONE;
-					break;
-				case 273: // operator <=
-					infequal(param);
-					break;
-				case 274: // operator >=
-					supequal(param);
-					break;
-				case 275: // primitives
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.primitive.getAllPrimitives());
-					break;
-				case 276: // listesproprietes propertylists
-					Interprete.operande = true;
-					Interprete.calcul.push(new String(getAllpropertyLists()));
-					break;
-				case 277: // contenu
-					Interprete.operande = true;
-					sb = new StringBuffer("[ ");
-					sb.append(this.getAllProcedures());
-					sb.append(this.getAllVariables());
-					sb.append(this.getAllpropertyLists());
-					sb.append("] ");
-					Interprete.calcul.push(new String(sb));
-					break;
-				case 278: // erpl=eflp effacelistepropriete
-					Interprete.operande = false;
-					this.erase(param.get(0), "propertylist");
-					break;
-				case 279: // arithmetic.exp
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().exp(param.get(0)));
-					break;
-				case 280: // arithmetic.log
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().log(param.get(0)));
-					break;
-				case 281: // controls.ifelse
-					liste = getList(param.get(1));
-					liste = new String(Utils.decoupe(liste));
-					pred = predicat(param.get(0));
-					liste2 = getList(param.get(2));
-					liste = new String(Utils.decoupe(liste));
-					kernel.primitive.si(pred, liste, liste2);
-					Interprete.renvoi_instruction = true;
-					break;
-				case 282: // workspace.ed
-					
-					/*
-					 * Marko Zivkovic:
-					 * With the new Workspace (UserSpace + LogoFile) ed makes
-					 * not so much sense, because we work with
-					 * multiple files at the same time.
-					 * I therefore restrict this command to allow only a single
-					 * word as parameter, to open the file,
-					 * where the specified procedure is defined, and scroll to
-					 * the procedure's line.
-					 */
-					
-					mot = this.getWord(param.get(0));
-					if (mot == null)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					if (!wp.isExecutable(mot))
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.proc.does.not.exist"));
-					
-					cadre.displayProcedure(mot);
-					break;
-				case 283: // workspace.edall
-					/*
-					 * Marko Zivkovic:
-					 * Again, it makes no sense to open all files at a time.
-					 * Instead, I just open the last edited file.
-					 */
-					wp.editAll();
-					break;
-				case 284: // controls.foreach pourchaque
-							// Variable name
-					var = getWord(param.get(0));
-					// If it isn't a word
-					if (null == var)
-						throw new LogoError(param.get(0).toString() + " " + Logo.messages.getString("error.word"));
-					// If it's a number
-					else
+					catch (NumberFormatException e)
 					{
-						try
-						{
-							Double.parseDouble(var);
-							throw new LogoError(Logo.messages.getString("erreur_nom_nombre_variable"));
-						}
-						catch (NumberFormatException e1)
-						{}
+						tampon.insert(0, "\"");
 					}
-					li2 = getList(param.get(2));
-					li2 = new String(Utils.decoupe(li2));
-					li1 = getWord(param.get(1));
-					boolean isList = false;
-					if (null == li1)
+				}
+				phrase = new String(tampon);
+				param.push(phrase);
+				donne(param);
+				String texte = liste + "\n" + phrase;
+				HistoryMessenger.getInstance().dispatchComment(Utils.SortieTexte(texte, kernel.getCalculator()) + "\n");
+				cadre.focusCommandLine();
+				lis.dispose();
+				cadre.focusCommandLine();
+			}
+		};
+		
+		// touche?
+		handlers[94] = new PrimitiveHandler(94)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (cadre.getCar() != -1)
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// liscar
+		handlers[96] = new PrimitiveHandler(96)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				while (cadre.getCar() == -1)
+				{
+					try
 					{
-						isList = true;
-						li1 = getFinalList(param.get(1));
+						Thread.sleep(100);
 					}
-					Vector<String> elements = new Vector<String>();
-					while (!li1.equals(""))
+					catch (InterruptedException e)
+					{}
+					//if (LogoError.lance) //TODO this was always false
+					//	break;
+				}
+				context.calcul.push(String.valueOf(cadre.getCar()));
+				context.operande = true;
+				cadre.setCar(-1);
+			}
+		};
+		
+		// sequence
+		handlers[130] = new PrimitiveHandler(130)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				liste = getFinalList(param.get(0));
+				cadre.getSon().cree_sequence(Utils.decoupe(liste, true).toString());
+			}
+		};
+		
+		// instrument
+		handlers[131] = new PrimitiveHandler(131)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(String.valueOf(cadre.getSon().getInstrument()));
+			}
+		};
+		
+		// fixeinstrument
+		handlers[132] = new PrimitiveHandler(132)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				cadre.getSon().setInstrument(i);
+			}
+		};
+		
+		// joue
+		handlers[133] = new PrimitiveHandler(133)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getSon().joue();
+			}
+		};
+		
+		// effacesequence
+		handlers[134] = new PrimitiveHandler(134)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.getSon().efface_sequence();
+			}
+		};
+		
+		// indexsequence
+		handlers[135] = new PrimitiveHandler(135)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				double d = (double) cadre.getSon().getTicks() / 64;
+				context.calcul.push(MyCalculator.teste_fin_double(d));
+			}
+		};
+		
+		// fixeindexsequence
+		handlers[136] = new PrimitiveHandler(136)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				cadre.getSon().setTicks(i * 64);
+			}
+		};
+		
+		// fpt
+		handlers[137] = new PrimitiveHandler(137)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int i;
+				i = kernel.getCalculator().getInteger(param.get(0));
+				cadre.getHistoryPanel().getDsd().fixepolice(i);
+			}
+		};
+		
+		// ptexte
+		handlers[138] = new PrimitiveHandler(138)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(String.valueOf(cadre.getHistoryPanel().police()));
+			}
+		};
+		
+		// fct,fixecouleurtexte
+		handlers[139] = new PrimitiveHandler(139)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				if (isList(param.get(0)))
+				{
+					cadre.getHistoryPanel().getDsd().fixecouleur(rgb(param.get(0), Utils.primitiveName("fct")));
+				}
+				else
+				{
+					int coul = kernel.getCalculator().getInteger(param.get(0)) % DrawPanel.defaultColors.length;
+					if (coul < 0)
+						coul += DrawPanel.defaultColors.length;
+					cadre.getHistoryPanel().getDsd().fixecouleur(DrawPanel.defaultColors[coul]);
+				}
+			}
+		};
+		
+		// couleurtexte
+		handlers[140] = new PrimitiveHandler(140)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				Color c = cadre.getHistoryPanel().getCouleurtexte();
+				context.calcul.push("[ " + c.getRed() + " " + c.getGreen() + " " + c.getBlue() + " ] ");
+			}
+		};
+		
+		// lissouris readmouse
+		handlers[141] = new PrimitiveHandler(141)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				while (!cadre.getDrawPanel().get_lissouris())
+				{
+					try
 					{
-						String character = "";
-						// If it's a list
-						if (isList)
-						{
-							character = this.item(li1, 1);
-							// If it's a number
-							try
-							{
-								// Fix Bug: foreach "i [1 2 3][pr :i]
-								// character=1 , 2 , 3 (without quote)
-								Double.parseDouble(character);
-								li1 = li1.substring(character.length() + 1);
-							}
-							catch (NumberFormatException e)
-							{
-								// Fix Bug: foreach "i [r s t][pr :i]
-								// character="r ,  "s or "t
-								li1 = li1.substring(character.length());
-							}
-						}
-						// If it's a word
-						else
-						{
-							character = this.itemWord(1, li1);
-							li1 = li1.substring(character.length());
-							// If it isn't a number, adding a quote
-							try
-							{
-								Double.parseDouble(character);
-							}
-							catch (NumberFormatException e)
-							{
-								character = "\"" + character;
-							}
-						}
-						
-						elements.add(character);
+						Thread.sleep(100);
 					}
-					if (elements.size() > 0)
+					catch (InterruptedException e)
+					{}
+					//if (LogoError.lance) //TODO Marko: this was always false
+					//	break;
+				}
+				context.calcul.push(String.valueOf(cadre.getDrawPanel().get_bouton_souris()));
+				context.operande = true;
+			}
+		};
+		
+		// possouris
+		handlers[142] = new PrimitiveHandler(142)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.calcul.push(cadre.getDrawPanel().get_possouris());
+				context.operande = true;
+			}
+		};
+		
+		// msg message
+		handlers[143] = new PrimitiveHandler(143)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringTokenizer st;
+				String liste;
+				Font font = WSManager.getWorkspaceConfig().getFont();
+				liste = getFinalList(param.get(0));
+				st = new StringTokenizer(liste); // On
+													// découpe
+													// le
+													// message
+													// en
+													// tranche
+													// de
+													// longueurs
+													// acceptables
+				java.awt.FontMetrics fm = cadre.getDrawPanel().getFontMetrics(font);
+				liste = "";
+				String buf = "";
+				while (st.hasMoreTokens())
+				{
+					buf += st.nextToken() + " ";
+					if (fm.stringWidth(buf) > 200)
 					{
-						LoopForEach lfe = new LoopForEach(BigDecimal.ZERO, new BigDecimal(elements.size() - 1),
-								BigDecimal.ONE, li2, var.toLowerCase(), elements);
-						lfe.AffecteVar(true);
-						cadre.getKernel().getInstructionBuffer().insert(li2 + Primitive.END_LOOP + " ");
-						Primitive.stackLoop.push(lfe);
+						liste += buf + "\n";
+						buf = "";
 					}
-					break;
-				case 285: // controls.forever repetetoujours
-					li2 = getList(param.get(0));
-					li2 = new String(Utils.decoupe(li2));
-					LoopProperties lp = new LoopProperties(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE, li2);
-					cadre.getKernel().getInstructionBuffer().insert(li2 + Primitive.END_LOOP + " ");
-					Primitive.stackLoop.push(lp);
-					break;
-				case 286: // arithmetic.setdigits
-					Interprete.operande = false;
-					kernel.initCalculator(kernel.getCalculator().getInteger(param.get(0)));
-					break;
-				case 287: // arithmetic.digits
-					Interprete.operande = true;
-					Interprete.calcul.push(String.valueOf(kernel.getCalculator().getDigits()));
-					break;
-				case 288: // workspace.text
-					var = getWord(param.get(0));
-					if (null == var)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					
-					Procedure proc = wp.getExecutable(var);
-					if (proc != null)
+				}
+				liste += buf;
+				liste = Utils.SortieTexte(liste, kernel.getCalculator());
+				
+				MyTextAreaDialog jt = new MyTextAreaDialog(liste, cadre.getHistoryPanel().getDsd());
+				ImageIcon icone = new ImageIcon(Utils.class.getResource("icone.png"));
+				JOptionPane.showMessageDialog(cadre.getFrame(), jt, "", JOptionPane.INFORMATION_MESSAGE,
+						(Icon) icone);
+			}
+		};
+		
+		// date
+		handlers[144] = new PrimitiveHandler(144)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Language lang = AppSettings.getInstance().getLanguage();
+				context.operande = true;
+				Calendar cal = Calendar.getInstance(lang.getLocale());
+				int jour = cal.get(Calendar.DAY_OF_MONTH);
+				int mois = cal.get(Calendar.MONTH) + 1;
+				int annee = cal.get(Calendar.YEAR);
+				context.calcul.push("[ " + jour + " " + mois + " " + annee + " ] ");
+			}
+		};
+		
+		// heure
+		handlers[145] = new PrimitiveHandler(145)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				Calendar cal;
+				Language lang = AppSettings.getInstance().getLanguage();
+				context.operande = true;
+				cal = Calendar.getInstance(lang.getLocale());
+				int heure = cal.get(Calendar.HOUR_OF_DAY);
+				int minute = cal.get(Calendar.MINUTE);
+				int seconde = cal.get(Calendar.SECOND);
+				context.calcul.push("[ " + heure + " " + minute + " " + seconde + " ] ");
+			}
+		};
+		
+		// temps
+		handlers[146] = new PrimitiveHandler(146)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				UserConfig uc = WSManager.getUserConfig();
+				context.operande = true;
+				long heure_actuelle = Calendar.getInstance().getTimeInMillis();
+				context.calcul.push(String.valueOf((heure_actuelle - uc.getHeure_demarrage()) / 1000));
+			}
+		};
+		
+		// debuttemps
+		handlers[147] = new PrimitiveHandler(147)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int temps = kernel.getCalculator().getInteger(param.get(0));
+				context.chrono = Calendar.getInstance().getTimeInMillis() + 1000 * temps;
+			}
+		};
+		
+		// fintemps?
+		handlers[148] = new PrimitiveHandler(148)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (Calendar.getInstance().getTimeInMillis() > context.chrono)
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// fnpt fixenompolicetexte
+		handlers[151] = new PrimitiveHandler(151)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int int_police;
+				int_police = kernel.getCalculator().getInteger(param.get(0));
+				HistoryPanel.fontPrint = int_police % UserConfig.fontes.length;
+				cadre.getHistoryPanel().getDsd().fixenompolice(int_police);
+			}
+		};
+		
+		// npt nompolicetexte
+		handlers[152] = new PrimitiveHandler(152)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push("[ " + HistoryPanel.fontPrint + " [ "
+						+ UserConfig.fontes[HistoryPanel.fontPrint].getFontName() + " ] ] ");
+			}
+		};
+		
+		// souris?
+		handlers[161] = new PrimitiveHandler(161)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				if (cadre.getDrawPanel().get_lissouris())
+					context.calcul.push(Logo.messages.getString("vrai"));
+				else
+					context.calcul.push(Logo.messages.getString("faux"));
+			}
+		};
+		
+		// tape
+		handlers[165] = new PrimitiveHandler(165)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String par;
+				String mot;
+				par = param.get(0).trim();
+				if (isList(par))
+					par = formatList(par.substring(1, par.length() - 1));
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					HistoryMessenger.getInstance().dispatchLogoOutput(Utils.SortieTexte(par, kernel.getCalculator()));
+				else
+					HistoryMessenger.getInstance().dispatchLogoOutput(Utils.SortieTexte(mot, kernel.getCalculator()));
+			}
+		};
+		
+		// fixeseparation
+		handlers[174] = new PrimitiveHandler(174)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				double nombre;
+				nombre = kernel.getCalculator().numberDouble(param, 0);
+				if (nombre < 0 || nombre > 1)
+					throw new LogoError(nombre + " " + Logo.messages.getString("entre_zero_un"));
+				cadre.drawingAndHistory.setResizeWeight(nombre);
+				cadre.drawingAndHistory.setDividerLocation(nombre);
+			}
+		};
+		
+		// separation
+		handlers[175] = new PrimitiveHandler(175)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = true;
+				context.calcul.push(MyCalculator.teste_fin_double(cadre.drawingAndHistory.getResizeWeight()));
+			}
+		};
+		
+		// fixestyle
+		handlers[205] = new PrimitiveHandler(205)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				StringTokenizer st;
+				String mot;
+				String liste;
+				String element;
+				boolean gras = false;
+				boolean italique = false;
+				boolean souligne = false;
+				boolean exposant = false;
+				boolean indice = false;
+				boolean barre = false;
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					liste = getFinalList(param.get(0));
+				else
+					liste = mot;
+				if (liste.trim().equals(""))
+					liste = Logo.messages.getString("style.none");
+				st = new StringTokenizer(liste);
+				while (st.hasMoreTokens())
+				{
+					element = st.nextToken().toLowerCase();
+					if (element.equals(Logo.messages.getString("style.underline").toLowerCase()))
 					{
-						sb = new StringBuffer();
-						sb.append("[ [ ");
-						// Append variable names
-						for (int j = 0; j < proc.nbparametre; j++)
-						{
-							sb.append(proc.variable.get(j));
-							sb.append(" ");
-						}
-						for (int j = 0; j < proc.optVariables.size(); j++)
-						{
-							sb.append("[ ");
-							sb.append(proc.optVariables.get(j));
-							sb.append(" ");
-							sb.append(proc.optVariablesExp.get(j).toString());
-							sb.append(" ] ");
-						}
-						sb.append("] ");
-						// Append body procedure
-						sb.append(proc.cutInList());
-						sb.append("] ");
-						Interprete.operande = true;
-						Interprete.calcul.push(sb.toString());
+						souligne = true;
 					}
-					else
-						throw new LogoError(var + " " + Logo.messages.getString("error.procedure.must.be"));
-					break;
-				case 289: // workspace.externalcommand
-					Interprete.operande = false;
-					
+					else if (element.equals(Logo.messages.getString("style.bold").toLowerCase()))
 					{
-						list = getFinalList(param.get(0));
-						int index = numberOfElements(list);
-						String[] cmd = new String[index];
-						for (i = 0; i < index; i++)
-						{
-							String liste1 = item(list, i + 1);
-							cmd[i] = Utils.SortieTexte(getFinalList(liste1).trim());
-						}
-						try
-						{
-							/*
-							 * String com="";
-							 * for(int i=0;i<cmd.length;i++){
-							 * com+=cmd[i]+" ";
-							 * }
-							 * System.out.println(com);
-							 */
-							Runtime.getRuntime().exec(cmd);
-						}
-						catch (IOException e2)
-						{
-							// System.out.println("a");
-						}
-						
+						gras = true;
 					}
-					
+					else if (element.equals(Logo.messages.getString("style.italic").toLowerCase()))
 					{
-						// System.out.println("coucou");
+						italique = true;
 					}
-					break;
-				case 290: // drawing.saveimage
-					String word = getWord(param.get(0));
-					if (null == word)
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
-					if (word.equals(""))
-						throw new LogoError(param.get(0) + " " + Logo.messages.getString("mot_vide"));
-					// xmin, ymin, width, height
-					int[] coord = new int[4];
-					list = getFinalList(param.get(1));
-					st = new StringTokenizer(list);
-					if (st.countTokens() == 4)
+					else if (element.equals(Logo.messages.getString("style.exposant").toLowerCase()))
 					{
-						try
-						{
-							int j = 0;
-							while (st.hasMoreTokens())
-							{
-								coord[j] = Integer.parseInt(st.nextToken());
-								j++;
-							}
-							coord[0] += w / 2;
-							coord[2] += w / 2;
-							coord[1] = h / 2 - coord[1];
-							coord[3] = h / 2 - coord[3];
-							if (coord[2] < coord[0])
-							{
-								int tmp = coord[0];
-								coord[0] = coord[2];
-								coord[2] = tmp;
-							}
-							if (coord[3] < coord[1])
-							{
-								int tmp = coord[1];
-								coord[1] = coord[3];
-								coord[3] = tmp;
-							}
-							coord[2] = coord[2] - coord[0];
-							coord[3] = coord[3] - coord[1];
-						}
-						catch (NumberFormatException e)
-						{
-							coord[0] = 0;
-							coord[2] = w;
-							coord[1] = 0;
-							coord[3] = h;
-						}
+						exposant = true;
 					}
-					else
+					else if (element.equals(Logo.messages.getString("style.subscript").toLowerCase()))
 					{
-						coord[0] = 0;
-						coord[2] = w;
-						coord[1] = 0;
-						coord[3] = h;
+						indice = true;
 					}
-					if (coord[2] == 0 || coord[3] == 0)
+					else if (element.equals(Logo.messages.getString("style.strike").toLowerCase()))
 					{
-						coord[0] = 0;
-						coord[2] = w;
-						coord[1] = 0;
-						coord[3] = h;
+						barre = true;
 					}
-					cadre.getDrawPanel().saveImage(word, coord);
-					Interprete.operande = false;
-					break;
-				case 291: // sound.mp3play
-					Interprete.operande = false;
-					if (kernel.getMp3Player() != null)
-						kernel.getMp3Player().getPlayer().close();
-					mot = getWord(param.get(0));
-					if (null == mot)
-						throw new LogoError(mot + " " + Logo.messages.getString("error.word"));
-					MP3Player player = new MP3Player(cadre, mot);
-					kernel.setMp3Player(player);
-					kernel.getMp3Player().start();
-					break;
-				case 292: // sound.mp3stop
-					Interprete.operande = false;
-					if (null != kernel.getMp3Player())
-						kernel.getMp3Player().getPlayer().close();
-					break;
-				case 293: // zoom
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(DrawPanel.zoom));
-					break;
-				case 294: // drawing.x
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().getX()));
-					break;
-				case 295:// drawing.y
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().getY()));
-					break;
-				case 296: // drawing.z
-					Interprete.operande = true;
-					primitive3D("drawing.z");
-					Interprete.calcul.push(MyCalculator.teste_fin_double(kernel.getActiveTurtle().Z));
-					break;
-				case 297: // drawing.fillpolygon
-					Interprete.operande = false;
-					list = getFinalList(param.get(0));
-					LoopFillPolygon lfp = new LoopFillPolygon();
-					Primitive.stackLoop.push(lfp);
-					cadre.getKernel().getInstructionBuffer().insert(Utils.decoupe(list) + Primitive.END_LOOP + " ");
-					cadre.getDrawPanel().startRecord2DPolygon();
-					break;
-				case 298: // arithmetic.alea
-					Interprete.operande = true;
-					Interprete.calcul.push(MyCalculator.teste_fin_double(Math.random()));
-					break;
-				case 299: // loop.dountil
-					li1 = getList(param.get(0));
-					li1 = new String(Utils.decoupe(li1));
-					li2 = getList(param.get(1));
-					li2 = new String(Utils.decoupe(li2));
-					instr = "\\siwhile " + Utils.primitiveName("non") + " " + li2 + "[ " + li1 + "] ";
-					LoopWhile lw = new LoopWhile(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE, instr);
-					Primitive.stackLoop.push(lw);
-					cadre.getKernel().getInstructionBuffer().insert(instr + Primitive.END_LOOP + " ");
-					break;
-				case 300: // loop.dowhile
-					li1 = getList(param.get(0));
-					li1 = new String(Utils.decoupe(li1));
-					li2 = getList(param.get(1));
-					li2 = new String(Utils.decoupe(li2));
-					instr = "\\siwhile " + li2 + "[ " + li1 + "] ";
-					lw = new LoopWhile(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE, instr);
-					Primitive.stackLoop.push(lw);
-					cadre.getKernel().getInstructionBuffer().insert(li1 + instr + Primitive.END_LOOP + " ");
-					break;
-				case 301: // arithmetic.modulo
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getCalculator().modulo(param.get(0), param.get(1)));
-					break;
-				case 302: // drawing.setfontjustify
-					Interprete.operande = false;
-					li1 = getFinalList(param.get(0));
-					kernel.getActiveTurtle().setFontJustify(li1);
-					break;
-				case 303: // drawing.fontjustify
-					Interprete.operande = true;
-					Interprete.calcul.push(kernel.getActiveTurtle().getFontJustify());
-					break;
-				case 304: // arithmetic.inf
-					inf(param);
-					break;
-				case 305: // arithmetic.sup
-					sup(param);
-					break;
-				case 306: // arithmetic.infequal
-					infequal(param);
-					break;
-				case 307: // arithmetic.supequal
-					supequal(param);
-					break;
-			
+					else if (element.equals(Logo.messages.getString("style.none").toLowerCase()))
+					{}
+					else
+						throw new LogoError(Logo.messages.getString("erreur_fixestyle"));
+				}
+				cadre.getHistoryPanel().getDsd().fixegras(gras);
+				cadre.getHistoryPanel().getDsd().fixeitalique(italique);
+				cadre.getHistoryPanel().getDsd().fixesouligne(souligne);
+				cadre.getHistoryPanel().getDsd().fixeexposant(exposant);
+				cadre.getHistoryPanel().getDsd().fixeindice(indice);
+				cadre.getHistoryPanel().getDsd().fixebarre(barre);
+			}
+		};
+		
+		// style
+		handlers[206] = new PrimitiveHandler(206)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				int compteur;
+				StringBuffer buffer = new StringBuffer();
+				compteur = 0;
+				if (cadre.getHistoryPanel().getDsd().estgras())
+				{
+					buffer.append(Logo.messages.getString("style.bold").toLowerCase() + " ");
+					compteur++;
+				}
+				if (cadre.getHistoryPanel().getDsd().estitalique())
+				{
+					buffer.append(Logo.messages.getString("style.italic").toLowerCase() + " ");
+					compteur++;
+				}
+				if (cadre.getHistoryPanel().getDsd().estsouligne())
+				{
+					buffer.append(Logo.messages.getString("style.underline").toLowerCase() + " ");
+					compteur++;
+				}
+				if (cadre.getHistoryPanel().getDsd().estexposant())
+				{
+					buffer.append(Logo.messages.getString("style.exposant").toLowerCase() + " ");
+					compteur++;
+				}
+				if (cadre.getHistoryPanel().getDsd().estindice())
+				{
+					buffer.append(Logo.messages.getString("style.subscript").toLowerCase() + " ");
+					compteur++;
+				}
+				if (cadre.getHistoryPanel().getDsd().estbarre())
+				{
+					buffer.append(Logo.messages.getString("style.strike").toLowerCase() + " ");
+					compteur++;
+				}
+				context.operande = true;
+				if (compteur == 0)
+					context.calcul.push("\"" + Logo.messages.getString("style.none").toLowerCase());
+				else if (compteur == 1)
+					context.calcul.push("\"" + new String(buffer).trim());
+				else if (compteur > 1)
+					context.calcul.push("[ " + new String(buffer) + "]");
+			}
+		};
+		
+		// envoietcp // sendtcp // enviatcp etcp
+		handlers[209] = new PrimitiveHandler(209)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String liste;
+				context.operande = true;
+				mot = getWord(param.getValue(0));
+				if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
+				mot = mot.toLowerCase();
+				liste = "";
+				liste = getFinalList(param.get(1));
+				NetworkClientSend ncs = new NetworkClientSend(mot, liste);
+				context.calcul.push("[ " + ncs.getAnswer() + " ] ");
+				/*
+				 * {
+				 * liste = "[ "; mot2 =
+				 * getFinalList(param.get(0).toString()); liste += mot2 + "
+				 * ]"; String rip = liste.substring(2,17); // cadre.ecris("perso
+				 * ", rip + "\n");
+				 * //para debug String rdat = "_" + liste.substring(18,23) +
+				 * "*\n\r"; //
+				 * cadre.ecris("perso", rdat + "\n"); //para debug Socket
+				 * echoSocket = null;
+				 * DataOutputStream tcpout = null; BufferedReader tcpin =
+				 * null; String resp =
+				 * null; { echoSocket = new Socket(rip, 1948); tcpout =
+				 * new
+				 * DataOutputStream(echoSocket.getOutputStream()); tcpin=
+				 * new BufferedReader(new
+				 * InputStreamReader(echoSocket.getInputStream()));
+				 * tcpout.writeBytes(rdat);
+				 * resp = tcpin.readLine(); // readLine detiene el programa
+				 * hasta que recibe una
+				 * respuesta del robot. Que hacer si no recibe nada?
+				 * tcpout.close();
+				 * tcpin.close(); echoSocket.close(); } catch
+				 * (UnknownHostException e) { throw
+				 * new myException( Logo.messages.getString("erreur_tcp"));
+				 * } catch
+				 * (IOException e) { throw new myException(
+				 * Logo.messages.getString("erreur_tcp")); }
+				 * Interprete.calcul.push("[ " + resp + "
+				 * ]"); } catch(myException e){}
+				 */
+			}
+		};
+		
+		// ecoutetcp
+		handlers[210] = new PrimitiveHandler(210)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				/**
+				 * Marko Zivkovic : new implementation of context switch.
+				 * saving of workspace (now context) is done in {@link ContextManager}
+				 */
+				context.operande = false;
+				new NetworkServer(cadre);
+			}
+		};
+		
+		// executetcp
+		handlers[211] = new PrimitiveHandler(211)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String liste;
+				mot = getWord(param.getValue(0));
+				if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
+				mot = mot.toLowerCase();
+				liste = "";
+				liste = getFinalList(param.get(1));
+				new NetworkClientExecute(cadre.getKernel(), mot, liste);
+			}
+		};
+		
+		// chattcp
+		handlers[213] = new PrimitiveHandler(213)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String liste;
+				context.operande = false;
+				mot = getWord(param.getValue(0));
+				if (null == mot) { throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word")); }
+				mot = mot.toLowerCase();
+				liste = "";
+				liste = getFinalList(param.get(1));
+				new NetworkClientChat(cadre, mot, liste);
+			}
+		};
+		
+		// guibutton guibouton
+		handlers[223] = new PrimitiveHandler(223)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				String identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				mot = getWord(param.getValue(1));
+				if (null == mot)
+					throw new LogoError(param.get(1) + " " + Logo.messages.getString("error.word"));
+				GuiButton gb = new GuiButton(identifier.toLowerCase(), mot, cadre);
+				cadre.getDrawPanel().addToGuiMap(gb);
+			}
+		};
+		
+		// guiaction
+		handlers[224] = new PrimitiveHandler(224)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				String identifier;
+				identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				liste = getFinalList(param.get(1));
+				cadre.getDrawPanel().guiAction(identifier, liste);
+			}
+		};
+		
+		// guiremove
+		handlers[225] = new PrimitiveHandler(225)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String identifier;
+				identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				cadre.getDrawPanel().guiRemove(identifier);
+			}
+		};
+		
+		// guiposition
+		handlers[226] = new PrimitiveHandler(226)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				String identifier;
+				identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				liste = getFinalList(param.get(1));
+				cadre.getDrawPanel().guiposition(identifier, liste, Utils.primitiveName("guiposition"));
+			}
+		};
+		
+		// guidraw
+		handlers[227] = new PrimitiveHandler(227)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String identifier;
+				identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				cadre.getDrawPanel().guiDraw(identifier);
+			}
+		};
+		
+		// guimenu
+		handlers[233] = new PrimitiveHandler(233)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String liste;
+				String identifier;
+				identifier = getWord(param.getValue(0));
+				if (null == identifier)
+					throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
+				liste = getFinalList(param.get(1));
+				GuiMenu gm = new GuiMenu(identifier.toLowerCase(), liste, cadre);
+				cadre.getDrawPanel().addToGuiMap(gm);
+			}
+		};
+		
+		// bye
+		handlers[238] = new PrimitiveHandler(238)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				cadre.closeWindow();
+			}
+		};
+		
+		// sound.mp3play
+		handlers[291] = new PrimitiveHandler(291)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				String mot;
+				context.operande = false;
+				if (kernel.getMp3Player() != null)
+					kernel.getMp3Player().getPlayer().close();
+				mot = getWord(param.getValue(0));
+				if (null == mot)
+					throw new LogoError(mot + " " + Logo.messages.getString("error.word"));
+				MP3Player player = new MP3Player(cadre, mot);
+				kernel.setMp3Player(player);
+				kernel.getMp3Player().start();
+			}
+		};
+		
+		// sound.mp3stop
+		handlers[292] = new PrimitiveHandler(292)
+		{
+			protected void execute(String element_minuscule, ValueStack param) throws LogoError
+			{
+				context.operande = false;
+				if (null != kernel.getMp3Player())
+					kernel.getMp3Player().getPlayer().close();
+			}
+		};
+	}
+	
+	/**
+	 * Declare whether the results of a procedure are kept by the {@link MemoTable}
+	 * @param name the name of the procedure
+	 * @throws LogoError if there is no such procedure
+	 */
+	private void memo(String name, boolean memoized) throws LogoError
+	{
+		String mot = getWord(name);
+		if (null == mot)
+			throw new LogoError(name + " " + Logo.messages.getString("error.word"));
+		Procedure proc = wp.getExecutable(mot);
+		if (null == proc)
+			throw new LogoError(name + " " + Logo.messages.getString("error.proc.does.not.exist"));
+		proc.setMemoized(memoized);
+		kernel.getMemoTable().remove(proc);
+	}
+	
+	/**
+	 * The procedure that map, filter, reduce or sort call for the elements of a list.
+	 * @param name the name of the procedure, as it is passed to the primitive
+	 * @param arguments the number of values that the primitive passes to the procedure
+	 * @throws LogoError if there is no such procedure, or if it does not accept this number of arguments
+	 */
+	private Procedure getCallback(String name, int arguments) throws LogoError
+	{
+		String mot = getWord(name);
+		if (null == mot)
+			throw new LogoError(name + " " + Logo.messages.getString("error.word"));
+		if (wp.isProcedureAmbiguous(mot.toLowerCase()))
+			throw new LogoError(Logo.messages.getString("error.call.ambiguous.procedure.name"));
+		Procedure proc = wp.getExecutable(mot);
+		if (null == proc)
+			throw new LogoError(name + " " + Logo.messages.getString("error.proc.does.not.exist"));
+		if (arguments < proc.nbparametre)
+			throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + proc.name);
+		if (arguments > proc.nbparametre + proc.optVariables.size())
+			throw new LogoError(Logo.messages.getString("too_much_arguments"));
+		return proc;
+	}
+	
+	/**
+	 * Call a procedure with {@link #caller}: the interpreter runs its body, but the list is taken apart and built natively.
+	 * @param primitive the name of the primitive that waits for the output
+	 * @param arguments the values that are passed to the procedure
+	 * @return the output of the procedure
+	 * @throws LogoError if the procedure does not output anything
+	 */
+	private Object callback(Procedure proc, String primitive, Object... arguments) throws LogoError
+	{
+		ValueStack param = new ValueStack();
+		for (Object argument : arguments)
+			param.pushValue(argument);
+		Object value = caller.call(proc, param);
+		if (null == value)
+			throw new LogoError(proc.name + " " + Logo.messages.getString("ne_renvoie_pas") + " " + primitive);
+		return value;
+	}
+	
+	/**
+	 * Check the number of arguments of a primitive with a general form, e.g. (sort :list "before?)
+	 */
+	private void checkArguments(String primitive, ValueStack param, int min, int max) throws LogoError
+	{
+		if (param.size() < min)
+			throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + primitive);
+		if (param.size() > max)
+			throw new LogoError(Logo.messages.getString("too_much_arguments"));
+	}
+	
+	/**
+	 * Sort a list with a stable merge sort. The procedure before decides whether its first argument comes before the second one.
+	 * It is called O(n log(n)) times, and sorted parts that follow each other are not merged.
+	 */
+	private LogoList sort(LogoList list, Procedure before, String primitive) throws LogoError
+	{
+		int size = list.size();
+		if (size < 2)
+			return list;
+		Object[] values = new Object[size];
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			values[i] = getElementValue(list, i);
+			order[i] = i;
+		}
+		mergeSort(order, new int[size], 0, size, values, before, primitive);
+		LogoList result = LogoList.EMPTY;
+		for (int i = 0; i < size; i++)
+			result = result.lput(list.get(order[i]));
+		return result;
+	}
+	
+	/**
+	 * Sort the indexes order[low] to order[high - 1] by their values
+	 */
+	private void mergeSort(int[] order, int[] buffer, int low, int high, Object[] values, Procedure before,
+			String primitive) throws LogoError
+	{
+		if (high - low < 2)
+			return;
+		int middle = (low + high) >>> 1;
+		mergeSort(order, buffer, low, middle, values, before, primitive);
+		mergeSort(order, buffer, middle, high, values, before, primitive);
+		if (!predicat(callback(before, primitive, values[order[middle]], values[order[middle - 1]]).toString()))
+			return;
+		System.arraycopy(order, low, buffer, low, high - low);
+		int i = low;
+		int j = middle;
+		for (int k = low; k < high; k++)
+		{
+			// An element of the right part goes first only if it comes strictly before, so equal elements keep their order
+			if (i < middle && (j >= high || !predicat(callback(before, primitive, values[buffer[j]], values[buffer[i]]).toString())))
+				order[k] = buffer[i++];
+			else
+				order[k] = buffer[j++];
+		}
+	}
+	
+	/**
+	 * @return the list of the integers from, from + step, ... that are before to, e.g. [0 2 4] for sequence(0, 6, 2)
+	 */
+	private LogoList sequence(long from, long to, int step)
+	{
+		LogoList list = LogoList.EMPTY;
+		for (long i = from; step > 0 ? i < to : i > to; i += step)
+			list = list.lput(new LogoWord(String.valueOf(i)));
+		return list;
+	}
+	
+	/**
+	 * @param value a value as it is passed to a primitive
+	 * @return true if the value is the handle of an array or a dictionary, see {@link ContainerTable}
+	 */
+	private boolean isContainer(Object value)
+	{
+		if (value instanceof LogoList)
+			return false;
+		String handle = getContainerHandle((String) value);
+		if (null == handle)
+			return false;
+		ContainerTable containers = wp.getContainers();
+		return null != containers.getArray(handle) || null != containers.getDictionary(handle);
+	}
+	
+	/**
+	 * @return the handle without the quote, or null if the value does not look like a handle
+	 */
+	private String getContainerHandle(String value)
+	{
+		if (value.length() > 1 && value.charAt(0) == '"' && value.charAt(1) == '{')
+			return value.substring(1);
+		return null;
+	}
+	
+	/**
+	 * @return the key of a dictionary: the word without the quote, or the text of the list
+	 */
+	private String getDictionaryKey(String value)
+	{
+		String mot = getWord(value);
+		if (null == mot)
+			return value.trim();
+		return mot;
+	}
+	
+	/**
+	 * Primitive getitem, and item for arrays and dictionaries
+	 * 
+	 * @param container the handle of an array or a dictionary
+	 * @param key the index of an array element, starting with 1, or the key of a dictionary entry
+	 * @return the element
+	 * @throws LogoError
+	 *             container is not an array or a dictionary, or it has no such element
+	 */
+	private String getItem(String container, String key) throws LogoError
+	{
+		String handle = getContainerHandle(container);
+		if (null != handle)
+		{
+			String[] array = wp.getContainers().getArray(handle);
+			if (null != array)
+			{
+				int i = kernel.getCalculator().getInteger(key);
+				if (i < 1 || i > array.length)
+					throw new LogoError(handle + " " + Logo.messages.getString("error.container.key") + " " + i);
+				return array[i - 1];
+			}
+			LinkedHashMap<String, String> dictionary = wp.getContainers().getDictionary(handle);
+			if (null != dictionary)
+			{
+				String value = dictionary.get(getDictionaryKey(key));
+				if (null == value)
+					throw new LogoError(handle + " " + Logo.messages.getString("error.container.key") + " "
+							+ getDictionaryKey(key));
+				return value;
 			}
 		}
+		throw new LogoError(container + " " + Logo.messages.getString("error.container"));
+	}
+	
+	/**
+	 * Primitive setitem for arrays and dictionaries. The container is changed in place.
+	 * 
+	 * @see #getItem(String, String)
+	 */
+	private void setItem(String container, String key, String value) throws LogoError
+	{
+		String handle = getContainerHandle(container);
+		String[] array = wp.getContainers().getArray(handle);
+		if (null != array)
+		{
+			int i = kernel.getCalculator().getInteger(key);
+			if (i < 1 || i > array.length)
+				throw new LogoError(handle + " " + Logo.messages.getString("error.container.key") + " " + i);
+			array[i - 1] = value;
+		}
+		else
+			wp.getContainers().getDictionary(handle).put(getDictionaryKey(key), value);
+	}
+	
+	/**
+	 * Primitive haskey
+	 * 
+	 * @return true if {@link #getItem(String, String)} would find an element
+	 */
+	private boolean hasKey(String container, String key) throws LogoError
+	{
+		if (!isContainer(container))
+			throw new LogoError(container + " " + Logo.messages.getString("error.container"));
+		String handle = getContainerHandle(container);
+		String[] array = wp.getContainers().getArray(handle);
+		if (null == array)
+			return wp.getContainers().getDictionary(handle).containsKey(getDictionaryKey(key));
+		try
+		{
+			int i = Integer.parseInt(key);
+			return i >= 1 && i <= array.length;
+		}
+		catch (NumberFormatException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Primitive keys
+	 * 
+	 * @return the indexes of an array, resp. the keys of a dictionary in the order they were added
+	 */
+	private LogoList getKeys(String container) throws LogoError
+	{
+		if (!isContainer(container))
+			throw new LogoError(container + " " + Logo.messages.getString("error.container"));
+		String handle = getContainerHandle(container);
+		String[] array = wp.getContainers().getArray(handle);
+		LogoList keys = LogoList.EMPTY;
+		if (null != array)
+		{
+			for (int i = 1; i <= array.length; i++)
+				keys = keys.lput(new LogoWord(String.valueOf(i)));
+			return keys;
+		}
+		for (String key : wp.getContainers().getDictionary(handle).keySet())
+		{
+			if (isList(key))
+				keys = keys.lput(getLogoList(key));
+			else
+				keys = keys.lput(new LogoWord(key.equals("") ? "\\v" : key));
+		}
+		return keys;
+	}
+	
+	/**
+	 * @return the number of elements of an array or entries of a dictionary
+	 */
+	private int getContainerSize(String container)
+	{
+		String handle = getContainerHandle(container);
+		String[] array = wp.getContainers().getArray(handle);
+		if (null != array)
+			return array.length;
+		return wp.getContainers().getDictionary(handle).size();
 	}
 	
 	/**
@@ -3672,7 +6048,7 @@ public class LaunchPrimitive
 	 * @author Marko Zivkovic
 	 * @throws LogoError
 	 */
-	private void define(Stack<String> params) throws LogoError
+	private void define(ValueStack params) throws LogoError
 	{
 		String procedureName;
 		String procedureText = null;
@@ -3779,7 +6155,7 @@ public class LaunchPrimitive
 	 */
 	private void primitive2D(String name) throws LogoError
 	{
-		if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_3D)
+		if (cadre.getDrawPanel().WINDOW_MODE == DrawPanel.WINDOW_3D)
 			throw new LogoError(Utils.primitiveName(name) + " " + Logo.messages.getString("error.primitive2D"));
 	}
 	
@@ -3792,7 +6168,7 @@ public class LaunchPrimitive
 	 */
 	private void primitive3D(String name) throws LogoError
 	{
-		if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
+		if (cadre.getDrawPanel().WINDOW_MODE != DrawPanel.WINDOW_3D)
 			throw new LogoError(Utils.primitiveName(name) + " " + Logo.messages.getString("error.primitive3D"));
 	}
 	
@@ -3804,9 +6180,9 @@ public class LaunchPrimitive
 	 */
 	private void colorCode(int i)
 	{
-		Interprete.operande = true;
+		context.operande = true;
 		Color co = DrawPanel.defaultColors[i];
-		Interprete.calcul.push("[ " + co.getRed() + " " + co.getGreen() + " " + co.getBlue() + " ] ");
+		context.calcul.push("[ " + co.getRed() + " " + co.getGreen() + " " + co.getBlue() + " ] ");
 	}
 	
 	/**
@@ -3899,9 +6275,9 @@ public class LaunchPrimitive
 	private void createLocaleName(String mot)
 	{
 		mot = mot.toLowerCase();
-		if (!Interprete.locale.containsKey(mot))
+		if (!context.locale.containsKey(mot))
 		{
-			Interprete.locale.put(mot, null);
+			context.locale.put(mot, null);
 		}
 	}
 	
@@ -3915,7 +6291,7 @@ public class LaunchPrimitive
 	 *             word
 	 */
 	
-	private void locale(Stack<String> param) throws LogoError
+	private void locale(ValueStack param) throws LogoError
 	{
 		String li = param.get(0);
 		if (LaunchPrimitive.isList(li))
@@ -3931,7 +6307,7 @@ public class LaunchPrimitive
 		}
 		else
 		{
-			String mot = getWord(param.get(0));
+			String mot = getWord(param.getValue(0));
 			if (null != mot)
 			{
 				createLocaleName(mot);
@@ -3990,47 +6366,32 @@ public class LaunchPrimitive
 	 * @throws LogoError
 	 *             Incorrect arguments
 	 */
-	private void membre(Stack<String> param, int id) throws LogoError
+	private void membre(ValueStack param, int id) throws LogoError
 	{
-		Interprete.operande = true;
+		context.operande = true;
 		String mot_retourne = null;
 		boolean b = false;
-		String mot = getWord(param.get(1));
-		String liste = "[ ";
+		String mot = getWord(param.getValue(1));
+		LogoList reste = null;
 		if (null == mot)
 		{ // on travaille sur une liste
-		
-			liste = getFinalList(param.get(1));
-			StringTokenizer st = new StringTokenizer(liste);
-			liste = "[ ";
-			mot = getWord(param.get(0));
-			String str;
-			if (null != mot && mot.equals(""))
-				mot = "\\v";
-			if (null == mot)
-				mot = param.get(0).trim();
-			while (st.hasMoreTokens())
+			LogoList list = getLogoList(param.getValue(1));
+			mot = getElementText(toElement(param.getValue(0)));
+			for (int i = 0; i < list.size(); i++)
 			{
-				str = st.nextToken();
-				if (str.equals("["))
-					str = extractList(st);
-				if (!liste.equals("[ "))
-					liste += str + " ";
-				if (str.equals(mot) && liste.equals("[ "))
+				if (getElementText(list.get(i)).equals(mot))
 				{
 					if (id == 69)
-					{
 						b = true;
-						break;
-					}
 					else
-						liste += str + " ";
+						reste = list.subList(i, list.size());
+					break;
 				}
 			}
 		}
 		else
 		{ // on travaille sur un mot
-			String mot2 = getWord(param.get(0));
+			String mot2 = getWord(param.getValue(0));
 			if (null != mot2)
 			{
 				boolean backslash = false;
@@ -4065,24 +6426,24 @@ public class LaunchPrimitive
 				}
 			}
 		}
-		if (!liste.equals("[ "))
-			Interprete.calcul.push(liste + "] ");
+		if (null != reste)
+			pushList(reste);
 		else if (null != mot_retourne)
 		{
 			try
 			{
 				Double.parseDouble(mot_retourne);
-				Interprete.calcul.push(mot_retourne);
+				context.calcul.push(mot_retourne);
 			}
 			catch (NumberFormatException e)
 			{
-				Interprete.calcul.push(debut_chaine + mot_retourne);
+				context.calcul.push(debut_chaine + mot_retourne);
 			}
 		}
 		else if (b)
-			Interprete.calcul.push(Logo.messages.getString("vrai"));
+			context.calcul.push(Logo.messages.getString("vrai"));
 		else
-			Interprete.calcul.push(Logo.messages.getString("faux"));
+			context.calcul.push(Logo.messages.getString("faux"));
 	}
 	
 	/**
@@ -4094,15 +6455,15 @@ public class LaunchPrimitive
 	 *             Bad argument type
 	 */
 	
-	private void precede(Stack<String> param) throws LogoError
+	private void precede(ValueStack param) throws LogoError
 	{
-		Interprete.operande = true;
+		context.operande = true;
 		boolean b = false;
 		String ope[] = { "", "" };
 		String mot = "";
 		for (int i = 0; i < 2; i++)
 		{
-			mot = getWord(param.get(i));
+			mot = getWord(param.getValue(i));
 			if (null == mot)
 				throw new LogoError(param.get(i) + " " + Logo.messages.getString("pas_mot"));
 			else
@@ -4114,31 +6475,31 @@ public class LaunchPrimitive
 			mot = Logo.messages.getString("vrai");
 		else
 			mot = Logo.messages.getString("faux");
-		Interprete.calcul.push(mot);
+		context.calcul.push(mot);
 	}
 	
-	private void infequal(Stack<String> param) throws LogoError
+	private void infequal(ValueStack param) throws LogoError
 	{
-		Interprete.operande = true;
-		Interprete.calcul.push(kernel.getCalculator().infequal(param));
+		context.operande = true;
+		context.calcul.push(kernel.getCalculator().infequal(param));
 	}
 	
-	private void supequal(Stack<String> param) throws LogoError
+	private void supequal(ValueStack param) throws LogoError
 	{
-		Interprete.operande = true;
-		Interprete.calcul.push(kernel.getCalculator().supequal(param));
+		context.operande = true;
+		context.calcul.push(kernel.getCalculator().supequal(param));
 	}
 	
-	private void inf(Stack<String> param) throws LogoError
+	private void inf(ValueStack param) throws LogoError
 	{
-		Interprete.operande = true;
-		Interprete.calcul.push(kernel.getCalculator().inf(param));
+		context.operande = true;
+		context.calcul.push(kernel.getCalculator().inf(param));
 	}
 	
-	private void sup(Stack<String> param) throws LogoError
+	private void sup(ValueStack param) throws LogoError
 	{
-		Interprete.operande = true;
-		Interprete.calcul.push(kernel.getCalculator().sup(param));
+		context.operande = true;
+		context.calcul.push(kernel.getCalculator().sup(param));
 	}
 	
 	/**
@@ -4148,22 +6509,25 @@ public class LaunchPrimitive
 	 *            Stack that contains all arguments
 	 * @throws LogoError
 	 */
-	private void equal(Stack<String> param) throws LogoError
+	private void equal(ValueStack param) throws LogoError
 	{
 		try
 		{
-			Double.parseDouble(param.get(0));
-			Double.parseDouble(param.get(1));
-			Interprete.calcul.push(kernel.getCalculator().equal(param));
+			if (!param.isLong(0) || !param.isLong(1))
+			{
+				Double.parseDouble(param.get(0));
+				Double.parseDouble(param.get(1));
+			}
+			context.calcul.push(kernel.getCalculator().equal(param));
 		}
 		catch (NumberFormatException e)
 		{
 			if (param.get(0).toString().equals(param.get(1).toString()))
-				Interprete.calcul.push(Logo.messages.getString("vrai"));
+				context.calcul.push(Logo.messages.getString("vrai"));
 			else
-				Interprete.calcul.push(Logo.messages.getString("faux"));
+				context.calcul.push(Logo.messages.getString("faux"));
 		}
-		Interprete.operande = true;
+		context.operande = true;
 	}
 	
 	/**
@@ -4176,7 +6540,7 @@ public class LaunchPrimitive
 	 *             If st isn't equal to true or false
 	 */
 	
-	private boolean predicat(String st) throws LogoError
+	protected boolean predicat(String st) throws LogoError
 	{
 		if (st.toLowerCase().equals(Logo.messages.getString("vrai")))
 			return true;
@@ -4187,6 +6551,228 @@ public class LaunchPrimitive
 		
 	}
 	
+	/**
+	 * Create the local variables of a procedure call and push the procedure on {@link ExecutionContext#en_cours}.
+	 * The procedure is left with {@link ExecutionContext#stockvariable} and {@link ExecutionContext#en_cours}.
+	 * 
+	 * @param procedure
+	 *            The called procedure
+	 * @param param
+	 *            The values of all arguments, including the optional ones
+	 */
+	protected void enterProcedure(Procedure procedure, ValueStack param) throws LogoError
+	{
+		context.governor.step();
+		context.stockvariable.push(context.locale);
+		context.locale = LocalFrame.obtain(procedure.getLocalNames());
+		// Read local Variable
+		int optSize = procedure.optVariables.size();
+		int normSize = procedure.variable.size();
+		for (int j = 0; j < optSize + normSize; j++)
+		{
+			// Add local Variable
+			if (j < normSize)
+			{
+				context.locale.put(procedure.variable.get(j), param.getValue(j));
+			}	// add optional variables
+			else
+			{
+				Object value = "";
+				if (j < param.size())
+					value = param.getValue(j);
+				else
+					value = procedure.optVariablesExp.get(j - param.size()).toString();
+				context.locale.put(procedure.optVariables.get(j - normSize), value);
+				
+			}
+		}
+		// Add Optional variable
+		if (context.mode_trace)
+		{
+			StringBuffer buffer = new StringBuffer();
+			for (int i = 0; i < context.en_cours.size(); i++)
+				buffer.append("  ");
+			buffer.append(procedure.name);
+			for (int i = 0; i < param.size(); i++)
+				buffer.append(" " + Utils.SortieTexte(param.get(i), kernel.getCalculator()));
+			String msg = buffer + "\n";
+			HistoryMessenger.getInstance().dispatchMessage(msg);
+		}
+		context.en_cours.push(procedure.name);
+		if (context.profiler.isActive())
+			context.profiler.enterProcedure(context.en_cours);
+	}
+	
+	/**
+	 * A procedure call is a tail call if it is the last instruction of the running procedure, also inside the list
+	 * of a final <code>if</code>, <code>ifelse</code> or <code>run</code>, and if neither the running procedure nor its caller waits for an output.
+	 * The called procedure must not output anything, otherwise the error would be reported outside of the running procedure.
+	 * <p>
+	 * Then the running procedure can be left before the called procedure is entered. Otherwise, a procedure such as
+	 * <pre>
+	 * to spiral :size
+	 * fd :size rt 90
+	 * if :size &lt; 1000 [spiral :size + 1]
+	 * end
+	 * </pre>
+	 * would keep its end of procedure, its local variables and its name in {@link ExecutionContext#en_cours} for every call.
+	 */
+	private boolean isTailCall()
+	{
+		if (context.mode_trace || context.en_cours.isEmpty() || !context.calcul.isEmpty())
+			return false;
+		Stack<String> names = context.nom;
+		int size = names.size();
+		if (size == 0 || !names.peek().equals(Primitive.END_PROCEDURE))
+			return false;
+		if (size > 1 && !names.get(size - 2).equals(Primitive.END_PROCEDURE))
+			return false;
+		return kernel.getInstructionBuffer().getNextWord().equals(Primitive.END_PROCEDURE);
+	}
+	
+	/**
+	 * A procedure call is the tail call of <code>output</code> if it is the whole argument of <code>output</code>,
+	 * and if <code>output</code> is the last instruction of the running procedure, see {@link ExecutionContext#tailOutput}.
+	 * <p>
+	 * Then the called procedure replaces the running procedure, and outputs to its caller. For example, a procedure such as
+	 * <pre>
+	 * to count.down :n :acc
+	 * if :n = 0 [output :acc]
+	 * output count.down :n - 1 :acc + 1
+	 * end
+	 * </pre>
+	 * does not grow the Java stack. The Interprete evaluates the argument of <code>output</code> in a nested call,
+	 * {@link TailCallSignal} leaves it.
+	 */
+	private boolean isTailOutput()
+	{
+		if (context.tailOutput != context.nom.size() || !context.calcul.isEmpty())
+			return false;
+		return kernel.getInstructionBuffer().getNextWord().equals(Primitive.END_PROCEDURE);
+	}
+	
+	/**
+	 * Thrown when a procedure replaced the running procedure in the argument of <code>output</code>, see {@link #isTailOutput()}.
+	 * The Interprete catches it where it evaluates the argument, and executes the called procedure in place of <code>output</code>.
+	 */
+	static class TailCallSignal extends RuntimeException
+	{
+		private static final long			serialVersionUID	= 1L;
+		static final TailCallSignal			TAIL_CALL			= new TailCallSignal();
+		
+		@Override
+		public synchronized Throwable fillInStackTrace()
+		{
+			return this;
+		}
+	}
+	
+	/**
+	 * Leave the running procedure before its end of procedure is reached, as primitive 39 does at the end of procedure.
+	 * @see #isTailCall()
+	 */
+	private void leaveProcedure()
+	{
+		kernel.getInstructionBuffer().deleteFirstWord(Primitive.END_PROCEDURE);
+		context.restoreLocale();
+		context.nom.pop();
+		context.en_cours.pop();
+	}
+	
+	/**
+	 * Prepare the loop "for"
+	 * 
+	 * @param param
+	 *            The list [var start end increment]
+	 * @param instr
+	 *            The cut instructions of the loop
+	 * @return The loop, or null if the loop is not executed at all
+	 * @throws LogoError
+	 */
+	protected LoopFor newLoopFor(String param, String instr) throws LogoError
+	{
+		String li1 = getFinalList(param);
+		int nb = numberOfElements(li1);
+		if (nb < 3 || nb > 4)
+			throw new LogoError(Logo.messages.getString("erreur_repetepour"));
+		StringTokenizer st = new StringTokenizer(li1);
+		String var = st.nextToken().toLowerCase();
+		BigDecimal deb = kernel.getCalculator().numberDecimal(st.nextToken());
+		BigDecimal fin = kernel.getCalculator().numberDecimal(st.nextToken());
+		BigDecimal increment = BigDecimal.ONE;
+		if (nb == 4)
+			increment = kernel.getCalculator().numberDecimal(st.nextToken());
+		if (var.equals(""))
+			throw new LogoError(Logo.messages.getString("variable_vide"));
+		try
+		{
+			Double.parseDouble(var);
+			throw new LogoError(Logo.messages.getString("erreur_nom_nombre_variable"));
+		}
+		catch (NumberFormatException e)
+		{
+			LoopFor lf = new LoopFor(deb, fin, increment, instr, var);
+			lf.AffecteVar(context.locale, true);
+			
+			if ((increment.compareTo(BigDecimal.ZERO) == 1 && fin.compareTo(deb) >= 0)
+					|| (increment.compareTo(BigDecimal.ZERO) == -1 && fin.compareTo(deb) <= 0))
+				return lf;
+		}
+		return null;
+	}
+	
+	/**
+	 * Prepare the loop "foreach"
+	 * 
+	 * @param variable
+	 *            The name of the variable
+	 * @param values
+	 *            The word or the list whose elements are assigned to the variable
+	 * @param instructions
+	 *            The list of instructions
+	 * @return The loop, or null if there is no element
+	 * @throws LogoError
+	 */
+	protected LoopForEach newLoopForEach(String variable, String values, String instructions) throws LogoError
+	{
+		// Variable name
+		String var = getWord(variable);
+		// If it isn't a word
+		if (null == var)
+			throw new LogoError(variable.toString() + " " + Logo.messages.getString("error.word"));
+		// If it's a number
+		else
+		{
+			try
+			{
+				Double.parseDouble(var);
+				throw new LogoError(Logo.messages.getString("erreur_nom_nombre_variable"));
+			}
+			catch (NumberFormatException e1)
+			{}
+		}
+		String li2 = getList(instructions);
+		li2 = new String(Utils.decoupe(li2, true));
+		String mot = getWord(values);
+		LoopForEach lfe;
+		if (null == mot)
+		{
+			LogoList list = getLogoList(values);
+			if (list.isEmpty())
+				return null;
+			lfe = new LoopForEach(list, li2, var.toLowerCase());
+		}
+		else
+		{
+			int length = getWordLength(mot);
+			if (length == 0)
+				return null;
+			lfe = new LoopForEach(mot, length, li2, var.toLowerCase());
+		}
+		lfe.AffecteVar(context.locale, true);
+		return lfe;
+	}
+	
 	/**
 	 * Returns the word contained in st. If it isn't a word, returns null
 	 * 
@@ -4194,9 +6780,13 @@ public class LaunchPrimitive
 	 *            The Object to convert
 	 * @return The word corresponding to st
 	 */
-	private String getWord(Object st)
+	protected String getWord(Object st)
 	{ // Si c'est un mot
+		if (st instanceof LogoList)
+			return null;
 		String liste = st.toString();
+		if (liste.startsWith("["))
+			return null;
 		if (liste.equals("\""))
 		{
 			debut_chaine = "";
@@ -4214,7 +6804,7 @@ public class LaunchPrimitive
 					debut_chaine = "";
 				else
 					debut_chaine = "\"";
-				return Utils.SortieTexte(liste);
+				return Utils.SortieTexte(liste, kernel.getCalculator());
 			}
 			catch (NumberFormatException e)
 			{}
@@ -4222,20 +6812,18 @@ public class LaunchPrimitive
 	}
 	
 	/**
-	 * Returns the list contained in the string li without any lineNumber
+	 * Returns the list contained in the string li.
+	 * In XLogo, the line number markers \l were removed here. The line numbers are now kept by the {@link CodeBlock} of the procedure.
 	 * 
 	 * @param li
 	 *            The String corresponding to the list
-	 * @return A list without any line Number tag (\0, \1, \2 ...)
+	 * @return The list
 	 * @throws LogoError
 	 *             List bad format
 	 */
 	
-	private String getFinalList(String li) throws LogoError
+	protected String getFinalList(String li) throws LogoError
 	{
-		// remove line number
-		li = li.replaceAll("\\\\l([0-9])+ ", "");
-		// return list
 		return getList(li);
 	}
 	
@@ -4248,7 +6836,7 @@ public class LaunchPrimitive
 	 * @throws LogoError
 	 *             List bad format
 	 */
-	private String getList(String li) throws LogoError
+	protected String getList(String li) throws LogoError
 	{
 		li = li.trim();
 		// Retourne la liste sans crochets;
@@ -4341,54 +6929,6 @@ public class LaunchPrimitive
 		return element.trim();
 	}
 	
-	private int extractList(String st, int deb)
-	{
-		int compteur = 1;
-		char element;
-		boolean espace = true;
-		boolean crochet_ouvert = false;
-		boolean crochet_ferme = false;
-		for (int i = deb; i < st.length(); i++)
-		{
-			element = st.charAt(i);
-			if (element == '[')
-			{
-				if (espace)
-					crochet_ouvert = true;
-				espace = false;
-				crochet_ferme = false;
-			}
-			else if (element == ']')
-			{
-				if (espace)
-					crochet_ferme = true;
-				espace = false;
-				crochet_ouvert = false;
-			}
-			else if (element == ' ')
-			{
-				espace = true;
-				if (crochet_ouvert)
-				{
-					compteur++;
-					crochet_ouvert = false;
-				}
-				else if (crochet_ferme)
-				{
-					crochet_ferme = false;
-					if (compteur != 1)
-						compteur--;
-					else
-					{
-						compteur = i;
-						break;
-					}
-				}
-			}
-		}
-		return compteur;
-	}
-	
 	// returns how many elements contains the list "liste"
 	private int numberOfElements(String liste)
 	{ // calcule le nombre
@@ -4444,6 +6984,133 @@ public class LaunchPrimitive
 		return "\"" + element; // C'est forcément un mot, on le renvoie.
 	}
 	
+	/**
+	 * Returns the list contained in the string li, parsed into a {@link LogoList}.
+	 * The lists that were recently parsed are looked up in {@link #parsedLists} and not parsed again.
+	 * 
+	 * @param li
+	 *            The String corresponding to the list
+	 * @return The list
+	 * @throws LogoError
+	 *             li is not a list
+	 */
+	protected LogoList getLogoList(String li) throws LogoError
+	{
+		int slot = getListSlot(li);
+		if (listTexts[slot] == li)
+			return parsedLists[slot];
+		if (!isList(li))
+			throw new LogoError(li.trim() + " " + Logo.messages.getString("pas_liste"));
+		LogoList list = LogoList.parse(li.trim());
+		listTexts[slot] = li;
+		parsedLists[slot] = list;
+		return list;
+	}
+	
+	/**
+	 * @param value a value as it is returned by {@link ValueStack#getValue(int)}
+	 * @return the list itself, or the parsed text, see {@link #getLogoList(String)}
+	 * @throws LogoError
+	 *             value is not a list
+	 */
+	protected LogoList getLogoList(Object value) throws LogoError
+	{
+		if (value instanceof LogoList)
+			return (LogoList) value;
+		return getLogoList((String) value);
+	}
+	
+	/**
+	 * Push the list as the result of a primitive. Its text is only computed if somebody needs it, see {@link ValueStack#pushList(LogoList)}.
+	 */
+	private void pushList(LogoList list)
+	{
+		context.calcul.pushList(list);
+	}
+	
+	/**
+	 * @return the element i of the list as it is passed to a primitive, like {@link LogoList#getValue(int)}, but a sub list as it is
+	 */
+	private Object getElementValue(LogoList list, int i)
+	{
+		LogoType element = list.get(i);
+		if (element.isList())
+			return element;
+		return list.getValue(i);
+	}
+	
+	/**
+	 * Push the item i of the list as the primitive item outputs it. A sub list is pushed as it is.
+	 */
+	private void pushItem(LogoList list, int i) throws LogoError
+	{
+		if (i >= 1 && i <= list.size())
+			context.calcul.pushValue(getElementValue(list, i - 1));
+		else
+			context.calcul.push(item(list, i));
+	}
+	
+	private int getListSlot(String text)
+	{
+		return System.identityHashCode(text) & (LIST_CACHE_SIZE - 1);
+	}
+	
+	/**
+	 * @param value a word, a number or a list, as it is passed to a primitive
+	 * @return the element of a list that represents the value
+	 */
+	private LogoType toElement(Object value) throws LogoError
+	{
+		if (value instanceof LogoList)
+			return (LogoList) value;
+		String mot = getWord(value);
+		if (null == mot)
+		{
+			String text = (String) value;
+			if (isList(text))
+				return getLogoList(text);
+			return new LogoWord(text.trim());
+		}
+		if (mot.equals(""))
+			mot = "\\v";
+		return new LogoWord(mot);
+	}
+	
+	/**
+	 * @return the text by which the primitives compare the elements of a list
+	 */
+	private String getElementText(LogoType element)
+	{
+		if (element.isList())
+			return element.toString().trim();
+		return element.toString();
+	}
+	
+	/**
+	 * @return the elements of the list as text, without the brackets
+	 */
+	private String getElementsText(LogoList list)
+	{
+		String text = list.toString();
+		return text.substring(2, text.length() - 2);
+	}
+	
+	/**
+	 * Returns the item "i" from the list, as it is returned by the primitive item
+	 * 
+	 * @throws LogoError
+	 *             There is no such item
+	 */
+	private String item(LogoList list, int i) throws LogoError
+	{
+		if (i == 0 && list.isEmpty())
+			throw new LogoError(Logo.messages.getString("liste_vide"));
+		if (i < 1 || i > list.size())
+			throw new LogoError(Logo.messages.getString("y_a_pas") + " " + i + " "
+					+ Logo.messages.getString("element_dans_liste") + getElementsText(list) + "]");
+		return list.getValue(i - 1);
+	}
+	
 	// Test if the name of the variable is valid
 	private void isVariableName(String st) throws LogoError
 	{
@@ -4465,20 +7132,20 @@ public class LaunchPrimitive
 	}
 	
 	// primitve make
-	private void donne(Stack<String> param) throws LogoError
+	private void donne(ValueStack param) throws LogoError
 	{
-		String mot = getWord(param.get(0));
+		String mot = getWord(param.getValue(0));
 		if (null == mot)
 			throw new LogoError(param.get(0) + " " + Logo.messages.getString("error.word"));
 		mot = mot.toLowerCase();
 		isVariableName(mot);
-		if (Interprete.locale.containsKey(mot))
+		if (context.locale.containsKey(mot))
 		{
-			Interprete.locale.put(mot, param.get(1));
+			context.locale.put(mot, param.getValue(1));
 		}
 		else
 		{
-			wp.getGlobals().define(mot, param.get(1)); // TODO changed
+			wp.getGlobals().define(mot, param.getValue(1)); // TODO changed
 		}
 	}
 	
@@ -4552,7 +7219,7 @@ public class LaunchPrimitive
 		wp = workspace;
 	}
 	
-	private void ou(Stack<String> param) throws LogoError
+	private void ou(ValueStack param) throws LogoError
 	{
 		int size = param.size();
 		boolean result = false;
@@ -4563,13 +7230,13 @@ public class LaunchPrimitive
 			result = result | b;
 		}
 		if (result)
-			Interprete.calcul.push(Logo.messages.getString("vrai"));
+			context.calcul.push(Logo.messages.getString("vrai"));
 		else
-			Interprete.calcul.push(Logo.messages.getString("faux"));
-		Interprete.operande = true;
+			context.calcul.push(Logo.messages.getString("faux"));
+		context.operande = true;
 	}
 	
-	private void et(Stack<String> param) throws LogoError
+	private void et(ValueStack param) throws LogoError
 	{
 		int size = param.size();
 		boolean result = true;
@@ -4579,11 +7246,11 @@ public class LaunchPrimitive
 			b = predicat(param.get(i).toString());
 			result = result & b;
 		}
-		Interprete.operande = true;
+		context.operande = true;
 		if (result)
-			Interprete.calcul.push(Logo.messages.getString("vrai"));
+			context.calcul.push(Logo.messages.getString("vrai"));
 		else
-			Interprete.calcul.push(Logo.messages.getString("faux"));
+			context.calcul.push(Logo.messages.getString("faux"));
 		
 	}
 	
@@ -4614,7 +7281,7 @@ public class LaunchPrimitive
 	private StringBuffer getAllVariables()
 	{
 		StringBuffer sb = new StringBuffer("[ ");
-		Iterator<String> it = Interprete.locale.keySet().iterator();
+		Iterator<String> it = context.locale.keySet().iterator();
 		while (it.hasNext())
 		{
 			String name = it.next();
@@ -4624,7 +7291,7 @@ public class LaunchPrimitive
 		// TODO changed
 		for (String key : wp.getGlobals().getVariables())
 		{
-			if (!Interprete.locale.containsKey(key))
+			if (!context.locale.containsKey(key))
 			{
 				sb.append(key.toString());
 				sb.append(" ");
@@ -4660,11 +7327,11 @@ public class LaunchPrimitive
 	 */
 	private void deleteVariable(String name)
 	{
-		if (!Interprete.locale.isEmpty())
+		if (!context.locale.isEmpty())
 		{
-			if (Interprete.locale.containsKey(name))
+			if (context.locale.containsKey(name))
 			{
-				Interprete.locale.remove(name);
+				context.locale.remove(name);
 			}
 		}
 		else
@@ -4699,7 +7366,7 @@ public class LaunchPrimitive
 	
 	private void erase(String name, String type) throws LogoError
 	{
-		Interprete.operande = false;
+		context.operande = false;
 		if (LaunchPrimitive.isList(name))
 		{
 			name = getFinalList(name);
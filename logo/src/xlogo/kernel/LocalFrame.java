@@ -0,0 +1,240 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The local variables of a procedure call.
+ * <p>
+ * In XLogo, every procedure call created a new HashMap for its local variables.
+ * Now the parameters of a procedure and the variables it declares with local or localmake are known when the procedure is defined
+ * (see {@link xlogo.kernel.userspace.procedures.Procedure#getLocalNames()}), and every name has a fixed slot in an array.
+ * The names are interned, so a slot is usually found by comparing references.
+ * Variables whose names are only computed during the execution (e.g. for loops, or local word "a 1) are kept in a HashMap,
+ * which is only created if it is needed.
+ * <p>
+ * Frames are reused: when a procedure returns, its frame goes back to a pool.
+ * The methods are named like the ones of the HashMap in XLogo.
+ * A value is a text or a {@link xlogo.kernel.grammar.LogoList}, see {@link ValueStack#getValue(int)}.
+ */
+public class LocalFrame
+{
+	private static final String[]			NO_NAMES	= new String[0];
+	/**
+	 * Marks an empty slot. A local variable without value has the value null.
+	 */
+	private static final String				UNBOUND		= new String("unbound");
+	
+	private static final int				MAX_POOL	= 256;
+	private static final ArrayList<LocalFrame>	pool		= new ArrayList<LocalFrame>();
+	
+	/**
+	 * The names of the slots
+	 */
+	private String[]						names		= NO_NAMES;
+	private Object[]						values		= new Object[4];
+	/**
+	 * Variables that have no slot, or null
+	 */
+	private HashMap<String, Object>			others		= null;
+	/**
+	 * The call of a memoized procedure whose result is kept when it outputs, or null
+	 */
+	private MemoTable.Call					memoCall	= null;
+	/**
+	 * The name of <code>output</code> if the procedure replaced a procedure that outputs its output, or null.
+	 * Then the procedure must output something.
+	 */
+	private String							output		= null;
+	
+	/**
+	 * A frame without slots, e.g. for the top level
+	 */
+	public LocalFrame()
+	{}
+	
+	/**
+	 * @param names the slots of the new frame, all of them are empty
+	 * @return a frame from the pool, or a new one
+	 */
+	public static LocalFrame obtain(String[] names)
+	{
+		LocalFrame frame;
+		synchronized (pool)
+		{
+			int size = pool.size();
+			frame = size > 0 ? pool.remove(size - 1) : new LocalFrame();
+		}
+		frame.names = names;
+		if (frame.values.length < names.length)
+			frame.values = new Object[names.length];
+		Arrays.fill(frame.values, 0, names.length, UNBOUND);
+		return frame;
+	}
+	
+	/**
+	 * Give this frame back to the pool. It must not be used anymore.
+	 */
+	public void release()
+	{
+		Arrays.fill(values, 0, names.length, null);
+		names = NO_NAMES;
+		others = null;
+		memoCall = null;
+		output = null;
+		synchronized (pool)
+		{
+			if (pool.size() < MAX_POOL)
+				pool.add(this);
+		}
+	}
+	
+	/**
+	 * @return the slot of this name, or -1
+	 */
+	private int slot(String name)
+	{
+		String[] n = names;
+		for (int i = 0; i < n.length; i++)
+		{
+			if (n[i] == name)
+				return i;
+		}
+		for (int i = 0; i < n.length; i++)
+		{
+			if (n[i].equals(name))
+				return i;
+		}
+		return -1;
+	}
+	
+	public MemoTable.Call getMemoCall()
+	{
+		return memoCall;
+	}
+	
+	public void setMemoCall(MemoTable.Call memoCall)
+	{
+		this.memoCall = memoCall;
+	}
+	
+	public String getOutput()
+	{
+		return output;
+	}
+	
+	public void setOutput(String output)
+	{
+		this.output = output;
+	}
+	
+	public boolean containsKey(String name)
+	{
+		int i = slot(name);
+		if (i >= 0)
+			return values[i] != UNBOUND;
+		return others != null && others.containsKey(name);
+	}
+	
+	/**
+	 * @return the text of the local variable, or null if it has no value or if it doesn't exist
+	 */
+	public String get(String name)
+	{
+		Object value = getValue(name);
+		return value == null ? null : value.toString();
+	}
+	
+	/**
+	 * @return the value of the local variable as it was put, or null if it has no value or if it doesn't exist
+	 */
+	public Object getValue(String name)
+	{
+		int i = slot(name);
+		if (i >= 0)
+		{
+			Object value = values[i];
+			return value == UNBOUND ? null : value;
+		}
+		return others == null ? null : others.get(name);
+	}
+	
+	/**
+	 * @param value a text or a {@link xlogo.kernel.grammar.LogoList}
+	 */
+	public void put(String name, Object value)
+	{
+		int i = slot(name);
+		if (i >= 0)
+			values[i] = value;
+		else
+		{
+			if (others == null)
+				others = new HashMap<String, Object>();
+			others.put(name, value);
+		}
+	}
+	
+	public void remove(String name)
+	{
+		int i = slot(name);
+		if (i >= 0)
+			values[i] = UNBOUND;
+		else if (others != null)
+			others.remove(name);
+	}
+	
+	public boolean isEmpty()
+	{
+		for (int i = 0; i < names.length; i++)
+		{
+			if (values[i] != UNBOUND)
+				return false;
+		}
+		return others == null || others.isEmpty();
+	}
+	
+	/**
+	 * @return the names of all local variables
+	 */
+	public Set<String> keySet()
+	{
+		Set<String> keys = new LinkedHashSet<String>();
+		for (int i = 0; i < names.length; i++)
+		{
+			if (values[i] != UNBOUND)
+				keys.add(names[i]);
+		}
+		if (others != null)
+			keys.addAll(others.keySet());
+		return keys;
+	}
+}
@@ -28,8 +28,6 @@
 
 package xlogo.kernel;
 
-import java.math.BigDecimal;
-
 public class LoopFillPolygon extends LoopProperties {
 	/**
 	 * The super constructor for Fill Polygon Loops
@@ -37,7 +35,7 @@ public class LoopFillPolygon extends LoopProperties {
 	 */
 	
 		LoopFillPolygon(){
-			super(BigDecimal.ONE,BigDecimal.ONE,BigDecimal.ONE,"");
+			super(1,1,1,"");
 		}
 		protected boolean isForEver(){
 			return false;
@@ -56,6 +56,11 @@ public class LoopFor extends LoopProperties{
 		this.var=var;
 	}
 	
+	LoopFor(long counter,long end,long increment,String instr,String var){
+		super(counter,end,increment,instr);
+		this.var=var;
+	}
+	
 	protected boolean isFor(){
 		return true;
 	}
@@ -64,28 +69,30 @@ public class LoopFor extends LoopProperties{
 	}
 	/**
 	 * This method affects the variable counter the correct value 
+	 * @param locale the local variables of the running procedure
 	 * @param first boolean that indicates if it is the first affectation
 	 */
-	protected void AffecteVar(boolean first){
-		String element=String.valueOf(super.getCounter());
+	protected void AffecteVar(LocalFrame locale,boolean first){
+		String element=getCounterText();
 		if (element.endsWith(".0")) element=element.substring(0,element.length()-2) ;
         if (element.startsWith(".")||element.equals("")) element="0"+element;
 
-		if (Interprete.locale.containsKey(var)){
+		if (locale.containsKey(var)){
 			if (first) conserver=true;
-			Interprete.locale.put(var, element);
+			locale.put(var, element);
 		} 
 		else {
-			Interprete.locale.put(var,element);
+			locale.put(var,element);
 		}
 	}
 	/**
 	 * This method deletes the variable var from the local stack variable
+	 * @param locale the local variables of the running procedure
 	 */
-	void DeleteVar(){
+	void DeleteVar(LocalFrame locale){
 		if (!conserver){
-			if (Interprete.locale.containsKey(var)){
-				Interprete.locale.remove(var);
+			if (locale.containsKey(var)){
+				locale.remove(var);
 			}
 
 		}
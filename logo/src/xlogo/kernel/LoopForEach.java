@@ -28,23 +28,59 @@
 
 package xlogo.kernel;
 
-import java.math.BigDecimal;
-import java.util.Vector;
+import xlogo.kernel.grammar.LogoList;
 
+/**
+ * The loop foreach walks over the elements of a list or the characters of a word.
+ * In XLogo, all elements were cut from the text of the list and copied into a Vector before the first iteration,
+ * which took O(n^2) for a list of n elements. Now the loop keeps a cursor: the index in the parsed {@link LogoList},
+ * resp. the position in the word, and the element is taken when it is assigned to the variable.
+ */
 public class LoopForEach extends LoopFor{
-	private Vector<String> vec;
 	/**
-	 * Constructor Loop: For
-	 * @param counter The beginning integer
-	 * @param end The end integer
-	 * @param increment The increment between two values
-	 * @param instr The instruction to execute between two values
+	 * The values of the characters 0 to 127: digits are numbers, the other characters are words
+	 */
+	private static final String[] CHARACTERS=new String[128];
+	static {
+		for (char c=0;c<CHARACTERS.length;c++){
+			if (c>='0' && c<='9') CHARACTERS[c]=String.valueOf(c);
+			else CHARACTERS[c]="\""+c;
+		}
+	}
+	/**
+	 * The list whose elements are assigned to the variable, or null if the loop runs over a word
+	 */
+	private final LogoList list;
+	/**
+	 * The word whose characters are assigned to the variable, or null if the loop runs over a list
+	 */
+	private final String word;
+	/**
+	 * The position of the current character in {@link #word}
+	 */
+	private int position=0;
+	/**
+	 * Constructor Loop: ForEach over a list
+	 * @param list The list, it must not be empty
+	 * @param instr The instruction to execute for each element
 	 * @param var The name of the variable
-	 * @param vec The Vec with all value for the variable
 	 */
-	LoopForEach(BigDecimal counter,BigDecimal end,BigDecimal increment,String instr,String var,Vector<String> vec){
-		super(counter,end,increment,instr,var);
-		this.vec=vec;
+	LoopForEach(LogoList list,String instr,String var){
+		super(0,list.size()-1,1,instr,var);
+		this.list=list;
+		this.word=null;
+	}
+	/**
+	 * Constructor Loop: ForEach over a word
+	 * @param word The word, without the quote
+	 * @param length The number of characters of the word, a backslash and the following character count as one. It must not be 0.
+	 * @param instr The instruction to execute for each character
+	 * @param var The name of the variable
+	 */
+	LoopForEach(String word,int length,String instr,String var){
+		super(0,length-1,1,instr,var);
+		this.list=null;
+		this.word=word;
 	}
 	protected boolean isForEach(){
 		return true;
@@ -52,18 +88,36 @@ public class LoopForEach extends LoopFor{
 	protected boolean isForEver(){
 		return false;
 	}
+	/**
+	 * Moves the cursor to the next element
+	 */
+	protected void incremente(){
+		super.incremente();
+		if (null!=word) position+=word.charAt(position)=='\\' ? 2 : 1;
+	}
+	/**
+	 * @return the current element, as it is assigned to the variable
+	 */
+	private String getElement(){
+		if (null!=list) return list.getValue((int) getLongCounter());
+		char c=word.charAt(position);
+		if (c=='\\') return "\"\\"+word.charAt(position+1);
+		if (c<CHARACTERS.length) return CHARACTERS[c];
+		return "\""+c;
+	}
 	/**
 	 * This method affects the variable counter the correct value 
+	 * @param locale the local variables of the running procedure
 	 * @param first boolean that indicates if it is the first affectation
 	 */
-	protected void AffecteVar(boolean first){
-		String element=vec.get(getCounter().intValue());
-		if (Interprete.locale.containsKey(var)){
+	protected void AffecteVar(LocalFrame locale,boolean first){
+		String element=getElement();
+		if (locale.containsKey(var)){
 			if (first) conserver=true;
-			Interprete.locale.put(var, element);
+			locale.put(var, element);
 		} 
 		else {
-			Interprete.locale.put(var,element);
+			locale.put(var,element);
 		}
 	}
 }
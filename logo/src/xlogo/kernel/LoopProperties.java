@@ -40,25 +40,43 @@ import java.math.BigDecimal;
  */
 public class LoopProperties {
 	/**
-	 * Counter: The counter value for the current loop End: The end value for the loop Increment the increment between two values
+	 * Counter: The counter value for the current loop End: The end value for the loop Increment the increment between two values.
+	 * Integral loops count with these primitive values, see {@link #decimalCounter}
 	 * @uml.property  name="counter"
 	 */
-	private BigDecimal counter;
+	private long counter;
+	private long end;
+	private long increment;
 	/**
-	 * Counter: The counter value for the current loop End: The end value for the loop Increment the increment between two values
-	 * @uml.property  name="end"
+	 * The counter, end and increment of loops with fractional values, with integers beyond the range of long,
+	 * or with a start value that is not written as a plain integer, e.g. 1.50 or 1E+3. Otherwise null.
 	 */
-	private BigDecimal end;
+	private BigDecimal decimalCounter;
+	private BigDecimal decimalEnd;
+	private BigDecimal decimalIncrement;
 	/**
-	 * Counter: The counter value for the current loop End: The end value for the loop Increment the increment between two values
-	 * @uml.property  name="increment"
+	 * The maximal number of digits of integral values, s.t. counter+increment fits into a long
 	 */
-	private BigDecimal increment;
+	private static final int MAX_DIGITS=17;
 	/**
 	 * The Instruction to execute on each iteration
 	 * @uml.property  name="instr"
 	 */
 	String instr;
+	/**
+	 * The compiled instructions, followed by the end of loop marker {@link Primitive#END_LOOP}.
+	 * This block is pushed on the {@link InstructionBuffer} for every iteration, it is compiled only once.
+	 */
+	private CodeBlock code;
+	/**
+	 * The compiled instructions, without the end of loop marker
+	 */
+	private CodeBlock instrCode;
+	/**
+	 * The calculator that folded the constant expressions of {@link #code} and {@link #instrCode}, see {@link ConstantFolder}
+	 */
+	private MyCalculator codeFoldedWith;
+	private MyCalculator instrCodeFoldedWith;
 /**
  * The super constructor for all loops
  * @param counter The beginning integer
@@ -66,21 +84,90 @@ public class LoopProperties {
  * @param increment The increment between two values
  * @param instr The instruction to execute each loop
  */
-	LoopProperties(BigDecimal counter,BigDecimal end,BigDecimal increment,String instr){
+	LoopProperties(long counter,long end,long increment,String instr){
 		this.counter=counter;
 		this.end=end;
 		this.increment=increment;
 		this.instr=instr;
 	}
-	
+/**
+ * The super constructor for loops whose values are computed, e.g. for [i 0 1 0.1] [...].
+ * The loop counts with long values if that does not change the values of the counter.
+ * @param counter The beginning value
+ * @param fin The end value
+ * @param increment The increment between two values
+ * @param instr The instruction to execute each loop
+ */
+	LoopProperties(BigDecimal counter,BigDecimal end,BigDecimal increment,String instr){
+		this.instr=instr;
+		if (counter.scale()==0 && isSmallInteger(counter) && isSmallInteger(end) && isSmallInteger(increment)){
+			this.counter=counter.longValue();
+			this.end=end.stripTrailingZeros().longValue();
+			this.increment=increment.stripTrailingZeros().longValue();
+		}
+		else {
+			this.decimalCounter=counter;
+			this.decimalEnd=end;
+			this.decimalIncrement=increment;
+		}
+	}
+	/**
+	 * @return true if bd is an integer such that the counter cannot overflow
+	 */
+	private static boolean isSmallInteger(BigDecimal bd){
+		if (bd.signum()==0)
+			return true;
+		BigDecimal stripped=bd.stripTrailingZeros();
+		return stripped.scale()<=0 && stripped.precision()-stripped.scale()<=MAX_DIGITS;
+	}
 
 	/**
 	 * Adds the increment to the variable counter
 	 */
 	
 	protected void incremente(){
-		counter=counter.add(increment);
-		counter=new BigDecimal(MyCalculator.eraseZero(counter));
+		if (decimalCounter==null)
+			counter+=increment;
+		else {
+			decimalCounter=decimalCounter.add(decimalIncrement);
+			decimalCounter=new BigDecimal(MyCalculator.eraseZero(decimalCounter));
+		}
+	}
+	/**
+	 * @return a negative number, zero, or a positive number as the counter is less than, equal to, or greater than the end value
+	 */
+	protected int compareCounterToEnd(){
+		if (decimalCounter==null)
+			return counter<end ? -1 : (counter==end ? 0 : 1);
+		return decimalCounter.compareTo(decimalEnd);
+	}
+	/**
+	 * This method indicates if the counter can be incremented once more without passing the end
+	 */
+	protected boolean hasNext(){
+		if (decimalCounter==null){
+			long next=counter+increment;
+			return (increment>0 && next<=end) || (increment<0 && next>=end);
+		}
+		BigDecimal next=decimalCounter.add(decimalIncrement);
+		return (decimalIncrement.signum()==1 && next.compareTo(decimalEnd)<=0)
+			|| (decimalIncrement.signum()==-1 && next.compareTo(decimalEnd)>=0);
+	}
+	/**
+	 * @return the counter, as it is written into a variable or output by repcount
+	 */
+	protected String getCounterText(){
+		if (decimalCounter==null)
+			return Long.toString(counter);
+		return decimalCounter.toString();
+	}
+	/**
+	 * @return the counter of an integral loop, e.g. the index of foreach
+	 */
+	protected long getLongCounter(){
+		if (decimalCounter==null)
+			return counter;
+		return decimalCounter.longValue();
 	}
 	/**
 	 * This method returns the Loop Id
@@ -95,7 +182,9 @@ public class LoopProperties {
 	 * @uml.property  name="counter"
 	 */
 	protected BigDecimal getCounter(){
-		return counter;
+		if (decimalCounter==null)
+			return BigDecimal.valueOf(counter);
+		return decimalCounter;
 	}
 	/**
 	 * This method returns the end Value
@@ -103,7 +192,9 @@ public class LoopProperties {
 	 * @uml.property  name="end"
 	 */
 	protected BigDecimal getEnd(){ 
-		return end;
+		if (decimalCounter==null)
+			return BigDecimal.valueOf(end);
+		return decimalEnd;
 	}
 	/**
 	 * this method returns the increment for the loop
@@ -111,7 +202,9 @@ public class LoopProperties {
 	 * @uml.property  name="increment"
 	 */
 	protected BigDecimal getIncrement(){
-		return increment;
+		if (decimalCounter==null)
+			return BigDecimal.valueOf(increment);
+		return decimalIncrement;
 	}
 	/**
 	 * This method returns the instructions to execute each loop
@@ -121,11 +214,34 @@ public class LoopProperties {
 	protected String getInstr(){
 		return instr;	
 	}
+	/**
+	 * This method returns the compiled instructions of one iteration, followed by the end of loop marker
+	 * @param calculator the calculator that folds the constant expressions. After setdigits, they are folded again.
+	 * @return the code block that is inserted in the instruction buffer for each iteration
+	 */
+	protected CodeBlock getCode(MyCalculator calculator){
+		if (codeFoldedWith != calculator){
+			code = ConstantFolder.fold(CodeBlock.compile(instr + Primitive.END_LOOP + " "), calculator);
+			codeFoldedWith = calculator;
+		}
+		return code;
+	}
+	/**
+	 * This method returns the compiled instructions, without the end of loop marker
+	 * @return the code block of {@link #getInstr()}
+	 */
+	protected CodeBlock getInstrCode(MyCalculator calculator){
+		if (instrCodeFoldedWith != calculator){
+			instrCode = ConstantFolder.fold(CodeBlock.compile(instr), calculator);
+			instrCodeFoldedWith = calculator;
+		}
+		return instrCode;
+	}
 	/**
 	 * This method returns a loop description
 	 */
 	public String toString(){
-		return(counter+" "+end+" "+increment+"\n"+instr+"\n");
+		return(getCounterText()+" "+getEnd()+" "+getIncrement()+"\n"+instr+"\n");
 	}	
 
 	protected boolean isFor(){
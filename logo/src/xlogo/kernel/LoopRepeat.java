@@ -28,10 +28,8 @@
 
 package xlogo.kernel;
 
-import java.math.BigDecimal;
-
 public class LoopRepeat extends LoopProperties{
-	LoopRepeat(BigDecimal counter,BigDecimal end,BigDecimal increment,String instr){
+	LoopRepeat(long counter,long end,long increment,String instr){
 		super(counter,end,increment,instr);
 	}
 	protected boolean isRepeat(){
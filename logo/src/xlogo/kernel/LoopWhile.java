@@ -28,11 +28,9 @@
 
 package xlogo.kernel;
 
-import java.math.BigDecimal;
-
 public class LoopWhile extends LoopProperties{
 	
-	LoopWhile(BigDecimal counter,BigDecimal end,BigDecimal increment,String instr){
+	LoopWhile(long counter,long end,long increment,String instr){
 		super(counter,end,increment,instr);
 	}
 	protected boolean isForEver(){
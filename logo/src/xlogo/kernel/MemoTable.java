@@ -0,0 +1,220 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import xlogo.interfaces.ProcedureMapper.ProcedureMapListener;
+import xlogo.kernel.userspace.UserSpace;
+import xlogo.kernel.userspace.procedures.Procedure;
+
+/**
+ * The results of the procedures that were declared with the primitive <code>memo</code>, see {@link Procedure#isMemoized()}.
+ * <p>
+ * A recursive procedure such as <code>fib</code> calls itself again and again with the same arguments.
+ * If its result only depends on its arguments, the result of each call can be kept here,
+ * keyed by the values of the arguments, and the next call with the same arguments outputs it without running the procedure.
+ * The procedure should not draw or print anything, since this is not repeated either.
+ * <p>
+ * A result may depend on any procedure that is called, and on the precision of the calculator.
+ * Therefore all results are forgotten when any procedure is (re)defined or erased, and after <code>setdigits</code>.
+ * Not all contexts notify when procedures are defined, hence the results of a procedure are also forgotten
+ * if its own definition time changed.
+ */
+public class MemoTable
+{
+	/**
+	 * The number of results that are kept for every procedure, the least recently used ones are forgotten
+	 */
+	private static final int					MAX_RESULTS		= 10000;
+	
+	private final HashMap<Procedure, Results>	results			= new HashMap<Procedure, Results>();
+	private UserSpace							wp;
+	/**
+	 * The calculator that computed the results
+	 */
+	private MyCalculator						calculator;
+	
+	private final ProcedureMapListener			procedureMapListener	= new ProcedureMapListener(){
+		
+		@Override
+		public void ownerRenamed(String oldName, String newName)
+		{}
+		
+		@Override
+		public void defined(String fileName, Collection<String> procedures)
+		{
+			clear();
+		}
+		
+		@Override
+		public void defined(String fileName, String procedure)
+		{
+			clear();
+		}
+		
+		@Override
+		public void undefined(String fileName, Collection<String> procedures)
+		{
+			clear();
+		}
+		
+		@Override
+		public void undefined(String fileName, String procedure)
+		{
+			clear();
+		}
+	};
+	
+	public MemoTable(UserSpace workspace)
+	{
+		wp = workspace;
+		wp.addProcedureMapListener(procedureMapListener);
+	}
+	
+	protected void setWorkspace(UserSpace workspace)
+	{
+		wp.removeProcedureMapListener(procedureMapListener);
+		wp = workspace;
+		wp.addProcedureMapListener(procedureMapListener);
+		clear();
+	}
+	
+	/**
+	 * @return the values of the arguments, as they are used as key
+	 */
+	public static List<String> getArguments(ValueStack param)
+	{
+		int size = param.size();
+		ArrayList<String> arguments = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++)
+			arguments.add(param.get(i));
+		return arguments;
+	}
+	
+	/**
+	 * @param calculator the calculator of the kernel
+	 * @return the result of an earlier call with the same arguments, or null
+	 */
+	public synchronized String get(Procedure procedure, List<String> arguments, MyCalculator calculator)
+	{
+		if (this.calculator != calculator)
+		{
+			results.clear();
+			this.calculator = calculator;
+		}
+		Results r = results.get(procedure);
+		if (null == r)
+			return null;
+		if (r.definedAt != procedure.getDefineTime())
+		{
+			results.remove(procedure);
+			return null;
+		}
+		return r.get(arguments);
+	}
+	
+	/**
+	 * Keep the result of a call
+	 */
+	public synchronized void put(Procedure procedure, List<String> arguments, String value)
+	{
+		Results r = results.get(procedure);
+		if (null == r || r.definedAt != procedure.getDefineTime())
+		{
+			r = new Results(procedure.getDefineTime());
+			results.put(procedure, r);
+		}
+		r.put(arguments, value);
+	}
+	
+	/**
+	 * @see #put(Procedure, List, String)
+	 */
+	public void put(Call call, String value)
+	{
+		put(call.procedure, call.arguments, value);
+	}
+	
+	/**
+	 * Forget the results of a procedure, e.g. if it is not memoized anymore
+	 */
+	public synchronized void remove(Procedure procedure)
+	{
+		results.remove(procedure);
+	}
+	
+	/**
+	 * Forget all results
+	 */
+	public synchronized void clear()
+	{
+		results.clear();
+	}
+	
+	/**
+	 * A running call of a memoized procedure. The classic interpreter keeps it in the {@link LocalFrame} of the call,
+	 * until the procedure outputs its result.
+	 */
+	public static class Call
+	{
+		private final Procedure		procedure;
+		private final List<String>	arguments;
+		
+		public Call(Procedure procedure, List<String> arguments)
+		{
+			this.procedure = procedure;
+			this.arguments = arguments;
+		}
+	}
+	
+	/**
+	 * The results of one procedure
+	 */
+	@SuppressWarnings("serial")
+	private static class Results extends LinkedHashMap<List<String>, String>
+	{
+		private final Calendar	definedAt;
+		
+		Results(Calendar definedAt)
+		{
+			super(64, 0.75f, true);
+			this.definedAt = definedAt;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<String>, String> eldest)
+		{
+			return size() > MAX_RESULTS;
+		}
+	}
+}
@@ -33,7 +33,6 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.util.Stack;
 
 import xlogo.Logo;
 import xlogo.utils.Utils;
@@ -43,6 +42,16 @@ public class MyCalculator
 	private final BigDecimal	tenth			= new BigDecimal(0.1);
 	
 	private MathContext			mc				= null;
+	/**
+	 * The precision of the Cordic method and the series, {@link #GUARD_DIGITS} more than {@link #mc}.
+	 * The transcendental functions compute with it and round their result to mc once at the end,
+	 * such that the rounding errors of the iteration do not reach the digits that are printed.
+	 */
+	private MathContext			guardMc			= null;
+	/**
+	 * The extra digits of {@link #guardMc}
+	 */
+	private static final int	GUARD_DIGITS	= 5;
 	
 	// If precision is lesser than 16 (operation for double)
 	/**
@@ -50,55 +59,53 @@ public class MyCalculator
 	 */
 	private boolean				lowPrecision	= true;
 	
-	/**
-	 * Indicates if the log table have been created
-	 * 
-	 * @uml.property name="initLogTable"
-	 */
-	private boolean				initLogTable;
 	/**
 	 * This is a table containing all BigDecimal ln(1+10^ (-k) ), k in
-	 * {0,1....,digits-1} This are constants for the Cordic method to calculate
-	 * ln, exp
+	 * {0,1....,digits+GUARD_DIGITS-1} This are constants for the Cordic method to calculate
+	 * ln, exp. It is shared by all calculators, see {@link CordicTables}, and null until it is needed.
 	 * 
 	 * @uml.property name="logTable" multiplicity="(0 -1)" dimension="1"
 	 */
 	private BigDecimal[]		logTable;
-	/**
-	 * Indicates if the trigonometric table have been created
-	 * 
-	 * @uml.property name="initCosTable"
-	 */
-	private boolean				initCosTable;
 	/**
 	 * This is a table containing all BigDecimal arctan 10^ (-k) , k in
-	 * {0,1....,digits-1} This are constants for the Cordic method to calculate
-	 * trigonometric functions
+	 * {0,1....,digits+GUARD_DIGITS-1} This are constants for the Cordic method to calculate
+	 * trigonometric functions. It is shared by all calculators, see {@link CordicTables}, and null until it is needed.
 	 * 
 	 * @uml.property name="cosTable" multiplicity="(0 -1)" dimension="1"
 	 */
 	private BigDecimal[]		cosTable;
 	
-	private static int			digits;
+	/**
+	 * The precision of setdigits, or -1. Every kernel has its own calculator.
+	 */
+	private final int			digits;
+	
+	/**
+	 * The number of entries in {@link #numberTexts}, a power of 2
+	 */
+	private static final int			NUMBER_CACHE_SIZE	= 64;
+	/**
+	 * The texts of the numbers that were recently formatted by {@link #numberText(double)} or parsed by {@link #numberDouble(String)},
+	 * stored at the identity hash of the text. A number that travels as text, e.g. through a variable or a list, is not parsed again
+	 * as long as it is the same String object. Only the identity of the text is compared, so the lookup never reads the text.
+	 * Every calculator has its own table, such that the kernels of a batch do not share it.
+	 */
+	private final NumberText[]			numberTexts			= new NumberText[NUMBER_CACHE_SIZE];
 	
 	protected MyCalculator(int digits)
 	{
-		MyCalculator.digits = digits;
-		initLogTable = false;
-		initCosTable = false;
+		this.digits = digits;
 		if (digits < 16)
 		{
 			mc = new MathContext(16);
 			lowPrecision = true;
-			logTable = new BigDecimal[16];
-			cosTable = new BigDecimal[16];
 		}
 		else
 		{
 			mc = new MathContext(digits);
+			guardMc = new MathContext(digits + GUARD_DIGITS);
 			lowPrecision = false;
-			logTable = new BigDecimal[digits];
-			cosTable = new BigDecimal[digits];
 		}
 	}
 	
@@ -116,13 +123,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			double nombre = numberDouble(s);
-			return teste_fin_double(Math.exp(nombre));
+			return numberText(exp(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return expBD(bd).toPlainString();
+			return expBD(bd).round(mc).toPlainString();
 		}
 	}
 	
@@ -140,13 +146,7 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			double nombre = numberDouble(s);
-			if (nombre < 0 || nombre == 0)
-			{
-				String log = Utils.primitiveName("arithmetic.log");
-				throw new LogoError(log + " " + Logo.messages.getString("attend_positif"));
-			}
-			return teste_fin_double(Math.log(nombre));
+			return numberText(log(numberDouble(s)));
 		}
 		else
 		{
@@ -156,7 +156,7 @@ public class MyCalculator
 				String log = Utils.primitiveName("arithmetic.log");
 				throw new LogoError(log + " " + Logo.messages.getString("attend_positif"));
 			}
-			return logBD(bd).toPlainString();
+			return logBD(bd).round(mc).toPlainString();
 		}
 	}
 	
@@ -174,13 +174,7 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			double number = numberDouble(s);
-			if (number < 0)
-			{
-				String sqrt = Utils.primitiveName("arithmetic.racine");
-				throw new LogoError(sqrt + " " + Logo.messages.getString("attend_positif"));
-			}
-			return teste_fin_double(Math.sqrt(number));
+			return numberText(sqrt(numberDouble(s)));
 		}
 		else
 		{
@@ -190,7 +184,7 @@ public class MyCalculator
 				String sqrt = Utils.primitiveName("arithmetic.racine");
 				throw new LogoError(sqrt + " " + Logo.messages.getString("attend_positif"));
 			}
-			return sqrtBD(bd).toPlainString();
+			return sqrtBD(bd).round(mc).toPlainString();
 		}
 	}
 	
@@ -199,31 +193,51 @@ public class MyCalculator
 	 * 
 	 * @param param
 	 *            The stack of operands
-	 * @return The product
+	 * @param result
+	 *            The stack where the product is pushed
 	 * @throws LogoError 
 	 */
-	protected String multiply(Stack<String> param) throws LogoError
+	protected void multiply(ValueStack param, ValueStack result) throws LogoError
 	{
 		int size = param.size();
+		if (areLongs(param))
+		{
+			long product = 1;
+			int i = 0;
+			for (; i < size; i++)
+			{
+				long a = param.getLong(i);
+				long high = Math.abs(a);
+				// |product * a| < LIMIT, without overflow
+				if (high != 0 && Math.abs(product) >= ValueStack.LIMIT / high)
+					break;
+				product *= a;
+			}
+			if (i == size)
+			{
+				result.pushNumber(product);
+				return;
+			}
+		}
 		BigDecimal product = BigDecimal.ONE;
 		BigDecimal a;
 		for (int i = 0; i < size; i++)
 		{
-			a = numberDecimal(param.get(i));
+			a = numberDecimal(param, i);
 			product = product.multiply(a, mc);
 		}
-		return product.stripTrailingZeros().toPlainString();
+		result.push(product.stripTrailingZeros().toPlainString());
 	}
 	
-	protected String divide(Stack<String> param) throws LogoError
+	protected void divide(ValueStack param, ValueStack result) throws LogoError
 	{
 		if (lowPrecision)
 		{
-			double a = numberDouble(param.get(0));
-			double b = numberDouble(param.get(1));
+			double a = numberDouble(param, 0);
+			double b = numberDouble(param, 1);
 			if (b == 0)
 				throw new LogoError(Logo.messages.getString("division_par_zero"));
-			return (teste_fin_double(a / b));
+			result.pushNumber(a / b);
 		}
 		else
 		{
@@ -231,7 +245,7 @@ public class MyCalculator
 			BigDecimal b = new BigDecimal(param.get(1), mc);
 			if (b.signum() == 0)
 				throw new LogoError(Logo.messages.getString("division_par_zero"));
-			return (a.divide(b, mc).stripTrailingZeros().toPlainString());
+			result.push(a.divide(b, mc).stripTrailingZeros().toPlainString());
 		}
 	}
 	
@@ -240,73 +254,116 @@ public class MyCalculator
 	 * 
 	 * @param param
 	 *            The stack of operands
-	 * @return The sum
+	 * @param result
+	 *            The stack where the sum is pushed
 	 * @throws LogoError 
 	 */
-	protected String add(Stack<String> param) throws LogoError
+	protected void add(ValueStack param, ValueStack result) throws LogoError
 	{
 		int size = param.size();
+		if (areLongs(param))
+		{
+			long sum = 0;
+			int i = 0;
+			for (; i < size; i++)
+			{
+				sum += param.getLong(i);
+				if (sum >= ValueStack.LIMIT || sum <= -ValueStack.LIMIT)
+					break;
+			}
+			if (i == size)
+			{
+				result.pushNumber(sum);
+				return;
+			}
+		}
 		BigDecimal sum = BigDecimal.ZERO;
 			BigDecimal a;
 			for (int i = 0; i < size; i++)
 			{
-				a = numberDecimal(param.get(i));
+				a = numberDecimal(param, i);
 				sum = sum.add(a, mc);
 			}
 		
-		return sum.stripTrailingZeros().toPlainString();
+		result.push(sum.stripTrailingZeros().toPlainString());
 	}
 	
-	protected String inf(Stack<String> param) throws LogoError
+	/**
+	 * Compares the two operands
+	 * @return a negative number, zero or a positive number if the first operand is less, equal or greater than the second one
+	 */
+	private int compare(ValueStack param) throws LogoError
 	{
-			BigDecimal a = numberDecimal(param.get(0));
-			BigDecimal b = numberDecimal(param.get(1));
-			if (a.compareTo(b) < 0)
+		if (param.isLong(0) && param.isLong(1))
+			return Long.compare(param.getLong(0), param.getLong(1));
+		BigDecimal a = numberDecimal(param, 0);
+		BigDecimal b = numberDecimal(param, 1);
+		return a.compareTo(b);
+	}
+	
+	protected String inf(ValueStack param) throws LogoError
+	{
+			if (compare(param) < 0)
 				return Logo.messages.getString("vrai");
 		return Logo.messages.getString("faux");
 	}
 	
-	protected String sup(Stack<String> param) throws LogoError
+	protected String sup(ValueStack param) throws LogoError
 	{
-			BigDecimal a = numberDecimal(param.get(0));
-			BigDecimal b = numberDecimal(param.get(1));
-			if (a.compareTo(b) > 0)
+			if (compare(param) > 0)
 				return Logo.messages.getString("vrai");
 		return Logo.messages.getString("faux");
 	}
 	
-	protected String infequal(Stack<String> param) throws LogoError
+	protected String infequal(ValueStack param) throws LogoError
 	{
-			BigDecimal a = numberDecimal(param.get(0));
-			BigDecimal b = numberDecimal(param.get(1));
-			if (a.compareTo(b) <= 0)
+			if (compare(param) <= 0)
 				return Logo.messages.getString("vrai");
 		return Logo.messages.getString("faux");
 	}
 	
-	protected String supequal(Stack<String> param) throws LogoError
+	protected String supequal(ValueStack param) throws LogoError
 	{
-			BigDecimal a = numberDecimal(param.get(0));
-			BigDecimal b = numberDecimal(param.get(1));
-			if (a.compareTo(b) >= 0)
+			if (compare(param) >= 0)
 				return Logo.messages.getString("vrai");
 		return Logo.messages.getString("faux");
 	}
 	
-	protected String equal(Stack<String> param) throws LogoError
+	protected String equal(ValueStack param) throws LogoError
 	{
-			BigDecimal a = numberDecimal(param.get(0));
-			BigDecimal b = numberDecimal(param.get(1));
-			if (a.compareTo(b) == 0)
+			if (compare(param) == 0)
 				return Logo.messages.getString("vrai");
 		return Logo.messages.getString("faux");
 	}
 	
-	protected String substract(Stack<String> param) throws LogoError
+	protected void substract(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (param.isLong(0) && param.isLong(1))
+		{
+			// both operands are less than LIMIT, there is no overflow
+			long difference = param.getLong(0) - param.getLong(1);
+			if (difference < ValueStack.LIMIT && difference > -ValueStack.LIMIT)
+			{
+				result.pushNumber(difference);
+				return;
+			}
+		}
+		BigDecimal a = numberDecimal(param, 0);
+		BigDecimal b = numberDecimal(param, 1);
+		result.push(a.subtract(b, mc).stripTrailingZeros().toPlainString());
+	}
+	
+	/**
+	 * @return true if all operands are integers that can be computed in long, see {@link ValueStack#isLong(int)}
+	 */
+	private boolean areLongs(ValueStack param)
 	{
-		BigDecimal a = numberDecimal(param.get(0));
-		BigDecimal b = numberDecimal(param.get(1));
-		return a.subtract(b, mc).stripTrailingZeros().toPlainString();
+		for (int i = 0; i < param.size(); i++)
+		{
+			if (!param.isLong(i))
+				return false;
+		}
+		return true;
 	}
 	
 	/**
@@ -329,7 +386,7 @@ public class MyCalculator
 			int bb = getInteger(b);
 			if (bb == 0)
 				throw new LogoError(Logo.messages.getString("division_par_zero"));
-			return teste_fin_double(aa % bb);
+			return numberText(aa % bb);
 		}
 		else
 		{
@@ -353,7 +410,7 @@ public class MyCalculator
 			double rem = aa % bb;
 			if (aa * bb < 0 && rem != 0)
 				rem = rem + bb;
-			return teste_fin_double(rem);
+			return numberText(rem);
 		}
 		else
 		{
@@ -406,14 +463,7 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			double p = Math.pow(numberDouble(a), numberDouble(b));
-			// Bug pr power -1 0.5
-			Double p1 = new Double(p);
-			if (p1.equals(Double.NaN))
-				throw new LogoError(Utils.primitiveName("arithmetic.puissance") + " "
-						+ Logo.messages.getString("attend_positif"));
-			// End Bug
-			return teste_fin_double(p);
+			return numberText(power(numberDouble(a), numberDouble(b)));
 		}
 		else
 		{
@@ -430,7 +480,7 @@ public class MyCalculator
 				BigDecimal bb = numberDecimal(b);
 				if (aa.signum() == 1)
 				{
-					return expBD(bb.multiply(logBD(aa), mc)).toPlainString();
+					return expBD(bb.multiply(logBD(aa), guardMc)).round(mc).toPlainString();
 				}
 				else if (aa.signum() == 0)
 					return "0";
@@ -442,10 +492,12 @@ public class MyCalculator
 	
 	protected String log10(String s) throws LogoError
 	{
-		Stack<String> tmp = new Stack<String>();
+		ValueStack tmp = new ValueStack();
 		tmp.push(log(s));
 		tmp.push(log("10"));
-		return divide(tmp);
+		ValueStack result = new ValueStack();
+		divide(tmp, result);
+		return result.pop();
 	}
 	
 	protected String pi()
@@ -456,7 +508,7 @@ public class MyCalculator
 		}
 		else
 		{
-			return piBD().toPlainString();
+			return piBD().round(mc).toPlainString();
 		}
 	}
 	
@@ -464,12 +516,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.sin(Math.toRadians(numberDouble(s))));
+			return numberText(sin(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return sinBD(bd).toPlainString();
+			return sinBD(bd).round(mc).toPlainString();
 			
 		}
 	}
@@ -478,12 +530,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.cos(Math.toRadians(numberDouble(s))));
+			return numberText(cos(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return cosBD(bd).toPlainString();
+			return cosBD(bd).round(mc).toPlainString();
 			
 		}
 	}
@@ -492,12 +544,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.tan(Math.toRadians(numberDouble(s))));
+			return numberText(tan(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return tanBD(bd).toPlainString();
+			return tanBD(bd).round(mc).toPlainString();
 		}
 	}
 	
@@ -505,12 +557,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.toDegrees(Math.atan(numberDouble(s))));
+			return numberText(atan(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return toDegree(atanBD(bd)).toPlainString();
+			return toDegree(atanBD(bd)).round(mc).toPlainString();
 		}
 	}
 	
@@ -518,12 +570,12 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.toDegrees(Math.acos(numberDouble(s))));
+			return numberText(acos(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return toDegree(acosBD(bd)).toPlainString();
+			return toDegree(acosBD(bd)).round(mc).toPlainString();
 		}
 	}
 	
@@ -531,15 +583,194 @@ public class MyCalculator
 	{
 		if (lowPrecision)
 		{
-			return teste_fin_double(Math.toDegrees(Math.asin(numberDouble(s))));
+			return numberText(asin(numberDouble(s)));
 		}
 		else
 		{
 			BigDecimal bd = numberDecimal(s);
-			return toDegree(asinBD(bd)).toPlainString();
+			return toDegree(asinBD(bd)).round(mc).toPlainString();
 		}
 	}
 	
+	/*
+	 * The double API. In low precision mode, the functions compute with double. Their operands are often doubles already,
+	 * computed by another function and pushed unboxed on a ValueStack. Then they are neither formatted nor parsed.
+	 */
+	
+	/**
+	 * @return true if the functions compute with double, see {@link #exp(ValueStack, ValueStack)}
+	 */
+	protected boolean isLowPrecision()
+	{
+		return lowPrecision;
+	}
+	
+	protected double exp(double x)
+	{
+		return Math.exp(x);
+	}
+	
+	/**
+	 * @throws LogoError if x isn't positive
+	 */
+	protected double log(double x) throws LogoError
+	{
+		if (x <= 0)
+			throw new LogoError(Utils.primitiveName("arithmetic.log") + " " + Logo.messages.getString("attend_positif"));
+		return Math.log(x);
+	}
+	
+	/**
+	 * @throws LogoError if x is negative
+	 */
+	protected double sqrt(double x) throws LogoError
+	{
+		if (x < 0)
+			throw new LogoError(Utils.primitiveName("arithmetic.racine") + " " + Logo.messages.getString("attend_positif"));
+		return Math.sqrt(x);
+	}
+	
+	/**
+	 * @throws LogoError if the power isn't defined, e.g. power -1 0.5
+	 */
+	protected double power(double a, double b) throws LogoError
+	{
+		double p = Math.pow(a, b);
+		if (Double.isNaN(p))
+			throw new LogoError(Utils.primitiveName("arithmetic.puissance") + " "
+					+ Logo.messages.getString("attend_positif"));
+		return p;
+	}
+	
+	/**
+	 * @param degrees an angle in degrees, as all angles in Logo
+	 */
+	protected double sin(double degrees)
+	{
+		return Math.sin(Math.toRadians(degrees));
+	}
+	
+	protected double cos(double degrees)
+	{
+		return Math.cos(Math.toRadians(degrees));
+	}
+	
+	protected double tan(double degrees)
+	{
+		return Math.tan(Math.toRadians(degrees));
+	}
+	
+	/**
+	 * @return an angle in degrees
+	 */
+	protected double atan(double x)
+	{
+		return Math.toDegrees(Math.atan(x));
+	}
+	
+	protected double acos(double x)
+	{
+		return Math.toDegrees(Math.acos(x));
+	}
+	
+	protected double asin(double x)
+	{
+		return Math.toDegrees(Math.asin(x));
+	}
+	
+	/*
+	 * The same functions for the primitives: they read the operand from a ValueStack and push the result on a ValueStack,
+	 * as double in low precision mode, as text otherwise.
+	 */
+	
+	protected void exp(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(exp(numberDouble(param, 0)));
+		else
+			result.push(exp(param.get(0)));
+	}
+	
+	protected void log(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(log(numberDouble(param, 0)));
+		else
+			result.push(log(param.get(0)));
+	}
+	
+	protected void log10(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(log(numberDouble(param, 0)) / Math.log(10));
+		else
+			result.push(log10(param.get(0)));
+	}
+	
+	protected void sqrt(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(sqrt(numberDouble(param, 0)));
+		else
+			result.push(sqrt(param.get(0)));
+	}
+	
+	protected void power(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(power(numberDouble(param, 0), numberDouble(param, 1)));
+		else
+			result.push(power(param.get(0), param.get(1)));
+	}
+	
+	protected void sin(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(sin(numberDouble(param, 0)));
+		else
+			result.push(sin(param.get(0)));
+	}
+	
+	protected void cos(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(cos(numberDouble(param, 0)));
+		else
+			result.push(cos(param.get(0)));
+	}
+	
+	protected void tan(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(tan(numberDouble(param, 0)));
+		else
+			result.push(tan(param.get(0)));
+	}
+	
+	protected void atan(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(atan(numberDouble(param, 0)));
+		else
+			result.push(atan(param.get(0)));
+	}
+	
+	protected void acos(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(acos(numberDouble(param, 0)));
+		else
+			result.push(acos(param.get(0)));
+	}
+	
+	protected void asin(ValueStack param, ValueStack result) throws LogoError
+	{
+		if (lowPrecision)
+			result.pushNumber(asin(numberDouble(param, 0)));
+		else
+			result.push(asin(param.get(0)));
+	}
+	
 	/**
 	 * This method returns the exp of bd
 	 * based on the Cordic algorithm
@@ -550,15 +781,13 @@ public class MyCalculator
 	 */
 	private BigDecimal expBD(BigDecimal bd)
 	{
-		if (!initLogTable)
-		{
-			initLogTable();
-		}
+		if (logTable == null)
+			logTable = CordicTables.getLogTable(guardMc);
 		int signum = bd.signum();
 		if (signum == -1)
 		{
-			BigDecimal exp = expCordic(bd.negate(mc));
-			exp = BigDecimal.ONE.divide(exp, mc);
+			BigDecimal exp = expCordic(bd.negate(guardMc));
+			exp = BigDecimal.ONE.divide(exp, guardMc);
 			return exp;
 		}
 		else if (signum == 0)
@@ -573,16 +802,16 @@ public class MyCalculator
 	{
 		int i = 0;
 		BigDecimal y = BigDecimal.ONE;
-		while (i < mc.getPrecision())
+		while (i < guardMc.getPrecision())
 		{
 			while (logTable[i].subtract(bd).signum() == -1)
 			{
-				bd = bd.subtract(logTable[i], mc);
-				y = y.add(y.multiply(tenth.pow(i, mc), mc), mc);
+				bd = bd.subtract(logTable[i], guardMc);
+				y = y.add(y.multiply(tenth.pow(i, guardMc), guardMc), guardMc);
 			}
 			i++;
 		}
-		y = y.multiply(bd.add(BigDecimal.ONE, mc), mc);
+		y = y.multiply(bd.add(BigDecimal.ONE, guardMc), guardMc);
 		return y;
 		
 	}
@@ -597,23 +826,21 @@ public class MyCalculator
 	 */
 	private BigDecimal logBD(BigDecimal bd)
 	{
-		if (!initLogTable)
-		{
-			initLogTable();
-		}
+		if (logTable == null)
+			logTable = CordicTables.getLogTable(guardMc);
 		// If bd > 1
-		int signum = bd.subtract(BigDecimal.ONE, mc).signum();
+		int signum = bd.subtract(BigDecimal.ONE, guardMc).signum();
 		if (signum == 1)
 		{
-			bd = bd.subtract(BigDecimal.ONE, mc);
+			bd = bd.subtract(BigDecimal.ONE, guardMc);
 			return logCordic(bd);
 		}
 		else if (signum == 0)
 			return BigDecimal.ZERO;
 		else
 		{
-			bd = BigDecimal.ONE.divide(bd, mc).subtract(BigDecimal.ONE, mc);
-			return logCordic(bd).negate(mc);
+			bd = BigDecimal.ONE.divide(bd, guardMc).subtract(BigDecimal.ONE, guardMc);
+			return logCordic(bd).negate(guardMc);
 		}
 	}
 	
@@ -621,17 +848,17 @@ public class MyCalculator
 	{
 		int i = 0;
 		BigDecimal y = BigDecimal.ZERO;
-		while (i < mc.getPrecision())
+		while (i < guardMc.getPrecision())
 		{
-			BigDecimal tenthi = tenth.pow(i, mc);
-			while (bd.subtract(tenthi, mc).signum() > 0)
+			BigDecimal tenthi = tenth.pow(i, guardMc);
+			while (bd.subtract(tenthi, guardMc).signum() > 0)
 			{
-				bd = bd.subtract(tenthi, mc).divide(BigDecimal.ONE.add(tenthi, mc), mc);
-				y = y.add(logTable[i], mc);
+				bd = bd.subtract(tenthi, guardMc).divide(BigDecimal.ONE.add(tenthi, guardMc), guardMc);
+				y = y.add(logTable[i], guardMc);
 			}
 			i++;
 		}
-		y = y.add(bd, mc).subtract(bd.pow(2, mc).multiply(new BigDecimal(0.5), mc), mc);
+		y = y.add(bd, guardMc).subtract(bd.pow(2, guardMc).multiply(new BigDecimal(0.5), guardMc), guardMc);
 		return y;
 		
 	}
@@ -651,14 +878,14 @@ public class MyCalculator
 		BigDecimal three = new BigDecimal(3);
 		BigDecimal half = new BigDecimal(0.5);
 		BigDecimal x = BigDecimal.ZERO;
-		BigDecimal y = BigDecimal.ONE.min(BigDecimal.ONE.divide(bd, mc));
+		BigDecimal y = BigDecimal.ONE.min(BigDecimal.ONE.divide(bd, guardMc));
 		while (x.compareTo(y) == -1)
 		{
 			x = y;
 			// y=(3x-bd*x^3)/2
-			y = x.multiply(three, mc).subtract(bd.multiply(x.pow(3, mc), mc), mc).multiply(half, mc);
+			y = x.multiply(three, guardMc).subtract(bd.multiply(x.pow(3, guardMc), guardMc), guardMc).multiply(half, guardMc);
 		}
-		return BigDecimal.ONE.divide(y, mc);
+		return BigDecimal.ONE.divide(y, guardMc);
 	}
 	
 	/**
@@ -680,9 +907,9 @@ public class MyCalculator
 		BigDecimal a270 = new BigDecimal(270);
 		BigDecimal a315 = new BigDecimal(315);
 		
-		bd = bd.remainder(period, mc);
+		bd = bd.remainder(period, guardMc);
 		if (bd.signum() == -1)
-			bd = bd.add(period, mc);
+			bd = bd.add(period, guardMc);
 		BigDecimal quarterpi = new BigDecimal(45);
 		// Now bd between 0 and 360.
 		if (bd.compareTo(quarterpi) == -1)
@@ -693,36 +920,36 @@ public class MyCalculator
 		else if (bd.compareTo(a90) == -1)
 		{
 			// Between 45 and 90
-			return sinCordic(toRadian(a90.subtract(bd, mc)));
+			return sinCordic(toRadian(a90.subtract(bd, guardMc)));
 		}
 		else if (bd.compareTo(a135) == -1)
 		{
 			// Between 90 and 135
-			return sinCordic(toRadian(bd.subtract(a90, mc))).negate(mc);
+			return sinCordic(toRadian(bd.subtract(a90, guardMc))).negate(guardMc);
 		}
 		else if (bd.compareTo(a180) == -1)
 		{
 			// Between 135 and 180
-			return cosCordic(toRadian(a180.subtract(bd, mc))).negate(mc);
+			return cosCordic(toRadian(a180.subtract(bd, guardMc))).negate(guardMc);
 		}
 		else if (bd.compareTo(a225) == -1)
 		{
 			// Between 180 and 225
-			return cosCordic(toRadian(bd.subtract(a180, mc))).negate(mc);
+			return cosCordic(toRadian(bd.subtract(a180, guardMc))).negate(guardMc);
 		}
 		else if (bd.compareTo(a270) == -1)
 		{
 			// Between 225 and 270
-			return sinCordic(toRadian(a270.subtract(bd, mc))).negate(mc);
+			return sinCordic(toRadian(a270.subtract(bd, guardMc))).negate(guardMc);
 		}
 		else if (bd.compareTo(a315) == -1)
 		{
 			// Between 270 and 315
-			return sinCordic(toRadian(bd.subtract(a270, mc)));
+			return sinCordic(toRadian(bd.subtract(a270, guardMc)));
 		}
 		else
 		{
-			return cosCordic(toRadian(new BigDecimal(360).subtract(bd, mc)));
+			return cosCordic(toRadian(new BigDecimal(360).subtract(bd, guardMc)));
 		}
 	}
 	
@@ -736,7 +963,7 @@ public class MyCalculator
 	 */
 	private BigDecimal cosCordic(BigDecimal bd)
 	{
-		return BigDecimal.ONE.divide(sqrtBD(tanCordic(bd).pow(2, mc).add(BigDecimal.ONE, mc)), mc);
+		return BigDecimal.ONE.divide(sqrtBD(tanCordic(bd).pow(2, guardMc).add(BigDecimal.ONE, guardMc)), guardMc);
 	}
 	
 	/**
@@ -750,7 +977,7 @@ public class MyCalculator
 	private BigDecimal sinBD(BigDecimal bd)
 	{
 		BigDecimal a90 = new BigDecimal(90);
-		return cosBD(a90.subtract(bd, mc));
+		return cosBD(a90.subtract(bd, guardMc));
 		
 	}
 	
@@ -765,7 +992,7 @@ public class MyCalculator
 	private BigDecimal sinCordic(BigDecimal bd)
 	{
 		BigDecimal tan = tanCordic(bd);
-		return tan.divide(sqrtBD(tan.pow(2, mc).add(BigDecimal.ONE, mc)), mc);
+		return tan.divide(sqrtBD(tan.pow(2, guardMc).add(BigDecimal.ONE, guardMc)), guardMc);
 	}
 	
 	/**
@@ -782,32 +1009,32 @@ public class MyCalculator
 		BigDecimal pi = new BigDecimal(180);
 		BigDecimal halfpi = new BigDecimal(90);
 		BigDecimal quarterpi = new BigDecimal(45);
-		bd = bd.remainder(pi, mc);
-		if (bd.compareTo(halfpi.negate(mc)) == -1)
-			bd = bd.add(pi, mc);
+		bd = bd.remainder(pi, guardMc);
+		if (bd.compareTo(halfpi.negate(guardMc)) == -1)
+			bd = bd.add(pi, guardMc);
 		if (bd.compareTo(halfpi) == 1)
-			bd = bd.subtract(pi, mc);
+			bd = bd.subtract(pi, guardMc);
 		// Now bd is in -90;+90 degrees
 		
 		if (bd.compareTo(quarterpi) == 1)
 		{
-			BigDecimal x = toRadian(new BigDecimal(0.5).multiply(bd, mc));
-			return new BigDecimal(2).multiply(tanCordic(x), mc).divide(
-					BigDecimal.ONE.subtract(tanCordic(x).pow(2, mc), mc), mc);
+			BigDecimal x = toRadian(new BigDecimal(0.5).multiply(bd, guardMc));
+			return new BigDecimal(2).multiply(tanCordic(x), guardMc).divide(
+					BigDecimal.ONE.subtract(tanCordic(x).pow(2, guardMc), guardMc), guardMc);
 		}
 		else if (bd.signum() == 1)
 		{
 			return tanCordic(toRadian(bd));
 		}
-		else if (bd.compareTo(quarterpi.negate(mc)) == 1)
+		else if (bd.compareTo(quarterpi.negate(guardMc)) == 1)
 		{
-			return tanCordic(toRadian(bd.negate(mc))).negate(mc);
+			return tanCordic(toRadian(bd.negate(guardMc))).negate(guardMc);
 		}
 		else
 		{
-			BigDecimal x = toRadian(new BigDecimal(0.5).multiply(bd, mc)).negate(mc);
-			return new BigDecimal(2).multiply(tanCordic(x), mc)
-					.divide(BigDecimal.ONE.subtract(tanCordic(x).pow(2, mc), mc), mc).negate(mc);
+			BigDecimal x = toRadian(new BigDecimal(0.5).multiply(bd, guardMc)).negate(guardMc);
+			return new BigDecimal(2).multiply(tanCordic(x), guardMc)
+					.divide(BigDecimal.ONE.subtract(tanCordic(x).pow(2, guardMc), guardMc), guardMc).negate(guardMc);
 		}
 	}
 	
@@ -821,126 +1048,36 @@ public class MyCalculator
 	 */
 	private BigDecimal tanCordic(BigDecimal bd)
 	{
-		if (!initCosTable)
-			initCosTable();
+		if (cosTable == null)
+			cosTable = CordicTables.getCosTable(guardMc);
 		BigDecimal three = new BigDecimal(3);
 		int k = 1;
 		BigDecimal x = BigDecimal.ONE;
 		BigDecimal y = BigDecimal.ZERO;
 		BigDecimal tenthk = tenth;
-		while (k < mc.getPrecision())
+		while (k < guardMc.getPrecision())
 		{
 			while (cosTable[k].compareTo(bd) == -1)
 			{
-				bd = bd.subtract(cosTable[k], mc);
+				bd = bd.subtract(cosTable[k], guardMc);
 				BigDecimal tmp = x;
-				x = x.subtract(tenthk.multiply(y, mc), mc);
-				y = y.add(tenthk.multiply(tmp, mc), mc);
+				x = x.subtract(tenthk.multiply(y, guardMc), guardMc);
+				y = y.add(tenthk.multiply(tmp, guardMc), guardMc);
 			}
-			tenthk = tenthk.multiply(tenth, mc);
+			tenthk = tenthk.multiply(tenth, guardMc);
 			k++;
 		}
-		BigDecimal tmp = bd.pow(3, mc).add(three.multiply(bd, mc), mc);
+		BigDecimal tmp = bd.pow(3, guardMc).add(three.multiply(bd, guardMc), guardMc);
 		// return (3*y+(3t+t^3)*x)/(3x-(3t+t^3)*y
-		return three.multiply(y, mc).add(x.multiply(tmp, mc), mc)
-				.divide(three.multiply(x, mc).subtract(y.multiply(tmp, mc), mc), mc);
+		return three.multiply(y, guardMc).add(x.multiply(tmp, guardMc), guardMc)
+				.divide(three.multiply(x, guardMc).subtract(y.multiply(tmp, guardMc), guardMc), guardMc);
 	}
 	
 	private BigDecimal piBD()
 	{
-		if (!initCosTable)
-		{
-			initCosTable();
-		}
-		return cosTable[0].multiply(new BigDecimal(4), mc);
-	}
-	
-	/**
-	 * This method creates the log Table using
-	 * log h=(h-1)-(h-1)^2/2+(h-1)^3/3-.....
-	 * 
-	 * @param bd
-	 *            The first BigDecimal
-	 * @return The result
-	 */
-	private void initLogTable()
-	{
-		initLogTable = true;
-		// calculate ln 2
-		// Using ln 2=2*(x+x^3/3+x^5/5+....) with x=1/3
-		
-		BigDecimal sum = BigDecimal.ZERO;
-		BigDecimal previous = BigDecimal.ONE;
-		BigDecimal i = BigDecimal.ONE;
-		BigDecimal nine = new BigDecimal(9);
-		BigDecimal two = new BigDecimal(2);
-		BigDecimal power = new BigDecimal(3);
-		while (sum.subtract(previous, mc).abs(mc).compareTo(BigDecimal.ZERO) != 0)
-		{
-			previous = sum;
-			sum = sum.add(BigDecimal.ONE.divide(i.multiply(power, mc), mc), mc);
-			i = i.add(two, mc);
-			power = power.multiply(nine, mc);
-		}
-		logTable[0] = sum.multiply(two, mc);
-		
-		// Calculate ln (1+10^-j) j in 1 ... digits-1
-		
-		for (int j = 1; j < mc.getPrecision(); j++)
-		{
-			// count=0;
-			sum = BigDecimal.ZERO;
-			previous = BigDecimal.ONE;
-			i = BigDecimal.ONE;
-			// 10^(-j)
-			BigDecimal bd = tenth.pow(j, mc);
-			power = bd;
-			while (sum.subtract(previous, mc).abs(mc).compareTo(BigDecimal.ZERO) != 0)
-			{
-				previous = sum;
-				sum = sum.add(power.divide(i, mc), mc);
-				if (i.signum() == 1)
-					i = i.add(BigDecimal.ONE, mc).negate(mc);
-				else
-					i = i.subtract(BigDecimal.ONE, mc).negate(mc);
-				power = power.multiply(bd, mc);
-				// count++;
-			}
-			logTable[j] = sum;
-		}
-	}
-	
-	/**
-	 * This method creates the cos Table using
-	 * arctan h=x-x^3/3+x^5/5-x^7/7...
-	 * 
-	 * @param bd
-	 *            The first BigDecimal
-	 * @return The result
-	 */
-	private void initCosTable()
-	{
-		initCosTable = true;
-		// calculate pi/4
-		
-		cosTable[0] = calcPI().multiply(new BigDecimal(0.25), mc);
-		
-		// Calculate arctan (10^-j) j in 1 ... digits-1
-		
-		for (int j = 1; j < mc.getPrecision(); j++)
-		{
-			// 10^(-j)
-			BigDecimal bd = tenth.pow(j, mc);
-			cosTable[j] = arctanSE(bd);
-			// System.out.println(cosTable[j].toPlainString());
-		}
-	}
-	
-	// Using PI = 16arctg(1/5) - 4arctg(1/239)
-	private BigDecimal calcPI()
-	{
-		return new BigDecimal(16).multiply(arctanSE(new BigDecimal("0.2")), mc).subtract(
-				new BigDecimal(4).multiply(arctanSE(BigDecimal.ONE.divide(new BigDecimal(239), mc)), mc), mc);
+		if (cosTable == null)
+			cosTable = CordicTables.getCosTable(guardMc);
+		return cosTable[0].multiply(new BigDecimal(4), guardMc);
 	}
 	
 	private BigDecimal arctanSE2(BigDecimal bd)
@@ -948,21 +1085,21 @@ public class MyCalculator
 		BigDecimal i = BigDecimal.ONE;
 		// BigDecimal j=new BigDecimal(3);
 		BigDecimal two = new BigDecimal(2);
-		BigDecimal square = bd.multiply(bd, mc);
-		BigDecimal power = bd.divide(square.add(BigDecimal.ONE, mc), mc);
-		BigDecimal cst = new BigDecimal(4).multiply(square, mc).divide(square.add(BigDecimal.ONE, mc), mc);
+		BigDecimal square = bd.multiply(bd, guardMc);
+		BigDecimal power = bd.divide(square.add(BigDecimal.ONE, guardMc), guardMc);
+		BigDecimal cst = new BigDecimal(4).multiply(square, guardMc).divide(square.add(BigDecimal.ONE, guardMc), guardMc);
 		BigDecimal previous = BigDecimal.ZERO;
 		BigDecimal sum = power;
 		int count = 0;
-		while (sum.subtract(previous, mc).abs(mc).compareTo(BigDecimal.ZERO) != 0)
+		while (sum.subtract(previous, guardMc).abs(guardMc).compareTo(BigDecimal.ZERO) != 0)
 		{
 			previous = sum;
-			power = power.multiply(cst, mc);
-			power = power.multiply(i.pow(2, mc), mc);
-			BigDecimal doublei = two.multiply(i, mc);
-			doublei = doublei.multiply(doublei.add(BigDecimal.ONE, mc), mc);
-			power = power.divide(doublei, mc);
-			sum = sum.add(power, mc);
+			power = power.multiply(cst, guardMc);
+			power = power.multiply(i.pow(2, guardMc), guardMc);
+			BigDecimal doublei = two.multiply(i, guardMc);
+			doublei = doublei.multiply(doublei.add(BigDecimal.ONE, guardMc), guardMc);
+			power = power.divide(doublei, guardMc);
+			sum = sum.add(power, guardMc);
 			i = i.add(BigDecimal.ONE);
 			count++;
 		}
@@ -974,14 +1111,14 @@ public class MyCalculator
 	private BigDecimal atanBD(BigDecimal bd)
 	{
 		if (bd.signum() == -1)
-			return atanBD(bd.negate(mc)).negate(mc);
+			return atanBD(bd.negate(guardMc)).negate(guardMc);
 		if (bd.compareTo(BigDecimal.ONE) == 1)
 			// pi/2 -arctan (1/x)
-			return piBD().multiply(new BigDecimal(0.5), mc).subtract(arctanSE(BigDecimal.ONE.divide(bd, mc)), mc);
+			return piBD().multiply(new BigDecimal(0.5), guardMc).subtract(arctanSE(BigDecimal.ONE.divide(bd, guardMc), guardMc), guardMc);
 		else if (bd.compareTo(BigDecimal.ONE) == 0)
-			return piBD().multiply(new BigDecimal("0.25"), mc);
+			return piBD().multiply(new BigDecimal("0.25"), guardMc);
 		else
-			return arctanSE(bd);
+			return arctanSE(bd, guardMc);
 	}
 	
 	private BigDecimal acosBD(BigDecimal bd)
@@ -994,8 +1131,8 @@ public class MyCalculator
 		else
 		{
 			return new BigDecimal("2").multiply(
-					atanBD(sqrtBD(BigDecimal.ONE.subtract(bd.pow(2, mc), mc)).divide(BigDecimal.ONE.add(bd, mc), mc)),
-					mc);
+					atanBD(sqrtBD(BigDecimal.ONE.subtract(bd.pow(2, guardMc), guardMc)).divide(BigDecimal.ONE.add(bd, guardMc), guardMc)),
+					guardMc);
 			
 		}
 	}
@@ -1004,11 +1141,11 @@ public class MyCalculator
 	{
 		// acos x= 2 atan (x/(1+sqrt(1-x^2))
 		return new BigDecimal("2").multiply(
-				atanBD(bd.divide(BigDecimal.ONE.add(sqrtBD(BigDecimal.ONE.subtract(bd.pow(2, mc), mc)), mc), mc)), mc);
+				atanBD(bd.divide(BigDecimal.ONE.add(sqrtBD(BigDecimal.ONE.subtract(bd.pow(2, guardMc), guardMc)), guardMc), guardMc)), guardMc);
 	}
 	
 	// arctan h=x-x^3/3+x^5/5-x^7/7...
-	private BigDecimal arctanSE(BigDecimal bd)
+	static BigDecimal arctanSE(BigDecimal bd, MathContext mc)
 	{
 		BigDecimal i = BigDecimal.ONE;
 		BigDecimal two = new BigDecimal(2, mc);
@@ -1030,12 +1167,12 @@ public class MyCalculator
 	
 	private BigDecimal toRadian(BigDecimal n)
 	{
-		return n.multiply(piBD(), mc).divide(new BigDecimal(180), mc);
+		return n.multiply(piBD(), guardMc).divide(new BigDecimal(180), guardMc);
 	}
 	
 	private BigDecimal toDegree(BigDecimal n)
 	{
-		return n.multiply(new BigDecimal(180), mc).divide(piBD(), mc);
+		return n.multiply(new BigDecimal(180), guardMc).divide(piBD(), guardMc);
 	}
 	
 	/**
@@ -1051,9 +1188,15 @@ public class MyCalculator
 	protected double numberDouble(String st) throws LogoError
 	{ // Si un nombre est
 		// un double
+		int slot = getNumberSlot(st);
+		NumberText entry = numberTexts[slot];
+		if (null != entry && entry.text == st)
+			return entry.value;
 		try
 		{
-			return (Double.parseDouble(st));
+			double d = Double.parseDouble(st);
+			numberTexts[slot] = new NumberText(st, d);
+			return d;
 		}
 		catch (NumberFormatException e)
 		{
@@ -1061,6 +1204,26 @@ public class MyCalculator
 		}
 	}
 	
+	/**
+	 * Reads a number from a stack of values, without parsing its text if it was computed as a number
+	 * 
+	 * @param param
+	 *            The stack
+	 * @param index
+	 *            The position of the number in the stack
+	 * @return The double corresponding to the value
+	 * @throws LogoError
+	 *             If the value isn't a number
+	 */
+	protected double numberDouble(ValueStack param, int index) throws LogoError
+	{
+		if (param.isDouble(index))
+			return param.getDouble(index);
+		if (param.isLong(index))
+			return param.getLong(index);
+		return numberDouble(param.get(index));
+	}
+	
 	/**
 	 * If a double ends with the suffix ".0", remove it
 	 * 
@@ -1076,6 +1239,40 @@ public class MyCalculator
 		return st;
 	}
 	
+	/**
+	 * Like {@link #teste_fin_double(double)}, and remember the text in {@link #numberTexts},
+	 * such that it is not parsed again when it is read as a number
+	 * 
+	 * @param d
+	 * @return
+	 */
+	protected String numberText(double d)
+	{
+		String st = teste_fin_double(d);
+		numberTexts[getNumberSlot(st)] = new NumberText(st, d);
+		return st;
+	}
+	
+	private static int getNumberSlot(String text)
+	{
+		return System.identityHashCode(text) & (NUMBER_CACHE_SIZE - 1);
+	}
+	
+	/**
+	 * The text of a number and its value, see {@link MyCalculator#numberTexts}
+	 */
+	private static class NumberText
+	{
+		private final String	text;
+		private final double	value;
+		
+		NumberText(String text, double value)
+		{
+			this.text = text;
+			this.value = value;
+		}
+	}
+	
 	/**
 	 * Converts st to BigDecimal number
 	 * 
@@ -1113,6 +1310,22 @@ public class MyCalculator
 		
 	}
 	
+	/**
+	 * Reads a number from a stack of values, without formatting and parsing its text if it was computed as a number
+	 * 
+	 * @return The BigDecimal number, rounded as {@link #numberDecimal(String)} rounds the text of the value
+	 * @throws LogoError
+	 *             If the value isn't a number
+	 */
+	protected BigDecimal numberDecimal(ValueStack param, int index) throws LogoError
+	{
+		if (param.isLong(index))
+			return BigDecimal.valueOf(param.getLong(index));
+		if (param.isDouble(index) && !Double.isNaN(param.getDouble(index)) && !Double.isInfinite(param.getDouble(index)))
+			return BigDecimal.valueOf(param.getDouble(index)).round(mc);
+		return numberDecimal(param.get(index));
+	}
+	
 	/**
 	 * Erase unused Zeros in decimal Format
 	 * 
@@ -1184,7 +1397,10 @@ public class MyCalculator
 			return mc.getPrecision();
 	}
 	
-	public static String getOutputNumber(String s)
+	/**
+	 * @return the number s with at most {@link #digits} decimals if the precision is lower than 16, otherwise s
+	 */
+	public String getOutputNumber(String s)
 	{
 		try
 		{
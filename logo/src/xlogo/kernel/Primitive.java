@@ -41,7 +41,7 @@ import java.util.ResourceBundle;
 import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
-import java.math.BigDecimal;
+import java.util.HashMap;
 
 import xlogo.kernel.LoopProperties;
 import xlogo.messages.async.history.HistoryMessenger;
@@ -61,7 +61,7 @@ public class Primitive
 	/**
 	 * This character indicates the end of a procedure in instructionBuffer
 	 */
-	protected static final String			END_PROCEDURE		= "\n";
+	public static final String				END_PROCEDURE		= "\n";
 	/**
 	 * This character indicates the end of a loop in instructionBuffer
 	 */
@@ -69,18 +69,22 @@ public class Primitive
 	
 	// float taille_crayon=(float)0;
 	private Application						app;
-	protected static final int				PRIMITIVE_NUMBER	= 310;
+	private ExecutionContext				context;
+	protected static final int				PRIMITIVE_NUMBER	= 325;
 	protected static int[]					parametres			= new int[PRIMITIVE_NUMBER];
 	protected static boolean[]				generalForm			= new boolean[PRIMITIVE_NUMBER];
 	
 	// Treemap for primitives (better efficiency in searching)
 	public static TreeMap<String, String>	primitives			= new TreeMap<String, String>();
+	/**
+	 * The primitive number of every name in {@link #primitives}, already reduced modulo {@link #PRIMITIVE_NUMBER}.
+	 * The interpreters look up the names of all executed words in this map.
+	 */
+	private static HashMap<String, Integer>	primitiveIds		= new HashMap<String, Integer>();
 	public static String EXAMPLE_PROGRAM = "repeat 4 [fd 100 rt 90]";
 	public static String TO = "to";
 	public static String END = "end";
 	
-	public static Stack<LoopProperties>		stackLoop			= new Stack<LoopProperties>();
-	
 	public Primitive()
 	{
 	}
@@ -88,6 +92,7 @@ public class Primitive
 	public Primitive(Application app)
 	{
 		this.app = app;
+		this.context = app.getKernel().getExecutionContext();
 		// build treemap for primitives
 		buildPrimitiveTreemap(AppSettings.getInstance().getLogoLanguage());
 	}
@@ -150,6 +155,7 @@ public class Primitive
 	{
 		// this.exportPrimCSV();
 		primitives = new TreeMap<String, String>();
+		primitiveIds = new HashMap<String, Integer>();
 		Locale locale = lang.getLocale();
 		ResourceBundle prim = ResourceBundle.getBundle("primitives", locale);
 		
@@ -181,15 +187,15 @@ public class Primitive
 					generalForm[i] = false;
 				
 				if (i == 39)
-					primitives.put("\n", "39");
+					putPrimitive("\n", 39);
 				// Internal Primitive siwhile
 				else if (i == 95)
 				{
-					primitives.put("\\siwhile", "95");
+					putPrimitive("\\siwhile", 95);
 				}
 				// Internal Primitive \x
 				else if (i == 212)
-					primitives.put("\\x", "212");
+					putPrimitive("\\x", 212);
 				else
 				{
 					if (cle.length() != 1)
@@ -201,7 +207,7 @@ public class Primitive
 					int compteur = 0;
 					while (st.hasMoreTokens())
 					{
-						primitives.put(st.nextToken(), String.valueOf(i + Primitive.PRIMITIVE_NUMBER * compteur));
+						putPrimitive(st.nextToken(), i + Primitive.PRIMITIVE_NUMBER * compteur);
 						compteur++;
 					}
 				}
@@ -222,6 +228,24 @@ public class Primitive
 		}
 	}
 	
+	private static void putPrimitive(String name, int number)
+	{
+		primitives.put(name, String.valueOf(number));
+		primitiveIds.put(name, number % PRIMITIVE_NUMBER);
+	}
+	
+	/**
+	 * @param name a primitive name in lower case
+	 * @return the primitive number, or -1 if there is no such primitive in the current language
+	 */
+	public static int getPrimitiveId(String name)
+	{
+		Integer id = primitiveIds.get(name);
+		if (null == id)
+			return -1;
+		return id.intValue();
+	}
+	
 	/**
 	 * This method creates the loop "repeat"
 	 * 
@@ -235,10 +259,10 @@ public class Primitive
 	{
 		if (i > 0)
 		{
-			st = new String(Utils.decoupe(st));
-			LoopProperties bp = new LoopRepeat(BigDecimal.ONE, new BigDecimal(i), BigDecimal.ONE, st);
-			stackLoop.push(bp);
-			app.getKernel().getInstructionBuffer().insert(st + "\\ ");
+			st = new String(Utils.decoupe(st, true));
+			LoopProperties bp = new LoopRepeat(1, i, 1, st);
+			context.stackLoop.push(bp);
+			app.getKernel().getInstructionBuffer().insertCode(bp.getCode(app.getKernel().getCalculator()));
 		}
 		else if (i != 0) { throw new LogoError(Utils.primitiveName("controls.repete") + " "
 				+ Logo.messages.getString("attend_positif")); }
@@ -257,7 +281,9 @@ public class Primitive
 	{
 		if (b)
 		{
-			app.getKernel().getInstructionBuffer().insert(li + Primitive.stackLoop.peek().getInstr());
+			InstructionBuffer buffer = app.getKernel().getInstructionBuffer();
+			buffer.insertCode(context.stackLoop.peek().getInstrCode(app.getKernel().getCalculator()));
+			buffer.insert(li);
 		}
 		else
 		{
@@ -281,73 +307,85 @@ public class Primitive
 	// primitive stop
 	protected void stop() throws LogoError
 	{
-		Interprete.operande = false;
+		context.operande = false;
 		String car = "";
 		car = eraseLevelStop(app);
 		
 		// A procedure has been stopped
 		if (car.equals("\n"))
 		{
-			String en_cours = Interprete.en_cours.pop();
-			Interprete.locale = Interprete.stockvariable.pop();
+			String en_cours = context.en_cours.pop();
+			context.restoreLocale();
 			// Example: to bug
 			// fd stop
 			// end
 			// --------
 			// bug
 			// stop doesn't output to fd
-			if (!Interprete.nom.isEmpty() && !Interprete.nom.peek().equals("\n"))
+			if (!context.nom.isEmpty() && !context.nom.peek().equals("\n"))
 			{
 				// System.out.println(Interprete.nom);
 				throw new LogoError(Utils.primitiveName("controls.stop") + " "
-						+ Logo.messages.getString("ne_renvoie_pas") + " " + Interprete.nom.peek());
+						+ Logo.messages.getString("ne_renvoie_pas") + " " + context.nom.peek());
 			}
-			else if (!Interprete.nom.isEmpty())
+			else if (!context.nom.isEmpty())
 			{
 				// Removing the character "\n"
-				Interprete.nom.pop();
+				context.nom.pop();
 				// Example: to bug | to bug2
 				// fd bug2 | stop
 				// end | end
 				// ------------------------
 				// bug
 				// bug2 doesn't output to fd
-				if (!Interprete.nom.isEmpty() && !Interprete.nom.peek().equals("\n"))
+				if (!context.nom.isEmpty() && !context.nom.peek().equals("\n"))
 				{
 					// System.out.println(Interprete.nom);
 					throw new LogoError(en_cours + " " + Logo.messages.getString("ne_renvoie_pas") + " "
-							+ Interprete.nom.peek());
+							+ context.nom.peek());
 				}
 			}
 		}
 	}
 	
-	// primitive output
-	protected void retourne(String val) throws LogoError
+	/**
+	 * In trace mode, print the value that is returned by the running procedure
+	 */
+	protected void traceReturn(Object val)
 	{
-		Interprete.calcul.push(val);
-		Interprete.operande = true;
-		if (Kernel.mode_trace)
+		if (context.mode_trace)
 		{
 			StringBuffer buffer = new StringBuffer();
-			for (int i = 0; i < Interprete.en_cours.size() - 1; i++)
+			for (int i = 0; i < context.en_cours.size() - 1; i++)
 				buffer.append("  ");
-			buffer.append(Interprete.en_cours.peek());
+			buffer.append(context.en_cours.peek());
 			buffer.append(" " + Utils.primitiveName("ret") + " " + val);
 			HistoryMessenger.getInstance().dispatchMessage(Utils.SortieTexte(buffer.toString()) + "\n");
 		}
-		Interprete.en_cours.pop();
-		Interprete.locale = Interprete.stockvariable.pop();
-		if ((!Interprete.nom.isEmpty()) && Interprete.nom.peek().equals("\n"))
-		{
-			eraseLevelReturn(app);
-			Interprete.nom.pop();
-		}
-		else if (!Interprete.nom.isEmpty())
-			throw new LogoError(Utils.primitiveName("ret") + " " + Logo.messages.getString("ne_renvoie_pas") + " "
-					+ Interprete.nom.peek());
-		else
+	}
+	
+	/**
+	 * primitive output
+	 * @param val a text or a {@link xlogo.kernel.grammar.LogoList}, see {@link ValueStack#getValue(int)}
+	 */
+	protected void retourne(Object val) throws LogoError
+	{
+		// The errors are reported in the procedure that outputs, as the TreeInterpreter does
+		if (context.nom.isEmpty())
 			throw new LogoError(Logo.messages.getString("erreur_retourne"));
+		if (!context.nom.peek().equals("\n"))
+			throw new LogoError(Utils.primitiveName("ret") + " " + Logo.messages.getString("ne_renvoie_pas") + " "
+					+ context.nom.peek());
+		context.calcul.pushValue(val);
+		context.operande = true;
+		traceReturn(val);
+		context.en_cours.pop();
+		MemoTable.Call memoCall = context.locale.getMemoCall();
+		context.restoreLocale();
+		eraseLevelReturn(app);
+		context.nom.pop();
+		if (null != memoCall)
+			app.getKernel().getMemoTable().put(memoCall, val.toString());
 	}
 	
 	/**
@@ -361,45 +399,14 @@ public class Primitive
 	 */
 	private String eraseLevelStop(Application app) throws LogoError
 	{
-		boolean error = true;
-		String caractere = "";
-		int marqueur = 0;
 		InstructionBuffer instruction = app.getKernel().getInstructionBuffer();
-		for (int i = 0; i < instruction.getLength(); i++)
-		{
-			caractere = String.valueOf(instruction.charAt(i));
-			if (caractere.equals(Primitive.END_LOOP) | caractere.equals(Primitive.END_PROCEDURE))
-			{
-				marqueur = i;
-				if (caractere.equals(Primitive.END_LOOP) && i != instruction.getLength() - 1)
-				{
-					/*
-					 * On test si le caractère "\" est bien un caractère de
-					 * fin
-					 * de boucle et non du style "\e" ou "\#"
-					 */
-					if (instruction.charAt(i + 1) == ' ')
-					{
-						error = false;
-						break;
-					}
-				}
-				else
-				{
-					error = false;
-					break;
-				}
-			}
-		}
-		
-		if (error) { throw new LogoError(Logo.messages.getString("erreur_stop")); }
-		if (marqueur + 2 > instruction.getLength())
-			instruction = new InstructionBuffer(" ");
-		else
-			instruction.delete(0, marqueur + 2);
+		int marqueur = instruction.indexOf(Primitive.END_LOOP, Primitive.END_PROCEDURE);
+		if (marqueur == -1) { throw new LogoError(Logo.messages.getString("erreur_stop")); }
+		String caractere = instruction.getWord(marqueur);
+		instruction.delete(marqueur + 1);
 		if (!caractere.equals("\n"))
 		{
-			Primitive.stackLoop.pop();
+			context.stackLoop.pop();
 		}
 		return (caractere);
 	}
@@ -416,40 +423,14 @@ public class Primitive
 	 */
 	private void eraseLevelReturn(Application app) throws LogoError
 	{
-		boolean error = true;
-		String caractere = "";
-		int loopLevel = 0;
-		int marqueur = 0;
 		InstructionBuffer instruction = app.getKernel().getInstructionBuffer();
-		for (int i = 0; i < instruction.getLength(); i++)
-		{
-			caractere = String.valueOf(instruction.charAt(i));
-			if (caractere.equals(Primitive.END_PROCEDURE))
-			{
-				marqueur = i;
-				error = false;
-				break;
-			}
-			else if (caractere.equals(Primitive.END_LOOP))
-			{
-				/*
-				 * On test si le caractère "\" est bien un caractère de fin
-				 * de boucle et non du style "\e" ou "\#"
-				 */
-				if (instruction.charAt(i + 1) == ' ')
-				{
-					loopLevel++;
-				}
-			}
-		}
-		if (error) { throw new LogoError(Logo.messages.getString("erreur_retourne")); }
-		if (marqueur + 2 > instruction.getLength())
-			instruction = new InstructionBuffer(" ");
-		else
-			instruction.delete(0, marqueur + 2);
+		int marqueur = instruction.indexOf(Primitive.END_PROCEDURE);
+		if (marqueur == -1) { throw new LogoError(Logo.messages.getString("erreur_retourne")); }
+		int loopLevel = instruction.count(Primitive.END_LOOP, marqueur);
+		instruction.delete(marqueur + 1);
 		for (int i = 0; i < loopLevel; i++)
 		{
-			Primitive.stackLoop.pop();
+			context.stackLoop.pop();
 		}
 	}
 	
@@ -561,21 +542,7 @@ public class Primitive
 	
 	public static int isPrimitive(String s)
 	{
-		String index = Primitive.primitives.get(s.toLowerCase());
-		if (null == index)
-			return -1;
-		try
-		{
-			int id = Integer.parseInt(index);
-			return id % Primitive.PRIMITIVE_NUMBER;
-		}
-		catch (NumberFormatException e)
-		{
-			System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!\n"
-					+ "The file xlogo/kernel/genericPrimitive has been corrupted...\n"
-					+ " Please, check the integrity of xlogo.jar \n!!!!!!!!!!!!!!!!!!!!!!!!!");
-		}
-		return -1;
+		return getPrimitiveId(s.toLowerCase());
 	}
 	
 }
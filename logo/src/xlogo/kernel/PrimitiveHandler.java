@@ -0,0 +1,103 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+/**
+ * The code of one Logo primitive, together with the number of its arguments.
+ * <p>
+ * In XLogo, all primitives were executed by a single switch over about 300 primitive numbers in {@link LaunchPrimitive}.
+ * This method was so large that the Java virtual machine refused to compile it, and every primitive call was interpreted.
+ * Now every primitive has its own handler, and {@link LaunchPrimitive} keeps them in an array indexed by the primitive number.
+ */
+abstract class PrimitiveHandler
+{
+	private final int		id;
+	private final int		arity;
+	private final boolean	generalForm;
+	private final boolean	internal;
+	
+	/**
+	 * The number of arguments and the general form are read from the file genericPrimitive, see {@link Primitive#buildPrimitiveTreemap(xlogo.storage.workspace.LogoLanguage)}
+	 * @param id the primitive number
+	 */
+	PrimitiveHandler(int id)
+	{
+		this(id, false);
+	}
+	
+	/**
+	 * @param id the primitive number
+	 * @param internal see {@link #isInternal()}
+	 */
+	PrimitiveHandler(int id, boolean internal)
+	{
+		this.id = id;
+		this.arity = Primitive.parametres[id];
+		this.generalForm = Primitive.generalForm[id];
+		this.internal = internal;
+	}
+	
+	/**
+	 * Execute the primitive
+	 * @param element_minuscule the name of the primitive in lower case, as it was written by the user
+	 * @param param the arguments
+	 * @throws LogoError
+	 */
+	protected abstract void execute(String element_minuscule, ValueStack param) throws LogoError;
+	
+	/**
+	 * @return the primitive number
+	 */
+	public int getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * @return the standard number of arguments
+	 */
+	public int getArity()
+	{
+		return arity;
+	}
+	
+	/**
+	 * @return true if the primitive accepts any number of arguments within parenthesis, e.g. (sum 1 2 3)
+	 */
+	public boolean hasGeneralForm()
+	{
+		return generalForm;
+	}
+	
+	/**
+	 * @return true if the primitive is not called by the user, e.g. the internal operators that end a procedure or a loop,
+	 * or if it controls the {@link Profiler}. The profiler does not measure these primitives.
+	 */
+	public boolean isInternal()
+	{
+		return internal;
+	}
+}
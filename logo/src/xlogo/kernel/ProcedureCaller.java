@@ -0,0 +1,45 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import xlogo.kernel.userspace.procedures.Procedure;
+
+/**
+ * Primitives such as <code>map</code>, <code>filter</code> and <code>sort</code> call a procedure for every element of a list
+ * and continue with its output. Only the engine that executes the program knows how to run a procedure to its end,
+ * therefore {@link Interprete} and {@link TreeInterpreter} both implement this interface for their {@link LaunchPrimitive}.
+ */
+interface ProcedureCaller
+{
+	/**
+	 * Run a procedure to its end, without disturbing the primitives that wait for their arguments
+	 * @param procedure the procedure
+	 * @param param the arguments, without the optional arguments that are not given
+	 * @return the output of the procedure, a text or a {@link xlogo.kernel.grammar.LogoList}, or null if it does not output anything
+	 * @throws LogoError
+	 */
+	Object call(Procedure procedure, ValueStack param) throws LogoError;
+}
@@ -0,0 +1,441 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Stack;
+
+import xlogo.Logo;
+
+/**
+ * Measures where a Logo program spends its time: how often every procedure and primitive is called,
+ * how long it runs including the procedures and primitives it calls (inclusive time), how long it runs without them (self time),
+ * and how long the interpreter stays on every line of a procedure.
+ * <p>
+ * The profiler is started with the primitive profile.start and read with profile.report.
+ * While it is not active, the interpreter only reads {@link #isActive()} once per primitive and procedure call.
+ * <p>
+ * The classic interpreter leaves a procedure at many places (end of the procedure, stop, output, tail calls),
+ * therefore the profiler does not need to be told when a procedure ends.
+ * Every procedure frame remembers its position in {@link ExecutionContext#en_cours}, and it is closed
+ * as soon as the profiler sees that this position holds another name, i.e. at the next primitive or procedure call.
+ */
+public class Profiler
+{
+	/**
+	 * The number of procedures and primitives, resp. lines, in the text report
+	 */
+	private static final int				REPORT_ROWS		= 15;
+	private static final String				ENTRY_FORMAT	= "%-20s %-10s %10s %12s %12s\n";
+	private static final String				LINE_FORMAT		= "%-20s %6s %10s %12s\n";
+	
+	private boolean							active;
+	private final HashMap<String, Entry>	procedures	= new HashMap<String, Entry>();
+	private final HashMap<String, Entry>	primitives	= new HashMap<String, Entry>();
+	private final HashMap<String, Line>		lines		= new HashMap<String, Line>();
+	private final ArrayList<Frame>			frames		= new ArrayList<Frame>();
+	/**
+	 * The line that is executed since {@link #lineStart}, or null if the interpreter is not inside a procedure
+	 */
+	private Line							currentLine;
+	private long							lineStart;
+	
+	/**
+	 * @return true if the running program is profiled
+	 */
+	public boolean isActive()
+	{
+		return active;
+	}
+	
+	/**
+	 * Forget all measures and start profiling
+	 */
+	public void start()
+	{
+		procedures.clear();
+		primitives.clear();
+		lines.clear();
+		frames.clear();
+		currentLine = null;
+		active = true;
+	}
+	
+	/**
+	 * Stop profiling. The measures are kept until the next {@link #start()}.
+	 */
+	public void stop()
+	{
+		closeAll();
+		active = false;
+	}
+	
+	/**
+	 * Called after a procedure has been pushed on en_cours
+	 */
+	protected void enterProcedure(Stack<String> en_cours)
+	{
+		long now = System.nanoTime();
+		int depth = en_cours.size();
+		// The previous procedure at this position has already been left
+		closeLeftProcedures(en_cours, depth - 1, now);
+		push(procedures, en_cours.peek(), depth, now);
+	}
+	
+	/**
+	 * Called before a primitive is executed
+	 * @param line the line of the primitive in the innermost procedure, or -1
+	 */
+	protected void enterPrimitive(String name, Stack<String> en_cours, int line)
+	{
+		long now = System.nanoTime();
+		closeLeftProcedures(en_cours, en_cours.size(), now);
+		enterLine(line, now);
+		push(primitives, name, 0, now);
+	}
+	
+	/**
+	 * Called when a primitive has been executed, also if it has thrown an error
+	 */
+	protected void leavePrimitive()
+	{
+		long now = System.nanoTime();
+		// Procedures that were called by the primitive and left by an error
+		while (!frames.isEmpty() && frames.get(frames.size() - 1).depth > 0)
+			pop(now);
+		if (!frames.isEmpty())
+			pop(now);
+	}
+	
+	/**
+	 * Close the procedures that have been left since the last primitive, before the measures are read
+	 */
+	protected void update(Stack<String> en_cours)
+	{
+		long now = System.nanoTime();
+		closeLeftProcedures(en_cours, en_cours.size(), now);
+		enterLine(-1, now);
+	}
+	
+	/**
+	 * Called when a program has ended or has been stopped: all procedures have been left
+	 */
+	protected void closeAll()
+	{
+		long now = System.nanoTime();
+		while (!frames.isEmpty())
+			pop(now);
+		enterLine(-1, now);
+	}
+	
+	/**
+	 * Close the procedure frames on top of the stack whose procedures are no longer in en_cours
+	 * @param size the number of elements of en_cours that belong to running procedures
+	 */
+	private void closeLeftProcedures(Stack<String> en_cours, int size, long now)
+	{
+		while (!frames.isEmpty())
+		{
+			Frame frame = frames.get(frames.size() - 1);
+			if (frame.depth == 0)
+				return;
+			if (frame.depth <= size && en_cours.get(frame.depth - 1) == frame.name)
+				return;
+			pop(now);
+		}
+	}
+	
+	/**
+	 * The time since the last primitive is given to the line of the last primitive
+	 */
+	private void enterLine(int line, long now)
+	{
+		if (null != currentLine)
+			currentLine.nanos += now - lineStart;
+		currentLine = null;
+		lineStart = now;
+		if (line < 0)
+			return;
+		String procedure = null;
+		for (int i = frames.size() - 1; i >= 0 && null == procedure; i--)
+			if (frames.get(i).depth > 0)
+				procedure = frames.get(i).name;
+		if (null == procedure)
+			return;
+		String key = procedure + " " + line;
+		currentLine = lines.get(key);
+		if (null == currentLine)
+		{
+			currentLine = new Line(procedure, line);
+			lines.put(key, currentLine);
+		}
+		currentLine.hits++;
+	}
+	
+	private void push(HashMap<String, Entry> entries, String name, int depth, long now)
+	{
+		Entry entry = entries.get(name);
+		if (null == entry)
+		{
+			entry = new Entry(name, depth > 0);
+			entries.put(name, entry);
+		}
+		entry.calls++;
+		entry.running++;
+		frames.add(new Frame(entry, name, depth, now));
+	}
+	
+	private void pop(long now)
+	{
+		Frame frame = frames.remove(frames.size() - 1);
+		long elapsed = now - frame.start;
+		Entry entry = frame.entry;
+		entry.selfNanos += elapsed - frame.childNanos;
+		// Recursive calls are already contained in the outermost call
+		entry.running--;
+		if (entry.running == 0)
+			entry.totalNanos += elapsed;
+		if (!frames.isEmpty())
+			frames.get(frames.size() - 1).childNanos += elapsed;
+	}
+	
+	/**
+	 * @return the measures of all procedures and primitives, the largest self time first
+	 */
+	public List<Entry> getEntries()
+	{
+		ArrayList<Entry> list = new ArrayList<Entry>();
+		for (Entry entry : procedures.values())
+			list.add(new Entry(entry));
+		for (Entry entry : primitives.values())
+			list.add(new Entry(entry));
+		Collections.sort(list, new Comparator<Entry>(){
+			public int compare(Entry a, Entry b)
+			{
+				return Long.compare(b.selfNanos, a.selfNanos);
+			}
+		});
+		return list;
+	}
+	
+	/**
+	 * @return the time of all procedure lines, the slowest line first
+	 */
+	public List<Line> getLines()
+	{
+		ArrayList<Line> list = new ArrayList<Line>();
+		for (Line line : lines.values())
+			list.add(new Line(line));
+		Collections.sort(list, new Comparator<Line>(){
+			public int compare(Line a, Line b)
+			{
+				return Long.compare(b.nanos, a.nanos);
+			}
+		});
+		return list;
+	}
+	
+	/**
+	 * @return the slowest procedures and primitives and the slowest lines as text for the history
+	 */
+	public String getReport()
+	{
+		List<Entry> entries = getEntries();
+		if (entries.isEmpty())
+			return Logo.messages.getString("profile.empty") + "\n";
+		StringBuilder sb = new StringBuilder();
+		sb.append(Logo.messages.getString("profile.title")).append("\n");
+		sb.append(String.format(ENTRY_FORMAT, Logo.messages.getString("profile.name"),
+				Logo.messages.getString("profile.kind"), Logo.messages.getString("profile.calls"),
+				Logo.messages.getString("profile.total"), Logo.messages.getString("profile.self")));
+		for (Entry entry : entries.subList(0, Math.min(REPORT_ROWS, entries.size())))
+		{
+			String kind = Logo.messages.getString(entry.procedure ? "profile.procedure" : "profile.primitive");
+			sb.append(String.format(ENTRY_FORMAT, entry.name, kind, entry.calls, toMillis(entry.totalNanos),
+					toMillis(entry.selfNanos)));
+		}
+		List<Line> lines = getLines();
+		if (!lines.isEmpty())
+		{
+			sb.append(Logo.messages.getString("profile.lines")).append("\n");
+			sb.append(String.format(LINE_FORMAT, Logo.messages.getString("profile.procedure"),
+					Logo.messages.getString("profile.line"), Logo.messages.getString("profile.hits"),
+					Logo.messages.getString("profile.time")));
+			for (Line line : lines.subList(0, Math.min(REPORT_ROWS, lines.size())))
+				sb.append(String.format(LINE_FORMAT, line.procedure, line.line, line.hits, toMillis(line.nanos)));
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * @return the nanoseconds in milliseconds, rounded to 0.01 ms
+	 */
+	public static String toMillis(long nanos)
+	{
+		return String.format("%.2f", nanos / 1e6);
+	}
+	
+	/**
+	 * The measures of one procedure or primitive
+	 */
+	public static class Entry
+	{
+		private final String	name;
+		private final boolean	procedure;
+		private long			calls;
+		private long			totalNanos;
+		private long			selfNanos;
+		/**
+		 * The number of frames of this entry on the stack
+		 */
+		private int				running;
+		
+		private Entry(String name, boolean procedure)
+		{
+			this.name = name;
+			this.procedure = procedure;
+		}
+		
+		private Entry(Entry entry)
+		{
+			this(entry.name, entry.procedure);
+			calls = entry.calls;
+			totalNanos = entry.totalNanos;
+			selfNanos = entry.selfNanos;
+		}
+		
+		public String getName()
+		{
+			return name;
+		}
+		
+		/**
+		 * @return true for a procedure, false for a primitive
+		 */
+		public boolean isProcedure()
+		{
+			return procedure;
+		}
+		
+		public long getCalls()
+		{
+			return calls;
+		}
+		
+		/**
+		 * @return the time including all procedures and primitives that were called
+		 */
+		public long getTotalNanos()
+		{
+			return totalNanos;
+		}
+		
+		/**
+		 * @return the time without the procedures and primitives that were called
+		 */
+		public long getSelfNanos()
+		{
+			return selfNanos;
+		}
+	}
+	
+	/**
+	 * The time spent on one line of a procedure
+	 */
+	public static class Line
+	{
+		private final String	procedure;
+		private final int		line;
+		private long			hits;
+		private long			nanos;
+		
+		private Line(String procedure, int line)
+		{
+			this.procedure = procedure;
+			this.line = line;
+		}
+		
+		private Line(Line line)
+		{
+			this(line.procedure, line.line);
+			hits = line.hits;
+			nanos = line.nanos;
+		}
+		
+		public String getProcedure()
+		{
+			return procedure;
+		}
+		
+		/**
+		 * @return the line in the editor
+		 */
+		public int getLine()
+		{
+			return line;
+		}
+		
+		/**
+		 * @return the number of primitives that were executed on this line
+		 */
+		public long getHits()
+		{
+			return hits;
+		}
+		
+		public long getNanos()
+		{
+			return nanos;
+		}
+	}
+	
+	private static class Frame
+	{
+		private final Entry		entry;
+		/**
+		 * The name that was pushed on en_cours
+		 */
+		private final String	name;
+		/**
+		 * The size of en_cours after the procedure was pushed, 0 for a primitive
+		 */
+		private final int		depth;
+		private final long		start;
+		private long			childNanos;
+		
+		private Frame(Entry entry, String name, int depth, long start)
+		{
+			this.entry = entry;
+			this.name = name;
+			this.depth = depth;
+			this.start = start;
+		}
+	}
+}
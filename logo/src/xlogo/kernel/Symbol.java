@@ -0,0 +1,98 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import xlogo.kernel.userspace.procedures.Procedure;
+
+/**
+ * An identifier of Logo code, see {@link SymbolTable}. It keeps what its name means: the id of a primitive, and the procedure
+ * that is executed when it is called. The procedure is looked up again after the table has been invalidated.
+ */
+public class Symbol
+{
+	private final String		name;
+	private final SymbolTable	table;
+	/**
+	 * The version of the table when the procedure was looked up
+	 */
+	private int					version	= -1;
+	private int					primitiveId;
+	private Procedure			procedure;
+	
+	Symbol(String name, SymbolTable table)
+	{
+		this.name = name;
+		this.table = table;
+	}
+	
+	/**
+	 * @return the lower case name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * @return true if the name denotes an executable procedure. Ambiguous procedures are not executable.
+	 */
+	public boolean isProcedure()
+	{
+		return null != getProcedure();
+	}
+	
+	/**
+	 * @return the executable procedure with this name, or null
+	 */
+	public Procedure getProcedure()
+	{
+		if (version != table.getVersion())
+			resolve();
+		return procedure;
+	}
+	
+	/**
+	 * @return the id of the primitive, i.e. the index of its {@link PrimitiveHandler}, or -1
+	 */
+	public int getPrimitiveId()
+	{
+		if (version != table.getVersion())
+			resolve();
+		return primitiveId;
+	}
+	
+	private void resolve()
+	{
+		version = table.getVersion();
+		primitiveId = Primitive.getPrimitiveId(name);
+		procedure = table.getWorkspace().getExecutable(name);
+	}
+	
+	public String toString()
+	{
+		return name;
+	}
+}
@@ -0,0 +1,136 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+import xlogo.interfaces.ProcedureMapper.ProcedureMapListener;
+import xlogo.kernel.userspace.UserSpace;
+
+/**
+ * Every distinct identifier is mapped to a single {@link Symbol}.
+ * <p>
+ * In XLogo, the interpreter asked for every word whether it is a primitive, using the TreeMap {@link Primitive#primitives},
+ * whether it is a procedure, and then asked again for the procedure, each time lower-casing the name and looking it up in
+ * the nested maps of the {@link xlogo.kernel.userspace.procedures.ProceduresManager}.
+ * Now, the lower case words of a {@link CodeBlock} are interned, hence they are found here with their cached hash code
+ * and an identity comparison, and the symbol keeps what the name means.
+ * <p>
+ * The meaning of the names is forgotten when procedures are (re)defined or erased, and before every command,
+ * because not all contexts notify when procedures are defined and the language of the primitives may change between commands.
+ */
+public class SymbolTable
+{
+	/**
+	 * Lists may contain arbitrary words that are run. Forget the symbols if there are too many.
+	 */
+	private static final int				MAX_SYMBOLS	= 10000;
+	
+	private final HashMap<String, Symbol>	symbols		= new HashMap<String, Symbol>();
+	private UserSpace						wp;
+	private volatile int					version		= 0;
+	
+	private final ProcedureMapListener		procedureMapListener	= new ProcedureMapListener(){
+		
+		@Override
+		public void ownerRenamed(String oldName, String newName)
+		{}
+		
+		@Override
+		public void defined(String fileName, Collection<String> procedures)
+		{
+			invalidate();
+		}
+		
+		@Override
+		public void defined(String fileName, String procedure)
+		{
+			invalidate();
+		}
+		
+		@Override
+		public void undefined(String fileName, Collection<String> procedures)
+		{
+			invalidate();
+		}
+		
+		@Override
+		public void undefined(String fileName, String procedure)
+		{
+			invalidate();
+		}
+	};
+	
+	public SymbolTable(UserSpace workspace)
+	{
+		wp = workspace;
+		wp.addProcedureMapListener(procedureMapListener);
+	}
+	
+	protected void setWorkspace(UserSpace workspace)
+	{
+		wp.removeProcedureMapListener(procedureMapListener);
+		wp = workspace;
+		wp.addProcedureMapListener(procedureMapListener);
+		invalidate();
+	}
+	
+	protected UserSpace getWorkspace()
+	{
+		return wp;
+	}
+	
+	/**
+	 * @param name a lower case name
+	 * @return the symbol of that name
+	 */
+	public Symbol get(String name)
+	{
+		Symbol symbol = symbols.get(name);
+		if (null == symbol)
+		{
+			if (symbols.size() >= MAX_SYMBOLS)
+				symbols.clear();
+			symbol = new Symbol(name, this);
+			symbols.put(name, symbol);
+		}
+		return symbol;
+	}
+	
+	/**
+	 * All symbols look up their meaning again
+	 */
+	public void invalidate()
+	{
+		version++;
+	}
+	
+	int getVersion()
+	{
+		return version;
+	}
+}
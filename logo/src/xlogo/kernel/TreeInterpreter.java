@@ -0,0 +1,921 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import xlogo.Application;
+import xlogo.Logo;
+import xlogo.interfaces.ProcedureMapper.ProcedureMapListener;
+import xlogo.kernel.grammar.BodyTree;
+import xlogo.kernel.grammar.CallTree;
+import xlogo.kernel.grammar.ConstantTree;
+import xlogo.kernel.grammar.ErrorTree;
+import xlogo.kernel.grammar.InfixTree;
+import xlogo.kernel.grammar.LogoParser;
+import xlogo.kernel.grammar.LogoTree;
+import xlogo.kernel.grammar.LogoTreeVisitor;
+import xlogo.kernel.grammar.LoopTree;
+import xlogo.kernel.grammar.ProcedureTree;
+import xlogo.kernel.grammar.VariableTree;
+import xlogo.kernel.userspace.UserSpace;
+import xlogo.kernel.userspace.procedures.Procedure;
+import xlogo.utils.Utils;
+
+/**
+ * An alternative to the string-rewriting {@link Interprete}, see {@link xlogo.storage.user.ExecutionEngine}.
+ * <p>
+ * The Interprete copies the code of every procedure call and every loop iteration into the {@link InstructionBuffer}
+ * and reads it word by word, deciding again and again what each word means.
+ * The TreeInterpreter parses procedure bodies and lists only once with the {@link LogoParser} and walks the syntax tree.
+ * <p>
+ * Everything else is shared with the Interprete : the primitives are executed by {@link LaunchPrimitive}, the variables are kept in
+ * {@link ExecutionContext#locale}, the running procedures in {@link ExecutionContext#en_cours} and the loops in {@link ExecutionContext#stackLoop}.
+ * Hence both engines produce the same output and the same drawing.
+ * <p>
+ * <code>stop</code> and <code>output</code> unwind the Java stack up to the innermost loop or procedure,
+ * as the Interprete deleted the instructions up to the next end of loop or end of procedure.
+ */
+public class TreeInterpreter implements LogoTreeVisitor, LogoParser.Resolver, ProcedureCaller
+{
+	/*
+	 * Primitives that control the execution, see genericPrimitive
+	 */
+	private static final int				IF					= 10;
+	private static final int				STOP				= 11;
+	private static final int				OUTPUT				= 29;
+	private static final int				RUN					= 107;
+	private static final int				IFELSE				= 281;
+	
+	/**
+	 * Returned by {@link #runTail(CallTree)} instead of an output: the procedure {@link #tailProcedure} must be called
+	 * with the arguments {@link #tailParam} when the running procedure has been left.
+	 * If {@link #tailOutput} is not null, the running procedure outputs the output of the called procedure.
+	 */
+	private static final String				TAIL_CALL			= new String("tail call");
+	
+	/**
+	 * Lists may be computed while a program is running. Forget them if there are too many.
+	 */
+	private static final int				MAX_CACHED_LISTS	= 1000;
+	
+	private final Application				app;
+	private final Kernel					kernel;
+	private final ExecutionContext			context;
+	private UserSpace						wp;
+	private final LaunchPrimitive			lanceprim;
+	
+	/**
+	 * Parsed lists, by their value
+	 */
+	private final HashMap<String, BodyTree>	lists				= new HashMap<String, BodyTree>();
+	private final HashMap<Procedure, ProcedureTree>	procedures	= new HashMap<Procedure, ProcedureTree>();
+	
+	private Procedure						tailProcedure;
+	private ValueStack						tailParam;
+	/**
+	 * The name of the primitive <code>output</code> as it is written before the tail call, or null
+	 */
+	private String							tailOutput;
+	
+	/**
+	 * The trees refer to the procedures they call. If procedures are (re)defined, they must be parsed again.
+	 */
+	private final ProcedureMapListener		procedureMapListener	= new ProcedureMapListener(){
+		
+		@Override
+		public void ownerRenamed(String oldName, String newName)
+		{}
+		
+		@Override
+		public void defined(String fileName, Collection<String> procedures)
+		{
+			clearCaches();
+		}
+		
+		@Override
+		public void defined(String fileName, String procedure)
+		{
+			clearCaches();
+		}
+		
+		@Override
+		public void undefined(String fileName, Collection<String> procedures)
+		{
+			clearCaches();
+		}
+		
+		@Override
+		public void undefined(String fileName, String procedure)
+		{
+			clearCaches();
+		}
+	};
+	
+	/**
+	 * The line of the instruction that is executed in the innermost procedure, or -1
+	 */
+	private int								line				= -1;
+	/**
+	 * The calculator that folded the constant expressions of the cached trees, see {@link ConstantFolder}
+	 */
+	private MyCalculator					foldedWith;
+	
+	public TreeInterpreter(Application app)
+	{
+		this.app = app;
+		this.kernel = app.getKernel();
+		this.context = kernel.getExecutionContext();
+		wp = kernel.getWorkspace();
+		lanceprim = new LaunchPrimitive(app, wp, this);
+		wp.addProcedureMapListener(procedureMapListener);
+	}
+	
+	protected void setWorkspace(UserSpace workspace)
+	{
+		wp.removeProcedureMapListener(procedureMapListener);
+		wp = workspace;
+		wp.addProcedureMapListener(procedureMapListener);
+		lanceprim.setWorkspace(workspace);
+		clearCaches();
+	}
+	
+	/**
+	 * Execute instructions from the command line.
+	 * @return the value of the first instruction that outputs something, or "" if no instruction outputs something
+	 */
+	String execute(StringBuffer instructions) throws LogoError
+	{
+		// Not all contexts notify when procedures are defined
+		clearCaches();
+		line = -1;
+		BodyTree body = new BodyTree(new LogoParser(CodeBlock.compile(instructions), this));
+		try
+		{
+			Object value = runBody(body);
+			return value == null ? "" : value.toString();
+		}
+		catch (StopSignal e)
+		{
+			throw new LogoError(Logo.messages.getString("erreur_stop"));
+		}
+		catch (StackOverflowError e)
+		{
+			throw new LogoError(Logo.messages.getString("depassement_memoire"));
+		}
+	}
+	
+	/**
+	 * @return the line of the instruction that is executed in the innermost procedure, or -1
+	 */
+	protected int getLineNumber()
+	{
+		return line;
+	}
+	
+	private void clearCaches()
+	{
+		lists.clear();
+		procedures.clear();
+	}
+	
+	/**
+	 * After setdigits, the constant expressions of the cached trees must be computed again
+	 */
+	private void checkCalculator()
+	{
+		MyCalculator calculator = kernel.getCalculator();
+		if (foldedWith != calculator)
+		{
+			clearCaches();
+			foldedWith = calculator;
+		}
+	}
+	
+	/*
+	 * Resolver
+	 */
+	
+	@Override
+	public int getPrimitive(String name)
+	{
+		return kernel.getSymbolTable().get(name).getPrimitiveId();
+	}
+	
+	@Override
+	public int getArity(int primitive)
+	{
+		return lanceprim.getHandler(primitive).getArity();
+	}
+	
+	@Override
+	public boolean hasGeneralForm(int primitive)
+	{
+		return lanceprim.getHandler(primitive).hasGeneralForm();
+	}
+	
+	@Override
+	public Procedure getProcedure(String name)
+	{
+		return kernel.getSymbolTable().get(name).getProcedure();
+	}
+	
+	/*
+	 * Visitor
+	 */
+	
+	@Override
+	public Object visitConstant(ConstantTree tree)
+	{
+		return tree.getValue();
+	}
+	
+	@Override
+	public Object visitVariable(VariableTree tree) throws LogoError
+	{
+		String variableName = tree.getName();
+		Object value;
+		// If the variable isn't local
+		if (!context.locale.containsKey(variableName))
+		{
+			// check it's a global variable
+			if (!wp.getGlobals().getVariables().contains(variableName))
+				throw new LogoError(variableName + " " + Logo.messages.getString("error.novalue"));
+			else
+				value = wp.getGlobals().getValue(variableName);
+		}
+		// If the variable is local
+		else
+		{
+			value = context.locale.getValue(variableName);
+		}
+		if (null == value)
+			throw new LogoError(variableName + "  " + Logo.messages.getString("error.novalue"));
+		return value;
+	}
+	
+	@Override
+	public Object visitInfix(InfixTree tree) throws LogoError
+	{
+		ValueStack param = new ValueStack();
+		param.pushValue(evaluate(tree.getLeft(), tree.getName()));
+		param.pushValue(evaluate(tree.getRight(), tree.getName()));
+		return launch(tree.getOperator(), tree.getName(), param);
+	}
+	
+	@Override
+	public Object visitCall(CallTree tree) throws LogoError
+	{
+		if (tree.isProcedure())
+			return callProcedure(tree, null);
+		
+		ValueStack param = evaluateArguments(tree);
+		switch (tree.getPrimitive())
+		{
+			case IF:
+				lanceprim.getList(param.get(1));
+				if (lanceprim.predicat(param.get(0)))
+					return run(param.get(1));
+				else if (param.size() > 2)
+					return run(param.get(2));
+				return null;
+			case IFELSE:
+				lanceprim.getList(param.get(1));
+				boolean predicate = lanceprim.predicat(param.get(0));
+				lanceprim.getList(param.get(2));
+				return run(predicate ? param.get(1) : param.get(2));
+			case RUN:
+				return run(param.get(0));
+			case STOP:
+				throw StopSignal.STOP;
+			case OUTPUT:
+				if (context.en_cours.isEmpty())
+					throw new LogoError(Logo.messages.getString("erreur_retourne"));
+				kernel.primitive.traceReturn(param.get(0));
+				throw new OutputSignal(param.getValue(0));
+			default:
+				return launch(tree.getPrimitive(), tree.getName(), param);
+		}
+	}
+	
+	@Override
+	public Object visitLoop(LoopTree tree) throws LogoError
+	{
+		ValueStack param = evaluateArguments(tree);
+		switch (tree.getKind())
+		{
+			case REPEAT:
+				repeat(param.get(0), param.get(1));
+				break;
+			case WHILE:
+				lanceprim.getList(param.get(0));
+				lanceprim.getList(param.get(1));
+				loopWhile(tree.getName(), getBody(param.get(0)), getBody(param.get(1)), false, true);
+				break;
+			case DO_WHILE:
+				lanceprim.getList(param.get(0));
+				lanceprim.getList(param.get(1));
+				loopWhile(tree.getName(), getBody(param.get(1)), getBody(param.get(0)), true, true);
+				break;
+			case DO_UNTIL:
+				lanceprim.getList(param.get(0));
+				lanceprim.getList(param.get(1));
+				loopWhile(tree.getName(), getBody(param.get(1)), getBody(param.get(0)), false, false);
+				break;
+			case FOR:
+				lanceprim.getList(param.get(1));
+				loopFor(lanceprim.newLoopFor(param.get(0), param.get(1)), param.get(1));
+				break;
+			case FOREACH:
+				loopFor(lanceprim.newLoopForEach(param.get(0), param.get(1), param.get(2)), param.get(2));
+				break;
+			case FOREVER:
+				forever(param.get(0));
+				break;
+			case FILL_POLYGON:
+				fillPolygon(param.get(0));
+				break;
+		}
+		return null;
+	}
+	
+	@Override
+	public Object visitBody(BodyTree tree) throws LogoError
+	{
+		return runBody(tree);
+	}
+	
+	@Override
+	public Object visitError(ErrorTree tree) throws LogoError
+	{
+		LogoTree operand = tree.getOperand();
+		if (null != operand)
+		{
+			if (tree.getCaller().equals(""))
+				operand.accept(this);
+			else
+				evaluate(operand, tree.getCaller());
+		}
+		setLine(tree.getLine());
+		throw new LogoError(tree.getMessage());
+	}
+	
+	/*
+	 * Execution
+	 */
+	
+	/**
+	 * Execute the instructions of a body until one of them outputs something
+	 * @return the output, or null
+	 */
+	private Object runBody(BodyTree body) throws LogoError
+	{
+		return runBody(body, false);
+	}
+	
+	/**
+	 * @param tail true if nothing follows the body in the running procedure.
+	 * Then, a procedure call that is the last statement is not executed, but prepared in {@link #tailProcedure}, see {@link #TAIL_CALL}.
+	 */
+	private Object runBody(BodyTree body, boolean tail) throws LogoError
+	{
+		LogoTree statement;
+		for (int i = 0; (statement = body.getStatement(i)) != null; i++)
+		{
+			checkInterrupt();
+			setLine(statement.getLine());
+			Object value;
+			if (tail && null == body.getStatement(i + 1) && statement instanceof CallTree)
+				value = runTail((CallTree) statement);
+			else
+				value = statement.accept(this);
+			if (null != value)
+				return value;
+		}
+		return null;
+	}
+	
+	/**
+	 * Execute the last statement of a procedure body or of a list that <code>if</code>, <code>ifelse</code> or <code>run</code>
+	 * execute at the end of a procedure body.
+	 * @return {@link #TAIL_CALL} if the statement calls a procedure, or outputs the output of a procedure
+	 */
+	private Object runTail(CallTree tree) throws LogoError
+	{
+		if (context.mode_trace)
+			return tree.accept(this);
+		if (tree.isProcedure())
+		{
+			// The error "what to do with" must be reported in the running procedure
+			if (tree.getProcedure().mayOutput())
+				return tree.accept(this);
+			return prepareTailCall(tree, null);
+		}
+		switch (tree.getPrimitive())
+		{
+			case OUTPUT:
+				// output with a memoized procedure keeps the call, the memo table needs its output
+				LogoTree argument = tree.getArguments().length == 1 ? tree.getArguments()[0] : null;
+				if (argument instanceof CallTree && ((CallTree) argument).isProcedure()
+						&& !((CallTree) argument).getProcedure().isMemoized())
+					return prepareTailCall((CallTree) argument, tree.getName());
+				return tree.accept(this);
+			case IF:
+			case IFELSE:
+			case RUN:
+				ValueStack param = evaluateArguments(tree);
+				String instructions;
+				if (tree.getPrimitive() == RUN)
+					instructions = param.get(0);
+				else
+				{
+					lanceprim.getList(param.get(1));
+					boolean predicate = lanceprim.predicat(param.get(0));
+					if (tree.getPrimitive() == IFELSE)
+						lanceprim.getList(param.get(2));
+					if (predicate)
+						instructions = param.get(1);
+					else if (param.size() > 2)
+						instructions = param.get(2);
+					else
+						return null;
+				}
+				String word = lanceprim.getWord(instructions);
+				if (null == word)
+					return runBody(getBody(instructions), true);
+				return run(instructions);
+			default:
+				return tree.accept(this);
+		}
+	}
+	
+	/**
+	 * Evaluate the arguments of a procedure call in tail position, the procedure is called by {@link #callProcedure(Procedure, ProcedureTree, ValueStack, String)}
+	 * @param output the name of the primitive output that outputs the output of the procedure, or null
+	 */
+	private Object prepareTailCall(CallTree tree, String output) throws LogoError
+	{
+		tailProcedure = tree.getProcedure();
+		tailParam = evaluateProcedureArguments(tree, getProcedureTree(tailProcedure));
+		tailOutput = output;
+		return TAIL_CALL;
+	}
+	
+	/**
+	 * Execute the instructions of a loop or a procedure. They must not output anything.
+	 */
+	private void runInstructions(BodyTree body) throws LogoError
+	{
+		Object value = runBody(body);
+		if (null != value)
+			throw new LogoError(Logo.messages.getString("error.whattodo") + " " + value + " ?");
+	}
+	
+	/**
+	 * Run a list or a word as <code>run</code>, <code>if</code> and <code>ifelse</code> do.
+	 * The Interprete inserts the instructions in place of the primitive, therefore their output is the output of the primitive.
+	 */
+	private Object run(String instructions) throws LogoError
+	{
+		String word = lanceprim.getWord(instructions);
+		if (null == word)
+			return runBody(getBody(instructions));
+		BodyTree body = lists.get(instructions);
+		if (null == body)
+		{
+			body = new BodyTree(new LogoParser(CodeBlock.compile(word + " "), this));
+			cache(instructions, body);
+		}
+		return runBody(body);
+	}
+	
+	/**
+	 * @param list a list, e.g. "[ fd 100 rt 90 ] "
+	 * @return the parsed instructions of the list
+	 */
+	private BodyTree getBody(String list) throws LogoError
+	{
+		checkCalculator();
+		BodyTree body = lists.get(list);
+		if (null == body)
+		{
+			CodeBlock code = CodeBlock.compile(Utils.decoupe(lanceprim.getFinalList(list), true));
+			code = ConstantFolder.fold(code, foldedWith);
+			body = new BodyTree(new LogoParser(code, this));
+			cache(list, body);
+		}
+		return body;
+	}
+	
+	private void cache(String list, BodyTree body)
+	{
+		if (lists.size() >= MAX_CACHED_LISTS)
+			lists.clear();
+		lists.put(list, body);
+	}
+	
+	private ProcedureTree getProcedureTree(Procedure procedure)
+	{
+		checkCalculator();
+		ProcedureTree tree = procedures.get(procedure);
+		if (null == tree)
+		{
+			tree = new ProcedureTree(procedure, procedure.getFoldedCode(foldedWith), this);
+			procedures.put(procedure, tree);
+		}
+		return tree;
+	}
+	
+	/**
+	 * Calls a procedure. As long as the running procedure ends with a call to another procedure,
+	 * the running procedure is left and the other one is entered in the same loop, without growing the Java stack,
+	 * {@link ExecutionContext#en_cours} or {@link ExecutionContext#stockvariable}.
+	 * @param caller the name of the primitive or procedure that waits for the output, or null
+	 */
+	private Object callProcedure(CallTree tree, String caller) throws LogoError
+	{
+		Procedure procedure = tree.getProcedure();
+		ProcedureTree body = getProcedureTree(procedure);
+		return callProcedure(procedure, body, evaluateProcedureArguments(tree, body), caller);
+	}
+	
+	/**
+	 * Call a procedure for a primitive such as map, see {@link ProcedureCaller}
+	 */
+	@Override
+	public Object call(Procedure procedure, ValueStack param) throws LogoError
+	{
+		ProcedureTree body = getProcedureTree(procedure);
+		for (int i = param.size() - procedure.nbparametre; i < procedure.optVariables.size(); i++)
+			param.pushValue(evaluate(body.getDefault(i), procedure.name));
+		return callProcedure(procedure, body, param, null);
+	}
+	
+	/**
+	 * @param param the values of all arguments, including the optional ones
+	 * @param caller the name of the primitive or procedure that waits for the output, or null.
+	 * If the procedure does not output anything, the error is reported in the procedure, as the Interprete does at its end.
+	 */
+	private Object callProcedure(Procedure procedure, ProcedureTree body, ValueStack param, String caller) throws LogoError
+	{
+		List<String> arguments = null;
+		if (procedure.isMemoized())
+		{
+			arguments = MemoTable.getArguments(param);
+			String value = kernel.getMemoTable().get(procedure, arguments, kernel.getCalculator());
+			if (null != value)
+			{
+				context.governor.step();
+				return value;
+			}
+		}
+		Procedure called = procedure;
+		
+		int callerLine = line;
+		Object value = null;
+		// A procedure was called in tail position by a procedure that doesn't output anything
+		boolean tailCalled = false;
+		// The procedure that must output something, and the name of the primitive or procedure that waits for the output
+		String mustOutput = null == caller ? null : procedure.name;
+		String output = caller;
+		while (true)
+		{
+			lanceprim.enterProcedure(procedure, param);
+			line = -1;
+			value = null;
+			try
+			{
+				value = runBody(body, true);
+				if (TAIL_CALL == value && null == tailOutput && null != mustOutput)
+				{
+					// The running procedure must output something, its errors are reported in it as the Interprete does
+					Procedure tail = tailProcedure;
+					ValueStack tailArguments = tailParam;
+					tailProcedure = null;
+					tailParam = null;
+					value = callProcedure(tail, getProcedureTree(tail), tailArguments, null);
+				}
+				if (TAIL_CALL == value)
+				{
+					context.restoreLocale();
+					context.en_cours.pop();
+					procedure = tailProcedure;
+					body = getProcedureTree(procedure);
+					param = tailParam;
+					if (null == tailOutput)
+						tailCalled = true;
+					else
+					{
+						mustOutput = procedure.name;
+						output = tailOutput;
+					}
+					tailProcedure = null;
+					tailParam = null;
+					tailOutput = null;
+					continue;
+				}
+				if (null != value)
+					throw new LogoError(Logo.messages.getString("error.whattodo") + " " + value + " ?");
+			}
+			catch (StopSignal e)
+			{}
+			catch (OutputSignal e)
+			{
+				value = e.value;
+			}
+			break;
+		}
+		// The error is reported in the innermost procedure, the procedures left by the tail calls would have reported it first
+		if (null == value && null != mustOutput)
+			throw new LogoError(mustOutput + " " + Logo.messages.getString("ne_renvoie_pas") + " " + output);
+		context.restoreLocale();
+		context.en_cours.pop();
+		line = callerLine;
+		// The procedure that called in tail position does not output anything, its caller reports the output
+		if (null != value && tailCalled)
+			throw new LogoError(Logo.messages.getString("error.whattodo") + " " + value + " ?");
+		if (null != arguments && null != value)
+			kernel.getMemoTable().put(called, arguments, value.toString());
+		return value;
+	}
+	
+	/**
+	 * Optional arguments that are not given are computed before the procedure is entered
+	 */
+	private ValueStack evaluateProcedureArguments(CallTree tree, ProcedureTree body) throws LogoError
+	{
+		Procedure procedure = tree.getProcedure();
+		ValueStack param = evaluateArguments(tree);
+		for (int i = param.size() - procedure.nbparametre; i < procedure.optVariables.size(); i++)
+			param.pushValue(evaluate(body.getDefault(i), tree.getName()));
+		return param;
+	}
+	
+	private ValueStack evaluateArguments(CallTree tree) throws LogoError
+	{
+		ValueStack param = new ValueStack();
+		for (LogoTree argument : tree.getArguments())
+			param.pushValue(evaluate(argument, tree.getName()));
+		setLine(tree.getEndLine());
+		return param;
+	}
+	
+	/**
+	 * @param caller the name of the primitive or procedure that waits for the value
+	 * @return the value of the expression
+	 * @throws LogoError if the expression does not output anything
+	 */
+	private Object evaluate(LogoTree expression, String caller) throws LogoError
+	{
+		if (expression instanceof CallTree)
+		{
+			CallTree call = (CallTree) expression;
+			// stop doesn't output to fd
+			if (call.getPrimitive() == STOP || call.getPrimitive() == OUTPUT)
+				throw new LogoError(call.getName() + " " + Logo.messages.getString("ne_renvoie_pas") + " " + caller);
+			// The Interprete reports a loop before its body is executed
+			if (call instanceof LoopTree)
+			{
+				evaluateArguments(call);
+				throw new LogoError(call.getName() + " " + Logo.messages.getString("ne_renvoie_pas") + " " + caller);
+			}
+			Object value = call.isProcedure() ? callProcedure(call, caller) : call.accept(this);
+			if (null == value)
+				throw new LogoError(call.getName() + " " + Logo.messages.getString("ne_renvoie_pas") + " " + caller);
+			return value;
+		}
+		return expression.accept(this);
+	}
+	
+	/**
+	 * Execute a primitive with {@link LaunchPrimitive}
+	 * @return the output of the primitive, or null
+	 */
+	private Object launch(int id, String name, ValueStack param) throws LogoError
+	{
+		int size = context.calcul.size();
+		lanceprim.execute(id, name, param);
+		if (app.error)
+			throw new LogoError(Logo.messages.getString("stop"));
+		if (context.calcul.size() > size)
+		{
+			context.operande = false;
+			return context.calcul.popValue();
+		}
+		return null;
+	}
+	
+	/*
+	 * Loops
+	 */
+	
+	private void repeat(String count, String list) throws LogoError
+	{
+		lanceprim.getList(list);
+		int i = kernel.getCalculator().getInteger(count);
+		if (i < 0)
+			throw new LogoError(Utils.primitiveName("controls.repete") + " " + Logo.messages.getString("attend_positif"));
+		if (i == 0)
+			return;
+		BodyTree body = getBody(list);
+		LoopProperties loop = new LoopRepeat(1, i, 1, list);
+		context.stackLoop.push(loop);
+		try
+		{
+			while (true)
+			{
+				runInstructions(body);
+				if (loop.compareCounterToEnd() >= 0)
+					break;
+				loop.incremente();
+			}
+		}
+		catch (StopSignal e)
+		{}
+		finally
+		{
+			context.stackLoop.pop();
+		}
+	}
+	
+	/**
+	 * while, do.while and do.until
+	 * @param bodyFirst true if the body is executed before the condition is tested the first time
+	 * @param expected the value of the condition for which the loop continues
+	 */
+	private void loopWhile(String name, BodyTree condition, BodyTree body, boolean bodyFirst, boolean expected)
+			throws LogoError
+	{
+		context.stackLoop.push(new LoopWhile(1, 0, 1, name));
+		try
+		{
+			if (bodyFirst)
+				runInstructions(body);
+			while (predicate(name, condition) == expected)
+			{
+				checkInterrupt();
+				runInstructions(body);
+			}
+		}
+		catch (StopSignal e)
+		{}
+		finally
+		{
+			context.stackLoop.pop();
+		}
+	}
+	
+	private boolean predicate(String name, BodyTree condition) throws LogoError
+	{
+		LogoTree expression = condition.getStatement(0);
+		if (null == expression)
+			throw new LogoError(Logo.messages.getString("pas_assez_de") + " " + name);
+		return lanceprim.predicat(evaluate(expression, name).toString());
+	}
+	
+	/**
+	 * for and foreach
+	 * @param loop the prepared loop, or null if the body is not executed at all
+	 */
+	private void loopFor(LoopFor loop, String list) throws LogoError
+	{
+		if (null == loop)
+			return;
+		BodyTree body = getBody(list);
+		context.stackLoop.push(loop);
+		try
+		{
+			while (true)
+			{
+				runInstructions(body);
+				if (!loop.hasNext())
+				{
+					loop.DeleteVar(context.locale);
+					break;
+				}
+				loop.incremente();
+				loop.AffecteVar(context.locale, false);
+			}
+		}
+		catch (StopSignal e)
+		{}
+		finally
+		{
+			context.stackLoop.pop();
+		}
+	}
+	
+	private void forever(String list) throws LogoError
+	{
+		BodyTree body = getBody(list);
+		context.stackLoop.push(new LoopProperties(1, 0, 1, list));
+		try
+		{
+			while (true)
+			{
+				checkInterrupt();
+				runInstructions(body);
+			}
+		}
+		catch (StopSignal e)
+		{}
+		finally
+		{
+			context.stackLoop.pop();
+		}
+	}
+	
+	private void fillPolygon(String list) throws LogoError
+	{
+		BodyTree body = getBody(list);
+		context.stackLoop.push(new LoopFillPolygon());
+		app.getDrawPanel().startRecord2DPolygon();
+		try
+		{
+			runInstructions(body);
+			app.getDrawPanel().stopRecord2DPolygon();
+		}
+		catch (StopSignal e)
+		{}
+		finally
+		{
+			context.stackLoop.pop();
+		}
+	}
+	
+	/**
+	 * Stop if the user pressed the stop button, and wait while the scrollbars are touched
+	 */
+	private void checkInterrupt() throws LogoError
+	{
+		if (app.error)
+			throw new LogoError(Logo.messages.getString("stop"));
+		context.governor.poll();
+	}
+	
+	private void setLine(int line)
+	{
+		if (line != -1)
+			this.line = line;
+	}
+	
+	/**
+	 * Thrown by <code>stop</code>, caught by the innermost loop or procedure
+	 */
+	private static class StopSignal extends RuntimeException
+	{
+		private static final long		serialVersionUID	= 1L;
+		private static final StopSignal	STOP				= new StopSignal();
+		
+		@Override
+		public synchronized Throwable fillInStackTrace()
+		{
+			return this;
+		}
+	}
+	
+	/**
+	 * Thrown by <code>output</code>, caught by the innermost procedure
+	 */
+	private static class OutputSignal extends RuntimeException
+	{
+		private static final long	serialVersionUID	= 1L;
+		private final Object		value;
+		
+		OutputSignal(Object value)
+		{
+			this.value = value;
+		}
+		
+		@Override
+		public synchronized Throwable fillInStackTrace()
+		{
+			return this;
+		}
+	}
+}
@@ -36,15 +36,17 @@
 
 package xlogo.kernel;
 
-import java.awt.Toolkit;
 import java.awt.MediaTracker;
 import java.awt.geom.GeneralPath;
 import java.awt.Color;
 import java.awt.Image;
 import java.awt.BasicStroke;
 import java.awt.Stroke;
+import java.io.IOException;
 import java.util.StringTokenizer;
 
+import javax.imageio.ImageIO;
+
 import xlogo.Logo;
 import xlogo.storage.WSManager;
 import xlogo.storage.user.PenShape;
@@ -173,24 +175,29 @@ public class Turtle
 			// ON teste tout d'abord si le chemin est valide
 			if (null == Utils.class.getResource(chemin))
 				chemin = "tortue1.png";
-			tort = Toolkit.getDefaultToolkit().getImage(Utils.class.getResource(chemin));
-			MediaTracker tracker = new MediaTracker(app.getFrame());
-			tracker.addImage(tort, 0);
+			/*
+			 * Marko : ImageIO loads the image at once, without a MediaTracker on the main frame.
+			 * The first turtle is created before the frame exists, and there is no frame in headless mode.
+			 */
 			try
 			{
-				tracker.waitForID(0);
+				tort = ImageIO.read(Utils.class.getResource(chemin));
+				largeur = tort.getWidth(null);
+				hauteur = tort.getHeight(null);
+			}
+			catch (IOException e)
+			{
+				tort = null;
+				largeur = 26;
+				hauteur = 26;
 			}
-			catch (InterruptedException e1)
-			{}
-			largeur = tort.getWidth(app.getFrame());
-			hauteur = tort.getHeight(app.getFrame());
-			double largeur_ecran = Toolkit.getDefaultToolkit().getScreenSize().getWidth();
+			double largeur_ecran = Utils.getScreenSize().getWidth();
 			// On fait attention à la résolution de l'utilisateur
 			double facteur = largeur_ecran / 1024.0;
-			if ((int) (facteur + 0.001) != 1)
+			if (null != tort && (int) (facteur + 0.001) != 1)
 			{
 				tort = tort.getScaledInstance((int) (facteur * largeur), (int) (facteur * hauteur), Image.SCALE_SMOOTH);
-				tracker = new MediaTracker(app.getFrame());
+				MediaTracker tracker = new MediaTracker(app.getFrame());
 				tracker.addImage(tort, 0);
 				try
 				{
@@ -198,9 +205,9 @@ public class Turtle
 				}
 				catch (InterruptedException e1)
 				{}
+				largeur = tort.getWidth(app.getFrame());
+				hauteur = tort.getHeight(app.getFrame());
 			}
-			largeur = tort.getWidth(app.getFrame());
-			hauteur = tort.getHeight(app.getFrame());
 		}
 		gabarit = Math.max(hauteur, largeur);
 		corX = uc.getImageWidth() / 2;
@@ -246,7 +253,7 @@ public class Turtle
 			}
 			else
 				triangle.reset();
-			if (DrawPanel.WINDOW_MODE != DrawPanel.WINDOW_3D)
+			if (!is3D())
 			{
 				triangle.moveTo((float) (corX - 10.0 * Math.sin(angle)), (float) (corY - 10.0 * Math.cos(angle)));
 				triangle.lineTo((float) (corX + 24.0 * Math.cos(angle)), (float) (corY - 24.0 * Math.sin(angle)));
@@ -365,9 +372,19 @@ public class Turtle
 		return rotationMatrix;
 	}
 	
+	/**
+	 * The first turtle is created while the drawing area is built, before {@link Application#getDrawPanel()} is set.
+	 * @return true if the drawing area is in 3D mode
+	 */
+	private boolean is3D()
+	{
+		DrawPanel drawPanel = app.getDrawPanel();
+		return drawPanel != null && drawPanel.WINDOW_MODE == DrawPanel.WINDOW_3D;
+	}
+	
 	protected double getX()
 	{
-		if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_3D)
+		if (is3D())
 			return X;
 		return corX - WSManager.getUserConfig().getImageWidth() / 2;
 		
@@ -375,7 +392,7 @@ public class Turtle
 	
 	protected double getY()
 	{
-		if (DrawPanel.WINDOW_MODE == DrawPanel.WINDOW_3D)
+		if (is3D())
 			return Y;
 		return WSManager.getUserConfig().getImageHeight() / 2 - corY;
 		
@@ -0,0 +1,356 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel;
+
+import java.util.Arrays;
+
+import xlogo.kernel.grammar.LogoList;
+
+/**
+ * The stack of values that are computed by the interpreter, and the arguments of a primitive.
+ * <p>
+ * In XLogo, both were a Stack&lt;String&gt;. Every arithmetic operation parsed its operands from text and formatted its result
+ * back to text, only to have the next operation parse it again.
+ * <p>
+ * A ValueStack still offers the same methods as a Stack&lt;String&gt;, so the primitives can read their arguments as text.
+ * But numbers that are computed by {@link MyCalculator} are pushed unboxed, as long or as double. They are converted to text
+ * only if somebody asks for the text, e.g. to print the number or to store it in a variable.
+ * Numbers that were pushed as text are parsed at most once, when they are read as numbers.
+ * <p>
+ * Lists that are computed by the list primitives are pushed as {@link LogoList}, so that the next list primitive works on the same
+ * list instead of parsing its text. Their text is also computed only if somebody asks for it.
+ * {@link #getValue(int)} and {@link #pushValue(Object)} move a value without converting it to text.
+ */
+public class ValueStack
+{
+	/**
+	 * Only the text of the value is known
+	 */
+	private static final byte	TEXT		= 0;
+	/**
+	 * The value is an integer in {@link #longs}
+	 */
+	private static final byte	LONG		= 1;
+	/**
+	 * The value is a decimal number in {@link #doubles}
+	 */
+	private static final byte	DOUBLE		= 2;
+	/**
+	 * The text is not an integer
+	 */
+	private static final byte	NO_LONG		= 3;
+	/**
+	 * The value is a list in {@link #lists}
+	 */
+	private static final byte	LIST		= 4;
+	
+	/**
+	 * Integers with at most this many digits are exactly represented by a long, and they are not rounded by {@link MyCalculator},
+	 * which works with a precision of at least 16 digits.
+	 */
+	private static final int	MAX_DIGITS	= 16;
+	/**
+	 * 10^{@link #MAX_DIGITS}
+	 */
+	static final long			LIMIT		= 10000000000000000L;
+	
+	private String[]			texts		= new String[8];
+	private byte[]				kinds		= new byte[8];
+	private long[]				longs		= new long[8];
+	private double[]			doubles		= new double[8];
+	private LogoList[]			lists		= new LogoList[8];
+	private int					size		= 0;
+	
+	public void push(String text)
+	{
+		int i = grow();
+		texts[i] = text;
+		kinds[i] = TEXT;
+	}
+	
+	/**
+	 * Push an integer, its text is computed when needed
+	 */
+	public void pushNumber(long n)
+	{
+		int i = grow();
+		texts[i] = null;
+		kinds[i] = LONG;
+		longs[i] = n;
+	}
+	
+	/**
+	 * Push a decimal number. Its text is computed when needed by {@link MyCalculator#teste_fin_double(double)}
+	 */
+	public void pushNumber(double d)
+	{
+		int i = grow();
+		texts[i] = null;
+		kinds[i] = DOUBLE;
+		doubles[i] = d;
+	}
+	
+	/**
+	 * Push a list, its text is computed when needed by {@link LogoList#toString()}
+	 */
+	public void pushList(LogoList list)
+	{
+		int i = grow();
+		texts[i] = null;
+		kinds[i] = LIST;
+		lists[i] = list;
+	}
+	
+	/**
+	 * Push a value as it is returned by {@link #getValue(int)}
+	 * @param value a {@link LogoList} or a text
+	 */
+	public void pushValue(Object value)
+	{
+		if (value instanceof LogoList)
+			pushList((LogoList) value);
+		else
+			push((String) value);
+	}
+	
+	/**
+	 * Removes the top value of the other stack and pushes it on this stack, without converting it to text
+	 */
+	public void pushFrom(ValueStack other)
+	{
+		int j = other.size - 1;
+		int i = grow();
+		texts[i] = other.texts[j];
+		kinds[i] = other.kinds[j];
+		longs[i] = other.longs[j];
+		doubles[i] = other.doubles[j];
+		lists[i] = other.lists[j];
+		other.pop();
+	}
+	
+	private int grow()
+	{
+		if (size == texts.length)
+		{
+			int n = 2 * size;
+			texts = Arrays.copyOf(texts, n);
+			kinds = Arrays.copyOf(kinds, n);
+			longs = Arrays.copyOf(longs, n);
+			doubles = Arrays.copyOf(doubles, n);
+			lists = Arrays.copyOf(lists, n);
+		}
+		return size++;
+	}
+	
+	/**
+	 * Removes the top value
+	 * @return its text
+	 */
+	public String pop()
+	{
+		if (size == 0)
+			throw new java.util.EmptyStackException();
+		String text = get(size - 1);
+		size--;
+		texts[size] = null;
+		lists[size] = null;
+		return text;
+	}
+	
+	/**
+	 * Removes the top value
+	 * @return the value as it is returned by {@link #getValue(int)}
+	 */
+	public Object popValue()
+	{
+		if (size == 0)
+			throw new java.util.EmptyStackException();
+		Object value = getValue(size - 1);
+		size--;
+		texts[size] = null;
+		lists[size] = null;
+		return value;
+	}
+	
+	/**
+	 * @return the text of the top value
+	 */
+	public String peek()
+	{
+		if (size == 0)
+			throw new java.util.EmptyStackException();
+		return get(size - 1);
+	}
+	
+	/**
+	 * @param index the position of the value, 0 is the bottom of the stack
+	 * @return the text of the value
+	 */
+	public String get(int index)
+	{
+		if (index >= size)
+			throw new ArrayIndexOutOfBoundsException(index);
+		String text = texts[index];
+		if (null == text)
+		{
+			if (kinds[index] == LONG)
+				text = Long.toString(longs[index]);
+			else if (kinds[index] == LIST)
+				text = lists[index].toString();
+			else
+				text = MyCalculator.teste_fin_double(doubles[index]);
+			texts[index] = text;
+		}
+		return text;
+	}
+	
+	/**
+	 * @return the list if the value was pushed as list, else its text
+	 */
+	public Object getValue(int index)
+	{
+		if (index >= size)
+			throw new ArrayIndexOutOfBoundsException(index);
+		if (kinds[index] == LIST)
+			return lists[index];
+		return get(index);
+	}
+	
+	/**
+	 * @return true if the value was pushed as list
+	 */
+	public boolean isList(int index)
+	{
+		return kinds[index] == LIST;
+	}
+	
+	/**
+	 * @return the value as list, only valid if {@link #isList(int)}
+	 */
+	public LogoList getList(int index)
+	{
+		return lists[index];
+	}
+	
+	/**
+	 * @return true if the value is an integer with at most 16 digits.
+	 *         For such integers, {@link MyCalculator} computes in long instead of BigDecimal.
+	 */
+	public boolean isLong(int index)
+	{
+		if (kinds[index] == TEXT)
+			parse(index);
+		return kinds[index] == LONG && longs[index] < LIMIT && longs[index] > -LIMIT;
+	}
+	
+	/**
+	 * @return the value as long, only valid if {@link #isLong(int)}
+	 */
+	public long getLong(int index)
+	{
+		return longs[index];
+	}
+	
+	/**
+	 * @return true if the value was computed as a double
+	 */
+	public boolean isDouble(int index)
+	{
+		return kinds[index] == DOUBLE;
+	}
+	
+	/**
+	 * @return the value as double, only valid if {@link #isDouble(int)}
+	 */
+	public double getDouble(int index)
+	{
+		return doubles[index];
+	}
+	
+	/**
+	 * Remember whether the text is an integer.
+	 * Only plain integers are accepted, such as -12 or 007, everything else is left to BigDecimal or Double.
+	 */
+	private void parse(int index)
+	{
+		String text = texts[index];
+		int length = text.length();
+		int start = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+		if (length == start || length - start > MAX_DIGITS)
+		{
+			kinds[index] = NO_LONG;
+			return;
+		}
+		long n = 0;
+		for (int i = start; i < length; i++)
+		{
+			char c = text.charAt(i);
+			if (c < '0' || c > '9')
+			{
+				kinds[index] = NO_LONG;
+				return;
+			}
+			n = 10 * n + (c - '0');
+		}
+		longs[index] = text.charAt(0) == '-' ? -n : n;
+		kinds[index] = LONG;
+	}
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+	
+	public boolean empty()
+	{
+		return size == 0;
+	}
+	
+	public void clear()
+	{
+		Arrays.fill(texts, 0, size, null);
+		Arrays.fill(lists, 0, size, null);
+		size = 0;
+	}
+	
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++)
+		{
+			if (i > 0)
+				sb.append(", ");
+			sb.append(get(i));
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+}
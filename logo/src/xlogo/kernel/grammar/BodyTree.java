@@ -0,0 +1,69 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import java.util.ArrayList;
+
+import xlogo.kernel.LogoError;
+
+/**
+ * A sequence of instructions, e.g. the contents of a list that is run by <code>repeat</code>.
+ * <p>
+ * The instructions are parsed one after the other when they are executed for the first time.
+ * Like this, a body that contains an error can still be executed up to that error, as in XLogo,
+ * and procedures that are defined while a program runs are known to the instructions after the definition.
+ */
+public class BodyTree extends LogoTree
+{
+	private final LogoParser			parser;
+	private final ArrayList<LogoTree>	statements	= new ArrayList<LogoTree>();
+	
+	public BodyTree(LogoParser parser)
+	{
+		super(-1);
+		this.parser = parser;
+	}
+	
+	/**
+	 * @return the instruction number i, or null if the body has less instructions
+	 */
+	public LogoTree getStatement(int i)
+	{
+		while (statements.size() <= i)
+		{
+			if (!parser.hasNext())
+				return null;
+			statements.add(parser.parseStatement());
+		}
+		return statements.get(i);
+	}
+	
+	@Override
+	public Object accept(LogoTreeVisitor visitor) throws LogoError
+	{
+		return visitor.visitBody(this);
+	}
+}
@@ -0,0 +1,106 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import xlogo.kernel.LogoError;
+import xlogo.kernel.userspace.procedures.Procedure;
+
+/**
+ * A call of a primitive or a procedure with all its arguments, e.g. <code>fd 100</code> or <code>(sum 1 2 3)</code>
+ */
+public class CallTree extends LogoTree
+{
+	/**
+	 * The id of the primitive, or -1 if a procedure is called
+	 */
+	private final int			primitive;
+	private final Procedure		procedure;
+	/**
+	 * The name as it was written. It is used in error messages.
+	 */
+	private final String		name;
+	private final LogoTree[]	arguments;
+	/**
+	 * The line of the last word of the call, or -1
+	 */
+	private final int			endLine;
+	
+	public CallTree(int line, int endLine, int primitive, String name, LogoTree[] arguments)
+	{
+		this(line, endLine, primitive, null, name, arguments);
+	}
+	
+	public CallTree(int line, int endLine, Procedure procedure, String name, LogoTree[] arguments)
+	{
+		this(line, endLine, -1, procedure, name, arguments);
+	}
+	
+	private CallTree(int line, int endLine, int primitive, Procedure procedure, String name, LogoTree[] arguments)
+	{
+		super(line);
+		this.endLine = endLine;
+		this.primitive = primitive;
+		this.procedure = procedure;
+		this.name = name;
+		this.arguments = arguments;
+	}
+	
+	public boolean isProcedure()
+	{
+		return procedure != null;
+	}
+	
+	public int getPrimitive()
+	{
+		return primitive;
+	}
+	
+	public Procedure getProcedure()
+	{
+		return procedure;
+	}
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public LogoTree[] getArguments()
+	{
+		return arguments;
+	}
+	
+	public int getEndLine()
+	{
+		return endLine;
+	}
+	
+	@Override
+	public Object accept(LogoTreeVisitor visitor) throws LogoError
+	{
+		return visitor.visitCall(this);
+	}
+}
@@ -0,0 +1,85 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import xlogo.kernel.LogoError;
+
+/**
+ * An error that was found while parsing, e.g. an unknown procedure or missing inputs.
+ * <p>
+ * The string-rewriting interpreter only notices such errors when it reaches them,
+ * after all instructions before them have been executed.
+ * Therefore the parser does not throw, but the error is reported when the node is evaluated.
+ * <p>
+ * An unknown word that follows an operand, e.g. <code>^</code> in <code>print 2 ^ 10</code>, is read before the instruction is executed.
+ * Then the error has the operand, which is evaluated before the error is reported.
+ */
+public class ErrorTree extends LogoTree
+{
+	private final String	message;
+	private final LogoTree	operand;
+	/**
+	 * The name of the primitive or procedure that waits for the value of the operand, or "" for an instruction
+	 */
+	private final String	caller;
+	
+	public ErrorTree(int line, String message)
+	{
+		this(line, message, null, "");
+	}
+	
+	public ErrorTree(int line, String message, LogoTree operand, String caller)
+	{
+		super(line);
+		this.message = message;
+		this.operand = operand;
+		this.caller = caller;
+	}
+	
+	public String getMessage()
+	{
+		return message;
+	}
+	
+	/**
+	 * @return the operand before the error, or null
+	 */
+	public LogoTree getOperand()
+	{
+		return operand;
+	}
+	
+	public String getCaller()
+	{
+		return caller;
+	}
+	
+	@Override
+	public Object accept(LogoTreeVisitor visitor) throws LogoError
+	{
+		return visitor.visitError(this);
+	}
+}
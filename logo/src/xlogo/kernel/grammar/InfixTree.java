@@ -0,0 +1,77 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import xlogo.kernel.LogoError;
+
+/**
+ * An infix operation, e.g. <code>:a + 1</code>. Unary minus is parsed as <code>0 - x</code>, as in XLogo.
+ */
+public class InfixTree extends LogoTree
+{
+	/**
+	 * The id of the operator in {@link xlogo.kernel.Primitive#primitives}
+	 */
+	private final int		operator;
+	private final String	name;
+	private final LogoTree	left;
+	private final LogoTree	right;
+	
+	public InfixTree(int line, int operator, String name, LogoTree left, LogoTree right)
+	{
+		super(line);
+		this.operator = operator;
+		this.name = name;
+		this.left = left;
+		this.right = right;
+	}
+	
+	public int getOperator()
+	{
+		return operator;
+	}
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public LogoTree getLeft()
+	{
+		return left;
+	}
+	
+	public LogoTree getRight()
+	{
+		return right;
+	}
+	
+	@Override
+	public Object accept(LogoTreeVisitor visitor) throws LogoError
+	{
+		return visitor.visitInfix(this);
+	}
+}
@@ -36,20 +36,113 @@
  */
 package xlogo.kernel.grammar;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 
+/**
+ * An immutable Logo list.
+ * <p>
+ * In XLogo, lists were only passed around as text, e.g. "[ a b [ c d ] ] ", and every list primitive cut this text into words again,
+ * counting the brackets, before it glued a new text together. A recursive walk over a list with first and butfirst took O(n^2).
+ * <p>
+ * A LogoList is a slice of an array of elements that can be shared by many lists. first, last, item, count, butfirst and butlast
+ * only read the array or move the bounds of the slice. fput and lput write the new element into the free space in front of resp. behind the slice,
+ * as long as no other list has taken that space already, so a list that is built element by element costs amortized O(1) per element.
+ * The text of a list is computed at most once, when it is needed.
+ * <p>
+ * The elements are {@link LogoWord}s with the text that they have inside the list (numbers as they were written, the empty word as \v),
+ * and LogoLists.
+ * @author Marko Zivkovic
+ */
 public class LogoList extends LogoType
 {
-	private Vector<LogoType>	vector;
+	public static final LogoList	EMPTY	= new LogoList(new Store(new LogoType[0], 0, 0), 0, 0);
+	
+	private final Store				store;
+	private final int				start;
+	private final int				end;
+	/**
+	 * The text of this list, see {@link #toString()}
+	 */
+	private String					text;
+	/**
+	 * A list whose text was known when this list was made from it by fput, lput, butfirst or butlast.
+	 * The text of this list is then cut from the text of the base list, instead of being built element by element.
+	 */
+	private LogoList				base;
+	private byte					change;
+	
+	private static final byte		FPUT		= 1;
+	private static final byte		LPUT		= 2;
+	private static final byte		BUTFIRST	= 3;
+	private static final byte		BUTLAST		= 4;
+	
+	private LogoList(Store store, int start, int end)
+	{
+		this.store = store;
+		this.start = start;
+		this.end = end;
+	}
+	
+	/**
+	 * @param elements they are copied
+	 */
+	public static LogoList of(ArrayList<LogoType> elements)
+	{
+		int size = elements.size();
+		if (size == 0)
+			return EMPTY;
+		return new LogoList(new Store(elements.toArray(new LogoType[size]), 0, size), 0, size);
+	}
 	
-	LogoList(Vector<LogoType> vector)
+	/**
+	 * Cut the text of a list into its elements, the same way the list primitives of XLogo did it:
+	 * the words are separated by white spaces, and the words [ and ] delimit the sub lists.
+	 * @param text a list, it must start with [ and end with ]
+	 */
+	public static LogoList parse(String text)
 	{
-		this.vector = vector;
+		ArrayList<ArrayList<LogoType>> levels = new ArrayList<ArrayList<LogoType>>();
+		levels.add(new ArrayList<LogoType>());
+		int length = text.length() - 1;
+		int i = 1;
+		while (i < length)
+		{
+			while (i < length && isWhiteSpace(text.charAt(i)))
+				i++;
+			int wordStart = i;
+			while (i < length && !isWhiteSpace(text.charAt(i)))
+				i++;
+			if (wordStart == i)
+				break;
+			String word = text.substring(wordStart, i);
+			ArrayList<LogoType> level = levels.get(levels.size() - 1);
+			if (word.equals("["))
+				levels.add(new ArrayList<LogoType>());
+			else if (word.equals("]") && levels.size() > 1)
+			{
+				levels.remove(levels.size() - 1);
+				levels.get(levels.size() - 1).add(of(level));
+			}
+			else
+				level.add(new LogoWord(word));
+		}
+		// Unclosed sub lists end with the list
+		while (levels.size() > 1)
+		{
+			ArrayList<LogoType> level = levels.remove(levels.size() - 1);
+			levels.get(levels.size() - 1).add(of(level));
+		}
+		return of(levels.get(0));
 	}
 	
-	LogoList()
+	/**
+	 * The white spaces of {@link java.util.StringTokenizer}
+	 */
+	private static boolean isWhiteSpace(char c)
 	{
-		vector = new Vector<LogoType>();
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
 	}
 	
 	public boolean isList()
@@ -57,27 +150,284 @@ public class LogoList extends LogoType
 		return true;
 	}
 	
-	public void add(LogoType type)
+	public int size()
+	{
+		return end - start;
+	}
+	
+	public boolean isEmpty()
+	{
+		return end == start;
+	}
+	
+	/**
+	 * @param index from 0 to size() - 1
+	 */
+	public LogoType get(int index)
+	{
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		return store.elements[start + index];
+	}
+	
+	/**
+	 * @param index from 0 to size() - 1
+	 * @return the element as it is passed to a primitive, e.g. by item: numbers as they are, words with a quote, lists as text
+	 */
+	public String getValue(int index)
+	{
+		LogoType element = get(index);
+		if (element.isList())
+			return element.toString();
+		String word = element.toString();
+		if (isNumber(word))
+			return word;
+		if (word.equals("\\v"))
+			return "\"";
+		return ((LogoWord) element).getQuotedValue();
+	}
+	
+	/**
+	 * Only words that start like a number are parsed, so that most words do not throw an exception.
+	 */
+	private static boolean isNumber(String word)
+	{
+		if (word.length() == 0 || "0123456789.-+IN".indexOf(word.charAt(0)) < 0)
+			return false;
+		try
+		{
+			Double.parseDouble(word);
+			return true;
+		}
+		catch (NumberFormatException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * @return the list without the first element, sharing the elements with this list
+	 */
+	public LogoList butFirst()
+	{
+		return derive(subList(1, size()), BUTFIRST);
+	}
+	
+	/**
+	 * @return the list without the last element, sharing the elements with this list
+	 */
+	public LogoList butLast()
+	{
+		return derive(subList(0, size() - 1), BUTLAST);
+	}
+	
+	/**
+	 * @return the elements from index from to index to - 1, sharing the elements with this list
+	 */
+	public LogoList subList(int from, int to)
+	{
+		if (from < 0 || to > size() || from > to)
+			throw new IndexOutOfBoundsException(from + " " + to);
+		if (from == to)
+			return EMPTY;
+		if (from == 0 && to == size())
+			return this;
+		return new LogoList(store, start + from, start + to);
+	}
+	
+	/**
+	 * @return a list with the element in front of the elements of this list
+	 */
+	public LogoList fput(LogoType element)
+	{
+		synchronized (store)
+		{
+			if (start == store.low && start > 0)
+			{
+				store.elements[--store.low] = element;
+				return derive(new LogoList(store, start - 1, end), FPUT);
+			}
+		}
+		return derive(copy().fput(element), FPUT);
+	}
+	
+	/**
+	 * @return a list with the element behind the elements of this list
+	 */
+	public LogoList lput(LogoType element)
+	{
+		synchronized (store)
+		{
+			if (end == store.high && end < store.elements.length)
+			{
+				store.elements[store.high++] = element;
+				return derive(new LogoList(store, start, end + 1), LPUT);
+			}
+		}
+		return derive(copy().lput(element), LPUT);
+	}
+	
+	/**
+	 * Remember that the text of the list can be cut from the text of this list
+	 */
+	private LogoList derive(LogoList list, byte change)
+	{
+		if (null != text && list != this && list != EMPTY)
+		{
+			list.base = this;
+			list.change = change;
+		}
+		return list;
+	}
+	
+	/**
+	 * @return a copy of this list with free space in front and behind
+	 */
+	private LogoList copy()
+	{
+		int size = size();
+		int capacity = 2 * size + 8;
+		LogoType[] elements = new LogoType[capacity];
+		int offset = (capacity - size) / 2;
+		System.arraycopy(store.elements, start, elements, offset, size);
+		return new LogoList(new Store(elements, offset, offset + size), offset, offset + size);
+	}
+	
+	/**
+	 * @return a list with the element at the index instead of the element of this list
+	 */
+	public LogoList set(int index, LogoType element)
 	{
-		vector.add(type);
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		LogoType[] elements = new LogoType[size()];
+		System.arraycopy(store.elements, start, elements, 0, elements.length);
+		elements[index] = element;
+		return new LogoList(new Store(elements, 0, elements.length), 0, elements.length);
 	}
 	
-	public Vector<LogoType> getVector()
+	/**
+	 * @param index from 0 to size()
+	 * @return a list with the element inserted before the element at the index
+	 */
+	public LogoList insert(int index, LogoType element)
 	{
-		return vector;
+		int size = size();
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		if (index == 0)
+			return fput(element);
+		if (index == size)
+			return lput(element);
+		LogoType[] elements = new LogoType[size + 1];
+		System.arraycopy(store.elements, start, elements, 0, index);
+		elements[index] = element;
+		System.arraycopy(store.elements, start + index, elements, index + 1, size - index);
+		return new LogoList(new Store(elements, 0, size + 1), 0, size + 1);
 	}
 	
+	public LogoList reverse()
+	{
+		int size = size();
+		if (size < 2)
+			return this;
+		LogoType[] elements = new LogoType[size];
+		for (int i = 0; i < size; i++)
+			elements[i] = store.elements[end - 1 - i];
+		return new LogoList(new Store(elements, 0, size), 0, size);
+	}
+	
+	/**
+	 * Sort the elements in their natural order: first the numbers by their value, then the words and then the lists by their text.
+	 * Equal elements keep their order. Every number is parsed only once, and long lists are sorted in parallel by
+	 * {@link Arrays#parallelSort(Object[], Comparator)}.
+	 * @return the sorted list
+	 */
+	public LogoList sort()
+	{
+		int size = size();
+		if (size < 2)
+			return this;
+		SortKey[] keys = new SortKey[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = new SortKey(store.elements[start + i]);
+		Arrays.parallelSort(keys, SortKey.ORDER);
+		LogoType[] elements = new LogoType[size];
+		for (int i = 0; i < size; i++)
+			elements[i] = keys[i].element;
+		return new LogoList(new Store(elements, 0, size), 0, size);
+	}
+	
+	/**
+	 * The text of the list as it is passed around by the interpreter: "[ ", the elements each followed by a white space, and "] ".
+	 */
 	public String toString()
 	{
-		StringBuffer sb = new StringBuffer();
+		if (text == null)
+		{
+			if (null != base)
+				text = cut();
+			else
+			{
+				StringBuilder sb = new StringBuilder();
+				appendTo(sb);
+				text = sb.toString();
+			}
+			base = null;
+		}
+		return text;
+	}
+	
+	/**
+	 * @return the text of this list, cut from the text of the {@link #base} list
+	 */
+	private String cut()
+	{
+		// String.concat copies the long part of the text only once
+		String baseText = base.text;
+		switch (change)
+		{
+			case FPUT:
+				return ("[ " + getText(get(0))).concat(baseText.substring(2));
+			case LPUT:
+				return baseText.substring(0, baseText.length() - 2).concat(getText(get(size() - 1)) + "] ");
+			case BUTFIRST:
+				return "[ ".concat(baseText.substring(2 + getText(base.get(0)).length()));
+			default:
+				return baseText.substring(0, baseText.length() - 2 - getText(base.get(base.size() - 1)).length()).concat("] ");
+		}
+	}
+	
+	/**
+	 * @return the text of the element inside a list, followed by a white space
+	 */
+	private static String getText(LogoType element)
+	{
+		if (element.isList())
+			return element.toString();
+		return element.toString() + " ";
+	}
+	
+	private void appendTo(StringBuilder sb)
+	{
+		if (text != null)
+		{
+			sb.append(text);
+			return;
+		}
 		sb.append("[ ");
-		for (int i = 0; i < vector.size(); i++)
+		for (int i = start; i < end; i++)
 		{
-			sb.append(vector.get(i).toString());
-			sb.append(" ");
+			LogoType element = store.elements[i];
+			if (element.isList())
+				((LogoList) element).appendTo(sb);
+			else
+			{
+				sb.append(element.toString());
+				sb.append(' ');
+			}
 		}
-		sb.append("]");
-		return sb.toString();
+		sb.append("] ");
 	}
 	
 	@Override
@@ -90,4 +440,66 @@ public class LogoList extends LogoType
 		
 	}
 	
+	/**
+	 * An element together with what {@link LogoList#sort()} compares
+	 */
+	private static class SortKey
+	{
+		private static final Comparator<SortKey>	ORDER	= new Comparator<SortKey>(){
+			
+			@Override
+			public int compare(SortKey a, SortKey b)
+			{
+				if (a.kind != b.kind)
+					return a.kind - b.kind;
+				if (a.kind == NUMBER)
+					return Double.compare(a.number, b.number);
+				return a.text.compareTo(b.text);
+			}
+		};
+		
+		private static final int	NUMBER	= 0;
+		private static final int	WORD	= 1;
+		private static final int	LIST	= 2;
+		
+		private final LogoType		element;
+		private final int			kind;
+		private final String		text;
+		private double				number;
+		
+		SortKey(LogoType element)
+		{
+			this.element = element;
+			text = element.toString();
+			if (element.isList())
+				kind = LIST;
+			else if (isNumber(text))
+			{
+				kind = NUMBER;
+				number = Double.parseDouble(text);
+			}
+			else
+				kind = WORD;
+		}
+	}
+	
+	/**
+	 * The array behind one or more lists.
+	 */
+	private static class Store
+	{
+		private final LogoType[]	elements;
+		/**
+		 * The elements from low to high - 1 belong to some list, the others are free
+		 */
+		private int					low;
+		private int					high;
+		
+		Store(LogoType[] elements, int low, int high)
+		{
+			this.elements = elements;
+			this.low = low;
+			this.high = high;
+		}
+	}
 }
@@ -36,254 +36,428 @@
 
 package xlogo.kernel.grammar;
 
+import java.util.ArrayList;
+
 import xlogo.Logo;
-import xlogo.kernel.DrawPanel;
+import xlogo.kernel.CodeBlock;
 import xlogo.kernel.Primitive;
-import xlogo.storage.global.GlobalConfig;
+import xlogo.kernel.userspace.procedures.Procedure;
 
+/**
+ * Marko Zivkovic : In XLogo, this parser cut a text into tokens, but it was never used.
+ * Now it builds the syntax tree of a {@link CodeBlock}, i.e. of code that was cut into words exactly as the
+ * {@link xlogo.kernel.Interprete} reads it, and it follows the same rules:
+ * <ul>
+ * <li>A primitive or a procedure takes a fixed number of arguments, and every argument is a whole expression.</li>
+ * <li>Within parenthesis, primitives with a general form and procedures with optional arguments take any number of
+ * arguments, e.g. <code>(sum 1 2 3)</code>.</li>
+ * <li>The infix operators are left-associative. | and &amp; have the lowest priority, then come the comparisons,
+ * then + and -, and * and / have the highest priority.</li>
+ * <li>An expression ends with the line in the editor (In XLogo, this was the line number marker \l).</li>
+ * <li><code>if</code> takes an optional list for the else-case.</li>
+ * </ul>
+ * Errors do not interrupt the parser. They are put in the tree as {@link ErrorTree}.
+ */
 public class LogoParser
 {
-	private char	c;
-	private int		cursor;
-	private String	text;
+	/*
+	 * Primitives with a special syntax, see genericPrimitive
+	 */
+	private static final int	TIMES				= 30;
+	private static final int	DIVIDE				= 31;
+	private static final int	PLUS				= 32;
+	private static final int	MINUS				= 33;
+	private static final int	REPEAT				= 5;
+	private static final int	IF					= 10;
+	private static final int	WHILE				= 92;
+	private static final int	FOR					= 183;
+	private static final int	CLOSING_PARENTHESIS	= 204;
+	private static final int	FOREACH				= 284;
+	private static final int	FOREVER				= 285;
+	private static final int	FILL_POLYGON		= 297;
+	private static final int	DO_UNTIL			= 299;
+	private static final int	DO_WHILE			= 300;
 	
 	/**
-	 * 
-	 * @param sr
-	 *            The String input reader
+	 * Provides the primitives and procedures to the parser
 	 */
-	public LogoParser(String text)
+	public interface Resolver
 	{
-		this.text = text;
-		cursor = 0;
-		while (cursor < text.length())
-		{
-			LogoType lt = getToken();
-			if (GlobalConfig.DEBUG)
-				System.out.println("[DEBUG] Token " + lt.toDebug() + " cursor " + cursor);
-		}
+		/**
+		 * @param name lower case name
+		 * @return the id of the primitive, or -1
+		 */
+		public int getPrimitive(String name);
+		
+		public int getArity(int primitive);
+		
+		public boolean hasGeneralForm(int primitive);
+		
+		/**
+		 * @param name lower case name
+		 * @return the executable procedure, or null
+		 */
+		public Procedure getProcedure(String name);
 	}
 	
-	private LogoType getToken()
+	private final CodeBlock	code;
+	private final Resolver	resolver;
+	/**
+	 * The code of a procedure ends with {@link Primitive#END_PROCEDURE}, which is not parsed
+	 */
+	private final int		end;
+	private int				cursor				= 0;
+	/**
+	 * If a + or - sign follows * or /, then XLogo reads e.g. 2 * - 3 + 1 as 2 * -1 * 3 + 1.
+	 * This is the operator that is inserted after the -1.
+	 */
+	private int				pendingOperator		= -1;
+	private String			pendingName;
+	
+	public LogoParser(CodeBlock code, Resolver resolver)
 	{
-		boolean isQuotedWord = false;
-		boolean isVariable = false;
-		
-		StringBuffer sb = new StringBuffer();
-		boolean start = false;
-		boolean backslash = false;
-		do
+		this.code = code;
+		this.resolver = resolver;
+		int size = code.size();
+		if (size > 0 && code.getWord(size - 1).equals(Primitive.END_PROCEDURE))
+			end = size - 1;
+		else
+			end = size;
+	}
+	
+	public boolean hasNext()
+	{
+		return cursor < end;
+	}
+	
+	/**
+	 * @return the tree of the next instruction
+	 */
+	public LogoTree parseStatement()
+	{
+		return parseExpression(0, -1, "");
+	}
+	
+	/**
+	 * Parse an operand and all following operators with a higher priority than the given level
+	 * @param level the priority of the operator on the left of the expression, or 0
+	 * @param operator the operator on the left of the expression, or -1
+	 * @param caller the primitive or procedure that waits for the value of this expression
+	 */
+	private LogoTree parseExpression(int level, int operator, String caller)
+	{
+		LogoTree left = parseOperand(operator, caller);
+		while (true)
 		{
-			c = text.charAt(cursor);
-			// Skip White Spaces
-			if (c == ' ' || c == '\t')
+			int next;
+			String name;
+			if (pendingOperator != -1)
 			{
-				if (start)
-					break;
-				else
-					cursor++;
+				next = pendingOperator;
+				name = pendingName;
 			}
 			else
 			{
-				if (backslash)
-				{
-					if (c == ' ')
-						sb.append(" ");
-					else if (c == '#')
-						sb.append("#");
-					else if (c == '\\')
-						sb.append("\\");
-					else if (c == '(')
-						sb.append("(");
-					else if (c == ')')
-						sb.append(")");
-					else if (c == '[')
-						sb.append("[");
-					else if (c == ']')
-						sb.append("]");
-					else if (c == 'n')
-						sb.append("\n");
-					else
-						sb.append(c);
-					cursor++;
-				}
-				else
-				{
-					// If it's the first character, check for type
-					if (!start)
-					{
-						if (c == ':')
-							isVariable = true;
-						else if (c == '\"')
-							isQuotedWord = true;
-					}
-					if (c == '\\')
-						backslash = true;
-					
-					else if (c == '[')
-					{
-						if (start)
-							break;
-						else
-						{
-							cursor++;
-							return extractList();
-						}
-					}
-					else if (c == '(')
-					{
-						if (start)
-							break;
-					}
-					else if (c == '*' || c == '/' || c == '+' || c == '-' || c == '|' || c == '&' || c == '=')
-					{
-						if (!isQuotedWord)
-						{
-							if (!start)
-							{
-								sb.append(c);
-								cursor++;
-							}
-							break;
-							
-						}
-						else
-							cursor++;
-					}
-					else if (c == ')')
-						return new LogoException(Logo.messages.getString("parenthese_ouvrante"));
-					else if (c == ']')
-						return new LogoException(Logo.messages.getString("error.whattodo") + " ]");
-					else
-					{
-						sb.append(c);
-						cursor++;
-					}
-				}
-				start = true;
+				if (cursor >= end || code.isLineStart(cursor))
+					break;
+				next = getInfixOperator(cursor);
+				if (next == -1)
+					break;
+				name = code.getWord(cursor);
 			}
-		} while (cursor < text.length());
-		if (sb.length() == 0)
-			return DrawPanel.nullType;
-		else if (isQuotedWord)
-			return new LogoWord(sb.substring(1));
-		else if (isVariable)
-			return new LogoVariable(sb.substring(1));
-		try
+			int priority = getPriority(next);
+			if (priority <= level)
+				break;
+			if (pendingOperator != -1)
+				pendingOperator = -1;
+			else
+				cursor++;
+			LogoTree right = parseExpression(priority, next, name);
+			left = new InfixTree(left.getLine(), next, name, left, right);
+		}
+		// XLogo reads the word after an operand before it executes the instruction, e.g. print 2 ^ 10
+		if (pendingOperator == -1 && cursor < end && !code.isLineStart(cursor) && isUnknown(cursor))
+		{
+			int line = code.getLine(cursor);
+			String word = code.getWord(cursor++);
+			return new ErrorTree(line, Logo.messages.getString("je_ne_sais_pas") + " " + word, left, caller);
+		}
+		return left;
+	}
+	
+	private LogoTree parseOperand(int operator, String caller)
+	{
+		if (cursor >= end)
+			return new ErrorTree(code.getLine(cursor - 1), Logo.messages.getString("pas_assez_de") + " " + caller);
+		
+		int line = code.getLine(cursor);
+		String word = code.getWord(cursor);
+		switch (code.getKind(cursor))
+		{
+			case CodeBlock.NUMBER:
+			case CodeBlock.WORD:
+				return new ConstantTree(line, code.getValue(cursor++));
+			case CodeBlock.VARIABLE:
+				return new VariableTree(line, code.getValue(cursor++));
+		}
+		
+		String lowerCase = code.getLowerCaseWord(cursor);
+		Procedure procedure = resolver.getProcedure(lowerCase);
+		if (procedure != null)
 		{
-			double d = Double.parseDouble(sb.toString());
-			return new LogoNumber(d);
+			cursor++;
+			LogoTree[] arguments = new LogoTree[procedure.nbparametre];
+			for (int i = 0; i < arguments.length; i++)
+				arguments[i] = parseExpression(0, -1, word);
+			return new CallTree(line, code.getLine(cursor - 1), procedure, word, arguments);
 		}
-		catch (NumberFormatException e)
+		
+		int primitive = resolver.getPrimitive(lowerCase);
+		if (primitive != -1)
 		{
-			int id = Primitive.isPrimitive(sb.toString());
-			if (id != -1) { return new LogoPrimitive(id, sb.toString()); }
-			return new LogoException(Logo.messages.getString("je_ne_sais_pas") + " " + sb.toString());
+			cursor++;
+			if (isInfixOperator(primitive))
+				return parseSign(line, primitive, word, operator);
+			if (primitive == CLOSING_PARENTHESIS)
+				return new ErrorTree(line, Logo.messages.getString("parenthese_ouvrante"));
+			LogoTree[] arguments = new LogoTree[resolver.getArity(primitive)];
+			for (int i = 0; i < arguments.length; i++)
+				arguments[i] = parseExpression(0, -1, word);
+			// if predicate [list1] [list2] : the second list is optional
+			if (primitive == IF && cursor < end && code.getWord(cursor).equals("["))
+			{
+				arguments = new LogoTree[] { arguments[0], arguments[1], parseList(code.getLine(cursor)) };
+			}
+			return newCall(line, primitive, word, arguments);
 		}
 		
+		if (word.equals("["))
+			return parseList(line);
+		if (word.equals("("))
+			return parseParenthesis(line);
+		
+		cursor++;
+		return new ErrorTree(line, Logo.messages.getString("je_ne_sais_pas") + " " + word);
 	}
 	
 	/**
-	 * This method extracts a list.
-	 * 
-	 * @return a LogoList if operation succeed,
-	 *         a LogoException otherwise
+	 * + or - without left operand
 	 */
+	private LogoTree parseSign(int line, int sign, String name, int operator)
+	{
+		if (sign != PLUS && sign != MINUS)
+			return new ErrorTree(line, name + " " + Logo.messages.getString("error.ne_peut_etre"));
+		if (operator == TIMES || operator == DIVIDE)
+		{
+			pendingOperator = operator;
+			pendingName = operator == TIMES ? "*" : "/";
+			return new ConstantTree(line, sign == PLUS ? "1" : "-1");
+		}
+		LogoTree right = parseExpression(getPriority(sign), sign, name);
+		return new InfixTree(line, sign, name, new ConstantTree(line, "0"), right);
+	}
 	
-	private LogoType extractList()
+	/**
+	 * The list is kept as a word "[ a b [ c ] ] ", as it was built by {@link xlogo.kernel.Interprete#chercheListe()}
+	 */
+	private LogoTree parseList(int line)
 	{
-		LogoList list = new LogoList();
-		while (cursor < text.length())
+		StringBuilder list = new StringBuilder("[ ");
+		int depth = 0;
+		cursor++;
+		while (cursor < end)
 		{
-			LogoType lt = getListToken();
-			if (lt.isNull())
+			String word = code.getWord(cursor++);
+			if (word.equals("["))
 			{
-				return new LogoException(Logo.messages.getString("erreur_crochet"));
+				depth++;
+				list.append("[ ");
+			}
+			else if (word.equals("]"))
+			{
+				list.append("] ");
+				if (depth == 0)
+					return new ConstantTree(line, list.toString());
+				depth--;
 			}
-			else if (lt.isRightDelimiter())
-				return list;
 			else
 			{
-				list.add(lt);
+				list.append(word);
+				list.append(' ');
 			}
 		}
-		return new LogoException(Logo.messages.getString("erreur_crochet"));
+		return new ErrorTree(line, Logo.messages.getString("erreur_crochet"));
 	}
 	
-	private LogoType getListToken()
+	/**
+	 * Either the general form of a primitive or procedure, e.g. (sum 1 2 3),
+	 * or an expression in parenthesis, e.g. (pi + 2) * 3
+	 */
+	private LogoTree parseParenthesis(int line)
 	{
-		StringBuffer sb = new StringBuffer();
-		boolean start = false;
-		boolean backslash = false;
-		for (int i = cursor; i < text.length(); i++)
+		cursor++;
+		if (cursor >= end)
+			return new ErrorTree(line, Logo.messages.getString("parenthese_fermante"));
+		if (code.getWord(cursor).equals(")"))
 		{
-			cursor = i;
-			c = text.charAt(i);
-			// Skip White Spaces
-			if (c == ' ' || c == '\t')
-			{
-				if (start)
-					break;
-			}
-			else
-			{
-				if (backslash)
-				{
-					if (c == ' ')
-						sb.append(" ");
-					else if (c == '#')
-						sb.append("#");
-					else if (c == '\\')
-						sb.append("\\");
-					else if (c == '(')
-						sb.append("(");
-					else if (c == ')')
-						sb.append(")");
-					else if (c == '[')
-						sb.append("[");
-					else if (c == ']')
-						sb.append("]");
-					else if (c == 'n')
-						sb.append("\n");
-					else
-						sb.append(c);
-				}
-				else
-				{
-					if (c == '\\')
-					{
-						backslash = true;
-					}
-					else if (c == '[')
-					{
-						if (start)
-							break;
-						else
-						{
-							cursor++;
-							return extractList();
-						}
-					}
-					else if (c == ']')
-					{
-						if (start)
-							break;
-						else
-						{
-							System.out.println("coucou");
-							cursor++;
-							return new LogoRightDelimiter();
-						}
-					}
-					else
-						sb.append(c);
-				}
-				start = true;
-			}
+			cursor++;
+			return new ErrorTree(line, Logo.messages.getString("parenthese_vide"));
+		}
+		
+		if (code.getKind(cursor) == CodeBlock.OTHER)
+		{
+			String lowerCase = code.getLowerCaseWord(cursor);
+			Procedure procedure = resolver.getProcedure(lowerCase);
+			int primitive = procedure == null ? resolver.getPrimitive(lowerCase) : -1;
+			if (procedure != null && (procedure.nbparametre > 0 || !procedure.optVariables.isEmpty()))
+				return parseGeneralForm(line, procedure, -1);
+			if (primitive != -1 && !isInfixOperator(primitive) && primitive != CLOSING_PARENTHESIS
+					&& (resolver.getArity(primitive) > 0 || resolver.hasGeneralForm(primitive)))
+				return parseGeneralForm(line, null, primitive);
+		}
+		
+		LogoTree expression = parseExpression(0, -1, "(");
+		// The error is reported before the parenthesis is closed
+		if (expression instanceof ErrorTree)
+			return expression;
+		if (cursor >= end)
+			return new ErrorTree(line, Logo.messages.getString("parenthese_fermante"));
+		if (!code.getWord(cursor).equals(")"))
+			return new ErrorTree(line, Logo.messages.getString("too_much_arguments"));
+		cursor++;
+		return expression;
+	}
+	
+	private LogoTree parseGeneralForm(int line, Procedure procedure, int primitive)
+	{
+		String name = code.getWord(cursor++);
+		ArrayList<LogoTree> arguments = new ArrayList<LogoTree>();
+		while (true)
+		{
+			if (cursor >= end)
+				return new ErrorTree(line, Logo.messages.getString("parenthese_fermante"));
+			if (code.getWord(cursor).equals(")"))
+				break;
+			arguments.add(parseExpression(0, -1, name));
+		}
+		cursor++;
+		
+		int count = arguments.size();
+		int min;
+		int max;
+		if (procedure != null)
+		{
+			min = procedure.nbparametre;
+			max = min + procedure.optVariables.size();
+		}
+		else if (resolver.hasGeneralForm(primitive))
+		{
+			min = 0;
+			max = Integer.MAX_VALUE;
+		}
+		else
+		{
+			min = resolver.getArity(primitive);
+			max = min;
+		}
+		if (count > max)
+			return new ErrorTree(line, Logo.messages.getString("too_much_arguments"));
+		if (count < min)
+			return new ErrorTree(line, Logo.messages.getString("pas_assez_de") + " " + name);
+		
+		LogoTree[] array = arguments.toArray(new LogoTree[count]);
+		if (procedure != null)
+			return new CallTree(line, code.getLine(cursor - 1), procedure, name, array);
+		return newCall(line, primitive, name, array);
+	}
+	
+	private LogoTree newCall(int line, int primitive, String name, LogoTree[] arguments)
+	{
+		int endLine = code.getLine(cursor - 1);
+		LoopTree.Kind kind;
+		switch (primitive)
+		{
+			case REPEAT:
+				kind = LoopTree.Kind.REPEAT;
+				break;
+			case WHILE:
+				kind = LoopTree.Kind.WHILE;
+				break;
+			case FOR:
+				kind = LoopTree.Kind.FOR;
+				break;
+			case FOREACH:
+				kind = LoopTree.Kind.FOREACH;
+				break;
+			case FOREVER:
+				kind = LoopTree.Kind.FOREVER;
+				break;
+			case FILL_POLYGON:
+				kind = LoopTree.Kind.FILL_POLYGON;
+				break;
+			case DO_UNTIL:
+				kind = LoopTree.Kind.DO_UNTIL;
+				break;
+			case DO_WHILE:
+				kind = LoopTree.Kind.DO_WHILE;
+				break;
+			default:
+				return new CallTree(line, endLine, primitive, name, arguments);
 		}
-		if (sb.length() == 0)
-			return DrawPanel.nullType;
-		return new LogoWord(sb.toString());
+		return new LoopTree(line, endLine, primitive, name, arguments, kind);
+	}
+	
+	/**
+	 * @return true if the word at the index is neither a value nor a primitive or procedure
+	 */
+	private boolean isUnknown(int index)
+	{
+		if (code.getKind(index) != CodeBlock.OTHER)
+			return false;
+		String word = code.getWord(index);
+		if (word.equals("[") || word.equals("("))
+			return false;
+		String lowerCase = code.getLowerCaseWord(index);
+		return resolver.getProcedure(lowerCase) == null && resolver.getPrimitive(lowerCase) == -1;
+	}
+	
+	/**
+	 * @return the id of the infix operator at the index, or -1
+	 */
+	private int getInfixOperator(int index)
+	{
+		if (code.getKind(index) != CodeBlock.OTHER)
+			return -1;
+		int primitive = resolver.getPrimitive(code.getLowerCaseWord(index));
+		return isInfixOperator(primitive) ? primitive : -1;
+	}
+	
+	/**
+	 * Infixed operators are for example: +,-,*-,/,&,>=.....
+	 */
+	private static boolean isInfixOperator(int id)
+	{
+		return (29 < id && id < 39) || id == 273 || id == 274;
 	}
 	
+	/**
+	 * @return 4 for * /, 3 for + -, 2 for comparisons and 1 for | &
+	 */
+	private static int getPriority(int operator)
+	{
+		switch (operator)
+		{
+			case TIMES:
+			case DIVIDE:
+				return 4;
+			case PLUS:
+			case MINUS:
+				return 3;
+			case 37: // |
+			case 38: // &
+				return 1;
+			default:
+				return 2;
+		}
+	}
 }
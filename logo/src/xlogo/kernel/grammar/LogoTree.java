@@ -28,69 +28,34 @@
 
 package xlogo.kernel.grammar;
 
-import java.util.Vector;
+import xlogo.kernel.LogoError;
 
-public class LogoTree
+/**
+ * A node of the syntax tree that is built by the {@link LogoParser}.
+ * <p>
+ * Marko Zivkovic : In XLogo, this class was a skeleton that was never used. Now every kind of node has its own subclass
+ * (constants, variables, calls, infix expressions, loops and bodies of lists and procedures),
+ * and the nodes are evaluated by a {@link LogoTreeVisitor}, see {@link xlogo.kernel.TreeInterpreter}.
+ */
+public abstract class LogoTree
 {
-	private Vector<LogoTree>	children;
-	private LogoTree			parent;
-	private LogoType			value;
-	private boolean				isRoot		= false;
-	private boolean				isProcedure	= false;
-	private boolean				isPrimitive	= false;
-	private boolean				isLeaf		= false;
-	
-	LogoTree()
-	{
-		children = new Vector<LogoTree>();
-	}
+	/**
+	 * The line in the editor where the node starts, or -1 if the code was not read from the editor
+	 */
+	private final int	line;
 	
-	protected void setParent(LogoTree lt)
+	protected LogoTree(int line)
 	{
-		this.parent = lt;
+		this.line = line;
 	}
 	
-	protected LogoTree getParent()
+	public int getLine()
 	{
-		return parent;
+		return line;
 	}
 	
-	protected boolean isRoot()
-	{
-		return isRoot;
-	}
-	
-	protected void addChild(LogoTree child)
-	{
-		children.add(child);
-	}
-	
-	protected void setValue(LogoType value)
-	{
-		this.value = value;
-	}
-	
-	protected LogoType getValue()
-	{
-		return value;
-	}
-	
-	protected boolean isLeaf()
-	{
-		return isLeaf;
-	}
-	
-	LogoType evaluate()
-	{
-		Vector<LogoType> args = new Vector<LogoType>();
-		for (int i = 0; i < children.size(); i++)
-		{
-			LogoTree child = children.get(i);
-			if (child.isLeaf())
-				args.add(child.getValue());
-			else
-				args.add(child.evaluate());
-		}
-		return null;
-	}
+	/**
+	 * @return the value of the node, or null if the node does not output anything
+	 */
+	public abstract Object accept(LogoTreeVisitor visitor) throws LogoError;
 }
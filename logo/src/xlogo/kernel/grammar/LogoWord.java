@@ -39,15 +39,21 @@ package xlogo.kernel.grammar;
 public class LogoWord extends LogoType
 {
 	private String	value;
+	/**
+	 * The value with a quote, computed once
+	 */
+	private String	quotedValue;
 	
-	LogoWord(String value)
+	public LogoWord(String value)
 	{
 		this.value = value;
 	}
 	
 	public String getQuotedValue()
 	{
-		return "\"" + value;
+		if (null == quotedValue)
+			quotedValue = "\"" + value;
+		return quotedValue;
 	}
 	
 	public String toString()
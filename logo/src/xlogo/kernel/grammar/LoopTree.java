@@ -0,0 +1,60 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import xlogo.kernel.LogoError;
+
+/**
+ * A loop primitive with its arguments, e.g. <code>repeat 4 [fd 100 rt 90]</code>.
+ * The lists are kept as values and their code is parsed when the loop is evaluated,
+ * because a list argument may also be computed, e.g. <code>repeat 4 :square</code>
+ */
+public class LoopTree extends CallTree
+{
+	public enum Kind
+	{
+		REPEAT, WHILE, FOR, FOREACH, FOREVER, DO_WHILE, DO_UNTIL, FILL_POLYGON
+	}
+	
+	private final Kind	kind;
+	
+	public LoopTree(int line, int endLine, int primitive, String name, LogoTree[] arguments, Kind kind)
+	{
+		super(line, endLine, primitive, name, arguments);
+		this.kind = kind;
+	}
+	
+	public Kind getKind()
+	{
+		return kind;
+	}
+	
+	@Override
+	public Object accept(LogoTreeVisitor visitor) throws LogoError
+	{
+		return visitor.visitLoop(this);
+	}
+}
@@ -0,0 +1,74 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.grammar;
+
+import xlogo.kernel.CodeBlock;
+import xlogo.kernel.userspace.procedures.Procedure;
+
+/**
+ * The body of a procedure, between <code>to</code> and <code>end</code>,
+ * together with the expressions of its optional arguments.
+ */
+public class ProcedureTree extends BodyTree
+{
+	private final Procedure				procedure;
+	private final LogoParser.Resolver	resolver;
+	private final LogoTree[]			defaults;
+	
+	public ProcedureTree(Procedure procedure, LogoParser.Resolver resolver)
+	{
+		this(procedure, procedure.getCode(), resolver);
+	}
+	
+	/**
+	 * @param code the body of the procedure, e.g. with its constant expressions folded, see {@link Procedure#getFoldedCode(xlogo.kernel.MyCalculator)}
+	 */
+	public ProcedureTree(Procedure procedure, CodeBlock code, LogoParser.Resolver resolver)
+	{
+		super(new LogoParser(code, resolver));
+		this.procedure = procedure;
+		this.resolver = resolver;
+		this.defaults = new LogoTree[procedure.optVariables.size()];
+	}
+	
+	public Procedure getProcedure()
+	{
+		return procedure;
+	}
+	
+	/**
+	 * @return the expression that computes the default value of the optional argument number i
+	 */
+	public LogoTree getDefault(int i)
+	{
+		if (defaults[i] == null)
+		{
+			LogoParser parser = new LogoParser(CodeBlock.compile(procedure.optVariablesExp.get(i)), resolver);
+			defaults[i] = parser.parseStatement();
+		}
+		return defaults[i];
+	}
+}
@@ -30,7 +30,6 @@ package xlogo.kernel.gui;
 
 import javax.swing.JButton;
 
-import xlogo.kernel.Interprete;
 
 import java.awt.Font;
 import java.awt.event.*;
@@ -62,7 +61,7 @@ public class GuiButton extends GuiComponent
 	{
 		if (!app.commande_isEditable())
 		{
-			Interprete.actionInstruction.append(action);
+			app.getKernel().getExecutionContext().actionInstruction.append(action);
 		}
 		else
 		{
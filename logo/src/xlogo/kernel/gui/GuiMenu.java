@@ -35,7 +35,6 @@ import xlogo.utils.Utils;
 
 import java.util.StringTokenizer;
 
-import xlogo.kernel.Interprete;
 
 import java.awt.event.*;
 
@@ -76,7 +75,7 @@ public class GuiMenu extends GuiComponent
 		int select = ((JComboBox) guiObject).getSelectedIndex();
 		if (!app.commande_isEditable())
 		{
-			Interprete.actionInstruction.append(action[select]);
+			app.getKernel().getExecutionContext().actionInstruction.append(action[select]);
 		}
 		else
 		{
@@ -0,0 +1,113 @@
+/* XLogo4Schools - A Logo Interpreter specialized for use in schools, based on XLogo by Loic Le Coq
+ * Copyright (C) 2013 Marko Zivkovic
+ *
+ * Contact Information: marko88zivkovic at gmail dot com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.  This program is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.  You should have received a copy of the
+ * GNU General Public License along with this program; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ *
+ *
+ * This Java source code belongs to XLogo4Schools, written by Marko Zivkovic
+ * during his Bachelor thesis at the computer science department of ETH Zurich,
+ * in the year 2013 and/or during future work.
+ *
+ * It is a reengineered version of XLogo written by Loic Le Coq, published
+ * under the GPL License at http://xlogo.tuxfamily.org/
+ */
+
+package xlogo.kernel.userspace;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * The arrays and dictionaries of the Logo programs.
+ * <p>
+ * Values are passed around as text in the interpreter. An array or a dictionary is therefore passed by a word, its handle, e.g. {array.3}.
+ * The handle is the key of the container in this table, so reading or writing an element takes O(1), no matter how large the container is.
+ * Unlike the {@link PropertyListTable}, the containers have no names, and they can be changed in place.
+ * <p>
+ * A container lives until the primitive free deletes it, until it is deleted together with the global variables and the property lists,
+ * or until a {@link xlogo.HeadlessApplication} is cleared for the next program.
+ */
+public class ContainerTable
+{
+	/**
+	 * The value of the elements of a new array, the empty list
+	 */
+	public static final String								EMPTY_ELEMENT	= "[ ] ";
+	
+	private final HashMap<String, String[]>					arrays			= new HashMap<String, String[]>();
+	private final HashMap<String, LinkedHashMap<String, String>>	dictionaries	= new HashMap<String, LinkedHashMap<String, String>>();
+	
+	/**
+	 * The number of the next handle
+	 */
+	private int												next			= 1;
+	
+	/**
+	 * @param size the number of elements, they are all {@link #EMPTY_ELEMENT}
+	 * @return the handle of the new array
+	 */
+	public String newArray(int size)
+	{
+		String handle = "{array." + (next++) + "}";
+		String[] elements = new String[size];
+		for (int i = 0; i < size; i++)
+			elements[i] = EMPTY_ELEMENT;
+		arrays.put(handle, elements);
+		return handle;
+	}
+	
+	/**
+	 * @return the handle of the new, empty dictionary
+	 */
+	public String newDictionary()
+	{
+		String handle = "{dictionary." + (next++) + "}";
+		dictionaries.put(handle, new LinkedHashMap<String, String>());
+		return handle;
+	}
+	
+	/**
+	 * @return the elements of the array, or null if there is no such array
+	 */
+	public String[] getArray(String handle)
+	{
+		return arrays.get(handle);
+	}
+	
+	/**
+	 * @return the entries of the dictionary in the order they were added, or null if there is no such dictionary
+	 */
+	public LinkedHashMap<String, String> getDictionary(String handle)
+	{
+		return dictionaries.get(handle);
+	}
+	
+	/**
+	 * Delete one array or dictionary, so that its elements can be garbage collected
+	 * @return false if there is no such container
+	 */
+	public boolean deleteContainer(String handle)
+	{
+		return null != arrays.remove(handle) || null != dictionaries.remove(handle);
+	}
+	
+	/**
+	 * Delete all arrays and dictionaries
+	 */
+	public void deleteAllContainers()
+	{
+		arrays.clear();
+		dictionaries.clear();
+	}
+}
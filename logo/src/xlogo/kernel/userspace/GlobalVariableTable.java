@@ -33,13 +33,13 @@ import java.util.Set;
 public class GlobalVariableTable
 {
 	/**
-	 * All defined variables with their current value.
+	 * All defined variables with their current value, a text or a {@link xlogo.kernel.grammar.LogoList}.
 	 */
-	protected HashMap<String, String>	globale;
+	protected HashMap<String, Object>	globale;
 	
 	public GlobalVariableTable()
 	{
-		globale = new HashMap<String, String>();
+		globale = new HashMap<String, Object>();
 	}
 	
 	public Set<String> getVariables()
@@ -47,12 +47,12 @@ public class GlobalVariableTable
 		return globale.keySet();
 	}
 	
-	public String getValue(String var)
+	public Object getValue(String var)
 	{
 		return globale.get(var.toLowerCase());
 	}
 	
-	public void define(String var, String value)
+	public void define(String var, Object value)
 	{
 		globale.put(var.toLowerCase(), value);
 	}
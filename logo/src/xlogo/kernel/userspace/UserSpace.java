@@ -495,6 +495,7 @@ public class UserSpace implements X4SModeSwitcher, LogoFileContainer, Broadcaste
 			LogoContext context = contextManager.getContext();
 			context.getGlobals().deleteAllVariables();
 			context.getPropertyLists().deleteAllPropertyLists();
+			context.getContainers().deleteAllContainers();
 			context.getGuiMap().clear();
 		}
 		catch (Exception e)	{ showErrorDialog(e); }
@@ -607,6 +608,16 @@ public class UserSpace implements X4SModeSwitcher, LogoFileContainer, Broadcaste
 		return new PropertyListTable();
 	}
 	
+	public ContainerTable getContainers()
+	{
+		try
+		{
+			return contextManager.getContext().getContainers();
+		}
+		catch (Exception e)	{ showErrorDialog(e); }
+		return new ContainerTable();
+	}
+	
 	public GlobalVariableTable getGlobals()
 	{
 		try
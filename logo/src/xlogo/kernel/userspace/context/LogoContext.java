@@ -37,6 +37,7 @@ import xlogo.Logo;
 import xlogo.interfaces.ProcedureMapper.ProcedureMapListener;
 import xlogo.kernel.gui.GuiMap;
 import xlogo.kernel.userspace.GlobalVariableTable;
+import xlogo.kernel.userspace.ContainerTable;
 import xlogo.kernel.userspace.PropertyListTable;
 import xlogo.kernel.userspace.files.LogoFile;
 import xlogo.kernel.userspace.procedures.Procedure;
@@ -61,6 +62,8 @@ public class LogoContext
 	
 	private final PropertyListTable								propertyLists		= new PropertyListTable();
 	
+	private final ContainerTable								containers			= new ContainerTable();
+	
 	private final Map<String, LogoFile>							files				= new HashMap<String, LogoFile>();
 	
 	private final HashMap<String, HashMap<String, Procedure>>	procedureTable		= new HashMap<String, HashMap<String, Procedure>>();
@@ -115,6 +118,15 @@ public class LogoContext
 		return propertyLists;
 	}
 	
+	/**
+	 * Logo arrays and dictionaries
+	 * @return
+	 */
+	public ContainerTable getContainers()
+	{
+		return containers;
+	}
+	
 	/**
 	 * For all Gui Objects (Buttons, ComboBoxes...)
 	 */
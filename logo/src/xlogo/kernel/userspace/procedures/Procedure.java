@@ -41,6 +41,9 @@ import java.util.ArrayList;
 import java.util.StringTokenizer;
 import java.io.*;
 
+import xlogo.kernel.CodeBlock;
+import xlogo.kernel.ConstantFolder;
+import xlogo.kernel.MyCalculator;
 import xlogo.kernel.Primitive;
 import xlogo.utils.Utils;
 
@@ -81,7 +84,28 @@ public class Procedure
 	public Stack<String>		optVariables		= new Stack<String>();		// Marko : why Stack??? [so bad]
 	public Stack<StringBuffer>	optVariablesExp		= new Stack<StringBuffer>(); // Marko : why Stack?? [so bad]
 	public String				instruction			= "";
-	public StringBuffer			instr				= null;
+	/**
+	 * The body of the procedure, cut into words when the procedure is defined.
+	 * It ends with {@link Primitive#END_PROCEDURE}.
+	 */
+	private CodeBlock			code				= null;
+	/**
+	 * The body with its constant expressions folded by {@link #foldedWith}, see {@link #getFoldedCode(MyCalculator)}
+	 */
+	private CodeBlock			foldedCode			= null;
+	private MyCalculator		foldedWith			= null;
+	/**
+	 * The slots of the local variables, see {@link #getLocalNames()}
+	 */
+	private String[]			localNames			= null;
+	/**
+	 * See {@link #mayOutput()}
+	 */
+	private Boolean				mayOutput			= null;
+	/**
+	 * See {@link #isMemoized()}
+	 */
+	private boolean				memoized			= false;
 	
 	// Marko : I added these
 	private String 				text				= null;
@@ -119,7 +143,10 @@ public class Procedure
 			parseBody(br);
 			
 			if (state == State.UNINITIALIZED)
+			{
 				setState(State.EXECUTABLE);
+				code = compile();
+			}
 		}
 		catch(IOException ignore) {
 			/* this should not happen, no actual IO */
@@ -139,6 +166,12 @@ public class Procedure
 		this.variable = newDefinition.variable;
 		this.optVariables = newDefinition.optVariables;
 		this.optVariablesExp = newDefinition.optVariablesExp;
+		this.instruction = newDefinition.instruction;
+		this.code = newDefinition.code;
+		this.foldedCode = null;
+		this.foldedWith = null;
+		this.localNames = newDefinition.localNames;
+		this.mayOutput = newDefinition.mayOutput;
 		this.text = newDefinition.text;
 		this.errors = newDefinition.errors;
 		
@@ -264,46 +297,124 @@ public class Procedure
 	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
 
 	/**
-	 * @author Loic Le Coq
+	 * @return the body of this procedure, ready to be inserted into the {@link xlogo.kernel.InstructionBuffer}
 	 */
-	public void decoupe()
+	public CodeBlock getCode()
 	{
-		// Only cut procedures which are visible in the editor
-		if (null == instr)
+		if (code == null)
+			code = compile();
+		return code;
+	}
+	
+	/**
+	 * The body is folded at its first call, because the result of an expression depends on the precision of the calculator.
+	 * After <code>setdigits</code>, there is a new calculator and the body is folded again.
+	 * @return the body of this procedure, with its constant expressions computed by the calculator, see {@link ConstantFolder}
+	 */
+	public CodeBlock getFoldedCode(MyCalculator calculator)
+	{
+		if (foldedWith != calculator)
+		{
+			foldedCode = ConstantFolder.fold(getCode(), calculator);
+			foldedWith = calculator;
+		}
+		return foldedCode;
+	}
+	
+	/**
+	 * The names of the parameters, and of the variables that are made local with a quoted word, e.g. local "a or localmake "a 1.
+	 * They get a slot in the {@link xlogo.kernel.LocalFrame} of every call. All names are interned.
+	 */
+	public String[] getLocalNames()
+	{
+		if (localNames == null)
+		{
+			ArrayList<String> names = new ArrayList<String>();
+			for (String v : variable)
+				names.add(v.intern());
+			for (String v : optVariables)
+				names.add(v.intern());
+			CodeBlock block = getCode();
+			for (int i = 0; i + 1 < block.size(); i++)
+			{
+				int id = Primitive.getPrimitiveId(block.getLowerCaseWord(i));
+				// local, localmake
+				if ((id == 73 || id == 74) && block.getKind(i + 1) == CodeBlock.WORD)
+				{
+					String name = block.getLowerCaseWord(i + 1).substring(1).intern();
+					if (!names.contains(name))
+						names.add(name);
+				}
+			}
+			localNames = names.toArray(new String[names.size()]);
+		}
+		return localNames;
+	}
+	
+	/**
+	 * @return true if the body contains the primitive output.
+	 * A call in tail position is only replaced by a jump if the called procedure does not output anything, see {@link xlogo.kernel.LaunchPrimitive}.
+	 */
+	public boolean mayOutput()
+	{
+		if (mayOutput == null)
 		{
-			instr = new StringBuffer();
-			try
+			mayOutput = false;
+			CodeBlock block = getCode();
+			for (int i = 0; i < block.size(); i++)
 			{
-				String line = "";
-				StringReader sr = new StringReader(instruction);
-				BufferedReader bfr = new BufferedReader(sr);
-				int lineNumber = 0;
-				// Append the number of the line
-				instr.append("\\l");
-				instr.append(lineNumber);
-				instr.append(" ");
-				while (bfr.ready() && (line = bfr.readLine()) != null)
+				// output
+				if (Primitive.getPrimitiveId(block.getLowerCaseWord(i)) == 29)
 				{
-					lineNumber++;
-					line = line.trim();
-					// delete comments
-					line = deleteComments(line);
-					line = Utils.decoupe(line).toString().trim();
-					instr.append(line);
-					if (!line.equals(""))
-					{
-						instr.append(" ");
-						// Append the number of the line
-						instr.append("\\l");
-						instr.append(lineNumber);
-						instr.append(" ");
-					}
+					mayOutput = true;
+					break;
 				}
 			}
-			catch (IOException e)
-			{}
-			// System.out.println("****************************"+name+"\n"+instr+"\n\n");
 		}
+		return mayOutput;
+	}
+	
+	/**
+	 * @return true if the results of this procedure are kept by the {@link xlogo.kernel.MemoTable}, see the primitive memo.
+	 * The declaration is kept when the procedure is redefined.
+	 */
+	public boolean isMemoized()
+	{
+		return memoized;
+	}
+	
+	public void setMemoized(boolean memoized)
+	{
+		this.memoized = memoized;
+	}
+	
+	/**
+	 * Cut the body line by line. In XLogo, this was done at the first call of the procedure,
+	 * and a line number marker \l was inserted after every line. The line numbers are now kept by the {@link CodeBlock}.
+	 * @author Loic Le Coq, Marko Zivkovic
+	 */
+	private CodeBlock compile()
+	{
+		CodeBlock.Builder builder = new CodeBlock.Builder(true);
+		int lineNumber = 0;
+		try
+		{
+			String line = "";
+			StringReader sr = new StringReader(instruction);
+			BufferedReader bfr = new BufferedReader(sr);
+			while (bfr.ready() && (line = bfr.readLine()) != null)
+			{
+				lineNumber++;
+				line = line.trim();
+				// delete comments
+				line = deleteComments(line);
+				builder.append(Utils.decoupe(line, true), lineNumber);
+			}
+		}
+		catch (IOException e)
+		{}
+		builder.append(Primitive.END_PROCEDURE, lineNumber);
+		return builder.build();
 	}
 
 	/**
@@ -29,7 +29,7 @@ package xlogo.messages.async.history;
 
 import xlogo.messages.async.AsyncMessage;
 
-class HistoryMessage extends AsyncMessage<HistoryWriter>
+public class HistoryMessage extends AsyncMessage<HistoryWriter>
 {
 
 	public HistoryMessage(HistoryMessageType messageType, String message)
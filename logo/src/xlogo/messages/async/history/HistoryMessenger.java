@@ -44,6 +44,12 @@ public class HistoryMessenger extends AbstractAsyncMessenger<AsyncMessage<Histor
 	 */
 	private static HistoryMessenger instance = new HistoryMessenger();
 	
+	/**
+	 * A writer that replaces the medium for the messages of one thread and the threads it starts.
+	 * This allows several programs to run side by side, each with its own history.
+	 */
+	private final InheritableThreadLocal<HistoryWriter> threadWriter = new InheritableThreadLocal<HistoryWriter>();
+	
 	private HistoryMessenger() {}
 	
 	public static HistoryMessenger getInstance()
@@ -51,13 +57,35 @@ public class HistoryMessenger extends AbstractAsyncMessenger<AsyncMessage<Histor
 		return instance;
 	}
 	
+	/**
+	 * Messages of the current thread, and of the threads that it starts afterwards, are written directly to writer,
+	 * instead of being delivered to the medium.
+	 * @param writer - null to deliver the messages of the current thread to the medium again
+	 */
+	public void setThreadWriter(HistoryWriter writer)
+	{
+		if (writer == null)
+			threadWriter.remove();
+		else
+			threadWriter.set(writer);
+	}
+	
+	private void dispatch(HistoryMessageType type, String message)
+	{
+		HistoryWriter writer = threadWriter.get();
+		if (writer != null)
+			writer.writeMessage(type.toString(), message);
+		else
+			deliverMessage(new HistoryMessage(type, message));
+	}
+	
 	/**
 	 * Normal Logo style : syntax highlighter
 	 */
 	@Override
 	public void dispatchMessage(String message)
 	{
-		deliverMessage(new HistoryMessage(HistoryMessageType.NORMAL, message));
+		dispatch(HistoryMessageType.NORMAL, message);
 	}
 	
 	/**
@@ -66,7 +94,7 @@ public class HistoryMessenger extends AbstractAsyncMessenger<AsyncMessage<Histor
 	 */
 	public void dispatchError(String message)
 	{
-		deliverMessage(new HistoryMessage(HistoryMessageType.ERROR, message));
+		dispatch(HistoryMessageType.ERROR, message);
 	}
 	
 	/**
@@ -75,11 +103,11 @@ public class HistoryMessenger extends AbstractAsyncMessenger<AsyncMessage<Histor
 	 */
 	public void dispatchComment(String message)
 	{
-		deliverMessage(new HistoryMessage(HistoryMessageType.COMMENT, message));
+		dispatch(HistoryMessageType.COMMENT, message);
 	}
 	
 	public void dispatchLogoOutput(String message)
 	{
-		deliverMessage(new HistoryMessage(HistoryMessageType.LOGO_OUTPUT, message));
+		dispatch(HistoryMessageType.LOGO_OUTPUT, message);
 	}
 }
\ No newline at end of file
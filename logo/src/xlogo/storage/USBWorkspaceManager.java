@@ -1,6 +1,7 @@
 package xlogo.storage;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +37,7 @@ public class USBWorkspaceManager {
 		
 		driveDetector = new USBDeviceDetectorManager(800);
 		
-		for (USBStorageDevice rmDevice : driveDetector.getRemovableDevices()) {
+		for (USBStorageDevice rmDevice : getRemovableDevices()) {
 			if (rmDevice.canRead() && rmDevice.canWrite()) {
 				addUSBDrive(rmDevice);
 			}
@@ -111,7 +112,7 @@ public class USBWorkspaceManager {
 	public StorableObject<WorkspaceConfig, WorkspaceProperty> createOrLoad(String deviceName) {
 		logger.trace("Initializing USB Drive: " + deviceName);
 		File usbRoot = null;
-		for (USBStorageDevice device : driveDetector.getRemovableDevices()) {
+		for (USBStorageDevice device : getRemovableDevices()) {
 			if (deviceName.equals(device.getSystemDisplayName())) {
 				usbRoot = device.getRootDirectory();
 				break;
@@ -137,7 +138,7 @@ public class USBWorkspaceManager {
 	
 	public boolean isUSBDrive(String workspaceName) {
 		if (driveDetector == null) { return false; }
-		List<USBStorageDevice> devices = driveDetector.getRemovableDevices();
+		List<USBStorageDevice> devices = getRemovableDevices();
 		logger.trace("Is '" + workspaceName + "' on a USB Drive?");
 		for (USBStorageDevice device : devices) {
 			if (workspaceName.contains(device.getSystemDisplayName())) {
@@ -158,7 +159,7 @@ public class USBWorkspaceManager {
 		if(usbWorkspaces.containsKey(workspaceName)){
 			return usbWorkspaces.get(workspaceName).getLocation();
 		}
-		List<USBStorageDevice> devices = driveDetector.getRemovableDevices();
+		List<USBStorageDevice> devices = getRemovableDevices();
 		logger.trace("Is '" + workspaceName + "' on a USB Drive?");
 		for (USBStorageDevice device : devices) {
 			if (workspaceName.contains(device.getSystemDisplayName())) {
@@ -172,6 +173,20 @@ public class USBWorkspaceManager {
 		return null;
 	}
 	
+	/**
+	 * The drive detector runs system commands (e.g. udevadm on Linux) that are missing on some machines, e.g. on servers.
+	 * @return the removable devices, or none if they cannot be detected
+	 */
+	private List<USBStorageDevice> getRemovableDevices() {
+		try {
+			return driveDetector.getRemovableDevices();
+		}
+		catch (RuntimeException e) {
+			logger.warn("Cannot detect removable devices: " + e);
+			return Collections.emptyList();
+		}
+	}
+	
 	public interface WorkspaceContainer {
 		public void add(StorableObject<WorkspaceConfig, WorkspaceProperty> wc);
 		public void remove(StorableObject<WorkspaceConfig, WorkspaceProperty> wc);
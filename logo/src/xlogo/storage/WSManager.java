@@ -148,7 +148,7 @@ public class WSManager {
 	 */
 	public UserConfig getUserConfigInstance() {
 		WorkspaceConfig wc = getWorkspaceConfigInstance();
-		if (wc == null)
+		if (wc == null || wc.getActiveUser() == null)
 			return null;
 		else
 			return wc.getActiveUser().get();
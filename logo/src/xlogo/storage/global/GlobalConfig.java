@@ -417,7 +417,7 @@ public class GlobalConfig implements Serializable, Observable<GlobalConfig.Globa
 	}
 	
 	/**
-	 * The amount of memory that the memory checker allows the application to consume.
+	 * The amount of memory that the {@link xlogo.kernel.ExecutionGovernor} allows the application to consume.
 	 * It's 0.9*{@link #getMaximumMemory()}} in bytes.
 	 */
 	public static long getMemoryThreshold() {
@@ -25,7 +25,6 @@ package xlogo.storage.user;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.GraphicsEnvironment;
-import java.awt.Toolkit;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -143,7 +142,22 @@ public class UserConfig implements Serializable, Observable<UserConfig.UserPrope
 	}
 	
 	public File getContestDir() {
-		return new File(getDirectory().toString() + File.separator + CONTEST_DIR_NAME);
+		return getContestDir(getDirectory());
+	}
+	
+	/**
+	 * @param userDir - a user directory, see {@link xlogo.storage.WSManager#isUserDirectory(File)}
+	 * @return ../WorkspaceDir/UserDir/contest/
+	 */
+	public static File getContestDir(File userDir) {
+		return new File(userDir.toString() + File.separator + CONTEST_DIR_NAME);
+	}
+	
+	/**
+	 * @return the name of the directory in the contest directory, which is not a record file directory.
+	 */
+	public static String getContestSourceDirName() {
+		return SRC_DIR_NAME;
 	}
 	
 	public File getContestFilePath(String fileName) {
@@ -219,6 +233,11 @@ public class UserConfig implements Serializable, Observable<UserConfig.UserPrope
 	 */
 	private DrawQuality			quality				= DrawQuality.HIGH;
 	
+	/**
+	 * The engine that executes Logo code. Null for configurations that were saved before it existed.
+	 */
+	private ExecutionEngine		engine				= ExecutionEngine.INTERPRETER;
+	
 	/** 
 	 * This integer represents the selected looknfeel for the appplication
 	 */
@@ -227,11 +246,11 @@ public class UserConfig implements Serializable, Observable<UserConfig.UserPrope
 	/**
 	 * This integer represents the drawing area width
 	 */
-	private int					imageWidth			= Math.max(1000, Toolkit.getDefaultToolkit().getScreenSize().width);
+	private int					imageWidth			= Math.max(1000, Utils.getScreenSize().width);
 	/**
 	 * This integer represents the drawing area height
 	 */
-	private int					imageHeight			= Math.max(1000, Toolkit.getDefaultToolkit().getScreenSize().height);
+	private int					imageHeight			= Math.max(1000, Utils.getScreenSize().height);
 	/**
 	 * Integer that represents the active turtle's shape
 	 */
@@ -378,6 +397,17 @@ public class UserConfig implements Serializable, Observable<UserConfig.UserPrope
 		publisher.publishEvent(UserProperty.QUALITY);
 	}
 	
+	public ExecutionEngine getEngine() {
+		if (engine == null)
+			engine = ExecutionEngine.INTERPRETER;
+		return engine;
+	}
+	
+	public void setEngine(ExecutionEngine engine) {
+		this.engine = engine;
+		publisher.publishEvent(UserProperty.ENGINE);
+	}
+	
 	public LookAndFeel getLooknfeel() {
 		return looknfeel;
 	}
@@ -700,7 +730,8 @@ public class UserConfig implements Serializable, Observable<UserConfig.UserPrope
 	BORDER_INTERNAL_IMAGE,
 	MAIN_COMMAND,
 	AUTO_LAUNCH,
-	TCP_PORT;
+	TCP_PORT,
+	ENGINE;
 	}
 	
 	private transient PropertyChangePublisher<UserProperty>	publisher = new PropertyChangePublisher<UserProperty>();
@@ -29,7 +29,9 @@
 package xlogo.utils;
 
 import java.awt.Container;
+import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.Component;
 import java.awt.Toolkit;
@@ -60,7 +62,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import xlogo.kernel.MyCalculator;
-import xlogo.kernel.Affichage;
 import xlogo.storage.WSManager;
 import xlogo.storage.workspace.LogoLanguage;
 import xlogo.Logo;
@@ -118,6 +119,18 @@ public class Utils {
 		*/
 	}
 	
+	/**
+	 * Toolkit#getScreenSize() throws a HeadlessException on a machine without display.
+	 * The images of XLogo are designed for 1024x768, so this is the size of the screen when there is none.
+	 * @return the size of the screen
+	 * @author Marko Zivkovic
+	 */
+	public static Dimension getScreenSize() {
+		if (GraphicsEnvironment.isHeadless())
+			return new Dimension(1024, 768);
+		return Toolkit.getDefaultToolkit().getScreenSize();
+	}
+	
 	public static void recursivelySetFonts(Component comp, Font font) {
 		comp.setFont(font);
 		if (comp instanceof Container) {
@@ -178,7 +191,17 @@ public class Utils {
 					ignore = false;
 			}
 		}
-		return MyCalculator.getOutputNumber(new String(buffer));
+		return new String(buffer);
+	}
+	
+	/**
+	 * Escape string as {@link #SortieTexte(String)}. A number is written with the precision of the calculator, see setdigits.
+	 * @param chaine
+	 * @param calculator the calculator of the kernel that outputs the string
+	 * @return
+	 */
+	public static String SortieTexte(String chaine, MyCalculator calculator) {
+		return calculator.getOutputNumber(SortieTexte(chaine));
 	}
 	
 	/**
@@ -189,10 +212,24 @@ public class Utils {
 	 * - The sequence "\ " is modified to "\e"<br>
 	 * - The sequence "\ " is modified to "\e"<br>
 	 * - The sequence "\ " is modified to "\e"<br>
+	 * The escape sequences \v and \e are kept, see {@link #decoupe(String, boolean)}.
 	 * @param st The String instruction to format
 	 * @return The formatted instructions
 	 */
 	public static StringBuffer decoupe(String st) {
+		return decoupe(st, false);
+	}
+	
+	/**
+	 * Same as {@link #decoupe(String)}, but the escape sequences \v and \e are interpreted
+	 * as if a program was running, iff execution_lancee is true.
+	 * This allows to cut procedure bodies already when they are defined.
+	 * The kernel cuts lists only while a program runs, hence it always interprets them.
+	 * @param st The String instruction to format
+	 * @param execution_lancee
+	 * @return The formatted instructions
+	 */
+	public static StringBuffer decoupe(String st, boolean execution_lancee) {
 		StringBuffer buffer = new StringBuffer();
 		// If last character is a white space
 		boolean espace = false;
@@ -203,8 +240,6 @@ public class Utils {
 		
 		int crochet_liste = 0;
 		//		boolean variable=false;
-		// If XLogo is running a program
-		boolean execution_lancee = Affichage.execution_lancee;
 		for (int i = 0; i < st.length(); i++) {
 			char c = st.charAt(i);
 			if (c == ' ') {
@@ -306,8 +341,6 @@ public class Utils {
 						buffer.append("\\e");
 					else if (c == '#')
 						buffer.append("\\#");
-					else if (c == 'l' && execution_lancee)
-						buffer.append("\\l");
 					else {
 						buffer.append(c);
 					}